@@ -38,13 +38,16 @@ public final class ArrayDataDecoder implements DataDecoder {
      *            FEC parameters that configure the returned data decoder object
      * @param symbOver
      *            Repair symbol overhead (must be non-negative)
+     * @param progressive
+     *            If {@code true}, the source block decoders solve the decoding system progressively, as the symbols
+     *            arrive
      * @return a data decoder object that decodes source data into an array of bytes
      * @exception NullPointerException
      *                If {@code fecParams} is {@code null}
      * @exception IllegalArgumentException
      *                If {@code fecParams.dataLength() > Integer.MAX_VALUE || extraSymbols < 0}
      */
-    static ArrayDataDecoder newDecoder(FECParameters fecParams, int symbOver) {
+    static ArrayDataDecoder newDecoder(FECParameters fecParams, int symbOver, boolean progressive) {
 
         // throws NullPointerException if null fecParams
         if (fecParams.dataLength() > Integer.MAX_VALUE) {
@@ -55,19 +58,27 @@ public final class ArrayDataDecoder implements DataDecoder {
         }
 
         final byte[] dataArray = new byte[fecParams.dataLengthAsInt()];
-        return new ArrayDataDecoder(dataArray, fecParams, symbOver);
+        return new ArrayDataDecoder(dataArray, fecParams, symbOver, progressive);
     }
 
 
-    private final byte[] dataArray;
+    private byte[] dataArray; // changed by a reset
     private final FECParameters fecParams;
     private final ImmutableList<SourceBlockDecoder> srcBlockDecoders;
+    private final ArraySourceBlockDecoder.RetryStorage retryStorage;
 
 
-    private ArrayDataDecoder(byte[] dataArray, FECParameters fecParams, final int symbOver) {
+    private ArrayDataDecoder(
+        byte[] dataArray,
+        FECParameters fecParams,
+        final int symbOver,
+        final boolean progressive)
+    {
 
         this.dataArray = dataArray;
         this.fecParams = fecParams;
+        this.retryStorage =
+            new ArraySourceBlockDecoder.RetryStorage(ArraySourceBlockDecoder.MAX_DECODING_RETRY_STORAGE);
         this.srcBlockDecoders = DataUtils.partitionSourceData(
             fecParams,
             SourceBlockDecoder.class, new SourceBlockSupplier<SourceBlockDecoder>() {
@@ -78,7 +89,7 @@ public final class ArrayDataDecoder implements DataDecoder {
                     return ArraySourceBlockDecoder.newDecoder(
                         ArrayDataDecoder.this, ArrayDataDecoder.this.dataArray, off,
                         ArrayDataDecoder.this.fecParams,
-                        sbn, symbOver);
+                        sbn, symbOver, progressive, ArrayDataDecoder.this.retryStorage);
                 }
             });
     }
@@ -142,6 +153,52 @@ public final class ArrayDataDecoder implements DataDecoder {
         return srcBlockDecoders;
     }
 
+    /**
+     * Restarts the decoding of all source blocks, so that this decoder can be reused to decode new source data with the
+     * same FEC parameters, instead of creating a new decoder. The source data is decoded into the same array as
+     * before.
+     * <p>
+     * After this method returns, this decoder and all of its source block decoders (which are the same objects as
+     * before) are in the same state as newly created decoders, except that they keep their symbol overhead and repair
+     * admission policy. Any repair symbols held by the source block decoders are discarded (leased buffers are
+     * released). A reset decoder reuses its source symbol descriptors and state, and progressive source block decoders
+     * restart from a copy of the initial state of their decoding system.
+     * <p>
+     * <b>Note</b>: this method must not be called concurrently with any other use of this decoder or of its source
+     * block decoders. Until the new source data is decoded, the array of this decoder may contain parts of the
+     * previous source data.
+     * 
+     * @see #reset(byte[])
+     */
+    public void reset() {
+
+        reset(dataArray);
+    }
+
+    /**
+     * Restarts the decoding of all source blocks, as in method {@link #reset()}, except that the new source data is
+     * decoded into the provided array (which is then returned by method {@link #dataArray()}). This allows the array
+     * with the previous source data to be kept by the application.
+     * 
+     * @param dataArray
+     *            The array where the new source data is decoded into
+     * @exception NullPointerException
+     *                If {@code dataArray} is {@code null}
+     * @exception IllegalArgumentException
+     *                If {@code dataArray.length != dataLength()}
+     */
+    public void reset(byte[] dataArray) {
+
+        if (dataArray.length != fecParams.dataLength()) {
+            throw new IllegalArgumentException("data array length must be equal to the data length");
+        }
+
+        this.dataArray = dataArray;
+        for (SourceBlockDecoder sbDec : srcBlockDecoders) {
+            ((ArraySourceBlockDecoder)sbDec).reset(dataArray);
+        }
+    }
+
     /**
      * Returns an array of bytes containing the source data. Use method {@link #isDataDecoded()} to check if the data is
      * complete.
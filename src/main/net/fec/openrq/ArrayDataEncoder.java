@@ -17,11 +17,15 @@ package net.fec.openrq;
 
 
 import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 
 import net.fec.openrq.DataUtils.SourceBlockSupplier;
 import net.fec.openrq.encoder.DataEncoder;
+import net.fec.openrq.encoder.RepairPacketStream;
 import net.fec.openrq.encoder.SourceBlockEncoder;
 import net.fec.openrq.parameters.FECParameters;
+import net.fec.openrq.parameters.ParameterChecker;
 import net.fec.openrq.util.checking.Indexables;
 import net.fec.openrq.util.collection.ImmutableList;
 
@@ -38,18 +42,21 @@ public final class ArrayDataEncoder implements DataEncoder {
      *            An array of bytes containing the source data to be encoded
      * @param offset
      *            The index in the array where the source data begins
+     * @param options
+     *            Options that configure the returned data encoder object
      * @return a data encoder object backed by an array of bytes
      * @exception NullPointerException
-     *                If {@code data} or {@code fecParams} are {@code null}
+     *                If {@code data}, {@code fecParams} or {@code options} are {@code null}
      * @exception IllegalArgumentException
      *                If {@code fecParams.dataLength() > Integer.MAX_VALUE}
      * @exception IndexOutOfBoundsException
      *                If {@code offset < 0 || fecParams.dataLength() > (data.length - offset)}
      */
     static ArrayDataEncoder newEncoder(byte[] data, int offset,
-        FECParameters fecParams) {
+        FECParameters fecParams, EncoderOptions options) {
 
         Objects.requireNonNull(data);
+        Objects.requireNonNull(options);
         // throws NullPointerException if null fecParams
         if (fecParams.dataLength() > Integer.MAX_VALUE) {
             throw new IllegalArgumentException(
@@ -58,23 +65,25 @@ public final class ArrayDataEncoder implements DataEncoder {
         Indexables.checkOffsetLengthBounds(offset, fecParams.dataLengthAsInt(),
             data.length);
 
-        return new ArrayDataEncoder(data, offset, fecParams);
+        return new ArrayDataEncoder(data, offset, fecParams, options);
     }
 
 
-    private final byte[] array; // to return to the user
-    private final int offset; // to return to the user
+    private byte[] array; // to return to the user (changed by a reset)
+    private int offset; // to return to the user (changed by a reset)
 
     private final FECParameters fecParams;
+    private final EncoderOptions options;
     private final ImmutableList<SourceBlockEncoder> srcBlockEncoders;
 
 
-    private ArrayDataEncoder(byte[] array, int offset, FECParameters fecParams) {
+    private ArrayDataEncoder(byte[] array, int offset, FECParameters fecParams, EncoderOptions options) {
 
         this.array = array;
         this.offset = offset;
 
         this.fecParams = fecParams;
+        this.options = options;
 
         this.srcBlockEncoders = DataUtils.partitionSourceData(
             fecParams, offset,
@@ -139,6 +148,114 @@ public final class ArrayDataEncoder implements DataEncoder {
         return srcBlockEncoders;
     }
 
+    @Override
+    public Future<?> precomputeSourceBlocks(Executor executor) {
+
+        return precomputeSourceBlocks(0, numberOfSourceBlocks(), executor);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @exception IllegalArgumentException
+     *                If the provided range of source block numbers is invalid
+     * @see #numberOfSourceBlocks()
+     */
+    @Override
+    public Future<?> precomputeSourceBlocks(int fromSBN, int toSBN, Executor executor) {
+
+        if (fromSBN < 0 || fromSBN > toSBN || toSBN > numberOfSourceBlocks()) {
+            throw new IllegalArgumentException("invalid range of source block numbers");
+        }
+        Objects.requireNonNull(executor);
+
+        return BlocksPrecomputation.submit(this, fromSBN, toSBN, executor);
+    }
+
+    @Override
+    public RepairPacketStream repairPacketStream(int capacity, int parallelism, Executor executor) {
+
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+        Objects.requireNonNull(executor);
+
+        // the stream ends when the source block with most source symbols runs out of repair symbols
+        int maxK = 0;
+        for (SourceBlockEncoder sbEnc : srcBlockEncoders) {
+            maxK = Math.max(maxK, sbEnc.numberOfSourceSymbols());
+        }
+        final int Z = numberOfSourceBlocks();
+        final long numPackets = (long)Z * (ParameterChecker.maxEncodingSymbolID() - maxK + 1);
+
+        return PrefetchedRepairPackets.start(new PrefetchedRepairPackets.Generator() {
+
+            @Override
+            public EncodingPacket packet(long seq) {
+
+                final SourceBlockEncoder sbEnc = srcBlockEncoders.get((int)(seq % Z));
+                return sbEnc.repairPacket(sbEnc.numberOfSourceSymbols() + (int)(seq / Z));
+            }
+        }, numPackets, capacity, parallelism, executor);
+    }
+
+    @Override
+    public void releaseIntermediateSymbols() {
+
+        for (SourceBlockEncoder sbEnc : srcBlockEncoders) {
+            sbEnc.releaseIntermediateSymbols();
+        }
+    }
+
+    /**
+     * Retargets this encoder at new source data, with the same FEC parameters, so that it can be reused instead of
+     * creating a new encoder.
+     * <p>
+     * After this method returns, this encoder and all of its source block encoders (which are the same objects as
+     * before) encode the new source data, as if they were newly created for it. A reset encoder reuses its source
+     * symbol descriptors and the storage of the intermediate symbols of each source block (these are computed again
+     * for the new data when first needed). Repair symbols of the previous data that may still be in a
+     * {@linkplain EncoderOptions#repairSymbolCache() cache} are never returned for the new data.
+     * <p>
+     * <b>Note</b>: this method must not be called concurrently with any other use of this encoder or of its source
+     * block encoders. Encoding packets obtained before this method is called remain valid, since they refer to the
+     * previous source data.
+     * 
+     * @param data
+     *            An array of bytes containing the new source data to be encoded
+     * @param offset
+     *            The index in the array where the new source data begins
+     * @exception NullPointerException
+     *                If {@code data} is {@code null}
+     * @exception IndexOutOfBoundsException
+     *                If {@code offset < 0 || dataLength() > (data.length - offset)}
+     */
+    public void reset(byte[] data, int offset) {
+
+        Objects.requireNonNull(data);
+        Indexables.checkOffsetLengthBounds(offset, fecParams.dataLengthAsInt(), data.length);
+
+        final int offsetShift = offset - this.offset;
+        this.array = data;
+        this.offset = offset;
+        for (SourceBlockEncoder sbEnc : srcBlockEncoders) {
+            ((ArraySourceBlockEncoder)sbEnc).reset(data, offsetShift);
+        }
+    }
+
+    /**
+     * Returns the options that configure this encoder.
+     * 
+     * @return the options that configure this encoder
+     */
+    public EncoderOptions options() {
+
+        return options;
+    }
+
     /**
      * Returns an array of bytes containing the source data.
      * 
@@ -17,6 +17,7 @@ package net.fec.openrq;
 
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Collections;
 import java.util.Iterator;
@@ -29,6 +30,8 @@ import java.util.Set;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
+import net.fec.openrq.decoder.BufferReleaser;
+import net.fec.openrq.decoder.RepairAdmissionPolicy;
 import net.fec.openrq.decoder.SourceBlockDecoder;
 import net.fec.openrq.decoder.SourceBlockState;
 import net.fec.openrq.parameters.FECParameters;
@@ -44,6 +47,12 @@ import net.fec.openrq.util.rq.SystematicIndices;
  */
 final class ArraySourceBlockDecoder implements SourceBlockDecoder {
 
+    // maximum storage for the incremental solver (larger blocks are always decoded from scratch)
+    private static final long MAX_INCREMENTAL_SOLVER_STORAGE = 64L * 1024 * 1024;
+
+    // maximum storage for the incremental solvers of decoding retries, shared by all source blocks of a data decoder
+    static final long MAX_DECODING_RETRY_STORAGE = 64L * 1024 * 1024;
+
     // requires valid arguments
     static ArraySourceBlockDecoder newDecoder(
         ArrayDataDecoder dataDecoder,
@@ -51,7 +60,9 @@ final class ArraySourceBlockDecoder implements SourceBlockDecoder {
         int arrayOff,
         FECParameters fecParams,
         int sbn,
-        int symbOver)
+        int symbOver,
+        boolean progressive,
+        RetryStorage retryStorage)
     {
 
         ImmutableList<SourceSymbol> sourceSymbols = DataUtils.partitionSourceBlock(
@@ -67,7 +78,7 @@ final class ArraySourceBlockDecoder implements SourceBlockDecoder {
                 }
             });
 
-        return new ArraySourceBlockDecoder(dataDecoder, sbn, sourceSymbols, symbOver);
+        return new ArraySourceBlockDecoder(dataDecoder, sbn, sourceSymbols, symbOver, progressive, retryStorage);
     }
 
 
@@ -77,19 +88,44 @@ final class ArraySourceBlockDecoder implements SourceBlockDecoder {
 
     private final SymbolsState symbolsState;
 
+    // the initial state of the incremental solver of a progressive decoder (null if there is no incremental solver),
+    // copied by each reset instead of adding the constraint equations again; never modified
+    private final IncrementalSolver initialSolver;
+
 
     private ArraySourceBlockDecoder(
         ArrayDataDecoder dataDecoder,
         int sbn,
         ImmutableList<SourceSymbol> sourceSymbols,
-        int symbOver)
+        int symbOver,
+        boolean progressive,
+        RetryStorage retryStorage)
     {
 
         this.dataDecoder = Objects.requireNonNull(dataDecoder);
 
         this.sbn = sbn;
 
-        this.symbolsState = new SymbolsState(sourceSymbols, symbOver);
+        this.symbolsState = new SymbolsState(sourceSymbols, symbOver, retryStorage);
+
+        if (progressive) {
+            /*
+             * every symbol is added to the incremental solver on arrival, so that the decoding work is spread over
+             * the arrival of the symbols, and no work remains to be done when enough symbols are received
+             */
+            final int Kprime = SystematicIndices.ceil(K());
+            final int T = fecParameters().symbolSize();
+            if (IncrementalSolver.requiredStorage(Kprime, T) <= MAX_INCREMENTAL_SOLVER_STORAGE) {
+                this.initialSolver = IncrementalSolver.newSolver(Kprime, K(), T);
+                symbolsState.setIncrementalSolver(initialSolver.copy());
+            }
+            else {
+                this.initialSolver = null;
+            }
+        }
+        else {
+            this.initialSolver = null;
+        }
     }
 
     private FECParameters fecParameters() {
@@ -194,6 +230,60 @@ final class ArraySourceBlockDecoder implements SourceBlockDecoder {
         }
     }
 
+    @Override
+    public ESISet missingSourceESIs() {
+
+        symbolsState.lock();
+        try {
+            return getMissingSourceESIs();
+        }
+        finally {
+            symbolsState.unlock();
+        }
+    }
+
+    @Override
+    public ESISet availableRepairESIs() {
+
+        symbolsState.lock();
+        try {
+            return getAvailableRepairESIs();
+        }
+        finally {
+            symbolsState.unlock();
+        }
+    }
+
+    @Override
+    public void forEachMissingSourceSymbol(ESIConsumer consumer) {
+
+        Objects.requireNonNull(consumer);
+        symbolsState.lock();
+        try {
+            if (!symbolsState.isSourceBlockDecoded()) {
+                symbolsState.forEachMissingSourceSymbol(consumer);
+            }
+        }
+        finally {
+            symbolsState.unlock();
+        }
+    }
+
+    @Override
+    public void forEachAvailableRepairSymbol(ESIConsumer consumer) {
+
+        Objects.requireNonNull(consumer);
+        symbolsState.lock();
+        try {
+            if (!symbolsState.isSourceBlockDecoded()) {
+                symbolsState.forEachRepairSymbol(consumer);
+            }
+        }
+        finally {
+            symbolsState.unlock();
+        }
+    }
+
     @Override
     public SBDInfo information() {
 
@@ -202,8 +292,8 @@ final class ArraySourceBlockDecoder implements SourceBlockDecoder {
             return SBDInfo.newInformation(
                 sbn,
                 symbolsState.sourceBlockState(),
-                getMissingSourceSymbols(),
-                getAvailableRepairSymbols());
+                getMissingSourceESIs(),
+                getAvailableRepairESIs());
         }
         finally {
             symbolsState.unlock();
@@ -218,6 +308,7 @@ final class ArraySourceBlockDecoder implements SourceBlockDecoder {
             throw new IllegalArgumentException("the provided packet is not compatible with this source block");
         }
 
+        final SourceBlockState state;
         symbolsState.lock();
         try {
             if (!symbolsState.isSourceBlockDecoded()) { // do nothing if already decoded
@@ -245,20 +336,52 @@ final class ArraySourceBlockDecoder implements SourceBlockDecoder {
 
                 // 1. don't bother if no new symbols were added
                 // 2. the addition of a source symbol may have decoded the source block
-                // 3. enough (source/repair) symbols may have been received for a decode to start
-                if (putNewSymbol &&
-                    !symbolsState.isSourceBlockDecoded() &&
-                    symbolsState.haveEnoughSymbolsToDecode())
-                {
-                    decode();
+                if (putNewSymbol && !symbolsState.isSourceBlockDecoded()) {
+                    decodeIfPossible();
                 }
             }
 
-            return symbolsState.sourceBlockState();
+            state = symbolsState.sourceBlockState();
         }
         finally {
             symbolsState.unlock();
         }
+
+        return buildDecodingRetrySolver(state);
+    }
+
+    @Override
+    public SourceBlockState leaseRepairSymbol(int esi, ByteBuffer symbolBuf, BufferReleaser releaser) {
+
+        checkRepairSymbolESI(esi);
+        if (symbolBuf.remaining() != fecParameters().symbolSize()) {
+            throw new IllegalArgumentException("the provided buffer does not contain exactly one symbol");
+        }
+        Objects.requireNonNull(releaser);
+
+        final RepairSymbol repairSymbol = RepairSymbol.leaseData(symbolBuf, releaser);
+        final SourceBlockState state;
+        symbolsState.lock();
+        try {
+            if (symbolsState.isSourceBlockDecoded() ||
+                symbolsState.containsRepairSymbol(esi) ||
+                !symbolsState.admitRepairSymbol())
+            {
+                repairSymbol.release();
+            }
+            else {
+                symbolsState.addRepairSymbol(esi, repairSymbol);
+                foldRepairSymbol(esi, repairSymbol);
+                decodeIfPossible();
+            }
+
+            state = symbolsState.sourceBlockState();
+        }
+        finally {
+            symbolsState.unlock();
+        }
+
+        return buildDecodingRetrySolver(state);
     }
 
     @Override
@@ -287,6 +410,121 @@ final class ArraySourceBlockDecoder implements SourceBlockDecoder {
         }
     }
 
+    @Override
+    public SolverPolicy solverPolicy() {
+
+        symbolsState.lock();
+        try {
+            return symbolsState.solverPolicy();
+        }
+        finally {
+            symbolsState.unlock();
+        }
+    }
+
+    @Override
+    public void setSolverPolicy(SolverPolicy policy) {
+
+        Objects.requireNonNull(policy);
+
+        symbolsState.lock();
+        try {
+            symbolsState.setSolverPolicy(policy);
+        }
+        finally {
+            symbolsState.unlock();
+        }
+    }
+
+    @Override
+    public RepairAdmissionPolicy repairAdmissionPolicy() {
+
+        symbolsState.lock();
+        try {
+            return symbolsState.repairAdmissionPolicy();
+        }
+        finally {
+            symbolsState.unlock();
+        }
+    }
+
+    @Override
+    public int repairAdmissionMargin() {
+
+        symbolsState.lock();
+        try {
+            return symbolsState.repairAdmissionMargin();
+        }
+        finally {
+            symbolsState.unlock();
+        }
+    }
+
+    @Override
+    public void setRepairAdmissionPolicy(RepairAdmissionPolicy policy, int margin) {
+
+        Objects.requireNonNull(policy);
+        if (margin < 0) {
+            throw new IllegalArgumentException("repair capacity margin must be non-negative");
+        }
+
+        symbolsState.lock();
+        try {
+            symbolsState.setRepairAdmissionPolicy(policy, margin);
+        }
+        finally {
+            symbolsState.unlock();
+        }
+    }
+
+    @Override
+    public long numDroppedRepairSymbols() {
+
+        symbolsState.lock();
+        try {
+            return symbolsState.numDroppedRepairSymbols();
+        }
+        finally {
+            symbolsState.unlock();
+        }
+    }
+
+    @Override
+    public long numReplacedRepairSymbols() {
+
+        symbolsState.lock();
+        try {
+            return symbolsState.numReplacedRepairSymbols();
+        }
+        finally {
+            symbolsState.unlock();
+        }
+    }
+
+    /*
+     * Requires that no other method is executed concurrently.
+     */
+    // restarts the decoding of this source block, storing the source data in the provided array
+    void reset(byte[] array) {
+
+        symbolsState.lock();
+        try {
+            for (int esi = 0; esi < K(); esi++) {
+                final ArraySourceSymbol symbol = (ArraySourceSymbol)symbolsState.getSourceSymbol(esi);
+                symbol.retarget(array, symbol.symbolOffset());
+            }
+            symbolsState.reset();
+
+            if (initialSolver != null) {
+                // the incremental solver restarts from a copy of its initial state
+                symbolsState.setIncrementalSolver(initialSolver.copy());
+            }
+        }
+        finally {
+            symbolsState.unlock();
+        }
+    }
+
     private void checkSourceSymbolESI(int esi) {
 
         if (esi < 0 || esi >= K()) {
@@ -336,6 +574,60 @@ final class ArraySourceBlockDecoder implements SourceBlockDecoder {
         }
     }
 
+    /*
+     * ===== Requires locked symbolsState! =====
+     */
+    private ESISet getMissingSourceESIs() {
+
+        if (symbolsState.isSourceBlockDecoded()) {
+            return ESISet.empty();
+        }
+        else {
+            return ESISet.wrap(symbolsState.missingSourceSymbolsArray());
+        }
+    }
+
+    /*
+     * ===== Requires locked symbolsState! =====
+     */
+    private ESISet getAvailableRepairESIs() {
+
+        if (symbolsState.isSourceBlockDecoded()) {
+            return ESISet.empty();
+        }
+        else {
+            return ESISet.wrap(symbolsState.repairSymbolsESIsArray());
+        }
+    }
+
+    /*
+     * ===== Requires locked symbolsState! =====
+     * requires !symbolsState.isSourceBlockDecoded()
+     */
+    private void decodeIfPossible() {
+
+        final IncrementalSolver solver = symbolsState.incrementalSolver();
+        if (solver != null) {
+            // each new symbol was already added to the incremental solver
+            if (solver.isSolved()) {
+                recoverMissingSourceSymbols(solver.intermediateSymbols());
+            }
+            else if (symbolsState.haveEnoughSymbolsToDecode()) {
+                symbolsState.setSourceBlockDecodingFailure();
+            }
+        }
+        else if (symbolsState.haveEnoughSymbolsToDecode()) {
+            if (symbolsState.decodingRetry() != null) {
+                // the incremental solver of a decoding retry is being built, and will be given the new symbols
+                symbolsState.setSourceBlockDecodingFailure();
+            }
+            else {
+                // enough (source/repair) symbols were received for a decode to start
+                decode();
+            }
+        }
+    }
+
     /*
      * ===== Requires locked symbolsState! =====
      */
@@ -346,22 +638,176 @@ final class ArraySourceBlockDecoder implements SourceBlockDecoder {
 
         if (intermediate_symbols == null) {
             symbolsState.setSourceBlockDecodingFailure();
+            // leased symbols decoded in place were overwritten by the failed decoding
+            symbolsState.discardRepairSymbolsDecodedInPlace();
+            prepareDecodingRetry();
         }
         else {
-            /*
-             * with the intermediate symbols calculated, one can recover
-             * every missing source symbol
-             */
+            recoverMissingSourceSymbols(intermediate_symbols);
+        }
+    }
 
-            final int Kprime = SystematicIndices.ceil(K());
+    /*
+     * ===== Requires locked symbolsState! =====
+     */
+    private void recoverMissingSourceSymbols(byte[][] intermediate_symbols) {
 
-            // recover missing source symbols
-            for (int esi : missingSourceSymbols()) {
-                byte[] sourceSymbol = LinearSystem.enc(
-                    Kprime, intermediate_symbols, new Tuple(Kprime, esi), fecParameters().symbolSize());
+        /*
+         * with the intermediate symbols calculated, one can recover
+         * every missing source symbol
+         */
 
-                // write to data buffer
-                putSourceData(esi, ByteBuffer.wrap(sourceSymbol), SourceSymbolDataType.CODE);
+        final int Kprime = SystematicIndices.ceil(K());
+        symbolsState.setIncrementalSolver(null); // not needed anymore
+
+        // recover missing source symbols, all in a single batch
+        final int T = fecParameters().symbolSize();
+        final int[] missing = symbolsState.missingSourceSymbolsArray();
+        final Tuple[] tuples = new Tuple[missing.length];
+        for (int n = 0; n < missing.length; n++) {
+            tuples[n] = new Tuple(Kprime, missing[n]);
+        }
+        final byte[] sourceSymbols = new byte[missing.length * T];
+        LinearSystem.encBatch(Kprime, IntermediateSymbols.wrap(intermediate_symbols), tuples, T,
+            ByteBuffer.wrap(sourceSymbols));
+
+        for (int n = 0; n < missing.length; n++) {
+            // write to data buffer
+            putSourceData(missing[n], ByteBuffer.wrap(sourceSymbols, n * T, T), SourceSymbolDataType.CODE);
+        }
+    }
+
+    /*
+     * ===== Requires locked symbolsState! =====
+     */
+    private void prepareDecodingRetry() {
+
+        final int Kprime = SystematicIndices.ceil(K());
+        final int T = fecParameters().symbolSize();
+
+        /*
+         * the permanent inactivation decoding does not keep a state from which it can continue, so the available
+         * symbols are factored once by an incremental solver; every symbol received from now on is added to the
+         * incremental solver, and the source block is decoded as soon as the solver has full rank
+         */
+
+        // if the storage for the incremental solver is not available, the next decoding attempts will restart from
+        // scratch
+        final DecodingRetry retry = symbolsState.newDecodingRetry(IncrementalSolver.requiredStorage(Kprime, T), T);
+        if (retry == null) {
+            return;
+        }
+
+        // the symbols are only copied here, since the solver is built outside of the lock
+        for (int esi : symbolsState.receivedSourceSymbols()) {
+            final byte[] sourceSymbol = new byte[T];
+            symbolsState.getSourceSymbol(esi).getCodeData(ByteBuffer.wrap(sourceSymbol));
+            retry.add(esi, sourceSymbol);
+        }
+
+        for (Entry<Integer, RepairSymbol> entry : symbolsState.repairSymbols()) {
+            final int repairISI = SystematicIndices.getISI(entry.getKey(), K(), Kprime);
+            retry.add(repairISI, entry.getValue().copyOfData(BufferType.ARRAY_BACKED).array());
+        }
+    }
+
+    /*
+     * ===== Requires unlocked symbolsState! =====
+     */
+    // builds the incremental solver of a prepared decoding retry, if any, and returns the current source block state
+    // (or the provided state if no decoding retry was prepared)
+    private SourceBlockState buildDecodingRetrySolver(SourceBlockState state) {
+
+        final DecodingRetry retry;
+        final int numSymbols;
+        final int[] isis;
+        final byte[][] symbols;
+        symbolsState.lock();
+        try {
+            retry = symbolsState.decodingRetry();
+            if (retry == null || !retry.claim()) { // no decoding retry, or another thread is building the solver
+                return state;
+            }
+            numSymbols = retry.size();
+            isis = retry.isis();
+            symbols = retry.symbols();
+        }
+        finally {
+            symbolsState.unlock();
+        }
+
+        // the expensive part is done without holding the lock, so that other threads can keep adding symbols
+        IncrementalSolver solver = null;
+        try {
+            solver = IncrementalSolver.newSolver(SystematicIndices.ceil(K()), K(), fecParameters().symbolSize());
+            for (int n = 0; n < numSymbols; n++) {
+                solver.addSymbol(isis[n], symbols[n]);
+            }
+        }
+        finally {
+            symbolsState.lock();
+            try {
+                // the decoding retry may have been discarded by the decoding of the source block
+                if (symbolsState.decodingRetry() == retry) {
+                    if (solver == null) { // the solver could not be built
+                        symbolsState.setIncrementalSolver(null);
+                    }
+                    else {
+                        // add the symbols that were received while the solver was being built
+                        retry.addSymbolsTo(solver, numSymbols);
+                        symbolsState.setDecodingRetrySolver(solver);
+                        if (solver.isSolved()) {
+                            recoverMissingSourceSymbols(solver.intermediateSymbols());
+                        }
+                    }
+                }
+                state = symbolsState.sourceBlockState();
+            }
+            finally {
+                symbolsState.unlock();
+            }
+        }
+
+        return state;
+    }
+
+    /*
+     * ===== Requires locked symbolsState! =====
+     */
+    // requires valid ESI
+    private void foldSourceSymbol(int esi) {
+
+        final IncrementalSolver solver = symbolsState.incrementalSolver();
+        final DecodingRetry retry = symbolsState.decodingRetry();
+        if (solver != null || retry != null) {
+            final byte[] sourceSymbol = new byte[fecParameters().symbolSize()];
+            symbolsState.getSourceSymbol(esi).getCodeData(ByteBuffer.wrap(sourceSymbol));
+            if (solver != null) {
+                solver.addSymbol(esi, sourceSymbol);
+            }
+            else {
+                retry.add(esi, sourceSymbol);
+            }
+        }
+    }
+
+    /*
+     * ===== Requires locked symbolsState! =====
+     */
+    // requires valid ESI
+    private void foldRepairSymbol(int esi, RepairSymbol repairSymbol) {
+
+        final IncrementalSolver solver = symbolsState.incrementalSolver();
+        final DecodingRetry retry = symbolsState.decodingRetry();
+        if (solver != null || retry != null) {
+            final int repairISI = SystematicIndices.getISI(esi, K(), SystematicIndices.ceil(K()));
+            // always a copy, since the solver owns the symbol while a leased buffer may be released at any time
+            final byte[] symbol = repairSymbol.copyOfData(BufferType.ARRAY_BACKED).array();
+            if (solver != null) {
+                solver.addSymbol(repairISI, symbol);
+            }
+            else {
+                retry.add(repairISI, symbol);
             }
         }
     }
@@ -388,11 +834,12 @@ final class ArraySourceBlockDecoder implements SourceBlockDecoder {
         // generate the original constraint matrix and allocate memory for overhead rows
         ByteMatrix A = LinearSystem.generateConstraintMatrix(Kprime, overhead);
 
-        // initialize D
-        byte[][] D = new byte[M][T];
+        // initialize D (the rows of repair symbols decoded in place are not allocated)
+        byte[][] D = new byte[M][];
 
         // populate D with the received source symbols
         for (int esi : symbolsState.receivedSourceSymbols()) {
+            D[S + H + esi] = new byte[T];
             symbolsState.getSourceSymbol(esi).getCodeData(ByteBuffer.wrap(D[S + H + esi]));
         }
 
@@ -405,7 +852,7 @@ final class ArraySourceBlockDecoder implements SourceBlockDecoder {
         Iterator<Entry<Integer, RepairSymbol>> repairSymbolsIter = symbolsState.repairSymbols().iterator();
 
         // identify missing source symbols and replace their lines with "repair lines"
-        for (Integer missingSrcESI : missingSourceSymbols()) {
+        for (int missingSrcESI : symbolsState.missingSourceSymbolsArray()) {
 
             Entry<Integer, RepairSymbol> next = repairSymbolsIter.next();
             final int repairESI = next.getKey();
@@ -423,7 +870,7 @@ final class ArraySourceBlockDecoder implements SourceBlockDecoder {
             }
 
             // fill in missing source symbols in D with the repair symbols
-            D[row] = repairSymbol.copyOfData(BufferType.ARRAY_BACKED).array();
+            D[row] = repairSymbol.decodingData();
         }
 
         // insert the values for overhead (repair) symbols
@@ -443,7 +890,14 @@ final class ArraySourceBlockDecoder implements SourceBlockDecoder {
             }
 
             // update D with the data for that symbol
-            D[row] = repairSymbol.copyOfData(BufferType.ARRAY_BACKED).array();
+            D[row] = repairSymbol.decodingData();
+        }
+
+        // the remaining rows of D (those of the constraint equations and of the padding symbols) are null symbols
+        for (int row = 0; row < M; row++) {
+            if (D[row] == null) {
+                D[row] = new byte[T];
+            }
         }
 
         /*
@@ -452,8 +906,7 @@ final class ArraySourceBlockDecoder implements SourceBlockDecoder {
          */
 
         try {
-            return LinearSystem.PInactivationDecoding(A, D, Kprime);
-            // return MatrixUtilities.gaussElimination(constraint_matrix, D);
+            return LinearSolvers.select(symbolsState.solverPolicy(), Kprime, overhead).solve(A, D, Kprime);
         }
         catch (SingularMatrixException e) {
 
@@ -474,6 +927,9 @@ final class ArraySourceBlockDecoder implements SourceBlockDecoder {
         }
         else {
             symbolsState.addSourceSymbol(esi, symbolData, dataType);
+            if (!symbolsState.isSourceBlockDecoded()) {
+                foldSourceSymbol(esi);
+            }
             return true;
         }
     }
@@ -484,14 +940,18 @@ final class ArraySourceBlockDecoder implements SourceBlockDecoder {
     // requires valid ESI
     private boolean putRepairData(int esi, ByteBuffer symbolData) {
 
-        if (symbolsState.containsRepairSymbol(esi)) { // if already received, just advance the buffer position
+        if (symbolsState.containsRepairSymbol(esi) || // if already received, just advance the buffer position
+            !symbolsState.admitRepairSymbol()) // same if the admission policy discards the symbol
+        {
             final int T = fecParameters().symbolSize();
             symbolData.position(symbolData.position() + T);
             return false;
         }
         else {
             // add this repair symbol to the set of received repair symbols
-            symbolsState.addRepairSymbol(esi, symbolData);
+            final RepairSymbol repairSymbol = RepairSymbol.copyData(symbolData);
+            symbolsState.addRepairSymbol(esi, repairSymbol);
+            foldRepairSymbol(esi, repairSymbol);
             return true;
         }
     }
@@ -503,12 +963,114 @@ final class ArraySourceBlockDecoder implements SourceBlockDecoder {
         TRANSPORT
     }
 
+    /**
+     * The storage for the incremental solvers of decoding retries, shared by all source block decoders of a data
+     * decoder.
+     */
+    static final class RetryStorage {
+
+        private final long maxBytes;
+        private long reservedBytes;
+
+
+        RetryStorage(long maxBytes) {
+
+            this.maxBytes = maxBytes;
+            this.reservedBytes = 0L;
+        }
+
+        synchronized boolean reserve(long bytes) {
+
+            if (bytes > maxBytes - reservedBytes) {
+                return false;
+            }
+            reservedBytes += bytes;
+            return true;
+        }
+
+        synchronized void release(long bytes) {
+
+            reservedBytes -= bytes;
+        }
+
+        synchronized long reservedBytes() {
+
+            return reservedBytes;
+        }
+    }
+
+    /*
+     * The symbols of a decoding retry whose incremental solver is being built. Symbols received while the solver is
+     * built are appended, and added to the solver when it is ready.
+     */
+    private static final class DecodingRetry {
+
+        private int[] isis;
+        private byte[][] symbols;
+        private int size;
+        private boolean claimed;
+
+
+        DecodingRetry(int initialCapacity) {
+
+            this.isis = new int[Math.max(16, initialCapacity)];
+            this.symbols = new byte[isis.length][];
+            this.size = 0;
+            this.claimed = false;
+        }
+
+        void add(int isi, byte[] symbol) {
+
+            if (size == isis.length) {
+                isis = Arrays.copyOf(isis, 2 * size);
+                symbols = Arrays.copyOf(symbols, 2 * size);
+            }
+            isis[size] = isi;
+            symbols[size] = symbol;
+            size++;
+        }
+
+        // returns true only for the first caller, which builds the solver
+        boolean claim() {
+
+            if (claimed) {
+                return false;
+            }
+            claimed = true;
+            return true;
+        }
+
+        int size() {
+
+            return size;
+        }
+
+        // the arrays may be replaced by later additions, but their first size() elements never change
+        int[] isis() {
+
+            return isis;
+        }
+
+        byte[][] symbols() {
+
+            return symbols;
+        }
+
+        void addSymbolsTo(IncrementalSolver solver, int from) {
+
+            for (int n = from; n < size; n++) {
+                solver.addSymbol(isis[n], symbols[n]);
+            }
+        }
+    }
+
     private static final class SymbolsState {
 
         private SourceBlockState sbState;
 
         private final ImmutableList<SourceSymbol> sourceSymbols;
         private final Map<Integer, RepairSymbol> repairSymbols;
+        private int[] repairESIs; // same ESIs as in repairSymbols, in receiving order, for allocation-free traversal
 
         private final BitSet sourceSymbolsBitSet;
         private final Iterable<Integer> missingSourceSymbols;
@@ -516,15 +1078,27 @@ final class ArraySourceBlockDecoder implements SourceBlockDecoder {
 
         private int symbolOverhead;
 
+        private SolverPolicy solverPolicy;
+        private RepairAdmissionPolicy admissionPolicy;
+        private int admissionMargin;
+        private long numDroppedRepair;
+        private long numReplacedRepair;
+
+        private IncrementalSolver incrementalSolver; // null if not decoding progressively and no decoding failed yet
+        private DecodingRetry decodingRetry; // non-null while the incremental solver of a decoding retry is built
+        private final RetryStorage retryStorage;
+        private long reservedRetryStorage; // reserved for the current decoding retry
+
         private final Lock symbolsStateLock;
 
 
-        SymbolsState(ImmutableList<SourceSymbol> sourceSymbols, int symbOver) {
+        SymbolsState(ImmutableList<SourceSymbol> sourceSymbols, int symbOver, RetryStorage retryStorage) {
 
             this.sbState = SourceBlockState.INCOMPLETE;
 
             this.sourceSymbols = Objects.requireNonNull(sourceSymbols);
             this.repairSymbols = new LinkedHashMap<>(); // preserved receiving ordering
+            this.repairESIs = new int[0];
 
             final int K = sourceSymbols.size();
 
@@ -534,6 +1108,17 @@ final class ArraySourceBlockDecoder implements SourceBlockDecoder {
 
             setSymbolOverhead(symbOver);
 
+            this.solverPolicy = SolverPolicy.AUTOMATIC;
+            this.admissionPolicy = RepairAdmissionPolicy.ADMIT_ALL;
+            this.admissionMargin = 0;
+            this.numDroppedRepair = 0L;
+            this.numReplacedRepair = 0L;
+
+            this.incrementalSolver = null;
+            this.decodingRetry = null;
+            this.retryStorage = Objects.requireNonNull(retryStorage);
+            this.reservedRetryStorage = 0L;
+
             this.symbolsStateLock = new ReentrantLock(false); // non-fair lock
         }
 
@@ -564,6 +1149,22 @@ final class ArraySourceBlockDecoder implements SourceBlockDecoder {
             sbState = SourceBlockState.DECODING_FAILURE;
         }
 
+        // restores the initial state, except for the configuration (symbol overhead, solver and repair admission
+        // policies)
+        void reset() {
+
+            for (RepairSymbol repairSymbol : repairSymbols.values()) {
+                repairSymbol.release();
+            }
+            repairSymbols.clear();
+            sourceSymbolsBitSet.clear();
+
+            sbState = SourceBlockState.INCOMPLETE;
+            numDroppedRepair = 0L;
+            numReplacedRepair = 0L;
+            setIncrementalSolver(null);
+        }
+
         boolean isSourceBlockDecoded() {
 
             return sbState == SourceBlockState.DECODED;
@@ -589,7 +1190,12 @@ final class ArraySourceBlockDecoder implements SourceBlockDecoder {
 
             if (numMissingSourceSymbols() == 0) {
                 sbState = SourceBlockState.DECODED;
+                for (RepairSymbol repairSymbol : repairSymbols.values()) {
+                    repairSymbol.release();
+                }
                 repairSymbols.clear(); // free memory
+                repairESIs = new int[0];
+                setIncrementalSolver(null);
             }
         }
 
@@ -625,6 +1231,27 @@ final class ArraySourceBlockDecoder implements SourceBlockDecoder {
             return receivedSourceSymbols;
         }
 
+        void forEachMissingSourceSymbol(ESIConsumer consumer) {
+
+            final BitSet bitSet = sourceSymbolsBitSet;
+            final int K = K();
+            for (int esi = bitSet.nextClearBit(0); esi < K; esi = bitSet.nextClearBit(esi + 1)) {
+                consumer.accept(esi);
+            }
+        }
+
+        int[] missingSourceSymbolsArray() {
+
+            final BitSet bitSet = sourceSymbolsBitSet;
+            final int K = K();
+            final int[] missing = new int[numMissingSourceSymbols()];
+            for (int esi = bitSet.nextClearBit(0), n = 0; esi < K; esi = bitSet.nextClearBit(esi + 1)) {
+                missing[n++] = esi;
+            }
+
+            return missing;
+        }
+
         int numRepairSymbols() {
 
             return repairSymbols.size();
@@ -640,12 +1267,22 @@ final class ArraySourceBlockDecoder implements SourceBlockDecoder {
          * requires valid parameter
          * requires !isSourceBlockDecoded()
          */
-        void addRepairSymbol(int esi, ByteBuffer symbolData) {
+        void addRepairSymbol(int esi, RepairSymbol repairSymbol) {
 
-            repairSymbols.put(esi, RepairSymbol.copyData(symbolData));
+            repairSymbols.put(esi, repairSymbol);
+            appendRepairESI(esi);
             sbState = SourceBlockState.INCOMPLETE;
         }
 
+        private void appendRepairESI(int esi) {
+
+            final int n = repairSymbols.size() - 1; // the symbol was already put in the map
+            if (n == repairESIs.length) {
+                repairESIs = Arrays.copyOf(repairESIs, Math.max(16, 2 * n));
+            }
+            repairESIs[n] = esi;
+        }
+
         Iterable<Entry<Integer, RepairSymbol>> repairSymbols() {
 
             return repairSymbols.entrySet();
@@ -656,6 +1293,166 @@ final class ArraySourceBlockDecoder implements SourceBlockDecoder {
             return repairSymbols.keySet();
         }
 
+        void forEachRepairSymbol(ESIConsumer consumer) {
+
+            final int numRepair = repairSymbols.size();
+            for (int n = 0; n < numRepair; n++) {
+                consumer.accept(repairESIs[n]);
+            }
+        }
+
+        int[] repairSymbolsESIsArray() {
+
+            return Arrays.copyOf(repairESIs, repairSymbols.size());
+        }
+
+        /*
+         * requires !isSourceBlockDecoded()
+         */
+        boolean admitRepairSymbol() {
+
+            switch (admissionPolicy) {
+                case ADMIT_ALL:
+                    return true;
+
+                case DROP_EXCESS:
+                    if (repairSymbols.size() < repairCapacity()) {
+                        return true;
+                    }
+                    else {
+                        numDroppedRepair++;
+                        return false;
+                    }
+
+                case REPLACE_OLDEST:
+                    final long capacity = repairCapacity(); // always positive since the block is not decoded
+                    while (repairSymbols.size() >= capacity) {
+                        removeOldestRepairSymbol();
+                        numReplacedRepair++;
+                    }
+                    return true;
+
+                default:
+                    throw new AssertionError("unknown enum value");
+            }
+        }
+
+        private long repairCapacity() {
+
+            return (long)numMissingSourceSymbols() + symbolOverhead + admissionMargin;
+        }
+
+        private void removeOldestRepairSymbol() {
+
+            final int numRepair = repairSymbols.size();
+            repairSymbols.remove(repairESIs[0]).release();
+            System.arraycopy(repairESIs, 1, repairESIs, 0, numRepair - 1);
+        }
+
+        SolverPolicy solverPolicy() {
+
+            return solverPolicy;
+        }
+
+        // requires non-null parameter
+        void setSolverPolicy(SolverPolicy policy) {
+
+            this.solverPolicy = policy;
+        }
+
+        void discardRepairSymbolsDecodedInPlace() {
+
+            final int numRepair = repairSymbols.size();
+            int n = 0;
+            for (int i = 0; i < numRepair; i++) {
+                final int esi = repairESIs[i];
+                final RepairSymbol repairSymbol = repairSymbols.get(esi);
+                if (repairSymbol.isDecodedInPlace()) {
+                    repairSymbols.remove(esi);
+                    repairSymbol.release();
+                    numDroppedRepair++;
+                }
+                else {
+                    repairESIs[n++] = esi;
+                }
+            }
+        }
+
+        RepairAdmissionPolicy repairAdmissionPolicy() {
+
+            return admissionPolicy;
+        }
+
+        int repairAdmissionMargin() {
+
+            return admissionMargin;
+        }
+
+        // requires valid parameters
+        void setRepairAdmissionPolicy(RepairAdmissionPolicy policy, int margin) {
+
+            this.admissionPolicy = policy;
+            this.admissionMargin = margin;
+        }
+
+        long numDroppedRepairSymbols() {
+
+            return numDroppedRepair;
+        }
+
+        long numReplacedRepairSymbols() {
+
+            return numReplacedRepair;
+        }
+
+        IncrementalSolver incrementalSolver() {
+
+            return incrementalSolver;
+        }
+
+        // also discards any decoding retry
+        void setIncrementalSolver(IncrementalSolver solver) {
+
+            this.incrementalSolver = solver;
+            this.decodingRetry = null;
+            if (reservedRetryStorage != 0L) {
+                retryStorage.release(reservedRetryStorage);
+                reservedRetryStorage = 0L;
+            }
+        }
+
+        DecodingRetry decodingRetry() {
+
+            return decodingRetry;
+        }
+
+        /*
+         * The storage of the incremental solver of a decoding retry is reserved from the storage shared by all source
+         * blocks of the data decoder, and is also counted against the repair capacity of an admission policy that
+         * bounds the memory of the decoder. Returns null if the storage is not available.
+         */
+        DecodingRetry newDecodingRetry(long solverStorage, int T) {
+
+            if (admissionPolicy != RepairAdmissionPolicy.ADMIT_ALL && solverStorage > repairCapacity() * T) {
+                return null;
+            }
+            if (!retryStorage.reserve(solverStorage)) {
+                return null;
+            }
+
+            setIncrementalSolver(null);
+            decodingRetry = new DecodingRetry(numMissingSourceSymbols() + repairSymbols.size());
+            reservedRetryStorage = solverStorage;
+            return decodingRetry;
+        }
+
+        // requires a decoding retry; the solver keeps the reserved storage
+        void setDecodingRetrySolver(IncrementalSolver solver) {
+
+            this.incrementalSolver = solver;
+            this.decodingRetry = null;
+        }
+
         boolean haveEnoughSymbolsToDecode() {
 
             return (sourceSymbolsBitSet.cardinality() + repairSymbols.size()) >= (K() + symbolOverhead);
@@ -716,10 +1513,29 @@ final class ArraySourceBlockDecoder implements SourceBlockDecoder {
 
     static SourceBlockState forceDecode(ArraySourceBlockDecoder decoder) {
 
+        final SourceBlockState state;
         decoder.symbolsState.lock();
         try {
             decoder.decode();
-            return decoder.symbolsState.sourceBlockState();
+            state = decoder.symbolsState.sourceBlockState();
+        }
+        finally {
+            decoder.symbolsState.unlock();
+        }
+
+        return decoder.buildDecodingRetrySolver(state);
+    }
+
+    static long reservedRetryStorage(ArraySourceBlockDecoder decoder) {
+
+        return decoder.symbolsState.retryStorage.reservedBytes();
+    }
+
+    static boolean hasIncrementalSolver(ArraySourceBlockDecoder decoder) {
+
+        decoder.symbolsState.lock();
+        try {
+            return decoder.symbolsState.incrementalSolver() != null;
         }
         finally {
             decoder.symbolsState.unlock();
@@ -16,14 +16,22 @@
 package net.fec.openrq;
 
 
+import java.lang.ref.WeakReference;
+import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
 import java.util.Iterator;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 
+import net.fec.openrq.encoder.RepairPacketStream;
 import net.fec.openrq.encoder.SourceBlockEncoder;
 import net.fec.openrq.parameters.FECParameters;
 import net.fec.openrq.parameters.ParameterChecker;
+import net.fec.openrq.parameters.ParameterIO;
 import net.fec.openrq.util.collection.ImmutableList;
+import net.fec.openrq.util.checking.Indexables;
+import net.fec.openrq.util.datatype.SizeOf;
 import net.fec.openrq.util.linearalgebra.matrix.ByteMatrix;
 import net.fec.openrq.util.rq.IntermediateSymbolsDecoder;
 import net.fec.openrq.util.rq.SystematicIndices;
@@ -56,7 +64,18 @@ final class ArraySourceBlockEncoder implements SourceBlockEncoder {
 
     private final ArrayDataEncoder dataEncoder;
     private final ImmutableList<SourceSymbol> sourceSymbols;
-    private byte[][] intermediateSymbols = null;
+    // written under the lock, after being completely computed (the volatile writes publish them safely); without a
+    // budget the intermediate symbols are strongly referenced here, otherwise they are weakly referenced here and
+    // strongly referenced by the budget while they are resident
+    private volatile IntermediateSymbols intermediateSymbols = null;
+    private volatile WeakReference<IntermediateSymbols> budgetedIntermediateSymbols = null;
+    // the storage of the intermediate symbols of the data before a reset, reused by the next computation
+    private IntermediateSymbols spareIntermediateSymbols = null; // guarded by the lock
+    private final Object intermediateSymbolsLock = new Object();
+    private int numIntermediateSymbolsComputations = 0; // guarded by the lock (only read by tests)
+
+    // identifies the repair symbols of the current data in the cache (renewed when the encoder is reset)
+    private Object cacheKey = new Object();
 
     private final int sbn;
     private final int Kprime;
@@ -83,19 +102,68 @@ final class ArraySourceBlockEncoder implements SourceBlockEncoder {
     }
 
     // use only this method for access to the intermediate symbols
-    private byte[][] getIntermediateSymbols() {
+    private IntermediateSymbols getIntermediateSymbols() {
+
+        // Note: the intermediate symbols are computed at most once while
+        // they are not released; if multiple threads call this method
+        // concurrently, then one of them computes the symbols while the
+        // others wait for the result
+
+        final IntermediateSymbolsBudget budget = dataEncoder.options().intermediateSymbolsBudget();
+        if (budget == null) {
+            final IntermediateSymbols is = residentIntermediateSymbols();
+            if (is != null) {
+                return is;
+            }
+        }
+
+        // with a budget, the use is recorded under the lock, so that it never follows a concurrent release or reset
+        // of the same intermediate symbols (which would make the budget hold symbols that are no longer used)
+        synchronized (intermediateSymbolsLock) {
+            IntermediateSymbols is = residentIntermediateSymbols();
+            if (is == null) { // if a previous computation failed, then it is retried here
+                is = storeIntermediateSymbols(generateIntermediateSymbols());
+                numIntermediateSymbolsComputations++;
+                if (budget == null) {
+                    intermediateSymbols = is;
+                }
+                else {
+                    budgetedIntermediateSymbols = new WeakReference<>(is);
+                }
+            }
+
+            if (budget != null) {
+                budget.use(is, (long)is.numSymbols() * fecParameters().symbolSize());
+            }
+            return is;
+        }
+    }
+
+    // requires the lock
+    private IntermediateSymbols storeIntermediateSymbols(byte[][] C) {
+
+        final IntermediateSymbols spare = spareIntermediateSymbols;
+        if (spare != null) {
+            spareIntermediateSymbols = null;
+            spare.copyFrom(C);
+            return spare;
+        }
+        else {
+            return IntermediateSymbols.copyOf(C, fecParameters().symbolSize(),
+                dataEncoder.options().intermediateSymbolStorage());
+        }
+    }
 
-        // Note: if multiple threads call this method concurrently, then
-        // no harm is done, only the fact that some threads may perform
-        // useless work
+    // returns null if the intermediate symbols were not computed or were released
+    private IntermediateSymbols residentIntermediateSymbols() {
 
-        byte[][] is = intermediateSymbols;
-        if (is == null) {
-            is = generateIntermediateSymbols();
-            intermediateSymbols = is;
+        final IntermediateSymbols is = intermediateSymbols;
+        if (is != null) {
+            return is;
         }
 
-        return is;
+        final WeakReference<IntermediateSymbols> ref = budgetedIntermediateSymbols;
+        return ref == null ? null : ref.get();
     }
 
     @Override
@@ -177,17 +245,67 @@ final class ArraySourceBlockEncoder implements SourceBlockEncoder {
         checkNumRepairSymbols(esi, numSymbols);
 
         // retrieve repair symbols data
-        final ByteBuffer symbols = ByteBuffer.allocate(numSymbols
-                                                       * fecParameters().symbolSize());
-        for (int i = 0; i < numSymbols; i++) {
-            symbols.put(getRepairSymbol(esi + i).readOnlyData());
-        }
+        final ByteBuffer symbols = ByteBuffer.allocate(writableSize(0, numSymbols));
+        putRepairSymbols(esi, numSymbols, symbols);
         symbols.flip();
 
         return EncodingPacket.newRepairPacket(sbn, esi,
             symbols.asReadOnlyBuffer(), numSymbols);
     }
 
+    @Override
+    public void writeRepairSymbols(int esi, int numSymbols, byte[] array, int offset) {
+
+        checkRepairSymbolESI(esi);
+        checkNumRepairSymbols(esi, numSymbols);
+
+        final int size = writableSize(0, numSymbols);
+        Indexables.checkOffsetLengthBounds(offset, size, array.length);
+        putRepairSymbols(esi, numSymbols, ByteBuffer.wrap(array, offset, size));
+    }
+
+    @Override
+    public void writeRepairSymbols(int esi, int numSymbols, ByteBuffer buffer) {
+
+        checkRepairSymbolESI(esi);
+        checkNumRepairSymbols(esi, numSymbols);
+
+        checkWritableBuffer(buffer, writableSize(0, numSymbols));
+        putRepairSymbols(esi, numSymbols, buffer);
+    }
+
+    @Override
+    public void writeRepairPacket(int esi, int numSymbols, byte[] array, int offset) {
+
+        checkRepairSymbolESI(esi);
+        checkNumRepairSymbols(esi, numSymbols);
+
+        final int size = writableSize(SizeOf.INT + SizeOf.INT, numSymbols);
+        final int symbolsSize = size - (SizeOf.INT + SizeOf.INT);
+        Indexables.checkOffsetLengthBounds(offset, size, array.length);
+
+        final ByteBuffer buffer = ByteBuffer.wrap(array, offset, size);
+        buffer.putInt(ParameterIO.buildFECpayloadID(sbn, esi));
+        buffer.putInt(symbolsSize);
+        putRepairSymbols(esi, numSymbols, buffer);
+    }
+
+    @Override
+    public void writeRepairPacket(int esi, int numSymbols, ByteBuffer buffer) {
+
+        checkRepairSymbolESI(esi);
+        checkNumRepairSymbols(esi, numSymbols);
+
+        final int size = writableSize(SizeOf.INT + SizeOf.INT, numSymbols);
+        final int symbolsSize = size - (SizeOf.INT + SizeOf.INT);
+        checkWritableBuffer(buffer, size);
+
+        // same format as in EncodingPacket.writeTo(ByteBuffer)
+        buffer.putInt(ParameterIO.buildFECpayloadID(sbn, esi));
+        buffer.putInt(symbolsSize);
+        putRepairSymbols(esi, numSymbols, buffer);
+    }
+
     @Override
     public IterableBuilder newIterableBuilder() {
 
@@ -215,6 +333,87 @@ final class ArraySourceBlockEncoder implements SourceBlockEncoder {
             .endAt(numberOfSourceSymbols() + numRepairPackets - 1).build();
     }
 
+    @Override
+    public RepairPacketStream repairPacketStream(
+        final int firstESI,
+        int capacity,
+        int parallelism,
+        Executor executor)
+    {
+
+        checkRepairSymbolESI(firstESI);
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+        Objects.requireNonNull(executor);
+
+        final long numPackets = ParameterChecker.maxEncodingSymbolID() - firstESI + 1L;
+        return PrefetchedRepairPackets.start(new PrefetchedRepairPackets.Generator() {
+
+            @Override
+            public EncodingPacket packet(long seq) {
+
+                return repairPacket((int)(firstESI + seq));
+            }
+        }, numPackets, capacity, parallelism, executor);
+    }
+
+    @Override
+    public void precomputeIntermediateSymbols() {
+
+        getIntermediateSymbols();
+    }
+
+    /*
+     * Requires that no other method is executed concurrently.
+     */
+    // retargets this encoder at the source data in a new array, shifted by the provided number of bytes
+    void reset(byte[] array, int offsetShift) {
+
+        for (SourceSymbol symbol : sourceSymbols) {
+            final ArraySourceSymbol arraySymbol = (ArraySourceSymbol)symbol;
+            arraySymbol.retarget(array, arraySymbol.symbolOffset() + offsetShift);
+        }
+
+        final IntermediateSymbolsBudget budget = dataEncoder.options().intermediateSymbolsBudget();
+        synchronized (intermediateSymbolsLock) {
+            final IntermediateSymbols is = residentIntermediateSymbols();
+            intermediateSymbols = null;
+            budgetedIntermediateSymbols = null;
+
+            if (is != null) {
+                if (budget == null) {
+                    spareIntermediateSymbols = is; // reused by the next computation
+                }
+                else {
+                    budget.remove(is); // the budget alone decides which intermediate symbols stay in memory
+                }
+            }
+        }
+
+        // the repair symbols of the previous data are never requested from the cache again, and are eventually evicted
+        cacheKey = new Object();
+    }
+
+    @Override
+    public void releaseIntermediateSymbols() {
+
+        final IntermediateSymbolsBudget budget = dataEncoder.options().intermediateSymbolsBudget();
+        synchronized (intermediateSymbolsLock) {
+            final IntermediateSymbols is = residentIntermediateSymbols();
+            intermediateSymbols = null;
+            budgetedIntermediateSymbols = null;
+            spareIntermediateSymbols = null;
+
+            if (is != null && budget != null) {
+                budget.remove(is);
+            }
+        }
+    }
+
     private void checkGenericEncodingSymbolESI(int esi) {
 
         if (esi < 0 || esi > ParameterChecker.maxEncodingSymbolID()) {
@@ -256,6 +455,28 @@ final class ArraySourceBlockEncoder implements SourceBlockEncoder {
         }
     }
 
+    // returns the size of a header followed by the provided number of repair symbols, which must fit in an array
+    private int writableSize(int headerSize, int numSymbols) {
+
+        final long size = headerSize + (long)numSymbols * fecParameters().symbolSize();
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("number of repair symbols is too large to fit in an array");
+        }
+
+        return (int)size;
+    }
+
+    // checks before anything is written, so that a failed write leaves the buffer untouched
+    private static void checkWritableBuffer(ByteBuffer buffer, int size) {
+
+        if (buffer.isReadOnly()) {
+            throw new ReadOnlyBufferException();
+        }
+        if (buffer.remaining() < size) {
+            throw new BufferOverflowException();
+        }
+    }
+
     // requires valid ESI
     private SourceSymbol getSourceSymbol(int esi) {
 
@@ -268,15 +489,45 @@ final class ArraySourceBlockEncoder implements SourceBlockEncoder {
         // calculate ISI from ESI
         final int isi = SystematicIndices.getISI(esi, K(), Kprime);
 
-        // generate the repair symbol data
-        final int T = fecParameters().symbolSize();
-        byte[] enc_data = LinearSystem.enc(Kprime, getIntermediateSymbols(),
-            new Tuple(Kprime, isi), T);
+        // the repair symbol data is only exposed as read-only, so it can be shared with the cache
+        final RepairSymbolCache cache = dataEncoder.options().repairSymbolCache();
+        byte[] enc_data = (cache == null) ? null : cache.get(cacheKey, esi);
+        if (enc_data == null) {
+            // generate the repair symbol data
+            final int T = fecParameters().symbolSize();
+            enc_data = new byte[T];
+            LinearSystem.encBatch(Kprime, getIntermediateSymbols(),
+                new Tuple[] {new Tuple(Kprime, isi)}, T, ByteBuffer.wrap(enc_data));
+
+            if (cache != null) {
+                cache.put(cacheKey, esi, enc_data);
+            }
+        }
 
-        // TODO should we store the repair symbols generated?
         return RepairSymbol.wrapData(ByteBuffer.wrap(enc_data));
     }
 
+    // requires valid ESI and number of symbols, and a writable buffer with enough space remaining
+    private void putRepairSymbols(int esi, int numSymbols, ByteBuffer dest) {
+
+        final RepairSymbolCache cache = dataEncoder.options().repairSymbolCache();
+
+        if (cache == null) {
+            // all repair symbols are generated in a single batch
+            final Tuple[] tuples = new Tuple[numSymbols];
+            for (int n = 0; n < numSymbols; n++) {
+                tuples[n] = new Tuple(Kprime, SystematicIndices.getISI(esi + n, K(), Kprime));
+            }
+            LinearSystem.encBatch(Kprime, getIntermediateSymbols(), tuples, fecParameters().symbolSize(), dest);
+        }
+        else {
+            // cached repair symbols must be individually stored
+            for (int n = 0; n < numSymbols; n++) {
+                dest.put(getRepairSymbol(esi + n).readOnlyData());
+            }
+        }
+    }
+
     private byte[][] initVectorD() {
 
         // source block's parameters
@@ -300,28 +551,36 @@ final class ArraySourceBlockEncoder implements SourceBlockEncoder {
         // initialize the vector D with source data
         final byte[][] D = initVectorD();
 
-        // first try to obtain an optimized decoder that supports Kprime
-        final IntermediateSymbolsDecoder isd = ISDManager.get(Kprime);
+        // first try to obtain an optimized decoder that supports Kprime,
+        // then a decoder with a precomputed inverse of the constraint matrix
+        IntermediateSymbolsDecoder isd = ISDManager.get(Kprime);
+        if (isd == null) {
+            isd = InverseConstraintMatrix.get(Kprime);
+        }
+
         if (isd != null) {
             return isd.decode(D);
         }
-        else { // if no optimized decoder is available, fall back to the
-               // standard decoding process
+        else {
+            return solveIntermediateSymbols(D);
+        }
+    }
 
-            // generate LxL Constraint Matrix
-            ByteMatrix constraint_matrix = LinearSystem
-                .generateConstraintMatrix(Kprime); // A
+    // the standard decoding process, used if no optimized decoder is available
+    private byte[][] solveIntermediateSymbols(byte[][] D) {
 
-            // solve system of equations
-            try {
-                return LinearSystem.PInactivationDecoding(constraint_matrix, D,
-                    Kprime);
-                // return Utilities.gaussElimination(constraint_matrix, D);
-            }
-            catch (SingularMatrixException e) {
-                throw new RuntimeException(
-                    "FATAL ERROR: Singular matrix for the encoding process. This should never happen.");
-            }
+        // generate LxL Constraint Matrix
+        ByteMatrix constraint_matrix = LinearSystem
+            .generateConstraintMatrix(Kprime); // A
+
+        // solve system of equations
+        try {
+            return LinearSolvers.select(dataEncoder.options().solverPolicy(), Kprime, 0)
+                .solve(constraint_matrix, D, Kprime);
+        }
+        catch (SingularMatrixException e) {
+            throw new RuntimeException(
+                "FATAL ERROR: Singular matrix for the encoding process. This should never happen.");
         }
     }
 
@@ -473,5 +732,17 @@ final class ArraySourceBlockEncoder implements SourceBlockEncoder {
 
         enc.generateIntermediateSymbols();
     }
+
+    static void forceInterSymbolsSolving(ArraySourceBlockEncoder enc) {
+
+        enc.solveIntermediateSymbols(enc.initVectorD());
+    }
+
+    static int numIntermediateSymbolsComputations(ArraySourceBlockEncoder enc) {
+
+        synchronized (enc.intermediateSymbolsLock) {
+            return enc.numIntermediateSymbolsComputations;
+        }
+    }
 }
 
@@ -39,12 +39,13 @@ final class ArraySourceSymbol implements SourceSymbol {
     }
 
 
-    private final byte[] srcDataArray;
-    private final int symbolOff;
+    // not final, since the symbol may be retargeted at a new array
+    private byte[] srcDataArray;
+    private int symbolOff;
 
     private final int codeSize;
 
-    private final ByteBuffer transportBuf;
+    private int transportSize;
 
 
     private ArraySourceSymbol(byte[] srcDataArray, int symbolOff, int codeSize, int transportSize) {
@@ -54,14 +55,25 @@ final class ArraySourceSymbol implements SourceSymbol {
 
         this.codeSize = codeSize;
 
-        this.transportBuf = prepareTransportBuffer(srcDataArray, symbolOff, transportSize);
+        this.transportSize = transportSize;
     }
 
-    private static ByteBuffer prepareTransportBuffer(byte[] array, int off, int len) {
+    /*
+     * Requires valid parameters, and that no other method is executed concurrently.
+     */
+    // changes the array (and the offset) where the symbol data is stored
+    void retarget(byte[] srcDataArray, int symbolOff) {
 
-        // need to return a slice of the wrapped buffer,
-        // otherwise the buffer position will be equal to off
-        return ByteBuffer.wrap(array, off, len).slice();
+        this.srcDataArray = Objects.requireNonNull(srcDataArray);
+        this.symbolOff = symbolOff;
+
+        this.transportSize = Math.min(codeSize, srcDataArray.length - symbolOff);
+    }
+
+    // the offset of the symbol data in its array
+    int symbolOffset() {
+
+        return symbolOff;
     }
 
     @Override
@@ -108,13 +120,15 @@ final class ArraySourceSymbol implements SourceSymbol {
     @Override
     public int transportSize() {
 
-        return transportBuf.remaining();
+        return transportSize;
     }
 
     @Override
     public ByteBuffer transportData() {
 
-        return transportBuf.asReadOnlyBuffer();
+        // need to return a slice of the wrapped buffer,
+        // otherwise the buffer position will be equal to symbolOff
+        return ByteBuffer.wrap(srcDataArray, symbolOff, transportSize).slice().asReadOnlyBuffer();
     }
 
     @Override
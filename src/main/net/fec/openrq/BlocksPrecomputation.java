@@ -0,0 +1,168 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq;
+
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import net.fec.openrq.encoder.SourceBlockEncoder;
+
+
+/**
+ * The precomputation of the intermediate symbols of a range of source blocks, with one task per source block executed
+ * by an {@link Executor}. Instances of this class are futures that complete when every task has finished; a failure in
+ * some task is reported by the future (as the cause of an {@code ExecutionException}), and does not prevent the
+ * remaining tasks from running.
+ */
+final class BlocksPrecomputation implements Future<Void> {
+
+    /**
+     * Submits one precomputation task per source block encoder in the provided range to the provided executor.
+     * 
+     * @param encoder
+     *            A data encoder
+     * @param fromSBN
+     *            The first source block number (inclusive)
+     * @param toSBN
+     *            The last source block number (exclusive)
+     * @param executor
+     *            The executor of the tasks
+     * @return a future that completes when all tasks have finished
+     * @exception RejectedExecutionException
+     *                If the executor does not accept some task, in which case the tasks that were already accepted
+     *                compute nothing unless they are running
+     */
+    static BlocksPrecomputation submit(ArrayDataEncoder encoder, int fromSBN, int toSBN, Executor executor) {
+
+        final BlocksPrecomputation precomp = new BlocksPrecomputation(toSBN - fromSBN);
+        for (int sbn = fromSBN; sbn < toSBN; sbn++) {
+            try {
+                executor.execute(precomp.newTask(encoder.sourceBlock(sbn)));
+            }
+            catch (RejectedExecutionException e) {
+                // the caller gets no future, so the accepted tasks must not keep computing
+                precomp.cancel(false);
+                throw e;
+            }
+        }
+
+        return precomp;
+    }
+
+
+    private final CountDownLatch remaining;
+    private volatile boolean cancelled = false;
+    private volatile Throwable failure = null;
+
+
+    private BlocksPrecomputation(int numTasks) {
+
+        this.remaining = new CountDownLatch(numTasks);
+    }
+
+    private Runnable newTask(final SourceBlockEncoder sbEnc) {
+
+        return new Runnable() {
+
+            @Override
+            public void run() {
+
+                try {
+                    if (!cancelled) {
+                        sbEnc.precomputeIntermediateSymbols();
+                    }
+                }
+                catch (RuntimeException | Error e) {
+                    synchronized (BlocksPrecomputation.this) {
+                        if (failure == null) { // only the first failure is reported
+                            failure = e;
+                        }
+                    }
+                }
+                finally {
+                    remaining.countDown();
+                }
+            }
+        };
+    }
+
+    /**
+     * Prevents the tasks that have not started yet from computing the intermediate symbols of their source blocks.
+     * Tasks that are already running are never interrupted.
+     * 
+     * @param mayInterruptIfRunning
+     *            Ignored
+     * @return {@code false} if this future was already cancelled or all tasks had already finished, {@code true}
+     *         otherwise
+     */
+    @Override
+    public synchronized boolean cancel(boolean mayInterruptIfRunning) {
+
+        if (cancelled || remaining.getCount() == 0) {
+            return false;
+        }
+        cancelled = true;
+        return true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+
+        return cancelled;
+    }
+
+    @Override
+    public boolean isDone() {
+
+        return cancelled || remaining.getCount() == 0;
+    }
+
+    @Override
+    public Void get() throws InterruptedException, ExecutionException {
+
+        if (!cancelled) {
+            remaining.await();
+        }
+        return result();
+    }
+
+    @Override
+    public Void get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+
+        if (!cancelled && !remaining.await(timeout, unit)) {
+            throw new TimeoutException();
+        }
+        return result();
+    }
+
+    private Void result() throws ExecutionException {
+
+        if (cancelled) {
+            throw new CancellationException();
+        }
+        if (failure != null) {
+            throw new ExecutionException(failure);
+        }
+        return null;
+    }
+}
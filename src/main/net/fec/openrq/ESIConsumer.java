@@ -0,0 +1,35 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq;
+
+
+/**
+ * An operation that accepts a single encoding symbol identifier and returns no result.
+ * <p>
+ * Instances of this interface are passed to visitor methods, such as
+ * {@link net.fec.openrq.decoder.SourceBlockDecoder#forEachMissingSourceSymbol(ESIConsumer)}, that traverse a group of
+ * encoding symbol identifiers without boxing them into {@code Integer} objects.
+ */
+public interface ESIConsumer {
+
+    /**
+     * Performs this operation on the provided encoding symbol identifier.
+     * 
+     * @param esi
+     *            An encoding symbol identifier
+     */
+    public void accept(int esi);
+}
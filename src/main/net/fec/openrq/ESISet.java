@@ -0,0 +1,338 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq;
+
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+
+/**
+ * An immutable set of encoding symbol identifiers, stored as primitive integers.
+ * <p>
+ * Instances of this class are snapshots: they never change after being created, and they are not affected by further
+ * changes to the object that produced them. The identifiers are kept in a fixed iteration order, which is defined by
+ * the method that returns the set (for example, ascending order for missing source symbols, and receiving order for
+ * available repair symbols).
+ * <p>
+ * The identifiers can be accessed by index, traversed with an {@link ESIConsumer}, or copied into an array, none of
+ * which require boxing into {@code Integer} objects. For compatibility with the collections framework, the method
+ * {@link #asSet()} returns an unmodifiable {@code Set} view of this set.
+ */
+public final class ESISet {
+
+    private static final ESISet EMPTY = new ESISet(new int[0]);
+
+
+    /**
+     * Returns an empty set.
+     * 
+     * @return an empty set
+     */
+    static ESISet empty() {
+
+        return EMPTY;
+    }
+
+    /**
+     * Returns a new set containing the identifiers in the provided array, following the array ordering (no data copies
+     * are performed).
+     * <p>
+     * <b>Requires distinct identifiers and an array that is not modified afterwards!</b>
+     * 
+     * @param esis
+     *            An array of distinct encoding symbol identifiers
+     * @return a new set containing the identifiers in the provided array
+     */
+    static ESISet wrap(int[] esis) {
+
+        return (esis.length == 0) ? EMPTY : new ESISet(esis);
+    }
+
+    /**
+     * Returns a new set containing the identifiers in the provided collection, following the collection iteration
+     * ordering.
+     * <p>
+     * <b>Requires distinct identifiers!</b>
+     * 
+     * @param esis
+     *            A collection of distinct encoding symbol identifiers
+     * @return a new set containing the identifiers in the provided collection
+     */
+    static ESISet copyOf(Collection<Integer> esis) {
+
+        final int[] array = new int[esis.size()];
+        int n = 0;
+        for (int esi : esis) {
+            array[n++] = esi;
+        }
+
+        return wrap(array);
+    }
+
+
+    private final int[] esis;
+
+    // lazily initialized (concurrent initializations are harmless, since the values are always the same)
+    private volatile int[] sortedESIs;
+    private volatile Set<Integer> setView;
+
+
+    private ESISet(int[] esis) {
+
+        this.esis = Objects.requireNonNull(esis);
+        this.sortedESIs = isAscending(esis) ? esis : null;
+        this.setView = null;
+    }
+
+    private static boolean isAscending(int[] array) {
+
+        for (int i = 1; i < array.length; i++) {
+            if (array[i - 1] > array[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the number of identifiers in this set.
+     * 
+     * @return the number of identifiers in this set
+     */
+    public int size() {
+
+        return esis.length;
+    }
+
+    /**
+     * Returns {@code true} if, and only if, this set contains no identifiers.
+     * 
+     * @return {@code true} if, and only if, this set contains no identifiers
+     */
+    public boolean isEmpty() {
+
+        return esis.length == 0;
+    }
+
+    /**
+     * Returns the identifier at the provided position in the iteration ordering of this set.
+     * 
+     * @param index
+     *            A position in the iteration ordering of this set
+     * @return the identifier at the provided position
+     * @exception IndexOutOfBoundsException
+     *                If {@code index < 0 || index >= size()}
+     */
+    public int get(int index) {
+
+        return esis[index];
+    }
+
+    /**
+     * Returns {@code true} if, and only if, this set contains the provided identifier.
+     * 
+     * @param esi
+     *            An encoding symbol identifier
+     * @return {@code true} if, and only if, this set contains the provided identifier
+     */
+    public boolean contains(int esi) {
+
+        return Arrays.binarySearch(sortedESIs(), esi) >= 0;
+    }
+
+    /**
+     * Performs the provided operation on every identifier of this set, following the iteration ordering of this set.
+     * 
+     * @param consumer
+     *            The operation to be performed on each identifier
+     * @exception NullPointerException
+     *                If {@code consumer} is {@code null}
+     */
+    public void forEach(ESIConsumer consumer) {
+
+        Objects.requireNonNull(consumer);
+        for (int esi : esis) {
+            consumer.accept(esi);
+        }
+    }
+
+    /**
+     * Returns a new array containing all identifiers of this set, following the iteration ordering of this set.
+     * 
+     * @return a new array containing all identifiers of this set
+     */
+    public int[] toArray() {
+
+        return esis.clone();
+    }
+
+    /**
+     * Copies all identifiers of this set into the provided array, starting at the provided offset, following the
+     * iteration ordering of this set.
+     * 
+     * @param dst
+     *            The destination array
+     * @param off
+     *            The starting index in the destination array
+     * @exception IndexOutOfBoundsException
+     *                If {@code off < 0 || dst.length - off < size()}
+     * @exception NullPointerException
+     *                If {@code dst} is {@code null}
+     */
+    public void copyTo(int[] dst, int off) {
+
+        System.arraycopy(esis, 0, dst, off, esis.length);
+    }
+
+    /**
+     * Returns an unmodifiable {@code Set} view of this set. The returned set has the same iteration ordering of this
+     * set.
+     * <p>
+     * <b>Note</b>: iterating over the returned set boxes each identifier into an {@code Integer} object.
+     * 
+     * @return an unmodifiable {@code Set} view of this set
+     */
+    public Set<Integer> asSet() {
+
+        Set<Integer> view = setView;
+        if (view == null) {
+            view = new SetView(this);
+            setView = view;
+        }
+
+        return view;
+    }
+
+    private int[] sortedESIs() {
+
+        int[] sorted = sortedESIs;
+        if (sorted == null) {
+            sorted = esis.clone();
+            Arrays.sort(sorted);
+            sortedESIs = sorted;
+        }
+
+        return sorted;
+    }
+
+    /**
+     * Indicates whether some other object is equal to this one. Two sets are equal if they contain the same
+     * identifiers, regardless of their iteration ordering.
+     * 
+     * @param obj
+     *            The object with which to compare
+     * @return {@code true} if this object is the same as the obj argument; {@code false} otherwise.
+     */
+    @Override
+    public boolean equals(Object obj) {
+
+        return obj instanceof ESISet && Arrays.equals(sortedESIs(), ((ESISet)obj).sortedESIs());
+    }
+
+    /**
+     * Returns a hash code value for this set. The value is the sum of all identifiers in this set, which is consistent
+     * with the hash code of the {@linkplain #asSet() set view}.
+     * 
+     * @return a hash code value for this set
+     */
+    @Override
+    public int hashCode() {
+
+        int sum = 0;
+        for (int esi : esis) {
+            sum += esi;
+        }
+
+        return sum;
+    }
+
+    @Override
+    public String toString() {
+
+        final StringBuilder sb = new StringBuilder(2 + 8 * esis.length);
+        sb.append('[');
+        for (int i = 0; i < esis.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(esis[i]);
+        }
+
+        return sb.append(']').toString();
+    }
+
+
+    private static final class SetView extends AbstractSet<Integer> {
+
+        private final ESISet set;
+
+
+        SetView(ESISet set) {
+
+            this.set = set;
+        }
+
+        @Override
+        public int size() {
+
+            return set.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+
+            return o instanceof Integer && set.contains((Integer)o);
+        }
+
+        @Override
+        public Iterator<Integer> iterator() {
+
+            return new Iterator<Integer>() {
+
+                private int next = 0;
+
+
+                @Override
+                public boolean hasNext() {
+
+                    return next < set.size();
+                }
+
+                @Override
+                public Integer next() {
+
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return set.get(next++);
+                }
+
+                @Override
+                public void remove() {
+
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+    }
+}
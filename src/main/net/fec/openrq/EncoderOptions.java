@@ -0,0 +1,165 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq;
+
+
+import java.util.Objects;
+
+
+/**
+ * Options that configure a data encoder and all of its source block encoders, when the data encoder is created (see
+ * {@link OpenRQ#newEncoder(byte[], int, net.fec.openrq.parameters.FECParameters, EncoderOptions)}).
+ * <p>
+ * Instances of this class are immutable; each option is changed by a method that returns a new instance.
+ */
+public final class EncoderOptions {
+
+    private static final EncoderOptions DEFAULTS = new EncoderOptions(
+        null,
+        IntermediateSymbolStorage.HEAP,
+        null,
+        SolverPolicy.AUTOMATIC);
+
+
+    /**
+     * Returns the default options: repair symbols are not cached, intermediate symbols are stored in the
+     * {@linkplain IntermediateSymbolStorage#HEAP heap} without a memory budget, and the algorithm that computes the
+     * intermediate symbols is selected {@linkplain SolverPolicy#AUTOMATIC automatically}.
+     * 
+     * @return the default options
+     */
+    public static EncoderOptions defaults() {
+
+        return DEFAULTS;
+    }
+
+
+    private final RepairSymbolCache cache; // may be null
+    private final IntermediateSymbolStorage storage;
+    private final IntermediateSymbolsBudget budget; // may be null
+    private final SolverPolicy solverPolicy;
+
+
+    private EncoderOptions(
+        RepairSymbolCache cache,
+        IntermediateSymbolStorage storage,
+        IntermediateSymbolsBudget budget,
+        SolverPolicy solverPolicy)
+    {
+
+        this.cache = cache;
+        this.storage = storage;
+        this.budget = budget;
+        this.solverPolicy = solverPolicy;
+    }
+
+    /**
+     * Returns the cache where repair symbols are stored, or {@code null} if repair symbols are not cached.
+     * 
+     * @return the cache where repair symbols are stored, or {@code null} if repair symbols are not cached
+     */
+    public RepairSymbolCache repairSymbolCache() {
+
+        return cache;
+    }
+
+    /**
+     * Returns new options equal to these ones, except for the cache where repair symbols are stored.
+     * 
+     * @param cache
+     *            A cache of repair symbols (may be shared with other encoders), or {@code null} if repair symbols
+     *            should not be cached
+     * @return new options with the provided repair symbol cache
+     */
+    public EncoderOptions withRepairSymbolCache(RepairSymbolCache cache) {
+
+        return new EncoderOptions(cache, storage, budget, solverPolicy);
+    }
+
+    /**
+     * Returns the storage of the intermediate symbols.
+     * 
+     * @return the storage of the intermediate symbols
+     */
+    public IntermediateSymbolStorage intermediateSymbolStorage() {
+
+        return storage;
+    }
+
+    /**
+     * Returns new options equal to these ones, except for the storage of the intermediate symbols.
+     * 
+     * @param storage
+     *            The storage of the intermediate symbols
+     * @return new options with the provided intermediate symbol storage
+     * @exception NullPointerException
+     *                If {@code storage} is {@code null}
+     */
+    public EncoderOptions withIntermediateSymbolStorage(IntermediateSymbolStorage storage) {
+
+        return new EncoderOptions(cache, Objects.requireNonNull(storage), budget, solverPolicy);
+    }
+
+    /**
+     * Returns the memory budget of the intermediate symbols, or {@code null} if the intermediate symbols of each source
+     * block are held until they are explicitly released.
+     * 
+     * @return the memory budget of the intermediate symbols, or {@code null} if there is no budget
+     */
+    public IntermediateSymbolsBudget intermediateSymbolsBudget() {
+
+        return budget;
+    }
+
+    /**
+     * Returns new options equal to these ones, except for the memory budget of the intermediate symbols.
+     * 
+     * @param budget
+     *            A memory budget for intermediate symbols (may be shared with other encoders), or {@code null} if the
+     *            intermediate symbols of each source block should be held until they are explicitly released
+     * @return new options with the provided intermediate symbols budget
+     */
+    public EncoderOptions withIntermediateSymbolsBudget(IntermediateSymbolsBudget budget) {
+
+        return new EncoderOptions(cache, storage, budget, solverPolicy);
+    }
+
+    /**
+     * Returns the policy that selects the algorithm that computes the intermediate symbols, when they are not
+     * precomputed for the number of source symbols of a source block.
+     * 
+     * @return the policy that selects the algorithm that computes the intermediate symbols
+     */
+    public SolverPolicy solverPolicy() {
+
+        return solverPolicy;
+    }
+
+    /**
+     * Returns new options equal to these ones, except for the policy that selects the algorithm that computes the
+     * intermediate symbols.
+     * 
+     * @param solverPolicy
+     *            The policy that selects the algorithm that computes the intermediate symbols
+     * @return new options with the provided solver policy
+     * @exception NullPointerException
+     *                If {@code solverPolicy} is {@code null}
+     */
+    public EncoderOptions withSolverPolicy(SolverPolicy solverPolicy) {
+
+        return new EncoderOptions(cache, storage, budget, Objects.requireNonNull(solverPolicy));
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq;
+
+
+import net.fec.openrq.util.linearalgebra.io.ByteVectorIterator;
+import net.fec.openrq.util.linearalgebra.matrix.ByteMatrix;
+import net.fec.openrq.util.math.OctetOps;
+import net.fec.openrq.util.rq.SystematicIndices;
+
+
+/**
+ * A decoding system of linear equations that is solved one equation at a time.
+ * <p>
+ * The equations are kept in reduced row echelon form: each independent equation is stored as the pivot equation of a
+ * distinct column, with a unit coefficient at its pivot column and null coefficients at every other pivot column.
+ * Adding an equation costs {@code O(rank * (L + T))} operations, and no work remains to be done once the system has
+ * full rank, since at that point each pivot equation directly contains one intermediate symbol.
+ * <p>
+ * Coefficients are stored in dense form, which requires {@code L * (L + T)} bytes for a full rank system.
+ */
+final class IncrementalSolver {
+
+    /**
+     * Returns a new solver for a source block with the provided extended number of source symbols and symbol size,
+     * already containing the LDPC and HDPC constraint equations and the equations for the padding symbols.
+     * 
+     * @param Kprime
+     *            The extended number of source symbols
+     * @param K
+     *            The number of source symbols
+     * @param T
+     *            The symbol size
+     * @return a new solver for a source block
+     */
+    static IncrementalSolver newSolver(int Kprime, int K, int T) {
+
+        final IncrementalSolver solver = new IncrementalSolver(Kprime, T);
+
+        final int Ki = SystematicIndices.getKIndex(Kprime);
+        final int S = SystematicIndices.S(Ki);
+        final int H = SystematicIndices.H(Ki);
+
+        // the constraint equations have null symbols
+        final ByteMatrix A = LinearSystem.generateConstraintMatrix(Kprime, 0);
+        for (int row = 0; row < S + H; row++) {
+            solver.addEquation(A, row, new byte[T]);
+        }
+
+        // the padding symbols are also null
+        for (int isi = K; isi < Kprime; isi++) {
+            solver.addSymbol(isi, new byte[T]);
+        }
+
+        return solver;
+    }
+
+    /**
+     * Returns the number of bytes required by the storage of a full rank solver for a source block with the provided
+     * extended number of source symbols and symbol size.
+     * 
+     * @param Kprime
+     *            The extended number of source symbols
+     * @param T
+     *            The symbol size
+     * @return the number of bytes required by a full rank solver
+     */
+    static long requiredStorage(int Kprime, int T) {
+
+        final int Ki = SystematicIndices.getKIndex(Kprime);
+        final long L = Kprime + SystematicIndices.S(Ki) + SystematicIndices.H(Ki);
+        return L * (L + T);
+    }
+
+
+    private final int Kprime;
+    private final int L;
+    private final int T;
+
+    // both indexed by pivot column, null if the column has no pivot yet
+    private final byte[][] pivotCoefs;
+    private final byte[][] pivotSymbols;
+    private int rank;
+
+
+    private IncrementalSolver(int Kprime, int T) {
+
+        final int Ki = SystematicIndices.getKIndex(Kprime);
+
+        this.Kprime = Kprime;
+        this.L = Kprime + SystematicIndices.S(Ki) + SystematicIndices.H(Ki);
+        this.T = T;
+
+        this.pivotCoefs = new byte[L][];
+        this.pivotSymbols = new byte[L][];
+        this.rank = 0;
+    }
+
+    /**
+     * Adds the equation of an encoding symbol.
+     * 
+     * @param isi
+     *            The internal symbol identifier of the encoding symbol
+     * @param symbol
+     *            The encoding symbol data (this array is owned by the solver after this method returns)
+     * @return {@code true} if, and only if, the rank of the system was increased
+     */
+    boolean addSymbol(int isi, byte[] symbol) {
+
+        final byte[] coefs = new byte[L];
+        for (int col : LinearSystem.encIndexes(Kprime, new Tuple(Kprime, isi))) {
+            coefs[col] = 1;
+        }
+
+        return addEquation(coefs, symbol);
+    }
+
+    private boolean addEquation(ByteMatrix A, int row, byte[] symbol) {
+
+        final byte[] coefs = new byte[L];
+        final ByteVectorIterator it = A.nonZeroRowIterator(row);
+        while (it.hasNext()) {
+            it.next();
+            coefs[it.index()] = it.get();
+        }
+
+        return addEquation(coefs, symbol);
+    }
+
+    private boolean addEquation(byte[] coefs, byte[] symbol) {
+
+        if (isSolved()) {
+            return false;
+        }
+
+        // eliminate every pivot column from the new equation, and find its leading free column
+        int lead = -1;
+        for (int col = 0; col < L; col++) {
+            final byte beta = coefs[col];
+            if (beta != 0) {
+                if (pivotCoefs[col] != null) {
+                    // pivot equations have null coefficients before their pivot column
+                    OctetOps.vectorVectorAddition(beta, pivotCoefs[col], col, coefs, col, coefs, col, L - col);
+                    OctetOps.vectorVectorAddition(beta, pivotSymbols[col], symbol, symbol);
+                }
+                else if (lead == -1) {
+                    lead = col;
+                }
+            }
+        }
+
+        if (lead == -1) {
+            return false; // the equation is redundant
+        }
+
+        // normalize the new equation so that it has a unit coefficient at the leading column
+        final byte alpha = coefs[lead];
+        if (alpha != 1) {
+            OctetOps.valueVectorDivision(alpha, coefs, lead, coefs, lead, L - lead);
+            OctetOps.valueVectorDivision(alpha, symbol, symbol);
+        }
+
+        // eliminate the leading column from the previous pivot equations (only the ones with a lower pivot column
+        // may have a non-null coefficient at the leading column)
+        for (int col = 0; col < lead; col++) {
+            final byte[] pivotRow = pivotCoefs[col];
+            if (pivotRow != null && pivotRow[lead] != 0) {
+                final byte beta = pivotRow[lead];
+                OctetOps.vectorVectorAddition(beta, coefs, lead, pivotRow, lead, pivotRow, lead, L - lead);
+                OctetOps.vectorVectorAddition(beta, symbol, pivotSymbols[col], pivotSymbols[col]);
+            }
+        }
+
+        pivotCoefs[lead] = coefs;
+        pivotSymbols[lead] = symbol;
+        rank++;
+
+        return true;
+    }
+
+    /**
+     * Returns a new solver with a copy of the equations of this solver, which can be used to restart the decoding of a
+     * source block without adding the constraint equations again.
+     * 
+     * @return a copy of this solver
+     */
+    IncrementalSolver copy() {
+
+        final IncrementalSolver copy = new IncrementalSolver(Kprime, T);
+        for (int col = 0; col < L; col++) {
+            if (pivotCoefs[col] != null) {
+                copy.pivotCoefs[col] = pivotCoefs[col].clone();
+                copy.pivotSymbols[col] = pivotSymbols[col].clone();
+            }
+        }
+        copy.rank = rank;
+
+        return copy;
+    }
+
+    /**
+     * Returns the current rank of the system.
+     * 
+     * @return the current rank of the system
+     */
+    int rank() {
+
+        return rank;
+    }
+
+    /**
+     * Returns {@code true} if, and only if, the system has full rank.
+     * 
+     * @return {@code true} if, and only if, the system has full rank
+     */
+    boolean isSolved() {
+
+        return rank == L;
+    }
+
+    /**
+     * Returns the intermediate symbols, if the system has full rank.
+     * 
+     * @return the intermediate symbols
+     * @exception IllegalStateException
+     *                If the system does not have full rank
+     */
+    byte[][] intermediateSymbols() {
+
+        if (!isSolved()) {
+            throw new IllegalStateException("the system does not have full rank");
+        }
+        return pivotSymbols;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq;
+
+
+/**
+ * An enum value indicating where a source block encoder stores the intermediate symbols of its source block.
+ * <p>
+ * The intermediate symbols are computed before the first repair symbol is generated, and occupy about {@code K * T}
+ * bytes per source block (where {@code K} is the number of source symbols and {@code T} is the symbol size). In both
+ * storages the intermediate symbols are kept in a single contiguous memory region, unless they exceed the maximum size
+ * of an array or buffer.
+ * 
+ * @see EncoderOptions#withIntermediateSymbolStorage(IntermediateSymbolStorage)
+ */
+public enum IntermediateSymbolStorage {
+
+    /**
+     * Storage value indicating that the intermediate symbols are kept in a single array in the Java heap (or in one
+     * array per symbol, if they do not fit in a single array).
+     */
+    HEAP,
+
+    /**
+     * Storage value indicating that the intermediate symbols are kept in a single
+     * {@linkplain java.nio.ByteBuffer#allocateDirect(int) direct buffer}, outside of the Java heap (or in as few direct
+     * buffers as possible, if they do not fit in a single buffer).
+     * <p>
+     * This storage keeps large source blocks from increasing the heap size, at the cost of a small overhead when
+     * generating repair symbols.
+     */
+    DIRECT
+}
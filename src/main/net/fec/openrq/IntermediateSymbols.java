@@ -0,0 +1,292 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq;
+
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+import net.fec.openrq.util.math.OctetOps;
+
+
+/**
+ * The intermediate symbols of a source block, from which encoding symbols are computed.
+ * <p>
+ * Symbols are accessed by tiles: a tile {@code [from, from + length)} of a symbol is always copied to, or added to,
+ * the same positions {@code [from, from + length)} of an array. Additions over equal positions of two arrays can be
+ * vectorized by the compiler, which is not the case when the positions differ.
+ */
+abstract class IntermediateSymbols {
+
+    // the maximum size of a single memory region (some virtual machines reserve header words in arrays)
+    static final int MAX_REGION_SIZE = Integer.MAX_VALUE - 8;
+
+
+    /**
+     * Returns intermediate symbols backed by the provided arrays (one per symbol), without copying them.
+     * 
+     * @param C
+     *            The intermediate symbols
+     * @return intermediate symbols backed by the provided arrays
+     */
+    static IntermediateSymbols wrap(byte[][] C) {
+
+        return new Arrays2D(C, false);
+    }
+
+    /**
+     * Returns a copy of the provided intermediate symbols in a single memory region of the provided storage. If the
+     * symbols do not fit in a single region, then heap symbols are copied into one array per symbol, and direct
+     * symbols are copied into as few regions as possible.
+     * 
+     * @param C
+     *            The intermediate symbols (all with length {@code T})
+     * @param T
+     *            The symbol size
+     * @param storage
+     *            The storage of the returned symbols
+     * @return a copy of the provided intermediate symbols
+     */
+    static IntermediateSymbols copyOf(byte[][] C, int T, IntermediateSymbolStorage storage) {
+
+        return copyOf(C, T, storage, MAX_REGION_SIZE);
+    }
+
+    // same as above, with a configurable maximum region size (must be at least T)
+    static IntermediateSymbols copyOf(byte[][] C, int T, IntermediateSymbolStorage storage, int maxRegionSize) {
+
+        if (maxRegionSize < T) {
+            throw new IllegalArgumentException("maximum region size must be at least the symbol size");
+        }
+
+        final long size = (long)C.length * T;
+        switch (storage) {
+            case HEAP:
+                final IntermediateSymbols heap;
+                if (size <= maxRegionSize) {
+                    heap = new Array1D(new byte[(int)size], C.length, T);
+                }
+                else {
+                    heap = new Arrays2D(new byte[C.length][T], true);
+                }
+                heap.copyFrom(C);
+                return heap;
+
+            case DIRECT:
+                // at least one symbol per region, even without symbols
+                final int symbolsPerRegion = Math.max(1, Math.min(C.length, maxRegionSize / T));
+                final ByteBuffer[] regions = new ByteBuffer[(C.length + symbolsPerRegion - 1) / symbolsPerRegion];
+                for (int r = 0; r < regions.length; r++) {
+                    final int regionSymbols = Math.min(symbolsPerRegion, C.length - r * symbolsPerRegion);
+                    regions[r] = ByteBuffer.allocateDirect(regionSymbols * T);
+                }
+                final IntermediateSymbols direct = new DirectBuffers(regions, symbolsPerRegion, C.length, T);
+                direct.copyFrom(C);
+                return direct;
+
+            default:
+                throw new AssertionError("unknown enum value");
+        }
+    }
+
+
+    /**
+     * Returns the number of intermediate symbols.
+     * 
+     * @return the number of intermediate symbols
+     */
+    abstract int numSymbols();
+
+    /**
+     * Overwrites these intermediate symbols with a copy of the provided ones, reusing their storage.
+     * 
+     * @param C
+     *            The intermediate symbols (as many as these ones, and with the same length)
+     * @exception UnsupportedOperationException
+     *                If these intermediate symbols are backed by the arrays they were {@linkplain #wrap(byte[][])
+     *                wrapped} from
+     */
+    abstract void copyFrom(byte[][] C);
+
+    /**
+     * Copies a tile of an intermediate symbol to the same positions of the provided array.
+     * 
+     * @param index
+     *            The index of the intermediate symbol
+     * @param from
+     *            The first position of the tile
+     * @param length
+     *            The length of the tile
+     * @param dest
+     *            The array where the tile is copied to
+     */
+    abstract void copyTile(int index, int from, int length, byte[] dest);
+
+    /**
+     * Adds a tile of an intermediate symbol to the same positions of the provided array.
+     * 
+     * @param index
+     *            The index of the intermediate symbol
+     * @param from
+     *            The first position of the tile
+     * @param length
+     *            The length of the tile
+     * @param acc
+     *            The array where the tile is added to
+     * @param scratch
+     *            An array with the same length of {@code acc}, whose contents may be overwritten
+     */
+    abstract void addTile(int index, int from, int length, byte[] acc, byte[] scratch);
+
+
+    private static final class Arrays2D extends IntermediateSymbols {
+
+        private final byte[][] symbols;
+        private final boolean owned; // false if the arrays were wrapped
+
+
+        Arrays2D(byte[][] symbols, boolean owned) {
+
+            this.symbols = Objects.requireNonNull(symbols);
+            this.owned = owned;
+        }
+
+        @Override
+        int numSymbols() {
+
+            return symbols.length;
+        }
+
+        @Override
+        void copyFrom(byte[][] C) {
+
+            if (!owned) {
+                throw new UnsupportedOperationException("wrapped intermediate symbols are not copied");
+            }
+            for (int i = 0; i < symbols.length; i++) {
+                System.arraycopy(C[i], 0, symbols[i], 0, symbols[i].length);
+            }
+        }
+
+        @Override
+        void copyTile(int index, int from, int length, byte[] dest) {
+
+            System.arraycopy(symbols[index], from, dest, from, length);
+        }
+
+        @Override
+        void addTile(int index, int from, int length, byte[] acc, byte[] scratch) {
+
+            OctetOps.vectorVectorAddition(symbols[index], from, acc, from, acc, from, length);
+        }
+    }
+
+    private static final class Array1D extends IntermediateSymbols {
+
+        private final byte[] array;
+        private final int numSymbols;
+        private final int T;
+
+
+        Array1D(byte[] array, int numSymbols, int T) {
+
+            this.array = array;
+            this.numSymbols = numSymbols;
+            this.T = T;
+        }
+
+        @Override
+        int numSymbols() {
+
+            return numSymbols;
+        }
+
+        @Override
+        void copyFrom(byte[][] C) {
+
+            for (int i = 0; i < numSymbols; i++) {
+                System.arraycopy(C[i], 0, array, i * T, T);
+            }
+        }
+
+        @Override
+        void copyTile(int index, int from, int length, byte[] dest) {
+
+            System.arraycopy(array, index * T + from, dest, from, length);
+        }
+
+        @Override
+        void addTile(int index, int from, int length, byte[] acc, byte[] scratch) {
+
+            // the tile is first copied to the same positions of the scratch array, so that the addition is vectorized
+            copyTile(index, from, length, scratch);
+            OctetOps.vectorVectorAddition(scratch, from, acc, from, acc, from, length);
+        }
+    }
+
+    private static final class DirectBuffers extends IntermediateSymbols {
+
+        // a single region, unless the symbols are too large; never read or written using their positions
+        private final ByteBuffer[] regions;
+        private final int symbolsPerRegion;
+        private final int numSymbols;
+        private final int T;
+
+
+        DirectBuffers(ByteBuffer[] regions, int symbolsPerRegion, int numSymbols, int T) {
+
+            this.regions = regions;
+            this.symbolsPerRegion = symbolsPerRegion;
+            this.numSymbols = numSymbols;
+            this.T = T;
+        }
+
+        @Override
+        int numSymbols() {
+
+            return numSymbols;
+        }
+
+        @Override
+        void copyFrom(byte[][] C) {
+
+            for (int r = 0; r < regions.length; r++) {
+                final ByteBuffer dup = regions[r].duplicate();
+                dup.clear();
+                final int end = Math.min(numSymbols, (r + 1) * symbolsPerRegion);
+                for (int i = r * symbolsPerRegion; i < end; i++) {
+                    dup.put(C[i], 0, T);
+                }
+            }
+        }
+
+        @Override
+        void copyTile(int index, int from, int length, byte[] dest) {
+
+            // a duplicate is used because the buffer may be concurrently read by other threads
+            final ByteBuffer dup = regions[index / symbolsPerRegion].duplicate();
+            dup.position((index % symbolsPerRegion) * T + from);
+            dup.get(dest, from, length);
+        }
+
+        @Override
+        void addTile(int index, int from, int length, byte[] acc, byte[] scratch) {
+
+            copyTile(index, from, length, scratch);
+            OctetOps.vectorVectorAddition(scratch, from, acc, from, acc, from, length);
+        }
+    }
+}
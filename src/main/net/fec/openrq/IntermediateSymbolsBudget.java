@@ -0,0 +1,293 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq;
+
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * A memory budget for the intermediate symbols of source block encoders.
+ * <p>
+ * A budget is configured when a data encoder is created (see
+ * {@link EncoderOptions#withIntermediateSymbolsBudget(IntermediateSymbolsBudget)}), and may be shared by multiple
+ * encoders. The intermediate symbols of a source block (about {@code L * T} bytes, where {@code L} is slightly larger
+ * than the number of source symbols) become <em>resident</em> when they are computed, and stay resident while they are
+ * used for the generation of repair symbols. They are released from the budget when:
+ * <ul>
+ * <li>the total size of the resident intermediate symbols exceeds the maximum number of bytes of the budget, in which
+ * case the least recently used are released first;
+ * <li>they are not used for longer than the maximum idle time of the budget (if one is defined), which is checked
+ * whenever some encoder uses the budget, or when method {@link #releaseIdle()} is called;
+ * <li>they are explicitly released (see
+ * {@link net.fec.openrq.encoder.SourceBlockEncoder#releaseIntermediateSymbols()}).
+ * </ul>
+ * Released intermediate symbols are transparently computed again when a repair symbol is next requested from their
+ * encoder. The budget does not reference the encoders, only their intermediate symbols, so an encoder that is no
+ * longer used may be garbage collected while its intermediate symbols are still resident.
+ * <p>
+ * <b>Note</b>: released intermediate symbols are reclaimed by the garbage collector (until then, they may still be
+ * used by their encoder); this includes intermediate symbols stored in
+ * {@linkplain IntermediateSymbolStorage#DIRECT direct buffers}.
+ * <p>
+ * Instances of this class are thread-safe.
+ */
+public final class IntermediateSymbolsBudget {
+
+    /**
+     * Returns a new budget that holds at most the provided number of bytes of intermediate symbols, for an unlimited
+     * time.
+     * 
+     * @param maxBytes
+     *            The maximum number of bytes of intermediate symbols held by the returned budget
+     * @return a new budget for intermediate symbols
+     * @exception IllegalArgumentException
+     *                If {@code maxBytes} is not positive
+     */
+    public static IntermediateSymbolsBudget newBudget(long maxBytes) {
+
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("maximum number of bytes must be positive");
+        }
+
+        return new IntermediateSymbolsBudget(maxBytes, Long.MAX_VALUE, TimeSource.SYSTEM);
+    }
+
+    /**
+     * Returns a new budget that holds at most the provided number of bytes of intermediate symbols, each for at most
+     * the provided time since their last use.
+     * 
+     * @param maxBytes
+     *            The maximum number of bytes of intermediate symbols held by the returned budget
+     * @param maxIdleTime
+     *            The maximum time that intermediate symbols are held by the returned budget since their last use
+     * @param unit
+     *            The unit of {@code maxIdleTime}
+     * @return a new budget for intermediate symbols
+     * @exception IllegalArgumentException
+     *                If {@code maxBytes} or {@code maxIdleTime} is not positive
+     * @exception NullPointerException
+     *                If {@code unit} is {@code null}
+     */
+    public static IntermediateSymbolsBudget newBudget(long maxBytes, long maxIdleTime, TimeUnit unit) {
+
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("maximum number of bytes must be positive");
+        }
+        if (maxIdleTime < 1) {
+            throw new IllegalArgumentException("maximum idle time must be positive");
+        }
+
+        return new IntermediateSymbolsBudget(maxBytes, unit.toNanos(maxIdleTime), TimeSource.SYSTEM);
+    }
+
+
+    /*
+     * The source of the times of use of the intermediate symbols (replaced by tests).
+     */
+    interface TimeSource {
+
+        TimeSource SYSTEM = new TimeSource() {
+
+            @Override
+            public long nanoTime() {
+
+                return System.nanoTime();
+            }
+        };
+
+
+        long nanoTime();
+    }
+
+
+    private final long maxBytes;
+    private final long maxIdleNanos; // Long.MAX_VALUE if unlimited
+    private final TimeSource timeSource;
+    // access order keeps the least recently used intermediate symbols first
+    private final LinkedHashMap<IntermediateSymbols, Resident> residents = new LinkedHashMap<>(16, 0.75f, true);
+    private long residentBytes = 0L;
+    private long releases = 0L;
+
+
+    private IntermediateSymbolsBudget(long maxBytes, long maxIdleNanos, TimeSource timeSource) {
+
+        this.maxBytes = maxBytes;
+        this.maxIdleNanos = maxIdleNanos;
+        this.timeSource = timeSource;
+    }
+
+    /**
+     * Returns the maximum number of bytes of intermediate symbols held by this budget.
+     * 
+     * @return the maximum number of bytes of intermediate symbols held by this budget
+     */
+    public long maxBytes() {
+
+        return maxBytes;
+    }
+
+    /**
+     * Returns the maximum time that intermediate symbols are held by this budget since their last use, or
+     * {@code Long.MAX_VALUE} if that time is unlimited.
+     * 
+     * @param unit
+     *            The unit of the returned time
+     * @return the maximum idle time of the intermediate symbols held by this budget
+     */
+    public long maxIdleTime(TimeUnit unit) {
+
+        return maxIdleNanos == Long.MAX_VALUE ? Long.MAX_VALUE : unit.convert(maxIdleNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the number of source blocks whose intermediate symbols are currently held by this budget.
+     * 
+     * @return the number of source blocks whose intermediate symbols are currently held by this budget
+     */
+    public synchronized int numResidentBlocks() {
+
+        return residents.size();
+    }
+
+    /**
+     * Returns the total number of bytes of the intermediate symbols currently held by this budget.
+     * 
+     * @return the total number of bytes of the intermediate symbols currently held by this budget
+     */
+    public synchronized long residentBytes() {
+
+        return residentBytes;
+    }
+
+    /**
+     * Returns the number of times that the intermediate symbols of some source block were released by this budget,
+     * either because the budget was exceeded, or because they were idle for too long. Explicit releases are not
+     * counted.
+     * 
+     * @return the number of releases made by this budget
+     */
+    public synchronized long releases() {
+
+        return releases;
+    }
+
+    /**
+     * Releases all intermediate symbols that were not used for longer than the maximum idle time of this budget.
+     * <p>
+     * Idle intermediate symbols are otherwise only released when some encoder uses this budget, so this method may be
+     * called periodically (for example, by a {@link java.util.concurrent.ScheduledExecutorService}) to bound the memory
+     * of encoders that are no longer used.
+     * 
+     * @return the number of source blocks whose intermediate symbols were released
+     */
+    public synchronized int releaseIdle() {
+
+        return releaseIdle(timeSource.nanoTime());
+    }
+
+    /**
+     * Releases all intermediate symbols currently held by this budget.
+     */
+    public synchronized void releaseAll() {
+
+        releases += residents.size();
+        residents.clear();
+        residentBytes = 0L;
+    }
+
+    /*
+     * Records a use of the provided intermediate symbols, making them resident if they are not, and then releases
+     * intermediate symbols until this budget is no longer exceeded (the provided ones included, in which case they
+     * are only held by the caller).
+     */
+    synchronized void use(IntermediateSymbols symbols, long numBytes) {
+
+        final long now = timeSource.nanoTime();
+        final Resident resident = residents.get(symbols);
+        if (resident == null) {
+            residents.put(symbols, new Resident(numBytes, now));
+            residentBytes += numBytes;
+        }
+        else {
+            resident.lastUse = now;
+        }
+
+        releaseIdle(now);
+        final Iterator<Resident> it = residents.values().iterator();
+        while (residentBytes > maxBytes) {
+            residentBytes -= it.next().numBytes;
+            it.remove();
+            releases++;
+        }
+    }
+
+    /*
+     * Stops holding the provided intermediate symbols, if they are resident.
+     */
+    synchronized void remove(IntermediateSymbols symbols) {
+
+        final Resident resident = residents.remove(symbols);
+        if (resident != null) {
+            residentBytes -= resident.numBytes;
+        }
+    }
+
+    private int releaseIdle(long now) {
+
+        int count = 0;
+        if (maxIdleNanos != Long.MAX_VALUE) {
+            // the least recently used come first, so the iteration stops at the first one that is not idle
+            final Iterator<Map.Entry<IntermediateSymbols, Resident>> it = residents.entrySet().iterator();
+            while (it.hasNext()) {
+                final Resident resident = it.next().getValue();
+                if (now - resident.lastUse <= maxIdleNanos) {
+                    break;
+                }
+                residentBytes -= resident.numBytes;
+                it.remove();
+                count++;
+            }
+        }
+
+        releases += count;
+        return count;
+    }
+
+
+    private static final class Resident {
+
+        final long numBytes;
+        long lastUse; // in nanoseconds
+
+
+        Resident(long numBytes, long lastUse) {
+
+            this.numBytes = numBytes;
+            this.lastUse = lastUse;
+        }
+    }
+
+    // ============================= TEST_CODE ============================= //
+
+    static IntermediateSymbolsBudget newBudget(long maxBytes, long maxIdleTime, TimeUnit unit, TimeSource timeSource) {
+
+        return new IntermediateSymbolsBudget(maxBytes, unit.toNanos(maxIdleTime), timeSource);
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq;
+
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import net.fec.openrq.util.linearalgebra.matrix.ByteMatrix;
+import net.fec.openrq.util.math.OctetOps;
+import net.fec.openrq.util.rq.IntermediateSymbolsDecoder;
+import net.fec.openrq.util.rq.SystematicIndices;
+
+
+/**
+ * An intermediate symbols decoder that multiplies the source symbols by the precomputed inverse of the constraint
+ * matrix, for small values of K'.
+ * <p>
+ * The constraint matrix {@code A} of an extended source block depends only on K', so the intermediate symbols are
+ * always {@code C = A^^-1 . D}. In the vector {@code D} of an extended source block, only the {@code K'} rows of the
+ * source (and padding) symbols may be non-zero, which means that only the corresponding {@code K'} columns of
+ * {@code A^^-1} are kept. The product is computed over tiles of the symbols, so that the tiles of all source symbols
+ * stay in cache while they are added to every intermediate symbol.
+ * <p>
+ * Inverse matrices are computed when first requested, and are then cached for the lifetime of the application (an
+ * inverse matrix has {@code L * K'} bytes).
+ */
+final class InverseConstraintMatrix implements IntermediateSymbolsDecoder {
+
+    // the maximum value of K' for which an inverse matrix is precomputed
+    static final int MAX_KPRIME = 49;
+
+    // the size, in bytes, of the tiles over which the product is computed
+    private static final int TILE = 2048;
+
+    // indexed by the index of K' in the table of systematic indices
+    private static final AtomicReferenceArray<InverseConstraintMatrix> CACHE =
+        new AtomicReferenceArray<>(SystematicIndices.getKIndex(MAX_KPRIME) + 1);
+
+
+    /**
+     * Returns a decoder that uses the inverse of the constraint matrix for the given value of K', or {@code null} if K'
+     * is too large for the inverse matrix to be precomputed.
+     * 
+     * @param Kprime
+     *            The number of source (and padding) symbols in an extended source block
+     * @return a decoder for the given value of K', or {@code null} if K' is larger than {@link #MAX_KPRIME}
+     */
+    static IntermediateSymbolsDecoder get(int Kprime) {
+
+        if (Kprime > MAX_KPRIME) {
+            return null;
+        }
+
+        final int Ki = SystematicIndices.getKIndex(Kprime);
+        final InverseConstraintMatrix isd = CACHE.get(Ki);
+        if (isd != null) {
+            return isd;
+        }
+        else {
+            // concurrent computations of the same matrix are harmless, the first one to finish is kept
+            CACHE.compareAndSet(Ki, null, new InverseConstraintMatrix(Kprime));
+            return CACHE.get(Ki);
+        }
+    }
+
+
+    private final int Kprime;
+    private final int L;
+    private final int firstSourceRow; // S + H
+    private final byte[][] inverse; // the K' columns of A^^-1 that multiply the source symbols (L rows)
+
+
+    private InverseConstraintMatrix(int Kprime) {
+
+        final int Ki = SystematicIndices.getKIndex(Kprime);
+        this.Kprime = Kprime;
+        this.firstSourceRow = SystematicIndices.S(Ki) + SystematicIndices.H(Ki);
+        this.L = Kprime + firstSourceRow;
+
+        // solve A . X = I, where the columns of I are only those of the source rows of D
+        final ByteMatrix A = LinearSystem.generateConstraintMatrix(Kprime);
+        final byte[][] identity = new byte[L][Kprime];
+        for (int j = 0; j < Kprime; j++) {
+            identity[firstSourceRow + j][j] = 1;
+        }
+
+        try {
+            this.inverse = MatrixUtilities.gaussElimination(LinearSolvers.toDenseArray(A), identity);
+        }
+        catch (SingularMatrixException e) {
+            throw new RuntimeException(
+                "FATAL ERROR: Singular matrix for the encoding process. This should never happen.");
+        }
+    }
+
+    @Override
+    public int supportedKPrime() {
+
+        return Kprime;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The rows of {@code D} other than those of the source (and padding) symbols must be zero, which is always the
+     * case for an extended source block.
+     */
+    @Override
+    public byte[][] decode(byte[][] D) {
+
+        if (D.length != L) {
+            throw new IllegalArgumentException("D must have L rows");
+        }
+        final int T = (L == 0) ? 0 : D[0].length;
+
+        final byte[][] C = new byte[L][T];
+        // low[n] and high[n] hold the products of a source symbol by n and by (n << 4), so that the product by any
+        // coefficient is the sum of (at most) two of them
+        final byte[][] low = new byte[16][];
+        final byte[][] high = new byte[16][];
+        for (int n = 2; n < 16; n++) {
+            low[n] = new byte[T];
+        }
+        for (int n = 1; n < 16; n++) {
+            high[n] = new byte[T];
+        }
+
+        for (int from = 0; from < T; from += TILE) {
+            final int length = Math.min(TILE, T - from);
+            for (int j = 0; j < Kprime; j++) {
+                low[1] = D[firstSourceRow + j];
+                timesTwo(low[1], low[2], from, length);
+                timesTwo(low[2], low[4], from, length);
+                timesTwo(low[4], low[8], from, length);
+                timesTwo(low[8], high[1], from, length);
+                timesTwo(high[1], high[2], from, length);
+                timesTwo(high[2], high[4], from, length);
+                timesTwo(high[4], high[8], from, length);
+                for (int n = 3; n < 16; n++) {
+                    if ((n & (n - 1)) != 0) { // not a power of two
+                        sum(low[n & -n], low[n & (n - 1)], low[n], from, length);
+                        sum(high[n & -n], high[n & (n - 1)], high[n], from, length);
+                    }
+                }
+
+                for (int i = 0; i < L; i++) {
+                    final int lo = inverse[i][j] & 0x0F;
+                    final int hi = (inverse[i][j] >> 4) & 0x0F;
+                    if (lo != 0 && hi != 0) {
+                        addProducts(low[lo], high[hi], C[i], from, length);
+                    }
+                    else if (lo != 0) {
+                        OctetOps.vectorVectorAddition(low[lo], from, C[i], from, C[i], from, length);
+                    }
+                    else if (hi != 0) {
+                        OctetOps.vectorVectorAddition(high[hi], from, C[i], from, C[i], from, length);
+                    }
+                }
+            }
+        }
+
+        return C;
+    }
+
+    /*
+     * Writes into dest[from, from + length) the product of src[from, from + length) by 2 in GF(256) (a shift followed
+     * by a reduction with the field polynomial x^^8 + x^^4 + x^^3 + x^^2 + 1).
+     */
+    private static void timesTwo(byte[] src, byte[] dest, int from, int length) {
+
+        final int end = from + length;
+        for (int k = from; k < end; k++) {
+            final int v = src[k];
+            dest[k] = (byte)((v << 1) ^ ((v >> 7) & 0x1D));
+        }
+    }
+
+    /*
+     * Writes into dest[from, from + length) the sum of a[from, from + length) and b[from, from + length).
+     */
+    private static void sum(byte[] a, byte[] b, byte[] dest, int from, int length) {
+
+        final int end = from + length;
+        for (int k = from; k < end; k++) {
+            dest[k] = (byte)(a[k] ^ b[k]);
+        }
+    }
+
+    /*
+     * Adds into dest[from, from + length) the sum of a[from, from + length) and b[from, from + length).
+     */
+    private static void addProducts(byte[] a, byte[] b, byte[] dest, int from, int length) {
+
+        final int end = from + length;
+        for (int k = from; k < end; k++) {
+            dest[k] ^= a[k] ^ b[k];
+        }
+    }
+}
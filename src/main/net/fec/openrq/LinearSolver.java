@@ -0,0 +1,47 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq;
+
+
+import net.fec.openrq.util.linearalgebra.matrix.ByteMatrix;
+
+
+/**
+ * A strategy for solving the system of linear equations {@code A.C = D} that produces the intermediate symbols of a
+ * source block.
+ * 
+ * @see LinearSolvers
+ */
+interface LinearSolver {
+
+    /**
+     * Solves the system of linear equations {@code A.C = D}.
+     * <p>
+     * <b>Note</b>: both {@code A} and {@code D} may be modified, and the arrays of {@code D} may be returned as
+     * intermediate symbols.
+     * 
+     * @param A
+     *            The constraint matrix, with at least {@code L} rows and exactly {@code L} columns
+     * @param D
+     *            The vector with available symbols (each row of the matrix contains one symbol)
+     * @param Kprime
+     *            The total number of source symbols for decoding
+     * @return the {@code L} intermediate symbols
+     * @throws SingularMatrixException
+     *             If the system has no unique solution
+     */
+    public byte[][] solve(ByteMatrix A, byte[][] D, int Kprime) throws SingularMatrixException;
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq;
+
+
+import net.fec.openrq.util.linearalgebra.io.ByteVectorIterator;
+import net.fec.openrq.util.linearalgebra.matrix.ByteMatrix;
+
+
+/**
+ * The available {@linkplain LinearSolver linear solvers}, and the policy that selects a solver for a given system.
+ */
+final class LinearSolvers {
+
+    /**
+     * Solves the system using the permanent inactivation decoding of RFC 6330.
+     */
+    static final LinearSolver PERMANENT_INACTIVATION = new LinearSolver() {
+
+        @Override
+        public byte[][] solve(ByteMatrix A, byte[][] D, int Kprime) throws SingularMatrixException {
+
+            return LinearSystem.PInactivationDecoding(A, D, Kprime);
+        }
+    };
+
+    /**
+     * Solves the system using regular Gauss elimination over a dense copy of the constraint matrix.
+     */
+    static final LinearSolver GAUSSIAN_ELIMINATION = new LinearSolver() {
+
+        @Override
+        public byte[][] solve(ByteMatrix A, byte[][] D, int Kprime) throws SingularMatrixException {
+
+            return MatrixUtilities.gaussElimination(toDenseArray(A), D);
+        }
+    };
+
+    /**
+     * Solves the system using a peeling stage followed by a dense Gauss elimination of the residual system.
+     * 
+     * @see PeelingSolver
+     */
+    static final LinearSolver PEELING = new LinearSolver() {
+
+        @Override
+        public byte[][] solve(ByteMatrix A, byte[][] D, int Kprime) throws SingularMatrixException {
+
+            return PeelingSolver.peelingDecoding(A, D, Kprime);
+        }
+    };
+
+    /*
+     * Automatic selection, calibrated with the LossRateDecodingTest benchmark over decoding systems with 20% of the
+     * source symbols replaced by repair symbols, and from 0 to 200 overhead rows:
+     * - the dense Gauss elimination is the fastest solver only for the smallest blocks with at most 2 overhead rows
+     * (about 20 us against 30 us for the peeling solver, at K' = 10 and no overhead rows), and becomes slower than the
+     * peeling solver as soon as the overhead rows make its dense matrix taller;
+     * - the peeling solver is 7 to 250 times faster than the permanent inactivation decoding for every measured block
+     * size (K' up to MAX_PEELING_KPRIME) and number of overhead rows (up to MAX_PEELING_OVERHEAD_ROWS), for
+     * instance 0.8 s against 183 s at K = 20000 and no overhead rows;
+     * - outside of the measured range, the permanent inactivation decoding is kept as the default solver.
+     */
+
+    // the maximum value of K' for which the dense Gauss elimination is selected
+    private static final int MAX_GAUSSIAN_ELIMINATION_KPRIME = 10;
+    // the maximum number of overhead rows for which the dense Gauss elimination is selected
+    private static final int MAX_GAUSSIAN_ELIMINATION_OVERHEAD_ROWS = 2;
+    // the maximum value of K' for which the peeling solver is selected
+    private static final int MAX_PEELING_KPRIME = 20152; // K' for K = 20000
+    // the maximum number of overhead rows for which the peeling solver is selected
+    private static final int MAX_PEELING_OVERHEAD_ROWS = 200;
+
+
+    /**
+     * Returns the solver for a system with the provided number of source symbols and overhead rows, according to the
+     * provided policy.
+     * 
+     * @param policy
+     *            The policy that selects the solver
+     * @param Kprime
+     *            The total number of source symbols for decoding
+     * @param overheadRows
+     *            The number of rows of the constraint matrix beyond the first {@code L} rows
+     * @return the solver for the system
+     */
+    static LinearSolver select(SolverPolicy policy, int Kprime, int overheadRows) {
+
+        switch (policy) {
+            case AUTOMATIC:
+                return select(Kprime, overheadRows);
+            case PERMANENT_INACTIVATION:
+                return PERMANENT_INACTIVATION;
+            case GAUSSIAN_ELIMINATION:
+                return GAUSSIAN_ELIMINATION;
+            case PEELING:
+                return PEELING;
+
+            default:
+                throw new AssertionError("unknown enum value");
+        }
+    }
+
+    /**
+     * Returns the fastest measured solver for a system with the provided number of source symbols and overhead rows,
+     * or the permanent inactivation decoding if no other solver was measured to be faster for such a system.
+     * 
+     * @param Kprime
+     *            The total number of source symbols for decoding
+     * @param overheadRows
+     *            The number of rows of the constraint matrix beyond the first {@code L} rows
+     * @return the fastest measured solver for the system
+     */
+    static LinearSolver select(int Kprime, int overheadRows) {
+
+        if (Kprime <= MAX_GAUSSIAN_ELIMINATION_KPRIME && overheadRows <= MAX_GAUSSIAN_ELIMINATION_OVERHEAD_ROWS) {
+            return GAUSSIAN_ELIMINATION;
+        }
+        else if (Kprime <= MAX_PEELING_KPRIME && overheadRows <= MAX_PEELING_OVERHEAD_ROWS) {
+            return PEELING;
+        }
+        else {
+            return PERMANENT_INACTIVATION;
+        }
+    }
+
+    // also used for the precomputation of inverse constraint matrices
+    static byte[][] toDenseArray(ByteMatrix A) {
+
+        final byte[][] array = new byte[A.rows()][A.columns()];
+        for (int row = 0; row < array.length; row++) {
+            final ByteVectorIterator it = A.nonZeroRowIterator(row);
+            while (it.hasNext()) {
+                it.next();
+                array[row][it.index()] = it.get();
+            }
+        }
+
+        return array;
+    }
+
+    private LinearSolvers() {
+
+        // not instantiable
+    }
+}
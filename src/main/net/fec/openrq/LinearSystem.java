@@ -17,6 +17,7 @@ package net.fec.openrq;
 
 
 import java.io.PrintStream;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -30,10 +31,12 @@ import java.util.concurrent.TimeUnit;
 import net.fec.openrq.util.array.ArrayUtils;
 import net.fec.openrq.util.linearalgebra.LinearAlgebra;
 import net.fec.openrq.util.linearalgebra.factory.Factory;
-import net.fec.openrq.util.linearalgebra.io.ByteVectorIterator;
 import net.fec.openrq.util.linearalgebra.matrix.ByteMatrix;
-import net.fec.openrq.util.linearalgebra.matrix.dense.RowIndirected2DByteMatrix;
-import net.fec.openrq.util.linearalgebra.vector.dense.BasicByteVector;
+import net.fec.openrq.util.linearalgebra.matrix.PermutedByteMatrixView;
+import net.fec.openrq.util.linearalgebra.matrix.SubByteMatrixView;
+import net.fec.openrq.util.linearalgebra.matrix.dense.DenseBlockByteMatrix;
+import net.fec.openrq.util.linearalgebra.matrix.dense.DenseByteMatrix;
+import net.fec.openrq.util.linearalgebra.matrix.functor.EliminationProcedure;
 import net.fec.openrq.util.math.OctetOps;
 import net.fec.openrq.util.rq.Rand;
 import net.fec.openrq.util.rq.SystematicIndices;
@@ -52,6 +55,9 @@ final class LinearSystem {
     private static final long A_SPARSE_THRESHOLD = 0L;
     private static final long MT_SPARSE_THRESHOLD = 0L;
 
+    // minimum fraction of non zeros in U_lower for phase 2 to be performed over a dense block matrix
+    private static final double U_LOWER_DENSE_THRESHOLD = 0.25;
+
     private static final boolean PRINTING_CODE_ENABLED = false; // DEBUG
     private static final PrintStream TIMER_PRINTABLE = System.out; // DEBUG
 
@@ -87,6 +93,24 @@ final class LinearSystem {
         }
     }
 
+    /*
+     * Returns true if the provided region of A has a fraction of non zeros of at least U_LOWER_DENSE_THRESHOLD, in which
+     * case its Gaussian elimination is faster over a dense block matrix.
+     */
+    private static boolean isDenseEnough(ByteMatrix A, int fromRow, int toRow, int fromCol, int toCol) {
+
+        if (A instanceof DenseByteMatrix) {
+            return false; // already dense
+        }
+
+        long nonZeros = 0;
+        for (int row = fromRow; row < toRow; row++) {
+            nonZeros += A.nonZerosInRow(row, fromCol, toCol);
+        }
+
+        return nonZeros >= U_LOWER_DENSE_THRESHOLD * (toRow - fromRow) * (toCol - fromCol);
+    }
+
     private static Factory getMatrixMTfactory(int H, int Kprime, int S) {
 
         if ((long)H * (Kprime + S) < MT_SPARSE_THRESHOLD) {
@@ -424,63 +448,140 @@ final class LinearSystem {
         return indexes;
     }
 
+    // length of the tiles of T in batch encoding (an encoding symbol tile is kept in the L1 cache while it is computed)
+    private static final int ENC_BATCH_TILE = 16 * 1024;
+
     /**
-     * Encodes a source symbol.
+     * Encodes multiple encoding symbols (refer to section 5.3.5.3 of RFC 6330), into consecutive regions of a buffer.
+     * The parameters that are shared by all encoding symbols are computed only once, and large symbols are computed in
+     * tiles of {@code T}, so that the intermediate symbol tiles read by multiple encoding symbols are still cached when
+     * they are read again.
      * 
      * @param Kprime
      * @param C
-     * @param tuple
+     * @param tuples
      * @param T
-     * @return an encoding symbol
+     * @param dest
+     *            The buffer where the encoding symbols are written, starting at its position (which is then advanced by
+     *            {@code tuples.length * T}; the buffer must be writable and have enough space remaining)
      */
-    static byte[] enc(int Kprime, byte[][] C, Tuple tuple, int T) {
+    static void encBatch(int Kprime, IntermediateSymbols C, Tuple[] tuples, int T, ByteBuffer dest) {
 
-        // necessary parameters
-        final int Ki = SystematicIndices.getKIndex(Kprime);
-        final int S = SystematicIndices.S(Ki);
-        final int H = SystematicIndices.H(Ki);
-        final int W = SystematicIndices.W(Ki);
-        final long L = Kprime + S + H;
-        final long P = L - W;
-        final int P1 = (int)MatrixUtilities.ceilPrime(P);
-        final long d = tuple.getD();
-        final int a = (int)tuple.getA();
+        final int n = tuples.length;
 
-        int b = (int)tuple.getB();
+        // intermediate symbol indexes of each encoding symbol
+        final EncParameters params = new EncParameters(Kprime);
+        final int[][] indexes = new int[n][];
+        for (int r = 0; r < n; r++) {
+            indexes[r] = params.indexes(tuples[r]);
+        }
 
-        final long d1 = tuple.getD1();
-        final int a1 = (int)tuple.getA1();
+        // array backed buffers are written directly into their arrays
+        final byte[] destArray = dest.hasArray() ? dest.array() : null;
+        final int destPos = dest.hasArray() ? dest.arrayOffset() + dest.position() : dest.position();
+        final ByteBuffer destBuf = dest.hasArray() ? null : dest.duplicate();
+
+        // the tiles are summed at the same position in the accumulator as in the intermediate symbols, which allows the
+        // compiler to vectorize the additions, and are then copied to the destination
+        final byte[] acc = new byte[T];
+        final byte[] scratch = new byte[T];
+        for (int from = 0; from < T; from += ENC_BATCH_TILE) {
+            final int length = Math.min(ENC_BATCH_TILE, T - from);
+            for (int r = 0, resPos = destPos + from; r < n; r++, resPos += T) {
+                encTile(C, indexes[r], from, length, acc, scratch);
+                if (destArray != null) {
+                    System.arraycopy(acc, from, destArray, resPos, length);
+                }
+                else {
+                    destBuf.position(resPos);
+                    destBuf.put(acc, from, length);
+                }
+            }
+        }
+
+        dest.position(dest.position() + n * T);
+    }
+
+    /*
+     * Writes into acc[from, from + length) the sum of the tiles [from, from + length) of the provided intermediate
+     * symbols.
+     */
+    private static void encTile(
+        IntermediateSymbols C,
+        int[] indexes,
+        int from,
+        int length,
+        byte[] acc,
+        byte[] scratch)
+    {
+
+        C.copyTile(indexes[0], from, length, acc);
+        for (int k = 1; k < indexes.length; k++) {
+            C.addTile(indexes[k], from, length, acc, scratch);
+        }
+    }
+
+    /*
+     * The parameters of the encoding symbols of a source block.
+     */
+    private static final class EncParameters {
+
+        private final int W;
+        private final long P;
+        private final int P1;
 
-        int b1 = (int)tuple.getB1();
 
-        // allocate memory and initialize the encoding symbol
-        final byte[] result = Arrays.copyOf(C[b], T);
+        EncParameters(int Kprime) {
+
+            final int Ki = SystematicIndices.getKIndex(Kprime);
+            final int S = SystematicIndices.S(Ki);
+            final int H = SystematicIndices.H(Ki);
+            final long L = Kprime + S + H;
+
+            this.W = SystematicIndices.W(Ki);
+            this.P = L - W;
+            this.P1 = (int)MatrixUtilities.ceilPrime(P);
+        }
 
         /*
-         * encoding -- refer to section 5.3.5.3 of RFC 6330
+         * Returns the indexes of the intermediate symbols that are added together to form the encoding symbol of the
+         * provided tuple, in the order of section 5.3.5.3 of RFC 6330 (repeated indexes are repeated in the array).
          */
+        int[] indexes(Tuple tuple) {
 
-        for (long j = 1; j < d; j++)
-        {
-            b = (b + a) % W;
-            OctetOps.vectorVectorAddition(C[b], result, result);
-        }
+            final int d = (int)tuple.getD();
+            final int a = (int)tuple.getA();
 
-        while (b1 >= P)
-            b1 = (b1 + a1) % P1;
+            int b = (int)tuple.getB();
 
-        OctetOps.vectorVectorAddition(C[W + b1], result, result);
+            final int d1 = (int)tuple.getD1();
+            final int a1 = (int)tuple.getA1();
 
-        for (long j = 1; j < d1; j++)
-        {
-            do
+            int b1 = (int)tuple.getB1();
+
+            final int[] indexes = new int[Math.max(d, 1) + Math.max(d1, 1)];
+            int n = 0;
+
+            indexes[n++] = b;
+            for (int j = 1; j < d; j++) {
+                b = (b + a) % W;
+                indexes[n++] = b;
+            }
+
+            while (b1 >= P)
                 b1 = (b1 + a1) % P1;
-            while (b1 >= P);
 
-            OctetOps.vectorVectorAddition(C[W + b1], result, result);
-        }
+            indexes[n++] = W + b1;
+            for (int j = 1; j < d1; j++) {
+                do
+                    b1 = (b1 + a1) % P1;
+                while (b1 >= P);
+
+                indexes[n++] = W + b1;
+            }
 
-        return result;
+            return indexes;
+        }
     }
 
     /**
@@ -552,7 +653,8 @@ final class LinearSystem {
             d[i] = i;
         }
 
-        final ByteMatrix X = A.copy();
+        // X only follows the row and column exchanges of A, which the view performs without moving any elements
+        final ByteMatrix X = new PermutedByteMatrixView(A.copy());
 
         // initialize i and u parameters, for the submatrices sizes
         int i = 0, u = P;
@@ -564,11 +666,15 @@ final class LinearSystem {
         // (these should be chosen first)
         int nonHDPCRows = S + Kprime;
 
+        // reusable buffers for the positions and values of the non zeros of a row
+        final int[] nzPositions = new int[L];
+        final byte[] nzValues = new byte[L];
+
         // maps the index of a row to an object Row (which stores that row's characteristics)
         final Map<Integer, Row> rows = new HashMap<>(M + 1, 1.0f);
         for (int row = 0; row < M; row++) {
-            // retrieve the number of non-zeros in the row
-            final int nonZeros = A.nonZerosInRow(row, 0, L - u); // exclude last u columns
+            // retrieve the non-zeros in the row
+            final int nonZeros = A.copyNonZerosInRow(row, nzPositions, nzValues, 0, L - u); // exclude last u columns
             // is this a HDPC row?
             final boolean isHDPC = (row >= S && row < S + H);
 
@@ -577,11 +683,9 @@ final class LinearSystem {
                 int originalDegree = 0;
                 final Set<Integer> nodes = new HashSet<>(2 + 1, 1.0f); // we already know there are only 2 non zeros
 
-                ByteVectorIterator it = A.nonZeroRowIterator(row, 0, L - u);
-                while (it.hasNext()) {
-                    it.next();
-                    originalDegree += OctetOps.UNSIGN(it.get()); // add to the degree of this row
-                    nodes.add(it.index()); // add the column index to the nodes
+                for (int n = 0; n < nonZeros; n++) {
+                    originalDegree += OctetOps.UNSIGN(nzValues[n]); // add to the degree of this row
+                    nodes.add(nzPositions[n]); // add the column index to the nodes
                 }
 
                 rows.put(row, new Row(row, nonZeros, originalDegree, isHDPC, nodes));
@@ -589,10 +693,8 @@ final class LinearSystem {
             else {
                 int originalDegree = 0;
 
-                ByteVectorIterator it = A.nonZeroRowIterator(row, 0, L - u);
-                while (it.hasNext()) {
-                    it.next();
-                    originalDegree += OctetOps.UNSIGN(it.get()); // add to the degree of this row
+                for (int n = 0; n < nonZeros; n++) {
+                    originalDegree += OctetOps.UNSIGN(nzValues[n]); // add to the degree of this row
                 }
 
                 rows.put(row, new Row(row, nonZeros, originalDegree, isHDPC));
@@ -934,38 +1036,20 @@ final class LinearSystem {
             TimerUtils.beginTimer(); // DEBUG
 
             // "the chosen row has entry alpha in the first column of V"
-            final byte alpha = A.get(i, i);
-
-            // let's look at all rows below the chosen one
-            for (int row = i + 1; row < M; row++)
-            // Page35@RFC6330 1st Par.
-            {
-                // "if a row below the chosen row has entry beta in the first column of V"
-                final byte beta = A.get(row, i);
-
-                // if it's already 0, no problem
-                if (beta == 0) {
-                    continue;
-                }
-                // if it's a non-zero we've got to "zerofy" it
-                else
-                {
-                    /*
-                     * "then beta/alpha multiplied by the chosen row is added to this row"
-                     */
-
-                    // division
-                    byte betaOverAlpha = OctetOps.aDividedByB(beta, alpha);
+            // "if a row below the chosen row has entry beta in the first column of V"
+            // "then beta/alpha multiplied by the chosen row is added to this row" (Page35@RFC6330 1st Par.)
+            final byte[] chosenSymbol = D[d[i]];
+            A.eliminateColumn(i, i, i + 1, M, new EliminationProcedure() {
 
-                    // multiplication and addition
-                    A.addRowsInPlace(betaOverAlpha, i, row);
+                @Override
+                public void apply(int row, byte betaOverAlpha) {
 
                     // decoding process - D[d[row]] + (betaOverAlpha * D[d[i]])
-                    OctetOps.vectorVectorAddition(betaOverAlpha, D[d[i]], D[d[row]], D[d[row]]);
+                    OctetOps.vectorVectorAddition(betaOverAlpha, chosenSymbol, D[d[row]], D[d[row]]);
 
                     // ISDCodeWriter.instance().writePhase1Code(betaOverAlpha, d[i], d[row]); // DEBUG
                 }
-            }
+            });
 
             TimerUtils.markTimestamp(); // DEBUG
             addMultiplyNanos += TimerUtils.getEllapsedTimeLong(TimeUnit.NANOSECONDS);
@@ -988,11 +1072,9 @@ final class LinearSystem {
                 }
                 else {
                     final Set<Integer> nodes = new HashSet<>(2 + 1, 1.0f); // we know there will only be two non zeros
-                    ByteVectorIterator it = A.nonZeroRowIterator(row.position, i, L - u);
-                    while (it.hasNext()) {
-                        it.next();
-                        nodes.add(it.index()); // add node to this edge (column index)
-                    }
+                    A.copyNonZerosInRow(row.position, nzPositions, null, i, L - u);
+                    nodes.add(nzPositions[0]); // add nodes to this edge (column indices)
+                    nodes.add(nzPositions[1]);
 
                     row.nodes = nodes;
                 }
@@ -1045,11 +1127,31 @@ final class LinearSystem {
          * matrix (success of the second phase)."
          */
 
-        // reduce U_lower to row echelon form
-        MatrixUtilities.reduceToRowEchelonForm(A, i, M, L - u, L, d, D);
+        final int uLowerRank;
+        if (isDenseEnough(A, i, M, L - u, L)) {
+            /*
+             * After phase 1, the rows of U_lower only have non zeros inside U_lower, so the whole rows can be reduced
+             * inside a dense block matrix; the last M - i rows of A are not used after this phase, so the reduced
+             * block is not copied back to A.
+             */
+            final DenseBlockByteMatrix U_lower = DenseBlockByteMatrix.copyOf(A, i, M, L - u, L);
+            final int[] dLower = Arrays.copyOfRange(d, i, M);
+
+            // reduce U_lower to row echelon form
+            MatrixUtilities.reduceToRowEchelonForm(U_lower, 0, M - i, 0, u, dLower, D);
+            System.arraycopy(dLower, 0, d, i, M - i);
+
+            uLowerRank = MatrixUtilities.nonZeroRows(U_lower, 0, M - i, 0, u);
+        }
+        else {
+            // reduce U_lower to row echelon form
+            MatrixUtilities.reduceToRowEchelonForm(A, i, M, L - u, L, d, D);
+
+            uLowerRank = MatrixUtilities.nonZeroRows(A, i, M, i, L);
+        }
 
         // check U_lower's rank, if it's less than 'u' we've got a decoding failure
-        if (MatrixUtilities.nonZeroRows(A, i, M, i, L) < u) {
+        if (uLowerRank < u) {
             throw new SingularMatrixException(
                 "Decoding Failure - PI Decoding @ Phase 2: U_lower's rank is less than u.");
         }
@@ -1086,19 +1188,28 @@ final class LinearSystem {
         final int Xrows = Arows;
         final int Xcols = Arows;
 
-        // A can be safely re-assigned because the product matrix has the same dimensions of A
-        A = X.multiply(A, 0, Xrows, 0, Xcols, 0, Arows, 0, Acols);
+        // the permuted i-by-i block of X is materialized once, in the factory format of A
+        final ByteMatrix Xblock = new SubByteMatrixView(X, 0, Xrows, 0, Xcols).copy();
+
+        // A can be safely re-assigned because the remaining phases only use the first i rows of A
+        A = Xblock.multiply(A, 0, Xrows, 0, Xcols, 0, Arows, 0, Acols);
 
         // decoding process
-        final int Drows = Xrows;
         final int Dcols = (D.length == 0) ? 0 : D[0].length;
         final byte[][] DShallowCopy = Arrays.copyOf(D, D.length);
-        final ByteMatrix DM = new RowIndirected2DByteMatrix(Drows, Dcols, DShallowCopy, d);
+
+        final int[] nzPositions = new int[Xcols];
+        final byte[] nzValues = new byte[Xcols];
 
         for (int row = 0; row < Xrows; row++) {
-            // multiply X[row] by D
-            BasicByteVector prod = (BasicByteVector)X.multiplyRow(row, DM, 0, Xcols, LinearAlgebra.BASIC2D_FACTORY);
-            D[d[row]] = prod.getInternalArray();
+            // multiply X[row] by D (the original rows of D, since the product rows replace them)
+            final byte[] prod = new byte[Dcols];
+            final int nonZeros = Xblock.copyNonZerosInRow(row, nzPositions, nzValues);
+            for (int n = 0; n < nonZeros; n++) {
+                // a multiplier equal to one results in a simple addition
+                OctetOps.vectorVectorAddition(nzValues[n], DShallowCopy[d[nzPositions[n]]], prod, prod);
+            }
+            D[d[row]] = prod;
         }
 
         // ISDCodeWriter.instance().writePhase3Code(X, Xrows, Xcols, d); // DEBUG
@@ -1126,16 +1237,17 @@ final class LinearSystem {
          * and if the value of that nonzero entry is b, then add to this row b times row j of I_u."
          */
 
+        final int[] nzPositions = new int[L - i];
+        final byte[] nzValues = new byte[L - i];
+
         // "For each of the first i rows of U_upper"
         for (int row = 0; row < i; row++) {
-            ByteVectorIterator it = A.nonZeroRowIterator(row, i, L);
-            while (it.hasNext()) {
-                it.next();
-
+            final int nonZeros = A.copyNonZerosInRow(row, nzPositions, nzValues, i, L);
+            for (int n = 0; n < nonZeros; n++) {
                 // "if the row has a nonzero entry at position j"
-                final int j = it.index();
+                final int j = nzPositions[n];
                 // "if the value of that nonzero entry is b"
-                final byte b = it.get();
+                final byte b = nzValues[n];
 
                 // "add to this row b times row j of I_u" -- this would "zerofy"
                 // that position, thus we can save the complexity
@@ -1167,6 +1279,9 @@ final class LinearSystem {
 
         TimerUtils.beginTimer(); // DEBUG
 
+        final int[] nzPositions = new int[i];
+        final byte[] nzValues = new byte[i];
+
         // "For j from 1 to i, perform the following operations:"
         for (int j = 0; j < i; j++) {
             // "If A[j,j] is not one"
@@ -1182,13 +1297,11 @@ final class LinearSystem {
             }
 
             // "For eL from 1 to j-1"
-            ByteVectorIterator it = A.nonZeroRowIterator(j, 0, j);
-            while (it.hasNext()) {
-                it.next();
-
+            final int nonZeros = A.copyNonZerosInRow(j, nzPositions, nzValues, 0, j);
+            for (int n = 0; n < nonZeros; n++) {
                 // "then add A[j,eL] multiplied with row eL of A to row j of A."
-                final int eL = it.index();
-                beta = it.get();
+                final int eL = nzPositions[n];
+                beta = nzValues[n];
 
                 // We do not actually have to perform this operation on the matrix A
                 // because it will not be used again.
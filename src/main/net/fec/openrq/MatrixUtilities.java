@@ -17,8 +17,15 @@
 package net.fec.openrq;
 
 
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 import net.fec.openrq.util.array.ArrayUtils;
 import net.fec.openrq.util.linearalgebra.matrix.ByteMatrix;
+import net.fec.openrq.util.linearalgebra.matrix.dense.DenseByteMatrix;
+import net.fec.openrq.util.linearalgebra.matrix.functor.EliminationProcedure;
+import net.fec.openrq.util.linearalgebra.matrix.sparse.CRSByteMatrix;
 import net.fec.openrq.util.math.OctetOps;
 
 
@@ -26,6 +33,13 @@ import net.fec.openrq.util.math.OctetOps;
  */
 final class MatrixUtilities {
 
+    // minimum amount of work per pivot (in number of updated bytes) for the row updates to be performed in parallel
+    private static final long PARALLEL_ELIMINATION_THRESHOLD = 1L << 16;
+
+    // minimum number of rows to be updated by each parallel task
+    private static final int MIN_ROWS_PER_TASK = 8;
+
+
     static final void printMatrix(byte[][] matrix) {
 
         int M = matrix.length;
@@ -201,6 +215,8 @@ final class MatrixUtilities {
     /**
      * Performs Gaussian elimination on a region of a matrix A and reduces the matrix region to a reduced row echelon
      * form. The operations are also performed in matrix D, with indices in d.
+     * <p>
+     * For large enough regions, the row updates for each pivot are split across a pool of threads.
      * 
      * @param A
      * @param fromRow
@@ -219,6 +235,9 @@ final class MatrixUtilities {
         int[] d,
         byte[][] D) {
 
+        final int symbolSize = (toRow > fromRow) ? D[d[fromRow]].length : 0;
+        final boolean parallel = isParallelReduction(A, toRow - fromRow, toCol - fromCol, symbolSize);
+
         int lead = fromCol;
         for (int r = fromRow; r < toRow; r++) {
             if (lead >= toCol) {
@@ -252,22 +271,105 @@ final class MatrixUtilities {
                 OctetOps.valueVectorDivision(beta, D[dIndex], D[dIndex]); // in place division
             }
 
-            for (i = fromRow; i < toRow; i++) {
-                if (i != r) {
-                    beta = A.get(i, lead);
-
-                    // U_lower[i] - (U_lower[i][lead] * U_lower[r])
-                    // NOTE: here, subtraction is the same as addition
-                    A.addRowsInPlace(beta, r, i);
-                    // decoding process - D[d[i]] - (U_lower[i][lead] * D[d[r]])
-                    OctetOps.vectorVectorAddition(beta, D[d[r]], D[d[i]], D[d[i]]);
-                }
+            if (parallel) {
+                ParallelElimination.POOL.invoke(new RowEliminationTask(A, r, lead, fromRow, toRow, d, D));
+            }
+            else {
+                eliminateRows(A, r, lead, fromRow, toRow, d, D);
             }
 
             lead++;
         }
     }
 
+    /*
+     * Eliminates the entry at column lead of every row in [fromRow, toRow), except the pivot row r, by adding to each
+     * row a multiple of the pivot row. Each row update only touches row i of A and row d[i] of D, so distinct rows can
+     * be updated concurrently.
+     */
+    private static void eliminateRows(
+        ByteMatrix A,
+        int r,
+        int lead,
+        int fromRow,
+        int toRow,
+        final int[] d,
+        final byte[][] D)
+    {
+
+        // U_lower[i] - (U_lower[i][lead] * U_lower[r]), where U_lower[r][lead] is one
+        // NOTE: here, subtraction is the same as addition
+        final byte[] pivotSymbol = D[d[r]];
+        A.eliminateColumn(r, lead, fromRow, toRow, new EliminationProcedure() {
+
+            @Override
+            public void apply(int i, byte beta) {
+
+                // decoding process - D[d[i]] - (U_lower[i][lead] * D[d[r]])
+                OctetOps.vectorVectorAddition(beta, pivotSymbol, D[d[i]], D[d[i]]);
+            }
+        });
+    }
+
+    /*
+     * Returns true if the rows of the provided region should be reduced in parallel, which requires multiple
+     * processors, enough work per pivot, and a matrix whose rows can be concurrently modified (each row of a CRS or
+     * dense matrix has its own storage, unlike the rows of a CCS matrix).
+     */
+    private static boolean isParallelReduction(ByteMatrix A, int rows, int cols, int symbolSize) {
+
+        return ParallelElimination.PARALLELISM > 1
+               && (long)rows * (cols + symbolSize) >= PARALLEL_ELIMINATION_THRESHOLD
+               && (A instanceof CRSByteMatrix || A instanceof DenseByteMatrix);
+    }
+
+
+    // lazily initialized holder of the pool used for parallel row eliminations
+    private static final class ParallelElimination {
+
+        static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+        static final ForkJoinPool POOL = new ForkJoinPool(PARALLELISM); // worker threads are daemon threads
+    }
+
+    private static final class RowEliminationTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ByteMatrix A;
+        private final int r;
+        private final int lead;
+        private final int fromRow;
+        private final int toRow;
+        private final int[] d;
+        private final byte[][] D;
+
+
+        RowEliminationTask(ByteMatrix A, int r, int lead, int fromRow, int toRow, int[] d, byte[][] D) {
+
+            this.A = A;
+            this.r = r;
+            this.lead = lead;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.d = d;
+            this.D = D;
+        }
+
+        @Override
+        protected void compute() {
+
+            if (toRow - fromRow <= MIN_ROWS_PER_TASK) {
+                eliminateRows(A, r, lead, fromRow, toRow, d, D);
+            }
+            else {
+                final int midRow = (fromRow + toRow) >>> 1;
+                invokeAll(
+                    new RowEliminationTask(A, r, lead, fromRow, midRow, d, D),
+                    new RowEliminationTask(A, r, lead, midRow, toRow, d, D));
+            }
+        }
+    }
+
     static void swapColumns(byte[][] matrix, int a, int b) {
 
         // check sizes and limits and whatnot bla bla bla
@@ -348,96 +450,67 @@ final class MatrixUtilities {
     }
 
     /**
-     * DEBUG
-     * Solves a 'A.x = b' system using regular Gauss elimination.
+     * Solves a 'A.x = b' system using regular Gauss elimination. The matrix A may have more rows than columns, in which
+     * case the extra rows are only used if some of the first rows are linearly dependent.
+     * <p>
+     * <b>Note</b>: both A and b are modified, and the arrays of b are returned as the solution.
      * 
      * @param A
+     *            A dense matrix with at least as many rows as columns
      * @param b
+     *            Array of symbols, with one symbol per row of A
      * @return Array of symbols 'x'
      * @throws SingularMatrixException
+     *             If the rank of A is less than its number of columns
      */
     static byte[][] gaussElimination(byte[][] A, byte[][] b) throws SingularMatrixException
     {
 
-        if (A.length != A[0].length || b.length != A.length) throw new RuntimeException("Illegal matrix dimensions.");
-
-        int num_cols = b[0].length;
-
-        byte[][] x = new byte[b.length][num_cols];
-
-        // Utilities.printMatrix(A);
-
-        int ROWS = b.length;
-
-        for (int row = 0; row < ROWS; row++) {
+        final int ROWS = A.length;
+        final int COLS = (ROWS == 0) ? 0 : A[0].length;
+        if (ROWS < COLS || b.length != ROWS) {
+            throw new IllegalArgumentException("Illegal matrix dimensions.");
+        }
 
-            int max = row;
+        for (int col = 0; col < COLS; col++) {
 
             // find pivot row and swap
-            for (int i = row + 1; i < ROWS; i++)
-                if (OctetOps.UNSIGN(A[i][row]) > OctetOps.UNSIGN(A[max][row])) max = i;
-
-            // this destroys the original matrixes... dont really need a fix, but should be kept in mind
-            byte[] temp = A[row];
-            A[row] = A[max];
-            A[max] = temp;
-
-            temp = b[row];
-            b[row] = b[max];
-            b[max] = temp;
-
-            // singular or nearly singular
-            if (A[row][row] == 0) {
-                // System.err.println("LINHA QUE DEU SINGULAR: "+row);
-                // Utilities.printMatrix(b);
-                // Utilities.printMatrix(A);
-                throw new SingularMatrixException("LINHA QUE DEU SINGULAR: " + row);
+            int pivot = col;
+            while (pivot < ROWS && A[pivot][col] == 0) {
+                pivot++;
+            }
+            if (pivot == ROWS) {
+                throw new SingularMatrixException("no pivot for column " + col);
             }
 
-            // pivot within A and b
-            for (int i = row + 1; i < ROWS; i++) {
-
-                byte alpha = OctetOps.aDividedByB(A[i][row], A[row][row]);
-
-                temp = new byte[b[row].length];
-                OctetOps.valueVectorProduct(alpha, b[row], temp);
-
-                OctetOps.vectorVectorAddition(temp, b[i], b[i]);
-
-                for (int j = row; j < ROWS; j++) {
+            byte[] temp = A[col];
+            A[col] = A[pivot];
+            A[pivot] = temp;
 
-                    byte aux = OctetOps.aTimesB(alpha, A[row][j]);
+            temp = b[col];
+            b[col] = b[pivot];
+            b[pivot] = temp;
 
-                    A[i][j] = OctetOps.aMinusB(A[i][j], aux);
+            // pivot within A and b
+            for (int i = col + 1; i < ROWS; i++) {
+                if (A[i][col] != 0) {
+                    final byte alpha = OctetOps.aDividedByB(A[i][col], A[col][col]);
+                    OctetOps.vectorVectorAddition(alpha, A[col], col, A[i], col, A[i], col, COLS - col);
+                    OctetOps.vectorVectorAddition(alpha, b[col], b[i], b[i]);
                 }
             }
         }
 
         // back substitution
-        for (int i = ROWS - 1; i >= 0; i--) {
-
-            byte[] sum = new byte[num_cols];
-
-            for (int j = i + 1; j < ROWS; j++) {
-
-                // i*num_cols+j
-                byte[] temp = new byte[x[j].length];
-                OctetOps.valueVectorProduct(A[i][j], x[j], 0, temp, num_cols);
-
-                OctetOps.vectorVectorAddition(temp, sum, sum);
+        for (int i = COLS - 1; i >= 0; i--) {
+            for (int j = i + 1; j < COLS; j++) {
+                if (A[i][j] != 0) {
+                    OctetOps.vectorVectorAddition(A[i][j], b[j], b[i], b[i]);
+                }
             }
-
-            byte[] temp = new byte[sum.length];
-            OctetOps.vectorVectorAddition(b[i], sum, temp);
-
-            x[i] = new byte[temp.length];
-            OctetOps.valueVectorDivision(A[i][i], temp, x[i]);
-            // for (int bite = 0; bite < num_cols; bite++) {
-            //
-            // x[(i * num_cols) + bite] = OctetOps.division(temp[bite], A[i][i]);
-            // }
+            OctetOps.valueVectorDivision(A[i][i], b[i], b[i]);
         }
 
-        return x;
+        return Arrays.copyOf(b, COLS);
     }
 }
@@ -17,6 +17,8 @@
 package net.fec.openrq;
 
 
+import java.util.Objects;
+
 import net.fec.openrq.decoder.DataDecoder;
 import net.fec.openrq.decoder.SourceBlockDecoder;
 import net.fec.openrq.encoder.DataEncoder;
@@ -79,8 +81,116 @@ public final class OpenRQ {
      */
     public static ArrayDataEncoder newEncoder(byte[] data, int offset, FECParameters fecParams) {
 
-        // exceptions are checked inside the invoked method
-        return ArrayDataEncoder.newEncoder(data, offset, fecParams);
+        return newEncoder(data, offset, fecParams, EncoderOptions.defaults());
+    }
+
+    /**
+     * Returns a {@link DataEncoder} object with an array of bytes as the source data, configured according to the
+     * provided FEC parameters, that stores generated repair symbols in the provided cache.
+     * <p>
+     * Note that the maximum supported data length is {@link Integer#MAX_VALUE}.
+     * 
+     * @param data
+     *            An array of bytes containing the source data to be encoded
+     * @param fecParams
+     *            FEC parameters that configure the returned data encoder object
+     * @param cache
+     *            A cache of repair symbols (may be shared with other encoders)
+     * @return a data encoder object backed by an array of bytes
+     * @exception NullPointerException
+     *                If {@code data}, {@code fecParams} or {@code cache} are {@code null}
+     * @exception IllegalArgumentException
+     *                If {@code fecParams.dataLength() > Integer.MAX_VALUE}
+     * @exception IndexOutOfBoundsException
+     *                If {@code fecParams.dataLength() > data.length}
+     */
+    public static ArrayDataEncoder newEncoder(byte[] data, FECParameters fecParams, RepairSymbolCache cache) {
+
+        return newEncoder(data, 0, fecParams, cache);
+    }
+
+    /**
+     * Returns a {@link DataEncoder} object with an array of bytes as the source data, configured according to the
+     * provided FEC parameters, that stores generated repair symbols in the provided cache.
+     * <p>
+     * Note that the maximum supported data length is {@link Integer#MAX_VALUE}.
+     * 
+     * @param data
+     *            An array of bytes containing the source data to be encoded
+     * @param offset
+     *            The index in the array where the source data begins
+     * @param fecParams
+     *            FEC parameters that configure the returned data encoder object
+     * @param cache
+     *            A cache of repair symbols (may be shared with other encoders)
+     * @return a data encoder object backed by an array of bytes
+     * @exception NullPointerException
+     *                If {@code data}, {@code fecParams} or {@code cache} are {@code null}
+     * @exception IllegalArgumentException
+     *                If {@code fecParams.dataLength() > Integer.MAX_VALUE}
+     * @exception IndexOutOfBoundsException
+     *                If {@code offset < 0 || fecParams.dataLength() > (data.length - offset)}
+     */
+    public static ArrayDataEncoder newEncoder(byte[] data, int offset, FECParameters fecParams,
+        RepairSymbolCache cache) {
+
+        Objects.requireNonNull(cache);
+        return newEncoder(data, offset, fecParams, EncoderOptions.defaults().withRepairSymbolCache(cache));
+    }
+
+    /**
+     * Returns a {@link DataEncoder} object with an array of bytes as the source data, configured according to the
+     * provided FEC parameters and encoder options.
+     * <p>
+     * Note that the maximum supported data length is {@link Integer#MAX_VALUE}.
+     * 
+     * @param data
+     *            An array of bytes containing the source data to be encoded
+     * @param fecParams
+     *            FEC parameters that configure the returned data encoder object
+     * @param options
+     *            Options that configure the returned data encoder object
+     * @return a data encoder object backed by an array of bytes
+     * @exception NullPointerException
+     *                If {@code data}, {@code fecParams} or {@code options} are {@code null}
+     * @exception IllegalArgumentException
+     *                If {@code fecParams.dataLength() > Integer.MAX_VALUE}
+     * @exception IndexOutOfBoundsException
+     *                If {@code fecParams.dataLength() > data.length}
+     */
+    public static ArrayDataEncoder newEncoder(byte[] data, FECParameters fecParams, EncoderOptions options) {
+
+        return newEncoder(data, 0, fecParams, options);
+    }
+
+    /**
+     * Returns a {@link DataEncoder} object with an array of bytes as the source data, configured according to the
+     * provided FEC parameters and encoder options.
+     * <p>
+     * Note that the maximum supported data length is {@link Integer#MAX_VALUE}.
+     * 
+     * @param data
+     *            An array of bytes containing the source data to be encoded
+     * @param offset
+     *            The index in the array where the source data begins
+     * @param fecParams
+     *            FEC parameters that configure the returned data encoder object
+     * @param options
+     *            Options that configure the returned data encoder object
+     * @return a data encoder object backed by an array of bytes
+     * @exception NullPointerException
+     *                If {@code data}, {@code fecParams} or {@code options} are {@code null}
+     * @exception IllegalArgumentException
+     *                If {@code fecParams.dataLength() > Integer.MAX_VALUE}
+     * @exception IndexOutOfBoundsException
+     *                If {@code offset < 0 || fecParams.dataLength() > (data.length - offset)}
+     */
+    public static ArrayDataEncoder newEncoder(byte[] data, int offset, FECParameters fecParams,
+        EncoderOptions options) {
+
+        Objects.requireNonNull(options);
+        // remaining exceptions are checked inside the invoked method
+        return ArrayDataEncoder.newEncoder(data, offset, fecParams, options);
     }
 
     /**
@@ -107,7 +217,41 @@ public final class OpenRQ {
     public static ArrayDataDecoder newDecoder(FECParameters fecParams, int symbolOverhead) {
 
         // exceptions are checked inside the invoked method
-        return ArrayDataDecoder.newDecoder(fecParams, symbolOverhead);
+        return ArrayDataDecoder.newDecoder(fecParams, symbolOverhead, false);
+    }
+
+    /**
+     * Returns a {@link DataDecoder} object that decodes source data into an array of bytes, configured according to the
+     * provided FEC parameters and symbol overhead, and whose source block decoders decode progressively. All source
+     * block decoders will initially be configured with the provided symbol overhead value.
+     * <p>
+     * A progressive source block decoder eliminates each received encoding symbol against the previously received
+     * ones, as soon as the symbol arrives. This spreads the decoding work over the arrival of the symbols, so that
+     * almost no work remains to be done when the last needed symbol is received, reducing the decoding latency of the
+     * source block. In return, progressive decoders require more memory and more total work than regular decoders,
+     * especially when most source symbols are received (for large source blocks, progressive decoders fall back to
+     * regular decoding).
+     * <p>
+     * For information on the symbol overhead value, refer to the section on
+     * <a href="decoder/SourceBlockDecoder.html#symbol-overhead"><em>Symbol overhead</em></a> in the
+     * {@link SourceBlockDecoder} class header.
+     * <p>
+     * Note that the maximum supported data length is {@link Integer#MAX_VALUE}.
+     * 
+     * @param fecParams
+     *            FEC parameters that configure the returned data decoder object
+     * @param symbolOverhead
+     *            Symbol overhead (must be non-negative)
+     * @return a data decoder object that progressively decodes source data into an array of bytes
+     * @exception NullPointerException
+     *                If {@code fecParams} is {@code null}
+     * @exception IllegalArgumentException
+     *                If {@code fecParams.dataLength() > Integer.MAX_VALUE || symbolOverhead < 0}
+     */
+    public static ArrayDataDecoder newProgressiveDecoder(FECParameters fecParams, int symbolOverhead) {
+
+        // exceptions are checked inside the invoked method
+        return ArrayDataDecoder.newDecoder(fecParams, symbolOverhead, true);
     }
 
     /**
@@ -0,0 +1,438 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq;
+
+
+import java.util.Arrays;
+
+import net.fec.openrq.util.linearalgebra.io.ByteVectorIterator;
+import net.fec.openrq.util.linearalgebra.matrix.ByteMatrix;
+import net.fec.openrq.util.math.OctetOps;
+import net.fec.openrq.util.rq.SystematicIndices;
+
+
+/**
+ * Solves the decoding system of linear equations with a peeling (belief propagation) stage over the sparse rows,
+ * followed by a dense Gaussian elimination over the residual system.
+ * <p>
+ * The peeling stage repeatedly picks a sparse row (LDPC or LT row) with a single unresolved column, and resolves that
+ * column as a function of the previously resolved columns and of the <em>inactive</em> columns. The permanently
+ * inactive columns of RFC 6330 are inactive from the start, since the rows of the constraint matrix have no degree 1
+ * rows otherwise; when the peeling stage stalls, the unresolved columns of a row with the lowest number of unresolved
+ * columns, except one, are also inactivated.
+ * <p>
+ * Every row that is not used to resolve a column (the HDPC rows, and the remaining sparse rows) forms the residual
+ * system, whose unknowns are only the inactive columns. The residual system is solved by dense Gaussian elimination,
+ * and the resolved columns are finally obtained by substituting the values of the inactive columns.
+ */
+final class PeelingSolver {
+
+    private static final byte UNRESOLVED = 0;
+    private static final byte RESOLVED = 1;
+    private static final byte INACTIVE = 2;
+
+
+    /**
+     * Solves the decoding system of linear equations using a peeling stage followed by a dense Gaussian elimination of
+     * the residual system.
+     * <p>
+     * <b>Note</b>: the arrays of {@code D} are modified and returned as intermediate symbols.
+     * 
+     * @param A
+     *            The constraint matrix
+     * @param D
+     *            The vector with available symbols (each row of the matrix contains one symbol)
+     * @param Kprime
+     *            The total number of source symbols for decoding
+     * @return the intermediate symbols
+     * @throws SingularMatrixException
+     *             If the decoding fails
+     */
+    static byte[][] peelingDecoding(ByteMatrix A, byte[][] D, int Kprime) throws SingularMatrixException {
+
+        return new PeelingSolver(A, D, Kprime).solve();
+    }
+
+
+    private final byte[][] D;
+    private final int M;
+    private final int L;
+    private final int W;
+
+    // the non zero positions and values of each row
+    private final int[][] rowCols;
+    private final byte[][] rowVals;
+    private final boolean[] isSparseRow;
+
+    // the sparse rows that have a non zero value at each column that is not permanently inactive
+    private final int[][] colRows;
+
+    private final byte[] colState;
+    private final int[] numUnresolvedInRow;
+    private final boolean[] isPivotRow;
+    private int numUnresolved;
+
+    // resolved columns, in resolution order, and the pivot row of each resolved column
+    private final int[] resolvedCols;
+    private final int[] pivotRowOf;
+    private int numResolved;
+
+    // inactive columns and their index in the residual system
+    private final int[] inactiveCols;
+    private final int[] inactiveIndex;
+    private int numInactive;
+
+    // stack of rows with a single unresolved column (may contain stale entries)
+    private int[] degreeOneRows;
+    private int numDegreeOneRows;
+
+
+    private PeelingSolver(ByteMatrix A, byte[][] D, int Kprime) {
+
+        final int Ki = SystematicIndices.getKIndex(Kprime);
+        final int S = SystematicIndices.S(Ki);
+        final int H = SystematicIndices.H(Ki);
+
+        this.D = D;
+        this.M = A.rows();
+        this.L = A.columns();
+        this.W = SystematicIndices.W(Ki);
+
+        this.rowCols = new int[M][];
+        this.rowVals = new byte[M][];
+        this.isSparseRow = new boolean[M];
+        final int[] colCount = new int[W];
+        for (int row = 0; row < M; row++) {
+            final int nonZeros = A.nonZerosInRow(row);
+            final int[] cols = new int[nonZeros];
+            final byte[] vals = new byte[nonZeros];
+
+            final ByteVectorIterator it = A.nonZeroRowIterator(row);
+            for (int n = 0; it.hasNext(); n++) {
+                it.next();
+                cols[n] = it.index();
+                vals[n] = it.get();
+            }
+
+            rowCols[row] = cols;
+            rowVals[row] = vals;
+            isSparseRow[row] = row < S || row >= S + H; // the HDPC rows are dense
+
+            if (isSparseRow[row]) {
+                for (int col : cols) {
+                    if (col < W) {
+                        colCount[col]++;
+                    }
+                }
+            }
+        }
+
+        this.colRows = new int[W][];
+        for (int col = 0; col < W; col++) {
+            colRows[col] = new int[colCount[col]];
+        }
+        Arrays.fill(colCount, 0);
+        for (int row = 0; row < M; row++) {
+            if (isSparseRow[row]) {
+                for (int col : rowCols[row]) {
+                    if (col < W) {
+                        colRows[col][colCount[col]++] = row;
+                    }
+                }
+            }
+        }
+
+        this.colState = new byte[L];
+        this.numUnresolvedInRow = new int[M];
+        this.isPivotRow = new boolean[M];
+        this.numUnresolved = W;
+
+        this.resolvedCols = new int[W];
+        this.pivotRowOf = new int[W];
+        this.numResolved = 0;
+
+        this.inactiveCols = new int[L];
+        this.inactiveIndex = new int[L];
+        this.numInactive = 0;
+
+        // the permanently inactive columns
+        for (int col = W; col < L; col++) {
+            colState[col] = INACTIVE;
+            inactiveIndex[col] = numInactive;
+            inactiveCols[numInactive++] = col;
+        }
+
+        this.degreeOneRows = new int[16];
+        this.numDegreeOneRows = 0;
+        for (int row = 0; row < M; row++) {
+            if (isSparseRow[row]) {
+                int count = 0;
+                for (int col : rowCols[row]) {
+                    if (col < W) {
+                        count++;
+                    }
+                }
+                numUnresolvedInRow[row] = count;
+                if (count == 1) {
+                    pushDegreeOneRow(row);
+                }
+            }
+        }
+    }
+
+    private byte[][] solve() throws SingularMatrixException {
+
+        peel();
+        final byte[][] coefsOf = substituteResolvedColumns();
+        final byte[][] C = new byte[L][];
+        solveResidualSystem(coefsOf, C);
+        backSubstitute(coefsOf, C);
+
+        return C;
+    }
+
+    private void peel() {
+
+        while (numUnresolved > 0) {
+            while (numDegreeOneRows > 0) {
+                final int row = degreeOneRows[--numDegreeOneRows];
+                if (!isPivotRow[row] && numUnresolvedInRow[row] == 1) {
+                    final int col = firstUnresolvedColumn(row);
+                    isPivotRow[row] = true;
+                    colState[col] = RESOLVED;
+                    resolvedCols[numResolved++] = col;
+                    pivotRowOf[col] = row;
+                    removeUnresolvedColumn(col);
+                }
+            }
+
+            if (numUnresolved > 0) {
+                inactivateColumns();
+            }
+        }
+    }
+
+    // inactivates all unresolved columns except one, from a row with the lowest number of unresolved columns
+    private void inactivateColumns() {
+
+        int minRow = -1;
+        for (int row = 0; row < M; row++) {
+            if (isSparseRow[row] && !isPivotRow[row] && numUnresolvedInRow[row] >= 2) {
+                if (minRow == -1 || numUnresolvedInRow[row] < numUnresolvedInRow[minRow]) {
+                    minRow = row;
+                    if (numUnresolvedInRow[row] == 2) break; // cannot do better
+                }
+            }
+        }
+
+        if (minRow == -1) {
+            // no sparse row can resolve the remaining columns, so one of them is inactivated
+            for (int col = 0; col < W; col++) {
+                if (colState[col] == UNRESOLVED) {
+                    inactivateColumn(col);
+                    return;
+                }
+            }
+        }
+        else {
+            boolean skippedOne = false;
+            for (int col : rowCols[minRow]) {
+                if (col < W && colState[col] == UNRESOLVED) {
+                    if (skippedOne) {
+                        inactivateColumn(col);
+                    }
+                    else {
+                        skippedOne = true;
+                    }
+                }
+            }
+        }
+    }
+
+    private void inactivateColumn(int col) {
+
+        colState[col] = INACTIVE;
+        inactiveIndex[col] = numInactive;
+        inactiveCols[numInactive++] = col;
+        removeUnresolvedColumn(col);
+    }
+
+    private void removeUnresolvedColumn(int col) {
+
+        numUnresolved--;
+        for (int row : colRows[col]) {
+            if (!isPivotRow[row]) {
+                if (--numUnresolvedInRow[row] == 1) {
+                    pushDegreeOneRow(row);
+                }
+            }
+        }
+    }
+
+    private int firstUnresolvedColumn(int row) {
+
+        for (int col : rowCols[row]) {
+            if (col < W && colState[col] == UNRESOLVED) {
+                return col;
+            }
+        }
+
+        throw new AssertionError("row has no unresolved columns");
+    }
+
+    private void pushDegreeOneRow(int row) {
+
+        if (numDegreeOneRows == degreeOneRows.length) {
+            degreeOneRows = Arrays.copyOf(degreeOneRows, 2 * numDegreeOneRows);
+        }
+        degreeOneRows[numDegreeOneRows++] = row;
+    }
+
+    /*
+     * Each resolved column is written as C[col] = D[pivot] + sum(coefs[col][k] * C[inactiveCols[k]]), after updating
+     * D[pivot]; returns the coefficients of each resolved column, indexed by column.
+     */
+    private byte[][] substituteResolvedColumns() {
+
+        final byte[][] coefsOf = new byte[W][];
+        for (int n = 0; n < numResolved; n++) {
+            final int col = resolvedCols[n];
+            final int row = pivotRowOf[col];
+            final byte[] symbol = D[row];
+            final byte[] coefs = new byte[numInactive];
+
+            // every other column of the pivot row is either inactive or was resolved before
+            byte alpha = 0;
+            final int[] cols = rowCols[row];
+            final byte[] vals = rowVals[row];
+            for (int i = 0; i < cols.length; i++) {
+                final int j = cols[i];
+                if (j == col) {
+                    alpha = vals[i];
+                }
+                else if (colState[j] == INACTIVE) {
+                    final int k = inactiveIndex[j];
+                    coefs[k] = OctetOps.aPlusB(coefs[k], vals[i]);
+                }
+                else {
+                    OctetOps.vectorVectorAddition(vals[i], D[pivotRowOf[j]], symbol, symbol);
+                    OctetOps.vectorVectorAddition(vals[i], coefsOf[j], coefs, coefs);
+                }
+            }
+
+            if (alpha != 1) {
+                OctetOps.valueVectorDivision(alpha, symbol, symbol);
+                OctetOps.valueVectorDivision(alpha, coefs, coefs);
+            }
+
+            coefsOf[col] = coefs;
+        }
+
+        return coefsOf;
+    }
+
+    // solves the system formed by the non pivot rows, whose unknowns are the inactive columns
+    private void solveResidualSystem(byte[][] coefsOf, byte[][] C) throws SingularMatrixException {
+
+        final int numResidual = M - numResolved;
+        if (numResidual < numInactive) {
+            throw new SingularMatrixException("not enough rows in the residual system");
+        }
+
+        // write each residual row only in terms of the inactive columns
+        final byte[][] resCoefs = new byte[numResidual][];
+        final byte[][] resSymbols = new byte[numResidual][];
+        for (int row = 0, r = 0; row < M; row++) {
+            if (!isPivotRow[row]) {
+                final byte[] symbol = D[row];
+                final byte[] coefs = new byte[numInactive];
+
+                final int[] cols = rowCols[row];
+                final byte[] vals = rowVals[row];
+                for (int i = 0; i < cols.length; i++) {
+                    final int j = cols[i];
+                    if (colState[j] == INACTIVE) {
+                        final int k = inactiveIndex[j];
+                        coefs[k] = OctetOps.aPlusB(coefs[k], vals[i]);
+                    }
+                    else {
+                        OctetOps.vectorVectorAddition(vals[i], D[pivotRowOf[j]], symbol, symbol);
+                        OctetOps.vectorVectorAddition(vals[i], coefsOf[j], coefs, coefs);
+                    }
+                }
+
+                resCoefs[r] = coefs;
+                resSymbols[r] = symbol;
+                r++;
+            }
+        }
+
+        // Gaussian elimination to reduced row echelon form
+        for (int k = 0; k < numInactive; k++) {
+            int pivot = k;
+            while (pivot < numResidual && resCoefs[pivot][k] == 0) {
+                pivot++;
+            }
+            if (pivot == numResidual) {
+                throw new SingularMatrixException("the residual system is singular");
+            }
+            swap(resCoefs, k, pivot);
+            swap(resSymbols, k, pivot);
+
+            final byte alpha = resCoefs[k][k];
+            if (alpha != 1) {
+                OctetOps.valueVectorDivision(alpha, resCoefs[k], k, resCoefs[k], k, numInactive - k);
+                OctetOps.valueVectorDivision(alpha, resSymbols[k], resSymbols[k]);
+            }
+
+            for (int r = 0; r < numResidual; r++) {
+                final byte beta = resCoefs[r][k];
+                if (r != k && beta != 0) {
+                    OctetOps.vectorVectorAddition(
+                        beta, resCoefs[k], k, resCoefs[r], k, resCoefs[r], k, numInactive - k);
+                    OctetOps.vectorVectorAddition(beta, resSymbols[k], resSymbols[r], resSymbols[r]);
+                }
+            }
+        }
+
+        for (int k = 0; k < numInactive; k++) {
+            C[inactiveCols[k]] = resSymbols[k];
+        }
+    }
+
+    private void backSubstitute(byte[][] coefsOf, byte[][] C) {
+
+        for (int n = 0; n < numResolved; n++) {
+            final int col = resolvedCols[n];
+            final byte[] symbol = D[pivotRowOf[col]];
+            final byte[] coefs = coefsOf[col];
+            for (int k = 0; k < numInactive; k++) {
+                if (coefs[k] != 0) {
+                    OctetOps.vectorVectorAddition(coefs[k], C[inactiveCols[k]], symbol, symbol);
+                }
+            }
+
+            C[col] = symbol;
+        }
+    }
+
+    private static void swap(byte[][] array, int i, int j) {
+
+        final byte[] tmp = array[i];
+        array[i] = array[j];
+        array[j] = tmp;
+    }
+}
@@ -0,0 +1,318 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq;
+
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import net.fec.openrq.encoder.RepairPacketStream;
+
+
+/**
+ * A stream of repair packets that are generated ahead of time into a ring buffer, by worker tasks executed by an
+ * {@link Executor}.
+ * <p>
+ * Packets are identified by a sequence number, which a {@link Generator} maps to a repair packet. Each worker task
+ * repeatedly claims the next sequence number, generates its packet outside of the lock, and stores the packet in the
+ * ring slot of that sequence number; workers stop when the ring has no free slots (and are started again as packets
+ * are taken), so multiple workers may finish their packets out of order, but packets are always taken in order.
+ */
+final class PrefetchedRepairPackets implements RepairPacketStream {
+
+    /**
+     * Maps sequence numbers to repair packets.
+     */
+    static interface Generator {
+
+        /**
+         * Returns the repair packet with the provided sequence number.
+         * 
+         * @param seq
+         *            A sequence number (non-negative and less than the end of the stream)
+         * @return a repair packet
+         */
+        EncodingPacket packet(long seq);
+    }
+
+
+    /**
+     * Returns a new stream, already generating its first packets.
+     * 
+     * @param generator
+     *            The generator of the packets
+     * @param numPackets
+     *            The number of packets in the stream
+     * @param capacity
+     *            The number of slots of the ring buffer
+     * @param parallelism
+     *            The maximum number of worker tasks that generate packets at the same time
+     * @param executor
+     *            The executor of the worker tasks
+     * @return a new stream of prefetched repair packets
+     * @exception RejectedExecutionException
+     *                If the executor does not accept the first worker tasks
+     */
+    static PrefetchedRepairPackets start(
+        Generator generator,
+        long numPackets,
+        int capacity,
+        int parallelism,
+        Executor executor)
+    {
+
+        final PrefetchedRepairPackets stream =
+            new PrefetchedRepairPackets(generator, numPackets, capacity, parallelism, executor);
+        try {
+            stream.startWorkers(true);
+        }
+        catch (RejectedExecutionException e) {
+            stream.close();
+            throw e;
+        }
+
+        return stream;
+    }
+
+
+    private final Generator generator;
+    private final long end; // the number of packets in the stream
+    private final EncodingPacket[] ring;
+    private final int parallelism;
+    private final Executor executor;
+
+    private final Lock lock = new ReentrantLock();
+    private final Condition generated = lock.newCondition();
+
+    // all guarded by the lock
+    private long taken = 0L; // the sequence number of the next packet to be taken
+    private long claimed = 0L; // the sequence number of the next packet to be generated
+    private int activeWorkers = 0;
+    private boolean closed = false;
+    private Throwable failure = null;
+
+
+    private PrefetchedRepairPackets(
+        Generator generator,
+        long end,
+        int capacity,
+        int parallelism,
+        Executor executor)
+    {
+
+        this.generator = generator;
+        this.end = end;
+        this.ring = new EncodingPacket[capacity];
+        this.parallelism = parallelism;
+        this.executor = executor;
+    }
+
+    @Override
+    public int capacity() {
+
+        return ring.length;
+    }
+
+    @Override
+    public EncodingPacket take() throws InterruptedException {
+
+        final EncodingPacket packet;
+        lock.lockInterruptibly();
+        try {
+            while (ring[slot(taken)] == null) {
+                checkAvailability();
+                generated.await();
+            }
+            packet = removeNext();
+        }
+        finally {
+            lock.unlock();
+        }
+
+        startWorkers(false);
+        return packet;
+    }
+
+    @Override
+    public EncodingPacket poll() {
+
+        final EncodingPacket packet;
+        lock.lock();
+        try {
+            if (ring[slot(taken)] == null) {
+                checkAvailability();
+                return null;
+            }
+            packet = removeNext();
+        }
+        finally {
+            lock.unlock();
+        }
+
+        startWorkers(false);
+        return packet;
+    }
+
+    @Override
+    public void close() {
+
+        lock.lock();
+        try {
+            closed = true;
+            Arrays.fill(ring, null);
+            generated.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private int slot(long seq) {
+
+        return (int)(seq % ring.length);
+    }
+
+    // requires the lock, and that the next packet is not generated yet
+    private void checkAvailability() {
+
+        if (closed) {
+            throw new IllegalStateException("the stream is closed");
+        }
+        if (failure != null) {
+            throw new IllegalStateException("failed to generate a repair packet", failure);
+        }
+        if (taken >= end) {
+            throw new NoSuchElementException("no more repair packets");
+        }
+    }
+
+    // requires the lock, and that the next packet is generated
+    private EncodingPacket removeNext() {
+
+        final int slot = slot(taken);
+        final EncodingPacket packet = ring[slot];
+        ring[slot] = null;
+        taken++;
+
+        return packet;
+    }
+
+    /*
+     * Starts as many workers as needed to fill the free slots of the ring, up to the maximum parallelism. If the
+     * executor rejects a worker, then the rejection is rethrown only if requested (a packet that was already taken must
+     * not be lost), and is otherwise reported by the stream when no worker is left.
+     */
+    private void startWorkers(boolean rethrowRejection) {
+
+        int toStart;
+        lock.lock();
+        try {
+            final long pending = Math.min(end, taken + ring.length) - claimed; // unclaimed packets that fit the ring
+            toStart = (int)Math.max(0L, Math.min(pending, parallelism - activeWorkers));
+            if (closed || failure != null) {
+                toStart = 0;
+            }
+            activeWorkers += toStart;
+        }
+        finally {
+            lock.unlock();
+        }
+
+        // the executor is called outside of the lock, since it may run the workers in the calling thread
+        for (int n = 0; n < toStart; n++) {
+            try {
+                executor.execute(new Worker());
+            }
+            catch (RejectedExecutionException e) {
+                lock.lock();
+                try {
+                    activeWorkers -= toStart - n;
+                    if (activeWorkers == 0 && failure == null) {
+                        // no worker would ever generate the next packet, so the failure is reported by the stream
+                        failure = e;
+                        generated.signalAll();
+                    }
+                }
+                finally {
+                    lock.unlock();
+                }
+
+                if (rethrowRejection) {
+                    throw e;
+                }
+                return;
+            }
+        }
+    }
+
+
+    private final class Worker implements Runnable {
+
+        @Override
+        public void run() {
+
+            while (true) {
+                final long seq;
+                lock.lock();
+                try {
+                    if (closed || failure != null || claimed >= end || claimed >= taken + ring.length) {
+                        activeWorkers--;
+                        return;
+                    }
+                    seq = claimed++;
+                }
+                finally {
+                    lock.unlock();
+                }
+
+                EncodingPacket packet = null;
+                Throwable error = null;
+                try {
+                    packet = generator.packet(seq);
+                }
+                catch (RuntimeException | Error e) {
+                    error = e;
+                }
+
+                lock.lock();
+                try {
+                    if (error != null) {
+                        if (failure == null) { // only the first failure is reported
+                            failure = error;
+                        }
+                        activeWorkers--;
+                        generated.signalAll();
+                        return;
+                    }
+                    if (!closed) {
+                        ring[slot(seq)] = packet;
+                        if (seq == taken) {
+                            generated.signalAll();
+                        }
+                    }
+                }
+                finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+}
@@ -19,6 +19,7 @@ package net.fec.openrq;
 import java.nio.ByteBuffer;
 import java.util.Objects;
 
+import net.fec.openrq.decoder.BufferReleaser;
 import net.fec.openrq.util.io.BufferOperation;
 import net.fec.openrq.util.io.ByteBuffers;
 import net.fec.openrq.util.io.ByteBuffers.BufferType;
@@ -53,13 +54,39 @@ final class RepairSymbol {
         return new RepairSymbol(ByteBuffers.getCopy(dataBuf));
     }
 
+    /**
+     * Returns a new repair symbol containing the provided data, which is owned by the repair symbol until the method
+     * {@link #release()} is called (no data copies are performed).
+     * 
+     * @param leasedBuf
+     *            A buffer containing symbol data, from its position to its limit
+     * @param releaser
+     *            The callback that receives the buffer when the repair symbol is released
+     * @return a new repair symbol containing the provided data
+     */
+    static RepairSymbol leaseData(ByteBuffer leasedBuf, BufferReleaser releaser) {
+
+        return new RepairSymbol(leasedBuf, Objects.requireNonNull(releaser));
+    }
+
 
     private final ByteBuffer dataBuf;
+    private final ByteBuffer leasedBuf; // null if the data is not leased
+    private BufferReleaser releaser; // null if the data is not leased or was already released
 
 
     private RepairSymbol(ByteBuffer dataBuf) {
 
         this.dataBuf = Objects.requireNonNull(dataBuf);
+        this.leasedBuf = null;
+        this.releaser = null;
+    }
+
+    private RepairSymbol(ByteBuffer leasedBuf, BufferReleaser releaser) {
+
+        this.dataBuf = leasedBuf.duplicate();
+        this.leasedBuf = leasedBuf;
+        this.releaser = releaser;
     }
 
     /**
@@ -98,4 +125,49 @@ final class RepairSymbol {
             dataSize());
         return copy;
     }
+
+    /**
+     * Returns {@code true} if, and only if, the data from this symbol is leased and is stored in the whole backing
+     * array of the leased buffer, in which case the method {@link #decodingData()} returns that array.
+     * 
+     * @return {@code true} if, and only if, the data from this symbol is leased and can be decoded in place
+     */
+    boolean isDecodedInPlace() {
+
+        return releaser != null &&
+               dataBuf.hasArray() &&
+               dataBuf.arrayOffset() + dataBuf.position() == 0 &&
+               dataBuf.remaining() == dataBuf.array().length;
+    }
+
+    /**
+     * Returns an array with the data from this symbol, to be used as a row of a decoding system of linear equations.
+     * <p>
+     * If this symbol is {@linkplain #isDecodedInPlace() decoded in place}, the leased array is returned (and will be
+     * modified by the decoding process), otherwise a new array with a copy of the data is returned.
+     * 
+     * @return an array with the data from this symbol
+     */
+    byte[] decodingData() {
+
+        if (isDecodedInPlace()) {
+            return dataBuf.array();
+        }
+        else {
+            return copyOfData(BufferType.ARRAY_BACKED).array();
+        }
+    }
+
+    /**
+     * Returns the leased buffer to its owner, if the data from this symbol is leased and was not released yet. After
+     * this method is called, the data from this symbol must not be accessed.
+     */
+    void release() {
+
+        final BufferReleaser rel = releaser;
+        if (rel != null) {
+            releaser = null;
+            rel.release(leasedBuf);
+        }
+    }
 }
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq;
+
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * A size-bounded cache of repair symbols generated by source block encoders.
+ * <p>
+ * A cache is configured when a data encoder is created (see
+ * {@link OpenRQ#newEncoder(byte[], int, net.fec.openrq.parameters.FECParameters, RepairSymbolCache)}), and may be
+ * shared by multiple encoders. The cached repair symbols never keep their encoders reachable. When a repair symbol
+ * is requested from an encoder, the symbol is taken from the cache if it is present (a <em>hit</em>), or else it is
+ * generated and stored in the cache (a <em>miss</em>). When the cache is full, the least recently used repair symbol
+ * is evicted.
+ * <p>
+ * Instances of this class are thread-safe.
+ */
+public final class RepairSymbolCache {
+
+    /**
+     * Returns a new cache that holds at most the provided number of repair symbols.
+     * 
+     * @param capacity
+     *            The maximum number of repair symbols held by the returned cache
+     * @return a new repair symbol cache
+     * @exception IllegalArgumentException
+     *                If {@code capacity} is not positive
+     */
+    public static RepairSymbolCache newCache(int capacity) {
+
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+
+        return new RepairSymbolCache(capacity);
+    }
+
+
+    private final int capacity;
+    private final LinkedHashMap<Key, byte[]> symbols;
+    private long hits = 0L;
+    private long misses = 0L;
+
+
+    private RepairSymbolCache(final int capacity) {
+
+        this.capacity = capacity;
+        this.symbols = new LinkedHashMap<Key, byte[]>(16, 0.75f, true) { // access order provides LRU eviction
+
+            private static final long serialVersionUID = 1L;
+
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, byte[]> eldest) {
+
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the maximum number of repair symbols held by this cache.
+     * 
+     * @return the maximum number of repair symbols held by this cache
+     */
+    public int capacity() {
+
+        return capacity;
+    }
+
+    /**
+     * Returns the number of repair symbols currently held by this cache.
+     * 
+     * @return the number of repair symbols currently held by this cache
+     */
+    public synchronized int size() {
+
+        return symbols.size();
+    }
+
+    /**
+     * Returns the number of repair symbol requests that were served by this cache.
+     * 
+     * @return the number of cache hits
+     */
+    public synchronized long hits() {
+
+        return hits;
+    }
+
+    /**
+     * Returns the number of repair symbol requests that required the generation of a repair symbol.
+     * 
+     * @return the number of cache misses
+     */
+    public synchronized long misses() {
+
+        return misses;
+    }
+
+    /**
+     * Removes all repair symbols from this cache. The hit and miss counters are not reset.
+     */
+    public synchronized void clear() {
+
+        symbols.clear();
+    }
+
+    /*
+     * Returns the data of a cached repair symbol, or null if the symbol is not cached (the returned array must not be
+     * modified). The owner is an opaque object that identifies the source data of the repair symbol, and must not
+     * reference the encoder, since the cache holds it strongly.
+     */
+    synchronized byte[] get(Object owner, int esi) {
+
+        final byte[] data = symbols.get(new Key(owner, esi));
+        if (data == null) {
+            misses++;
+        }
+        else {
+            hits++;
+        }
+
+        return data;
+    }
+
+    /*
+     * Caches the data of a repair symbol (the array must not be modified afterwards). The owner is the same opaque
+     * object passed to the get method.
+     */
+    synchronized void put(Object owner, int esi, byte[] data) {
+
+        symbols.put(new Key(owner, esi), data);
+    }
+
+
+    private static final class Key {
+
+        private final Object owner; // compared by identity
+        private final int esi;
+
+
+        Key(Object owner, int esi) {
+
+            this.owner = owner;
+            this.esi = esi;
+        }
+
+        @Override
+        public int hashCode() {
+
+            return 31 * System.identityHashCode(owner) + esi;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+
+            return other instanceof Key && ((Key)other).owner == owner && ((Key)other).esi == esi;
+        }
+    }
+}
@@ -24,10 +24,10 @@ import java.nio.ByteBuffer;
 import java.nio.ReadOnlyBufferException;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.EnumMap;
 import java.util.HashMap;
-import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -82,8 +82,22 @@ public final class SBDInfo {
         return new SBDInfo(
             sbn,
             state,
-            Collections.unmodifiableSet(missingSourceSymbols),
-            Collections.unmodifiableSet(availableRepairSymbols));
+            ESISet.copyOf(missingSourceSymbols),
+            ESISet.copyOf(availableRepairSymbols));
+    }
+
+    /**
+     * Requires valid arguments!
+     */
+    @SuppressWarnings("javadoc")
+    static SBDInfo newInformation(
+        int sbn,
+        SourceBlockState state,
+        ESISet missingSourceESIs,
+        ESISet availableRepairESIs)
+    {
+
+        return new SBDInfo(sbn, state, missingSourceESIs, availableRepairESIs);
     }
 
     /**
@@ -208,10 +222,10 @@ public final class SBDInfo {
             final SourceBlockState state = readState(buffer);
 
             final int numMiss = readNumMissingSourceSymbols(buffer, K, state);
-            final Set<Integer> missing = readMissingSourceSymbols(buffer, numMiss, K);
+            final ESISet missing = readMissingSourceSymbols(buffer, numMiss, K);
 
             final int numAvail = readNumAvailableRepairSymbols(buffer, K, state);
-            final Set<Integer> available = readAvailableRepairSymbols(buffer, numAvail, K);
+            final ESISet available = readAvailableRepairSymbols(buffer, numAvail, K);
 
             return newRemoteInfo(sbn, state, missing, available);
         }
@@ -259,10 +273,10 @@ public final class SBDInfo {
             final SourceBlockState state = readState(in);
 
             final int numMiss = readNumMissingSourceSymbols(in, K, state);
-            final Set<Integer> missing = readMissingSourceSymbols(in, numMiss, K);
+            final ESISet missing = readMissingSourceSymbols(in, numMiss, K);
 
             final int numAvail = readNumAvailableRepairSymbols(in, K, state);
-            final Set<Integer> available = readAvailableRepairSymbols(in, numAvail, K);
+            final ESISet available = readAvailableRepairSymbols(in, numAvail, K);
 
             return newRemoteInfo(sbn, state, missing, available);
         }
@@ -315,7 +329,7 @@ public final class SBDInfo {
             final ByteBuffer missingBuf = ByteBuffer.allocate(numMiss * SizeOf.SHORT);
             ExtraChannels.readBytes(ch, missingBuf, BufferOperation.FLIP_ABSOLUTELY);
 
-            final Set<Integer> missing = readMissingSourceSymbols(missingBuf, numMiss, K);
+            final ESISet missing = readMissingSourceSymbols(missingBuf, numMiss, K);
 
             final ByteBuffer numAvailBuf = ByteBuffer.allocate(SizeOf.UNSIGNED_3_BYTES);
             ExtraChannels.readBytes(ch, numAvailBuf, BufferOperation.FLIP_ABSOLUTELY);
@@ -325,7 +339,7 @@ public final class SBDInfo {
             final ByteBuffer availableBuf = ByteBuffer.allocate(numAvail * SizeOf.UNSIGNED_3_BYTES);
             ExtraChannels.readBytes(ch, availableBuf, BufferOperation.FLIP_ABSOLUTELY);
 
-            final Set<Integer> available = readAvailableRepairSymbols(availableBuf, numAvail, K);
+            final ESISet available = readAvailableRepairSymbols(availableBuf, numAvail, K);
 
             return newRemoteInfo(sbn, state, missing, available);
         }
@@ -337,39 +351,31 @@ public final class SBDInfo {
     private static Parsed<SBDInfo> newRemoteInfo(
         int sbn,
         SourceBlockState state,
-        Set<Integer> missingSourceSymbols,
-        Set<Integer> availableRepairSymbols)
+        ESISet missingSourceESIs,
+        ESISet availableRepairESIs)
     {
 
-        return Parsed.of(
-            new SBDInfo(
-                sbn,
-                state,
-                Collections.unmodifiableSet(missingSourceSymbols),
-                Collections.unmodifiableSet(availableRepairSymbols)));
+        return Parsed.of(new SBDInfo(sbn, state, missingSourceESIs, availableRepairESIs));
     }
 
 
     private final int sbn;
     private final SourceBlockState state;
-    private final Set<Integer> missingSourceSymbols;
-    private final Set<Integer> availableRepairSymbols;
+    private final ESISet missingSourceESIs;
+    private final ESISet availableRepairESIs;
 
 
-    /*
-     * Requires unmodifiable sets!
-     */
     private SBDInfo(
         int sbn,
         SourceBlockState state,
-        Set<Integer> missingSourceSymbols,
-        Set<Integer> availableRepairSymbols)
+        ESISet missingSourceESIs,
+        ESISet availableRepairESIs)
     {
 
         this.sbn = sbn;
         this.state = Objects.requireNonNull(state);
-        this.missingSourceSymbols = Objects.requireNonNull(missingSourceSymbols);
-        this.availableRepairSymbols = Objects.requireNonNull(availableRepairSymbols);
+        this.missingSourceESIs = Objects.requireNonNull(missingSourceESIs);
+        this.availableRepairESIs = Objects.requireNonNull(availableRepairESIs);
     }
 
     /**
@@ -411,7 +417,18 @@ public final class SBDInfo {
      */
     public Set<Integer> missingSourceSymbols() {
 
-        return missingSourceSymbols;
+        return missingSourceESIs.asSet();
+    }
+
+    /**
+     * Returns an immutable set containing the encoding symbol identifiers of the missing source symbols from the source
+     * block being decoded. Unlike {@link #missingSourceSymbols()}, the identifiers are stored as primitive integers.
+     * 
+     * @return a set of encoding symbol identifiers of missing source symbols
+     */
+    public ESISet missingSourceESIs() {
+
+        return missingSourceESIs;
     }
 
     /**
@@ -422,7 +439,18 @@ public final class SBDInfo {
      */
     public Set<Integer> availableRepairSymbols() {
 
-        return availableRepairSymbols;
+        return availableRepairESIs.asSet();
+    }
+
+    /**
+     * Returns an immutable set containing the encoding symbol identifiers of the available repair symbols for decoding.
+     * Unlike {@link #availableRepairSymbols()}, the identifiers are stored as primitive integers.
+     * 
+     * @return a set of encoding symbol identifiers of available repair symbols
+     */
+    public ESISet availableRepairESIs() {
+
+        return availableRepairESIs;
     }
 
     /**
@@ -446,8 +474,8 @@ public final class SBDInfo {
 
         return info1.sbn == info2.sbn &&
                info1.state.equals(info2.state) &&
-               info1.missingSourceSymbols.equals(info2.missingSourceSymbols) &&
-               info1.availableRepairSymbols.equals(info2.availableRepairSymbols);
+               info1.missingSourceESIs.equals(info2.missingSourceESIs) &&
+               info1.availableRepairESIs.equals(info2.availableRepairESIs);
     }
 
     /**
@@ -460,8 +488,8 @@ public final class SBDInfo {
         int result = 1;
         result = prime * result + sbn;
         result = prime * result + state.hashCode();
-        result = prime * result + missingSourceSymbols.hashCode();
-        result = prime * result + availableRepairSymbols.hashCode();
+        result = prime * result + missingSourceESIs.hashCode();
+        result = prime * result + availableRepairESIs.hashCode();
         return result;
     }
 
@@ -469,7 +497,7 @@ public final class SBDInfo {
     public String toString() {
 
         return String.format("SBN: %d%nState: %s%nMissing source symbols: %s%nAvailable repair symbols: %s",
-            sbn, state, missingSourceSymbols, availableRepairSymbols);
+            sbn, state, missingSourceESIs, availableRepairESIs);
     }
 
     /**
@@ -628,8 +656,8 @@ public final class SBDInfo {
 
         writeSBN(sbn, buffer);
         writeState(state, buffer);
-        writeMissingSourceSymbols(missingSourceSymbols, buffer);
-        writeAvailableRepairSymbols(availableRepairSymbols, buffer);
+        writeMissingSourceSymbols(missingSourceESIs, buffer);
+        writeAvailableRepairSymbols(availableRepairESIs, buffer);
     }
 
     /**
@@ -665,8 +693,8 @@ public final class SBDInfo {
 
         writeSBN(sbn, out);
         writeState(state, out);
-        writeMissingSourceSymbols(missingSourceSymbols, out);
-        writeAvailableRepairSymbols(availableRepairSymbols, out);
+        writeMissingSourceSymbols(missingSourceESIs, out);
+        writeAvailableRepairSymbols(availableRepairESIs, out);
     }
 
     /**
@@ -701,8 +729,8 @@ public final class SBDInfo {
 
     private int getEncodedByteSize() {
 
-        final int numMissBytes = SizeOf.SHORT * missingSourceSymbols.size();
-        final int numAvaBytes = SizeOf.UNSIGNED_3_BYTES * availableRepairSymbols.size();
+        final int numMissBytes = SizeOf.SHORT * missingSourceESIs.size();
+        final int numAvaBytes = SizeOf.UNSIGNED_3_BYTES * availableRepairESIs.size();
         return SizeOf.BYTE + SizeOf.BYTE + SizeOf.SHORT + numMissBytes + SizeOf.UNSIGNED_3_BYTES + numAvaBytes;
     }
 
@@ -845,19 +873,21 @@ public final class SBDInfo {
      * range of each ESI: [minESI, maxSrcESI]
      */
 
-    private static void writeMissingSourceSymbols(Set<Integer> missing, ByteBuffer buf) {
+    private static void writeMissingSourceSymbols(ESISet missing, ByteBuffer buf) {
 
-        UnsignedTypes.writeUnsignedShort(missing.size(), buf);
-        for (int esi : missing) {
-            UnsignedTypes.writeUnsignedShort(esi, buf);
+        final int size = missing.size();
+        UnsignedTypes.writeUnsignedShort(size, buf);
+        for (int n = 0; n < size; n++) {
+            UnsignedTypes.writeUnsignedShort(missing.get(n), buf);
         }
     }
 
-    private static void writeMissingSourceSymbols(Set<Integer> missing, DataOutput out) throws IOException {
+    private static void writeMissingSourceSymbols(ESISet missing, DataOutput out) throws IOException {
 
-        out.writeShort((short)missing.size());
-        for (int esi : missing) {
-            out.writeShort((short)esi);
+        final int size = missing.size();
+        out.writeShort((short)size);
+        for (int n = 0; n < size; n++) {
+            out.writeShort((short)missing.get(n));
         }
     }
 
@@ -892,7 +922,7 @@ public final class SBDInfo {
     }
 
     // requires valid numMiss
-    private static Set<Integer> readMissingSourceSymbols(ByteBuffer buf, int numMiss, int K)
+    private static ESISet readMissingSourceSymbols(ByteBuffer buf, int numMiss, int K)
         throws InternalParsingException
     {
 
@@ -903,39 +933,42 @@ public final class SBDInfo {
                 (numMiss * SizeOf.SHORT), rem));
         }
 
-        final Set<Integer> missing = new LinkedHashSet<>(numMiss);
+        final int[] missing = new int[numMiss];
+        final BitSet found = new BitSet(K);
         for (int n = 0; n < numMiss; n++) {
-            final int esi = UnsignedTypes.readUnsignedShort(buf);
-            addMissingSourceSymbolESI(esi, missing, K);
+            missing[n] = checkMissingSourceSymbolESI(UnsignedTypes.readUnsignedShort(buf), found, K);
         }
 
-        return missing;
+        return ESISet.wrap(missing);
     }
 
     // requires valid numMiss
-    private static Set<Integer> readMissingSourceSymbols(DataInput in, int numMiss, int K)
+    private static ESISet readMissingSourceSymbols(DataInput in, int numMiss, int K)
         throws IOException, InternalParsingException
     {
 
-        final Set<Integer> missing = new LinkedHashSet<>(numMiss);
+        final int[] missing = new int[numMiss];
+        final BitSet found = new BitSet(K);
         for (int n = 0; n < numMiss; n++) {
-            final int esi = UnsignedTypes.getUnsignedShort(in.readShort());
-            addMissingSourceSymbolESI(esi, missing, K);
+            missing[n] = checkMissingSourceSymbolESI(UnsignedTypes.getUnsignedShort(in.readShort()), found, K);
         }
 
-        return missing;
+        return ESISet.wrap(missing);
     }
 
-    private static void addMissingSourceSymbolESI(int esi, Set<Integer> missing, int K)
+    private static int checkMissingSourceSymbolESI(int esi, BitSet found, int K)
         throws InternalParsingException
     {
 
         if (esi < minESI || esi >= K) {
             throw new InternalParsingException("missing source symbol identifier is out of bounds");
         }
-        if (!missing.add(esi)) {
+        if (found.get(esi)) {
             throw new InternalParsingException("found repeated missing source symbol identifier");
         }
+
+        found.set(esi);
+        return esi;
     }
 
     /*
@@ -945,19 +978,21 @@ public final class SBDInfo {
      * range of each ESI: [minRepESI, maxESI]
      */
 
-    private static void writeAvailableRepairSymbols(Set<Integer> available, ByteBuffer buf) {
+    private static void writeAvailableRepairSymbols(ESISet available, ByteBuffer buf) {
 
-        UnsignedTypes.writeUnsignedBytes(available.size(), buf, SizeOf.UNSIGNED_3_BYTES);
-        for (int esi : available) {
-            UnsignedTypes.writeUnsignedBytes(esi, buf, SizeOf.UNSIGNED_3_BYTES);
+        final int size = available.size();
+        UnsignedTypes.writeUnsignedBytes(size, buf, SizeOf.UNSIGNED_3_BYTES);
+        for (int n = 0; n < size; n++) {
+            UnsignedTypes.writeUnsignedBytes(available.get(n), buf, SizeOf.UNSIGNED_3_BYTES);
         }
     }
 
-    private static void writeAvailableRepairSymbols(Set<Integer> available, DataOutput out) throws IOException {
+    private static void writeAvailableRepairSymbols(ESISet available, DataOutput out) throws IOException {
 
-        out.write(UnsignedTypes.getUnsignedBytesAsArray(available.size(), SizeOf.UNSIGNED_3_BYTES));
-        for (int esi : available) {
-            out.write(UnsignedTypes.getUnsignedBytesAsArray(esi, SizeOf.UNSIGNED_3_BYTES));
+        final int size = available.size();
+        out.write(UnsignedTypes.getUnsignedBytesAsArray(size, SizeOf.UNSIGNED_3_BYTES));
+        for (int n = 0; n < size; n++) {
+            out.write(UnsignedTypes.getUnsignedBytesAsArray(available.get(n), SizeOf.UNSIGNED_3_BYTES));
         }
     }
 
@@ -1001,7 +1036,7 @@ public final class SBDInfo {
     }
 
     // requires valid numAvail
-    private static Set<Integer> readAvailableRepairSymbols(ByteBuffer buf, int numAvail, int K)
+    private static ESISet readAvailableRepairSymbols(ByteBuffer buf, int numAvail, int K)
         throws InternalParsingException
     {
 
@@ -1012,42 +1047,52 @@ public final class SBDInfo {
                 (numAvail * SizeOf.UNSIGNED_3_BYTES), rem));
         }
 
-        final Set<Integer> available = new LinkedHashSet<>(numAvail);
+        final int[] available = new int[numAvail];
         for (int n = 0; n < numAvail; n++) {
             final int esi = UnsignedTypes.readUnsignedBytes(buf, SizeOf.UNSIGNED_3_BYTES);
-            addAvailableRepairSymbolESI(esi, available, K);
+            available[n] = checkAvailableRepairSymbolESI(esi, K);
         }
 
-        return available;
+        return newAvailableRepairSymbols(available);
     }
 
     // requires valid numAvail
-    private static Set<Integer> readAvailableRepairSymbols(DataInput in, int numAvail, int K)
+    private static ESISet readAvailableRepairSymbols(DataInput in, int numAvail, int K)
         throws IOException, InternalParsingException
     {
 
         final byte[] _3byteArray = new byte[SizeOf.UNSIGNED_3_BYTES];
 
-        final Set<Integer> available = new LinkedHashSet<>(numAvail);
+        final int[] available = new int[numAvail];
         for (int n = 0; n < numAvail; n++) {
             in.readFully(_3byteArray);
             final int esi = UnsignedTypes.getUnsignedBytes(_3byteArray, SizeOf.UNSIGNED_3_BYTES);
-            addAvailableRepairSymbolESI(esi, available, K);
+            available[n] = checkAvailableRepairSymbolESI(esi, K);
         }
 
-        return available;
+        return newAvailableRepairSymbols(available);
     }
 
-    private static void addAvailableRepairSymbolESI(int esi, Set<Integer> available, int K)
-        throws InternalParsingException
-    {
+    private static int checkAvailableRepairSymbolESI(int esi, int K) throws InternalParsingException {
 
         if (esi < K || esi > maxESI) {
             throw new InternalParsingException("available repair symbol identifier is out of bounds");
         }
-        if (!available.add(esi)) {
-            throw new InternalParsingException("found repeated available repair symbol identifier");
+        return esi;
+    }
+
+    // repair symbol identifiers may be too sparse for a bit set, so repetitions are found in a sorted copy
+    private static ESISet newAvailableRepairSymbols(int[] available) throws InternalParsingException {
+
+        final int[] sorted = available.clone();
+        Arrays.sort(sorted);
+        for (int n = 1; n < sorted.length; n++) {
+            if (sorted[n - 1] == sorted[n]) {
+                throw new InternalParsingException("found repeated available repair symbol identifier");
+            }
         }
+
+        return ESISet.wrap(available);
     }
 
 
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq;
+
+
+/**
+ * An enum value indicating which algorithm solves the system of linear equations that produces the intermediate
+ * symbols of a source block, when a source block is decoded (or encoded without a precomputed solution).
+ * <p>
+ * Every algorithm produces the same intermediate symbols, and fails to decode exactly the same systems; they differ
+ * only in speed.
+ * 
+ * @see EncoderOptions#withSolverPolicy(SolverPolicy)
+ * @see net.fec.openrq.decoder.SourceBlockDecoder#setSolverPolicy(SolverPolicy)
+ */
+public enum SolverPolicy {
+
+    /**
+     * Policy value indicating that the algorithm is selected for each system, according to the number of source
+     * symbols and the number of extra repair symbols. The permanent inactivation decoding is selected unless another
+     * algorithm was measured to be faster for systems of that size.
+     */
+    AUTOMATIC,
+
+    /**
+     * Policy value indicating that the permanent inactivation decoding of RFC 6330 is always used.
+     */
+    PERMANENT_INACTIVATION,
+
+    /**
+     * Policy value indicating that a regular Gaussian elimination over a dense copy of the system is always used.
+     * <p>
+     * This algorithm requires memory and time that grow quickly with the number of source symbols, and is only
+     * suitable for very small source blocks.
+     */
+    GAUSSIAN_ELIMINATION,
+
+    /**
+     * Policy value indicating that a peeling stage over the sparse equations, followed by a dense Gaussian elimination
+     * of the remaining equations, is always used.
+     */
+    PEELING
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq.decoder;
+
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * A callback that receives back the ownership of a buffer previously leased to a source block decoder.
+ * 
+ * @see SourceBlockDecoder#leaseRepairSymbol(int, ByteBuffer, BufferReleaser)
+ */
+public interface BufferReleaser {
+
+    /**
+     * Returns the ownership of the provided buffer to its original owner. After this method is called, the decoder that
+     * leased the buffer no longer accesses it.
+     * <p>
+     * <b>Note</b>: this method is called while the decoder is locked, so it should return quickly (for example, by
+     * returning the buffer to a pool).
+     * 
+     * @param buffer
+     *            The same buffer object that was leased to the decoder (its contents and position are unspecified)
+     */
+    public void release(ByteBuffer buffer);
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq.decoder;
+
+/**
+ * An enum value indicating how a source block decoder admits received repair symbols.
+ * <p>
+ * A decoder starts decoding as soon as it has enough repair symbols to cover the missing source symbols plus the
+ * {@linkplain SourceBlockDecoder#symbolOverhead() symbol overhead}. Therefore, repair symbols accumulate only after a
+ * decoding failure, because every subsequent repair symbol triggers a new decoding operation and is kept until the
+ * source block is decoded.
+ * <p>
+ * Every policy other than {@link #ADMIT_ALL} limits the number of repair symbols kept by a decoder to a <em>repair
+ * capacity</em>, which equals the number of missing source symbols, plus the symbol overhead, plus a configurable
+ * margin. After a decoding failure, a decoder may keep the received symbols in an incremental decoding state, so that
+ * it can continue decoding from that state; under these policies, that state is only kept if it does not require more
+ * memory than the repair capacity times the symbol size.
+ * 
+ * @see SourceBlockDecoder#setRepairAdmissionPolicy(RepairAdmissionPolicy, int)
+ */
+public enum RepairAdmissionPolicy {
+
+    /**
+     * Policy value indicating that every received repair symbol is kept until the source block is decoded.
+     */
+    ADMIT_ALL,
+
+    /**
+     * Policy value indicating that a received repair symbol is discarded if the repair capacity is already reached.
+     * <p>
+     * After the margin is exhausted by decoding failures, the decoder can only make progress by receiving missing
+     * source symbols.
+     */
+    DROP_EXCESS,
+
+    /**
+     * Policy value indicating that a received repair symbol replaces the oldest kept repair symbol if the repair
+     * capacity is already reached.
+     * <p>
+     * After a decoding failure, each received repair symbol triggers a new decoding operation with a different set of
+     * repair symbols.
+     */
+    REPLACE_OLDEST
+}
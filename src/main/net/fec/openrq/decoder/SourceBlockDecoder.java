@@ -17,10 +17,14 @@
 package net.fec.openrq.decoder;
 
 
+import java.nio.ByteBuffer;
 import java.util.Set;
 
+import net.fec.openrq.ESIConsumer;
+import net.fec.openrq.ESISet;
 import net.fec.openrq.EncodingPacket;
 import net.fec.openrq.SBDInfo;
+import net.fec.openrq.SolverPolicy;
 import net.fec.openrq.parameters.ParameterChecker;
 
 
@@ -48,6 +52,11 @@ import net.fec.openrq.parameters.ParameterChecker;
  * {@link #missingSourceSymbols()} returns a set with the identifiers of all missing source symbols, and the method
  * {@link #availableRepairSymbols()} returns a set with the identifiers of all available repair symbols so far.
  * <p>
+ * When this information is queried frequently (for example, to produce feedback for the sender many times per second),
+ * the methods {@link #missingSourceESIs()} and {@link #availableRepairESIs()} return compact snapshots of primitive
+ * identifiers, and the methods {@link #forEachMissingSourceSymbol(ESIConsumer)} and
+ * {@link #forEachAvailableRepairSymbol(ESIConsumer)} visit the identifiers without creating any objects.
+ * <p>
  * <a name="symbol-overhead">
  * <h5>Symbol overhead</h5></a>
  * <p>
@@ -205,6 +214,57 @@ public interface SourceBlockDecoder {
      */
     public Set<Integer> availableRepairSymbols();
 
+    /**
+     * Returns an immutable snapshot of the encoding symbol identifiers of the missing source symbols from the source
+     * block being decoded. The returned set has an iteration ordering of ascending encoding symbol identifiers.
+     * <p>
+     * Unlike {@link #missingSourceSymbols()}, the identifiers are stored as primitive integers.
+     * 
+     * @return a snapshot of the encoding symbol identifiers of missing source symbols
+     */
+    public ESISet missingSourceESIs();
+
+    /**
+     * Returns an immutable snapshot of the encoding symbol identifiers of the available repair symbols for decoding.
+     * If the source block is already decoded, then an empty set is returned instead.
+     * <p>
+     * The returned set iteration follows the order by which repair symbols have been received. Unlike
+     * {@link #availableRepairSymbols()}, the identifiers are stored as primitive integers.
+     * 
+     * @return a snapshot of the encoding symbol identifiers of available repair symbols, or an empty set if the source
+     *         block is already decoded
+     */
+    public ESISet availableRepairESIs();
+
+    /**
+     * Performs the provided operation on the encoding symbol identifier of every missing source symbol from the source
+     * block being decoded, in ascending order. No objects are created during the traversal.
+     * <p>
+     * <b>Note</b>: the operation is performed while this decoder is locked, so other threads accessing this decoder
+     * will block until this method returns.
+     * 
+     * @param consumer
+     *            The operation to be performed on each identifier
+     * @exception NullPointerException
+     *                If {@code consumer} is {@code null}
+     */
+    public void forEachMissingSourceSymbol(ESIConsumer consumer);
+
+    /**
+     * Performs the provided operation on the encoding symbol identifier of every available repair symbol for decoding,
+     * following the order by which repair symbols have been received. No objects are created during the traversal. If
+     * the source block is already decoded, then the operation is never performed.
+     * <p>
+     * <b>Note</b>: the operation is performed while this decoder is locked, so other threads accessing this decoder
+     * will block until this method returns.
+     * 
+     * @param consumer
+     *            The operation to be performed on each identifier
+     * @exception NullPointerException
+     *                If {@code consumer} is {@code null}
+     */
+    public void forEachAvailableRepairSymbol(ESIConsumer consumer);
+
     /**
      * Returns current information from this decoder inside an {@code SBDInfo} object. The information will consist
      * of the {@linkplain #sourceBlockNumber() source block number}, the {@linkplain #latestState() latest state}, the
@@ -238,6 +298,53 @@ public interface SourceBlockDecoder {
      */
     public SourceBlockState putEncodingPacket(EncodingPacket packet);
 
+    /**
+     * Receives a repair symbol for the source block being decoded, stored in a buffer that is leased to this decoder
+     * instead of being copied. If enough symbols (source and repair) are available, then a decoding operation takes
+     * place, and the result of this method invocation has the same meaning as in method
+     * {@link #putEncodingPacket(EncodingPacket)}.
+     * <p>
+     * The symbol data is read from the position to the limit of the provided buffer, and the number of remaining bytes
+     * must be equal to the {@linkplain net.fec.openrq.parameters.FECParameters#symbolSize() symbol size}. From the
+     * moment this method is called, the buffer is owned by this decoder, and the caller must not access it until it is
+     * passed to the {@linkplain BufferReleaser#release(ByteBuffer) release} method of the provided releaser. The buffer
+     * is released:
+     * <ul>
+     * <li>immediately, if the source block is already decoded, if the repair symbol was already received, or if the
+     * {@linkplain #repairAdmissionPolicy() repair admission policy} drops the symbol;
+     * <li>when the repair symbol is removed by the repair admission policy;
+     * <li>when the source block is decoded;
+     * <li>when a decoding operation fails and the buffer contents were used as working storage for that operation (in
+     * which case the repair symbol is also discarded and counted as {@linkplain #numDroppedRepairSymbols() dropped}).
+     * </ul>
+     * <p>
+     * If the buffer is backed by an accessible array and the symbol data spans the whole array, then the array is used
+     * directly as working storage during decoding, and no data copies are performed; otherwise, the data is copied once
+     * when a decoding operation takes place. A progressive decoder copies the data once when the symbol is received,
+     * since its incremental solver keeps the copy while the buffer may be released.
+     * <p>
+     * <b><em>Bounds checking</em></b> - If we have {@code K} as the number of source symbols into which is divided the
+     * source block being decoded, and {@code max_esi} as the {@linkplain ParameterChecker#maxEncodingSymbolID() maximum
+     * value for the encoding symbol identifier}, then the following must be true, otherwise an
+     * {@code IllegalArgumentException} is thrown:
+     * <ul>
+     * <li>{@code esi} &ge; {@code K} <li>{@code esi} &le; {@code max_esi} </ul>
+     * 
+     * @param esi
+     *            The encoding symbol identifier of the repair symbol
+     * @param symbolBuf
+     *            A buffer containing the repair symbol data
+     * @param releaser
+     *            The callback that receives the buffer when this decoder no longer needs it
+     * @return a {@code SourceBlockState} value indicating the result of the method invocation
+     * @exception IllegalArgumentException
+     *                If the provided encoding symbol identifier is invalid, or if {@code symbolBuf.remaining()} is not
+     *                equal to the symbol size
+     * @exception NullPointerException
+     *                If {@code symbolBuf} or {@code releaser} are {@code null}
+     */
+    public SourceBlockState leaseRepairSymbol(int esi, ByteBuffer symbolBuf, BufferReleaser releaser);
+
     /**
      * Returns the current repair symbol overhead. For information on this value, refer to the section on
      * <a href="#symbol-overhead"><em>Symbol overhead</em></a> in the class header.
@@ -265,4 +372,77 @@ public interface SourceBlockDecoder {
      * @see #symbolOverhead()
      */
     public void setSymbolOverhead(int symbOver);
+
+    /**
+     * Returns the current policy that selects the algorithm used to decode the source block. The policy of a newly
+     * created decoder is always {@link SolverPolicy#AUTOMATIC AUTOMATIC}.
+     * 
+     * @return the current policy that selects the decoding algorithm
+     * @see #setSolverPolicy(SolverPolicy)
+     */
+    public SolverPolicy solverPolicy();
+
+    /**
+     * Sets the policy that selects the algorithm used by the next decoding operations of the source block.
+     * 
+     * @param policy
+     *            The policy that selects the decoding algorithm
+     * @exception NullPointerException
+     *                If {@code policy} is {@code null}
+     * @see #solverPolicy()
+     */
+    public void setSolverPolicy(SolverPolicy policy);
+
+    /**
+     * Returns the current policy for admitting received repair symbols. The policy of a newly created decoder is always
+     * {@link RepairAdmissionPolicy#ADMIT_ALL ADMIT_ALL}.
+     * 
+     * @return the current policy for admitting received repair symbols
+     * @see #setRepairAdmissionPolicy(RepairAdmissionPolicy, int)
+     */
+    public RepairAdmissionPolicy repairAdmissionPolicy();
+
+    /**
+     * Returns the current repair capacity margin, that is, the number of repair symbols that can be kept beyond the
+     * number of missing source symbols plus the {@linkplain #symbolOverhead() symbol overhead}. The margin of a newly
+     * created decoder is always {@code 0}.
+     * 
+     * @return the current repair capacity margin
+     * @see #setRepairAdmissionPolicy(RepairAdmissionPolicy, int)
+     */
+    public int repairAdmissionMargin();
+
+    /**
+     * Sets the policy for admitting received repair symbols, and the repair capacity margin. A bounded policy keeps the
+     * memory used by this decoder predictable when repair symbols arrive in large numbers, since the number of kept
+     * repair symbols never exceeds the repair capacity (refer to {@link RepairAdmissionPolicy} for details).
+     * <p>
+     * The new policy only affects repair symbols received after this method is called.
+     * 
+     * @param policy
+     *            A policy for admitting received repair symbols
+     * @param margin
+     *            A number of extra repair symbols (must be non-negative)
+     * @exception NullPointerException
+     *                If {@code policy} is {@code null}
+     * @exception IllegalArgumentException
+     *                If the specified repair capacity margin is negative
+     */
+    public void setRepairAdmissionPolicy(RepairAdmissionPolicy policy, int margin);
+
+    /**
+     * Returns the number of received repair symbols that were discarded by the
+     * {@linkplain #repairAdmissionPolicy() repair admission policy}.
+     * 
+     * @return the number of discarded repair symbols
+     */
+    public long numDroppedRepairSymbols();
+
+    /**
+     * Returns the number of kept repair symbols that were replaced by newly received ones, according to the
+     * {@linkplain #repairAdmissionPolicy() repair admission policy}.
+     * 
+     * @return the number of replaced repair symbols
+     */
+    public long numReplacedRepairSymbols();
 }
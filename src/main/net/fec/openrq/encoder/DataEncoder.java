@@ -17,6 +17,9 @@
 package net.fec.openrq.encoder;
 
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
 import net.fec.openrq.parameters.FECParameters;
 
 
@@ -93,5 +96,85 @@ public interface DataEncoder {
      * @return a new iterable over all source block encoders
      */
     public Iterable<SourceBlockEncoder> sourceBlockIterable();
-}
 
+    /**
+     * Computes in advance the intermediate symbols of all source blocks, as if by calling
+     * {@link SourceBlockEncoder#precomputeIntermediateSymbols()} on every source block encoder. Each source block is
+     * computed by a separate task, and all tasks are executed by the provided executor (which may be, for example, a
+     * {@link java.util.concurrent.ForkJoinPool}).
+     * <p>
+     * The returned future completes when every task has finished. If some task fails, the future throws an
+     * {@code ExecutionException} whose cause is the task failure. Cancelling the future prevents tasks that have not
+     * yet started from computing anything.
+     * 
+     * @param executor
+     *            The executor of the precomputation tasks
+     * @return a future that completes when the intermediate symbols of all source blocks are computed
+     * @exception NullPointerException
+     *                If {@code executor} is {@code null}
+     * @exception java.util.concurrent.RejectedExecutionException
+     *                If the executor does not accept some task, in which case the tasks that were already accepted
+     *                compute nothing unless they are running
+     */
+    public Future<?> precomputeSourceBlocks(Executor executor);
+
+    /**
+     * Computes in advance the intermediate symbols of the source blocks within a range of source block numbers, in the
+     * same way as method {@link #precomputeSourceBlocks(Executor)}.
+     * <p>
+     * <b><em>Bounds checking</em></b> - If we have {@code Z} as the number of source blocks into which is divided the
+     * the source data being encoded, then the following must be true, otherwise an {@code IllegalArgumentException} is
+     * thrown:
+     * <ul>
+     * <li>{@code fromSBN} &ge; 0
+     * <li>{@code fromSBN} &le; {@code toSBN}
+     * <li>{@code toSBN} &le; {@code Z} </ul>
+     * 
+     * @param fromSBN
+     *            The first source block number (inclusive)
+     * @param toSBN
+     *            The last source block number (exclusive)
+     * @param executor
+     *            The executor of the precomputation tasks
+     * @return a future that completes when the intermediate symbols of the source blocks in the range are computed
+     * @exception IllegalArgumentException
+     *                If the provided range of source block numbers is invalid
+     * @exception NullPointerException
+     *                If {@code executor} is {@code null}
+     * @exception java.util.concurrent.RejectedExecutionException
+     *                If the executor does not accept some task, in which case the tasks that were already accepted
+     *                compute nothing unless they are running
+     */
+    public Future<?> precomputeSourceBlocks(int fromSBN, int toSBN, Executor executor);
+
+    /**
+     * Returns a new rateless stream of repair packets of all source blocks, each packet containing one repair symbol,
+     * whose upcoming packets are generated ahead of time by tasks executed by the provided executor.
+     * <p>
+     * The stream interleaves the source blocks: it returns the first repair packet of every source block (in order of
+     * source block number), then the second repair packet of every source block, and so on, until the maximum encoding
+     * symbol identifier is reached by some source block. The generation of the packets is done as described in
+     * {@link SourceBlockEncoder#repairPacketStream(int, int, int, Executor)}.
+     * 
+     * @param capacity
+     *            The maximum number of generated packets that are kept by the stream until they are taken
+     * @param parallelism
+     *            The maximum number of tasks that generate packets at the same time
+     * @param executor
+     *            The executor of the tasks that generate the packets
+     * @return a new stream of repair packets
+     * @exception IllegalArgumentException
+     *                If {@code capacity} or {@code parallelism} is not positive
+     * @exception NullPointerException
+     *                If {@code executor} is {@code null}
+     * @exception java.util.concurrent.RejectedExecutionException
+     *                If the executor does not accept the first tasks
+     */
+    public RepairPacketStream repairPacketStream(int capacity, int parallelism, Executor executor);
+
+    /**
+     * Releases the memory held by the intermediate symbols of all source blocks, as if by calling
+     * {@link SourceBlockEncoder#releaseIntermediateSymbols()} on every source block encoder.
+     */
+    public void releaseIntermediateSymbols();
+}
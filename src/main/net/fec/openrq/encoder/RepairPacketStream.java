@@ -0,0 +1,79 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq.encoder;
+
+
+import java.util.NoSuchElementException;
+
+import net.fec.openrq.EncodingPacket;
+
+
+/**
+ * A rateless source of repair packets, whose upcoming packets are generated ahead of time by tasks executed in the
+ * background.
+ * <p>
+ * Repair packets are returned in a fixed order (see {@link SourceBlockEncoder#repairPacketStream(int, int, int,
+ * java.util.concurrent.Executor)} and {@link DataEncoder#repairPacketStream(int, int, java.util.concurrent.Executor)}),
+ * each one containing one repair symbol. Generated packets are kept in a bounded buffer until they are taken: when
+ * the buffer is full, the generation stops until some packet is taken, so the memory used by a stream is bounded by
+ * its capacity.
+ * <p>
+ * A stream should be {@linkplain #close() closed} when no more packets are needed, so that no more packets are
+ * generated. Instances of this interface are thread-safe, but packets are usually taken by a single sending thread.
+ */
+public interface RepairPacketStream extends AutoCloseable {
+
+    /**
+     * Returns the maximum number of generated packets that are kept by this stream until they are taken.
+     * 
+     * @return the capacity of this stream
+     */
+    public int capacity();
+
+    /**
+     * Returns the next repair packet, waiting if necessary until it is generated.
+     * 
+     * @return the next repair packet
+     * @exception InterruptedException
+     *                If the current thread is interrupted while waiting
+     * @exception NoSuchElementException
+     *                If the maximum encoding symbol identifier was exceeded, so no more repair packets exist
+     * @exception IllegalStateException
+     *                If this stream is closed, or if the generation of some packet failed (the failure is the cause of
+     *                the exception)
+     */
+    public EncodingPacket take() throws InterruptedException;
+
+    /**
+     * Returns the next repair packet if it is already generated, or {@code null} otherwise.
+     * 
+     * @return the next repair packet, or {@code null} if it is not generated yet
+     * @exception NoSuchElementException
+     *                If the maximum encoding symbol identifier was exceeded, so no more repair packets exist
+     * @exception IllegalStateException
+     *                If this stream is closed, or if the generation of some packet failed (the failure is the cause of
+     *                the exception)
+     */
+    public EncodingPacket poll();
+
+    /**
+     * Stops the generation of repair packets, and discards the packets that were not taken. Packets that are being
+     * generated when this method is called are discarded as soon as they are finished. Closing a closed stream has no
+     * effect.
+     */
+    @Override
+    public void close();
+}
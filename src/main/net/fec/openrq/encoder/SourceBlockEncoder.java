@@ -17,6 +17,11 @@
 package net.fec.openrq.encoder;
 
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.concurrent.Executor;
+
 import net.fec.openrq.EncodingPacket;
 import net.fec.openrq.parameters.ParameterChecker;
 
@@ -293,6 +298,144 @@ public interface SourceBlockEncoder {
      */
     public EncodingPacket repairPacket(int esi, int numSymbols);
 
+    /**
+     * Writes the data of multiple repair symbols from the source block being encoded into the provided array, without
+     * creating intermediate objects. The written data is the same as the {@linkplain EncodingPacket#symbols() symbols
+     * data} in the packet returned by {@link #repairPacket(int, int) repairPacket(esi, numSymbols)}, and has a length
+     * of {@code numSymbols * T} bytes, where {@code T} is the symbol size.
+     * <p>
+     * <b><em>Bounds checking</em></b> - If we have {@code K} as the number of source symbols into which is divided the
+     * source block being encoded, and {@code max_esi} as the {@linkplain ParameterChecker#maxEncodingSymbolID() maximum
+     * value for the encoding symbol identifier}, then the following must be true, otherwise an
+     * {@code IllegalArgumentException} is thrown:
+     * <ul>
+     * <li>{@code esi} &ge; {@code K} <li>{@code esi} &le; {@code max_esi} <li>{@code numSymbols} &gt; 0
+     * <li>{@code numSymbols} &le; ({@code 1 + max_esi - esi})
+     * </ul>
+     * 
+     * @param esi
+     *            The encoding symbol identifier of the first repair symbol
+     * @param numSymbols
+     *            The number of repair symbols to be written
+     * @param array
+     *            An array on which the repair symbols data is written
+     * @param offset
+     *            The starting array index at which the repair symbols data is written
+     * @exception IllegalArgumentException
+     *                If the provided encoding symbol identifier or the number of symbols are invalid
+     * @exception IndexOutOfBoundsException
+     *                If the offset is negative or if the length of the array region starting at the offset is
+     *                insufficient to hold the repair symbols data
+     * @exception NullPointerException
+     *                If {@code array} is {@code null}
+     */
+    public void writeRepairSymbols(int esi, int numSymbols, byte[] array, int offset);
+
+    /**
+     * Writes the data of multiple repair symbols from the source block being encoded into the provided buffer, without
+     * creating intermediate objects. The written data is the same as in method
+     * {@link #writeRepairSymbols(int, int, byte[], int)}.
+     * <p>
+     * The provided buffer (which may be {@linkplain ByteBuffer#isDirect() direct}) must not be
+     * {@linkplain ByteBuffer#isReadOnly() read-only}, and must have at least {@code numSymbols * T} bytes
+     * {@linkplain ByteBuffer#remaining() remaining}. If this method returns normally, the position of the provided
+     * buffer will have been advanced by the same amount.
+     * <p>
+     * <b><em>Bounds checking</em></b> - If we have {@code K} as the number of source symbols into which is divided the
+     * source block being encoded, and {@code max_esi} as the {@linkplain ParameterChecker#maxEncodingSymbolID() maximum
+     * value for the encoding symbol identifier}, then the following must be true, otherwise an
+     * {@code IllegalArgumentException} is thrown:
+     * <ul>
+     * <li>{@code esi} &ge; {@code K} <li>{@code esi} &le; {@code max_esi} <li>{@code numSymbols} &gt; 0
+     * <li>{@code numSymbols} &le; ({@code 1 + max_esi - esi})
+     * </ul>
+     * 
+     * @param esi
+     *            The encoding symbol identifier of the first repair symbol
+     * @param numSymbols
+     *            The number of repair symbols to be written
+     * @param buffer
+     *            A buffer on which the repair symbols data is written
+     * @exception IllegalArgumentException
+     *                If the provided encoding symbol identifier or the number of symbols are invalid
+     * @exception ReadOnlyBufferException
+     *                If the provided buffer is read-only
+     * @exception BufferOverflowException
+     *                If the provided buffer has less than {@code numSymbols * T} bytes remaining
+     * @exception NullPointerException
+     *                If {@code buffer} is {@code null}
+     */
+    public void writeRepairSymbols(int esi, int numSymbols, ByteBuffer buffer);
+
+    /**
+     * Writes an encoding packet with multiple repair symbols from the source block being encoded into the provided
+     * array, without creating intermediate objects. The written data is the same as the one written by
+     * {@code repairPacket(esi, numSymbols).writeTo(array, offset)} (see {@link EncodingPacket#writeTo(byte[], int)}),
+     * and has a length of {@code 8 + numSymbols * T} bytes, where {@code T} is the symbol size.
+     * <p>
+     * <b><em>Bounds checking</em></b> - If we have {@code K} as the number of source symbols into which is divided the
+     * source block being encoded, and {@code max_esi} as the {@linkplain ParameterChecker#maxEncodingSymbolID() maximum
+     * value for the encoding symbol identifier}, then the following must be true, otherwise an
+     * {@code IllegalArgumentException} is thrown:
+     * <ul>
+     * <li>{@code esi} &ge; {@code K} <li>{@code esi} &le; {@code max_esi} <li>{@code numSymbols} &gt; 0
+     * <li>{@code numSymbols} &le; ({@code 1 + max_esi - esi})
+     * </ul>
+     * 
+     * @param esi
+     *            The encoding symbol identifier of the first repair symbol
+     * @param numSymbols
+     *            The number of repair symbols in the packet
+     * @param array
+     *            An array on which the packet contents are written
+     * @param offset
+     *            The starting array index at which the packet contents are written
+     * @exception IllegalArgumentException
+     *                If the provided encoding symbol identifier or the number of symbols are invalid
+     * @exception IndexOutOfBoundsException
+     *                If the offset is negative or if the length of the array region starting at the offset is
+     *                insufficient to hold the packet contents
+     * @exception NullPointerException
+     *                If {@code array} is {@code null}
+     */
+    public void writeRepairPacket(int esi, int numSymbols, byte[] array, int offset);
+
+    /**
+     * Writes an encoding packet with multiple repair symbols from the source block being encoded into the provided
+     * buffer, without creating intermediate objects. The written data is the same as the one written by
+     * {@code repairPacket(esi, numSymbols).writeTo(buffer)} (see {@link EncodingPacket#writeTo(ByteBuffer)}).
+     * <p>
+     * The provided buffer (which may be {@linkplain ByteBuffer#isDirect() direct}) must not be
+     * {@linkplain ByteBuffer#isReadOnly() read-only}, and must have at least {@code 8 + numSymbols * T} bytes
+     * {@linkplain ByteBuffer#remaining() remaining}. If this method returns normally, the position of the provided
+     * buffer will have been advanced by the same amount.
+     * <p>
+     * <b><em>Bounds checking</em></b> - If we have {@code K} as the number of source symbols into which is divided the
+     * source block being encoded, and {@code max_esi} as the {@linkplain ParameterChecker#maxEncodingSymbolID() maximum
+     * value for the encoding symbol identifier}, then the following must be true, otherwise an
+     * {@code IllegalArgumentException} is thrown:
+     * <ul>
+     * <li>{@code esi} &ge; {@code K} <li>{@code esi} &le; {@code max_esi} <li>{@code numSymbols} &gt; 0
+     * <li>{@code numSymbols} &le; ({@code 1 + max_esi - esi})
+     * </ul>
+     * 
+     * @param esi
+     *            The encoding symbol identifier of the first repair symbol
+     * @param numSymbols
+     *            The number of repair symbols in the packet
+     * @param buffer
+     *            A buffer on which the packet contents are written
+     * @exception IllegalArgumentException
+     *                If the provided encoding symbol identifier or the number of symbols are invalid
+     * @exception ReadOnlyBufferException
+     *                If the provided buffer is read-only
+     * @exception BufferOverflowException
+     *                If the provided buffer has less than {@code 8 + numSymbols * T} bytes remaining
+     * @exception NullPointerException
+     *                If {@code buffer} is {@code null}
+     */
+    public void writeRepairPacket(int esi, int numSymbols, ByteBuffer buffer);
+
     /**
      * Returns a new builder object for an iterable over encoding packets.
      * <p>
@@ -366,4 +509,61 @@ public interface SourceBlockEncoder {
      * @see #newIterableBuilder()
      */
     public Iterable<EncodingPacket> repairPacketsIterable(int numRepairPackets);
+
+    /**
+     * Returns a new rateless stream of repair packets, each packet containing one repair symbol, whose upcoming packets
+     * are generated ahead of time by tasks executed by the provided executor.
+     * <p>
+     * The stream returns the repair packets with consecutive encoding symbol identifiers (ESI), starting at
+     * {@code firstESI}, until the maximum ESI. Unlike the iterables of this encoder, which generate each packet when it
+     * is requested, the stream generates up to {@code capacity} packets before they are taken, using up to
+     * {@code parallelism} tasks at the same time, so that the generation of the packets overlaps with their
+     * transmission.
+     * <p>
+     * <b><em>Bounds checking</em></b> - If we have {@code K} as the number of source symbols into which is divided the
+     * source block being encoded, and {@code max_esi} as the {@linkplain ParameterChecker#maxEncodingSymbolID() maximum
+     * value for the encoding symbol identifier}, then the following must be true, otherwise an
+     * {@code IllegalArgumentException} is thrown:
+     * <ul>
+     * <li>{@code firstESI} &ge; {@code K}
+     * <li>{@code firstESI} &le; {@code max_esi}
+     * <li>{@code capacity} &gt; 0
+     * <li>{@code parallelism} &gt; 0
+     * </ul>
+     * 
+     * @param firstESI
+     *            The encoding symbol identifier of the repair symbol in the first packet
+     * @param capacity
+     *            The maximum number of generated packets that are kept by the stream until they are taken
+     * @param parallelism
+     *            The maximum number of tasks that generate packets at the same time
+     * @param executor
+     *            The executor of the tasks that generate the packets
+     * @return a new stream of repair packets
+     * @exception IllegalArgumentException
+     *                If any argument is invalid
+     * @exception NullPointerException
+     *                If {@code executor} is {@code null}
+     * @exception java.util.concurrent.RejectedExecutionException
+     *                If the executor does not accept the first tasks
+     */
+    public RepairPacketStream repairPacketStream(int firstESI, int capacity, int parallelism, Executor executor);
+
+    /**
+     * Computes the intermediate symbols of the source block being encoded, if they were not computed before.
+     * <p>
+     * The intermediate symbols are required for the generation of repair symbols, and are otherwise computed when the
+     * first repair symbol is requested. This method allows that (potentially expensive) computation to be done in
+     * advance, for example before the transmission of encoding packets starts.
+     */
+    public void precomputeIntermediateSymbols();
+
+    /**
+     * Releases the memory held by the intermediate symbols of the source block being encoded, if they were computed.
+     * <p>
+     * The intermediate symbols are computed again, if needed, when the next repair symbol is requested. This method
+     * allows the memory of an encoder to be bounded while the encoder is idle, without losing the ability to generate
+     * repair symbols.
+     */
+    public void releaseIntermediateSymbols();
 }
@@ -42,9 +42,11 @@ import java.nio.channels.ReadableByteChannel;
 import java.util.Arrays;
 import java.util.Random;
 
+import net.fec.openrq.util.linearalgebra.io.ByteVectorIterator;
 import net.fec.openrq.util.linearalgebra.matrix.ByteMatrix;
 import net.fec.openrq.util.linearalgebra.matrix.source.MatrixSource;
 import net.fec.openrq.util.linearalgebra.matrix.sparse.CCSByteMatrix;
+import net.fec.openrq.util.linearalgebra.matrix.sparse.CRSByteMatrix;
 import net.fec.openrq.util.linearalgebra.serialize.DeserializationException;
 import net.fec.openrq.util.linearalgebra.serialize.Serialization;
 
@@ -78,7 +80,15 @@ public class CCSFactory extends CompressedFactory {
     @Override
     public ByteMatrix createMatrix(ByteMatrix matrix) {
 
-        return new CCSByteMatrix(matrix);
+        if (matrix instanceof CCSByteMatrix) {
+            return matrix.copy();
+        }
+        else if (matrix instanceof CRSByteMatrix) {
+            return fromRows(matrix);
+        }
+        else {
+            return new CCSByteMatrix(matrix);
+        }
     }
 
     @Override
@@ -247,4 +257,45 @@ public class CCSFactory extends CompressedFactory {
 
         return new CCSByteMatrix(rows, cols, rowVals, rowInds, colCards);
     }
+
+    /*
+     * Converts a matrix with compressed rows into a matrix with compressed columns, in time proportional to the number
+     * of non zeros: the non zeros of each column are counted first, and then the rows are traversed in increasing
+     * order, so that each compressed column is filled in increasing index order.
+     */
+    private static ByteMatrix fromRows(ByteMatrix matrix) {
+
+        final int rows = matrix.rows();
+        final int cols = matrix.columns();
+
+        final int[] colCards = new int[cols];
+        for (int i = 0; i < rows; i++) {
+            final ByteVectorIterator it = matrix.nonZeroRowIterator(i);
+            while (it.hasNext()) {
+                it.next();
+                colCards[it.index()]++;
+            }
+        }
+
+        final int[][] rowInds = new int[cols][];
+        final byte[][] rowVals = new byte[cols][];
+        for (int j = 0; j < cols; j++) {
+            rowInds[j] = new int[colCards[j]];
+            rowVals[j] = new byte[colCards[j]];
+        }
+
+        final int[] filled = new int[cols];
+        for (int i = 0; i < rows; i++) {
+            final ByteVectorIterator it = matrix.nonZeroRowIterator(i);
+            while (it.hasNext()) {
+                it.next();
+                final int j = it.index();
+                final int n = filled[j]++;
+                rowInds[j][n] = i;
+                rowVals[j][n] = it.get();
+            }
+        }
+
+        return new CCSByteMatrix(rows, cols, rowVals, rowInds, colCards);
+    }
 }
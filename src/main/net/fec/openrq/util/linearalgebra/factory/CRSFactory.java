@@ -42,8 +42,10 @@ import java.nio.channels.ReadableByteChannel;
 import java.util.Arrays;
 import java.util.Random;
 
+import net.fec.openrq.util.linearalgebra.io.ByteVectorIterator;
 import net.fec.openrq.util.linearalgebra.matrix.ByteMatrix;
 import net.fec.openrq.util.linearalgebra.matrix.source.MatrixSource;
+import net.fec.openrq.util.linearalgebra.matrix.sparse.CCSByteMatrix;
 import net.fec.openrq.util.linearalgebra.matrix.sparse.CRSByteMatrix;
 import net.fec.openrq.util.linearalgebra.serialize.DeserializationException;
 import net.fec.openrq.util.linearalgebra.serialize.Serialization;
@@ -78,7 +80,15 @@ public class CRSFactory extends CompressedFactory {
     @Override
     public ByteMatrix createMatrix(ByteMatrix matrix) {
 
-        return new CRSByteMatrix(matrix);
+        if (matrix instanceof CRSByteMatrix) {
+            return matrix.copy();
+        }
+        else if (matrix instanceof CCSByteMatrix) {
+            return fromColumns(matrix);
+        }
+        else {
+            return fromRows(matrix);
+        }
     }
 
     @Override
@@ -247,4 +257,71 @@ public class CRSFactory extends CompressedFactory {
 
         return new CRSByteMatrix(rows, cols, colVals, colInds, rowCards);
     }
+
+    /*
+     * Converts a matrix of any other type into a matrix with compressed rows, one row at a time: the non zeros of each
+     * row are exported in increasing index order into scratch arrays, which are then trimmed into the compressed row.
+     */
+    private static ByteMatrix fromRows(ByteMatrix matrix) {
+
+        final int rows = matrix.rows();
+        final int cols = matrix.columns();
+
+        // scratch arrays for the non zeros of each row
+        final int[] positions = new int[cols];
+        final byte[] values = new byte[cols];
+
+        final int[][] colInds = new int[rows][];
+        final byte[][] colVals = new byte[rows][];
+        final int[] rowCards = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            final int nonZeros = matrix.copyNonZerosInRow(i, positions, values);
+            colInds[i] = Arrays.copyOf(positions, nonZeros);
+            colVals[i] = Arrays.copyOf(values, nonZeros);
+            rowCards[i] = nonZeros;
+        }
+
+        return new CRSByteMatrix(rows, cols, colVals, colInds, rowCards);
+    }
+
+    /*
+     * Converts a matrix with compressed columns into a matrix with compressed rows, in time proportional to the number
+     * of non zeros: the non zeros of each row are counted first, and then the columns are traversed in increasing
+     * order, so that each compressed row is filled in increasing index order.
+     */
+    private static ByteMatrix fromColumns(ByteMatrix matrix) {
+
+        final int rows = matrix.rows();
+        final int cols = matrix.columns();
+
+        final int[] rowCards = new int[rows];
+        for (int j = 0; j < cols; j++) {
+            final ByteVectorIterator it = matrix.nonZeroColumnIterator(j);
+            while (it.hasNext()) {
+                it.next();
+                rowCards[it.index()]++;
+            }
+        }
+
+        final int[][] colInds = new int[rows][];
+        final byte[][] colVals = new byte[rows][];
+        for (int i = 0; i < rows; i++) {
+            colInds[i] = new int[rowCards[i]];
+            colVals[i] = new byte[rowCards[i]];
+        }
+
+        final int[] filled = new int[rows];
+        for (int j = 0; j < cols; j++) {
+            final ByteVectorIterator it = matrix.nonZeroColumnIterator(j);
+            while (it.hasNext()) {
+                it.next();
+                final int i = it.index();
+                final int n = filled[i]++;
+                colInds[i][n] = j;
+                colVals[i][n] = it.get();
+            }
+        }
+
+        return new CRSByteMatrix(rows, cols, colVals, colInds, rowCards);
+    }
 }
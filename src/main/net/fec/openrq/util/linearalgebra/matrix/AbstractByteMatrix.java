@@ -55,6 +55,7 @@ import net.fec.openrq.util.linearalgebra.factory.Factory;
 import net.fec.openrq.util.linearalgebra.io.ByteVectorIterator;
 import net.fec.openrq.util.linearalgebra.matrix.functor.AdvancedMatrixPredicate;
 import net.fec.openrq.util.linearalgebra.matrix.functor.MatrixAccumulator;
+import net.fec.openrq.util.linearalgebra.matrix.functor.EliminationProcedure;
 import net.fec.openrq.util.linearalgebra.matrix.functor.MatrixFunction;
 import net.fec.openrq.util.linearalgebra.matrix.functor.MatrixPredicate;
 import net.fec.openrq.util.linearalgebra.matrix.functor.MatrixProcedure;
@@ -568,7 +569,7 @@ public abstract class AbstractByteMatrix implements ByteMatrix {
         ensureArgumentIsNotNull(matrix, "matrix");
         Indexables.checkFromToBounds(fromThisRow, toThisRow, rows);
         Indexables.checkFromToBounds(fromThisColumn, toThisColumn, columns);
-        Indexables.checkFromToBounds(fromOtherRow, fromOtherRow, matrix.rows());
+        Indexables.checkFromToBounds(fromOtherRow, toOtherRow, matrix.rows());
         Indexables.checkFromToBounds(fromOtherColumn, toOtherColumn, matrix.columns());
 
         if ((toThisColumn - fromThisColumn) != (toOtherRow - fromOtherRow)) {
@@ -578,12 +579,13 @@ public abstract class AbstractByteMatrix implements ByteMatrix {
         }
 
         ByteMatrix result = factory.createMatrix(toThisRow - fromThisRow, toOtherColumn - fromOtherColumn);
+        final int rowOffset = fromOtherRow - fromThisColumn;
 
         for (int i = fromThisRow; i < toThisRow; i++) {
             for (int j = fromOtherColumn; j < toOtherColumn; j++) {
                 byte acc = 0;
                 for (int k = fromThisColumn; k < toThisColumn; k++) {
-                    final byte prod = aTimesB(safeGet(i, k), matrix.get(k, j));
+                    final byte prod = aTimesB(safeGet(i, k), matrix.get(rowOffset + k, j));
                     acc = aPlusB(acc, prod);
                 }
 
@@ -1207,6 +1209,51 @@ public abstract class AbstractByteMatrix implements ByteMatrix {
         return positions;
     }
 
+    @Override
+    public void eliminateColumn(int pivotRow, int column, int fromRow, int toRow, EliminationProcedure procedure) {
+
+        Indexables.checkFromToBounds(fromRow, toRow, rows);
+
+        final byte alpha = get(pivotRow, column);
+        if (alpha == 0) {
+            fail("The entry of the pivot row in column " + column + " is zero.");
+        }
+
+        for (int i = fromRow; i < toRow; i++) {
+            if (i != pivotRow) {
+                final byte beta = safeGet(i, column);
+                if (beta != 0) {
+                    final byte multiplier = aDividedByB(beta, alpha);
+                    addRowsInPlace(multiplier, pivotRow, i);
+                    procedure.apply(i, multiplier);
+                }
+            }
+        }
+    }
+
+    @Override
+    public int copyNonZerosInRow(int i, int[] positions, byte[] values) {
+
+        return copyNonZerosInRow(i, positions, values, 0, columns);
+    }
+
+    @Override
+    public int copyNonZerosInRow(int i, int[] positions, byte[] values, int fromColumn, int toColumn) {
+
+        int n = 0;
+        ByteVectorIterator it = nonZeroRowIterator(i, fromColumn, toColumn);
+        while (it.hasNext()) {
+            it.next();
+            positions[n] = it.index();
+            if (values != null) {
+                values[n] = it.get();
+            }
+            n++;
+        }
+
+        return n;
+    }
+
     @Override
     public int nonZerosInColumn(int j) {
 
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq.util.linearalgebra.matrix;
+
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+
+/**
+ * A matrix that is a view over another (underlying) matrix. A view does not copy the elements of the underlying
+ * matrix, so every change in the underlying matrix is visible in the view, and vice versa.
+ * <p>
+ * Copies of a view, including its serialized form, are created by the factory of the underlying matrix.
+ */
+public abstract class AbstractByteMatrixView extends AbstractByteMatrix {
+
+    private final ByteMatrix matrix;
+
+
+    protected AbstractByteMatrixView(ByteMatrix matrix, int rows, int columns) {
+
+        super(matrix.factory(), rows, columns);
+        this.matrix = matrix;
+    }
+
+    /**
+     * Returns the underlying matrix of this view.
+     * 
+     * @return the underlying matrix of this view
+     */
+    public ByteMatrix underlyingMatrix() {
+
+        return matrix;
+    }
+
+    @Override
+    public ByteBuffer serializeToBuffer() {
+
+        return copy().serializeToBuffer();
+    }
+
+    @Override
+    public void serializeToChannel(WritableByteChannel ch) throws IOException {
+
+        copy().serializeToChannel(ch);
+    }
+}
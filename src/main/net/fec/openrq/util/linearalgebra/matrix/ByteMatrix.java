@@ -49,6 +49,7 @@ import net.fec.openrq.util.linearalgebra.factory.Factory;
 import net.fec.openrq.util.linearalgebra.io.ByteVectorIterator;
 import net.fec.openrq.util.linearalgebra.matrix.functor.AdvancedMatrixPredicate;
 import net.fec.openrq.util.linearalgebra.matrix.functor.MatrixAccumulator;
+import net.fec.openrq.util.linearalgebra.matrix.functor.EliminationProcedure;
 import net.fec.openrq.util.linearalgebra.matrix.functor.MatrixFunction;
 import net.fec.openrq.util.linearalgebra.matrix.functor.MatrixPredicate;
 import net.fec.openrq.util.linearalgebra.matrix.functor.MatrixProcedure;
@@ -1000,6 +1001,52 @@ public interface ByteMatrix {
      */
     int[] nonZeroPositionsInRow(int i, int fromColumn, int toColumn);
 
+    /**
+     * Copies the positions (column indices) and values of the non zero elements in the specified row of this matrix
+     * into the provided arrays, in increasing order of position, and returns the number of copied elements.
+     * <p>
+     * Unlike {@link #nonZeroPositionsInRow(int)} and {@link #nonZeroRowIterator(int)}, this method does not allocate
+     * any objects in the compressed row matrix implementation, so it may be used with reusable arrays inside tight
+     * loops.
+     * 
+     * @param i
+     *            The row index
+     * @param positions
+     *            The array where the positions of the non zero elements are copied to (must have room for
+     *            {@code nonZerosInRow(i)} elements)
+     * @param values
+     *            The array where the values of the non zero elements are copied to (must have room for
+     *            {@code nonZerosInRow(i)} elements), or {@code null} if only the positions are required
+     * @return the number of non zero elements in the specified row of this matrix
+     */
+    int copyNonZerosInRow(int i, int[] positions, byte[] values);
+
+    /**
+     * Copies the positions (column indices) and values of the non zero elements in a range of the specified row of
+     * this matrix into the provided arrays, in increasing order of position, and returns the number of copied
+     * elements.
+     * <p>
+     * Unlike {@link #nonZeroPositionsInRow(int, int, int)} and {@link #nonZeroRowIterator(int, int, int)}, this method
+     * does not allocate any objects in the compressed row matrix implementation, so it may be used with reusable arrays
+     * inside tight loops.
+     * 
+     * @param i
+     *            The row index
+     * @param positions
+     *            The array where the positions of the non zero elements are copied to (must have room for
+     *            {@code nonZerosInRow(i, fromColumn, toColumn)} elements)
+     * @param values
+     *            The array where the values of the non zero elements are copied to (must have room for
+     *            {@code nonZerosInRow(i, fromColumn, toColumn)} elements), or {@code null} if only the positions are
+     *            required
+     * @param fromColumn
+     *            The starting column index (inclusive)
+     * @param toColumn
+     *            The ending column index (exclusive)
+     * @return the number of non zero elements in a range of the specified row of this matrix
+     */
+    int copyNonZerosInRow(int i, int[] positions, byte[] values, int fromColumn, int toColumn);
+
     /**
      * Returns the number of non zero elements in the column of this matrix.
      * 
@@ -1643,6 +1690,30 @@ public interface ByteMatrix {
      */
     void addRowsInPlace(byte sourceMultiplier, int sourceRow, int destRow, int fromColumn, int toColumn);
 
+    /**
+     * Zeroes a column in a range of rows, by adding to each row of the range (except the pivot row) that has a non zero
+     * entry {@code beta} in the column, the pivot row multiplied by {@code beta / alpha}, where {@code alpha} is the
+     * entry of the pivot row in the column. The provided procedure is called after each row addition, with the index of
+     * the modified row and the respective multiplier.
+     * <p>
+     * This method is equivalent to calling {@link #addRowsInPlace(byte, int, int)} for each row of the range with a non
+     * zero entry in the column, but implementations may perform all additions in a single pass over the pivot row.
+     * 
+     * @param pivotRow
+     *            The index of the pivot row
+     * @param column
+     *            The index of the column to be zeroed
+     * @param fromRow
+     *            The starting row index (inclusive)
+     * @param toRow
+     *            The ending row index (exclusive)
+     * @param procedure
+     *            The procedure called after each row addition
+     * @exception IllegalArgumentException
+     *                If the entry of the pivot row in the column is zero
+     */
+    void eliminateColumn(int pivotRow, int column, int fromRow, int toRow, EliminationProcedure procedure);
+
     /**
      * Serializes this matrix into a sequence of bytes and returns that sequence in a byte buffer.
      * <p>
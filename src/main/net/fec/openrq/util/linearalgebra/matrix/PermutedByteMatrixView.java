@@ -0,0 +1,183 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq.util.linearalgebra.matrix;
+
+
+import java.util.Arrays;
+
+import net.fec.openrq.util.array.ArrayUtils;
+import net.fec.openrq.util.checking.Indexables;
+import net.fec.openrq.util.linearalgebra.io.ByteVectorIterator;
+
+
+/**
+ * A view over another matrix with permuted rows and columns, without copying its elements.
+ * <p>
+ * Swapping rows or columns of the view only exchanges the respective entries of the permutations, in constant time,
+ * and leaves the underlying matrix unchanged.
+ */
+public class PermutedByteMatrixView extends AbstractByteMatrixView {
+
+    private static int[] identityPermutation(int length) {
+
+        final int[] permutation = new int[length];
+        for (int n = 0; n < length; n++) {
+            permutation[n] = n;
+        }
+        return permutation;
+    }
+
+
+    // row i (column j) of this view is row rowIndices[i] (column columnIndices[j]) of the underlying matrix
+    private final int[] rowIndices;
+    private final int[] columnIndices;
+    // the inverse permutation of columnIndices
+    private final int[] columnPositions;
+
+
+    /**
+     * Creates a view over the provided matrix, with initially unpermuted rows and columns.
+     * 
+     * @param matrix
+     *            The underlying matrix
+     */
+    public PermutedByteMatrixView(ByteMatrix matrix) {
+
+        super(matrix, matrix.rows(), matrix.columns());
+
+        this.rowIndices = identityPermutation(matrix.rows());
+        this.columnIndices = identityPermutation(matrix.columns());
+        this.columnPositions = identityPermutation(matrix.columns());
+    }
+
+    @Override
+    protected byte safeGet(int i, int j) {
+
+        return underlyingMatrix().get(rowIndices[i], columnIndices[j]);
+    }
+
+    @Override
+    protected void safeSet(int i, int j, byte value) {
+
+        underlyingMatrix().set(rowIndices[i], columnIndices[j], value);
+    }
+
+    @Override
+    public void swapRows(int i, int j) {
+
+        Indexables.checkIndexBounds(i, rows());
+        Indexables.checkIndexBounds(j, rows());
+
+        ArrayUtils.swapInts(rowIndices, i, j);
+    }
+
+    @Override
+    public void swapColumns(int i, int j) {
+
+        Indexables.checkIndexBounds(i, columns());
+        Indexables.checkIndexBounds(j, columns());
+
+        ArrayUtils.swapInts(columnIndices, i, j);
+        columnPositions[columnIndices[i]] = i;
+        columnPositions[columnIndices[j]] = j;
+    }
+
+    @Override
+    public int nonZerosInRow(int i) {
+
+        Indexables.checkIndexBounds(i, rows());
+
+        return underlyingMatrix().nonZerosInRow(rowIndices[i]);
+    }
+
+    @Override
+    public int nonZerosInRow(int i, int fromColumn, int toColumn) {
+
+        Indexables.checkIndexBounds(i, rows());
+        Indexables.checkFromToBounds(fromColumn, toColumn, columns());
+
+        int nonZeros = 0;
+        final ByteVectorIterator it = underlyingMatrix().nonZeroRowIterator(rowIndices[i]);
+        while (it.hasNext()) {
+            it.next();
+            final int j = columnPositions[it.index()];
+            if (fromColumn <= j && j < toColumn) {
+                nonZeros++;
+            }
+        }
+
+        return nonZeros;
+    }
+
+    @Override
+    public int copyNonZerosInRow(int i, int[] positions, byte[] values) {
+
+        return copyNonZerosInRow(i, positions, values, 0, columns());
+    }
+
+    @Override
+    public int copyNonZerosInRow(int i, int[] positions, byte[] values, int fromColumn, int toColumn) {
+
+        Indexables.checkIndexBounds(i, rows());
+        Indexables.checkFromToBounds(fromColumn, toColumn, columns());
+
+        final int row = rowIndices[i];
+
+        // the permuted positions of the non zeros of the underlying row are collected and sorted first
+        int n = 0;
+        final ByteVectorIterator it = underlyingMatrix().nonZeroRowIterator(row);
+        while (it.hasNext()) {
+            it.next();
+            final int j = columnPositions[it.index()];
+            if (fromColumn <= j && j < toColumn) {
+                positions[n++] = j;
+            }
+        }
+        Arrays.sort(positions, 0, n);
+
+        if (values != null) {
+            for (int k = 0; k < n; k++) {
+                values[k] = underlyingMatrix().get(row, columnIndices[positions[k]]);
+            }
+        }
+
+        return n;
+    }
+
+    @Override
+    public void divideRowInPlace(int i, byte value) {
+
+        Indexables.checkIndexBounds(i, rows());
+
+        underlyingMatrix().divideRowInPlace(rowIndices[i], value); // the column permutation is irrelevant here
+    }
+
+    @Override
+    public void addRowsInPlace(int srcRow, int destRow) {
+
+        addRowsInPlace((byte)1, srcRow, destRow);
+    }
+
+    @Override
+    public void addRowsInPlace(byte srcMultiplier, int srcRow, int destRow) {
+
+        Indexables.checkIndexBounds(srcRow, rows());
+        Indexables.checkIndexBounds(destRow, rows());
+
+        // the column permutation is irrelevant here
+        underlyingMatrix().addRowsInPlace(srcMultiplier, rowIndices[srcRow], rowIndices[destRow]);
+    }
+}
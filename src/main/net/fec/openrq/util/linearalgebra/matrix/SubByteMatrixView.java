@@ -0,0 +1,152 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq.util.linearalgebra.matrix;
+
+
+import net.fec.openrq.util.checking.Indexables;
+
+
+/**
+ * A view over a region of another matrix, without copying its elements.
+ * <p>
+ * Queries and row operations over the view are translated to the respective region of the underlying matrix, so they
+ * run with the efficiency of the underlying matrix implementation.
+ */
+public class SubByteMatrixView extends AbstractByteMatrixView {
+
+    private final int fromRow;
+    private final int fromColumn;
+
+
+    /**
+     * Creates a view over a region of the provided matrix.
+     * 
+     * @param matrix
+     *            The underlying matrix
+     * @param fromRow
+     *            The first row of the region (inclusive)
+     * @param toRow
+     *            The last row of the region (exclusive)
+     * @param fromColumn
+     *            The first column of the region (inclusive)
+     * @param toColumn
+     *            The last column of the region (exclusive)
+     */
+    public SubByteMatrixView(ByteMatrix matrix, int fromRow, int toRow, int fromColumn, int toColumn) {
+
+        super(matrix, toRow - fromRow, toColumn - fromColumn);
+
+        Indexables.checkFromToBounds(fromRow, toRow, matrix.rows());
+        Indexables.checkFromToBounds(fromColumn, toColumn, matrix.columns());
+
+        this.fromRow = fromRow;
+        this.fromColumn = fromColumn;
+    }
+
+    @Override
+    protected byte safeGet(int i, int j) {
+
+        return underlyingMatrix().get(fromRow + i, fromColumn + j);
+    }
+
+    @Override
+    protected void safeSet(int i, int j, byte value) {
+
+        underlyingMatrix().set(fromRow + i, fromColumn + j, value);
+    }
+
+    @Override
+    public int nonZerosInRow(int i) {
+
+        return nonZerosInRow(i, 0, columns());
+    }
+
+    @Override
+    public int nonZerosInRow(int i, int fromColumn, int toColumn) {
+
+        Indexables.checkIndexBounds(i, rows());
+        Indexables.checkFromToBounds(fromColumn, toColumn, columns());
+
+        return underlyingMatrix().nonZerosInRow(
+            this.fromRow + i, this.fromColumn + fromColumn, this.fromColumn + toColumn);
+    }
+
+    @Override
+    public int copyNonZerosInRow(int i, int[] positions, byte[] values) {
+
+        return copyNonZerosInRow(i, positions, values, 0, columns());
+    }
+
+    @Override
+    public int copyNonZerosInRow(int i, int[] positions, byte[] values, int fromColumn, int toColumn) {
+
+        Indexables.checkIndexBounds(i, rows());
+        Indexables.checkFromToBounds(fromColumn, toColumn, columns());
+
+        final int n = underlyingMatrix().copyNonZerosInRow(
+            this.fromRow + i, positions, values, this.fromColumn + fromColumn, this.fromColumn + toColumn);
+        for (int k = 0; k < n; k++) {
+            positions[k] -= this.fromColumn;
+        }
+
+        return n;
+    }
+
+    @Override
+    public void divideRowInPlace(int i, byte value) {
+
+        divideRowInPlace(i, value, 0, columns());
+    }
+
+    @Override
+    public void divideRowInPlace(int i, byte value, int fromColumn, int toColumn) {
+
+        Indexables.checkIndexBounds(i, rows());
+        Indexables.checkFromToBounds(fromColumn, toColumn, columns());
+
+        underlyingMatrix().divideRowInPlace(
+            this.fromRow + i, value, this.fromColumn + fromColumn, this.fromColumn + toColumn);
+    }
+
+    @Override
+    public void addRowsInPlace(int srcRow, int destRow) {
+
+        addRowsInPlace((byte)1, srcRow, destRow, 0, columns());
+    }
+
+    @Override
+    public void addRowsInPlace(int srcRow, int destRow, int fromColumn, int toColumn) {
+
+        addRowsInPlace((byte)1, srcRow, destRow, fromColumn, toColumn);
+    }
+
+    @Override
+    public void addRowsInPlace(byte srcMultiplier, int srcRow, int destRow) {
+
+        addRowsInPlace(srcMultiplier, srcRow, destRow, 0, columns());
+    }
+
+    @Override
+    public void addRowsInPlace(byte srcMultiplier, int srcRow, int destRow, int fromColumn, int toColumn) {
+
+        Indexables.checkIndexBounds(srcRow, rows());
+        Indexables.checkIndexBounds(destRow, rows());
+        Indexables.checkFromToBounds(fromColumn, toColumn, columns());
+
+        underlyingMatrix().addRowsInPlace(srcMultiplier, this.fromRow + srcRow, this.fromRow + destRow,
+            this.fromColumn + fromColumn, this.fromColumn + toColumn);
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq.util.linearalgebra.matrix.dense;
+
+
+import net.fec.openrq.util.checking.Indexables;
+import net.fec.openrq.util.linearalgebra.LinearAlgebra;
+import net.fec.openrq.util.linearalgebra.io.ByteVectorIterator;
+import net.fec.openrq.util.linearalgebra.matrix.ByteMatrix;
+import net.fec.openrq.util.linearalgebra.serialize.Serialization;
+import net.fec.openrq.util.linearalgebra.serialize.Serialization.Type;
+import net.fec.openrq.util.linearalgebra.vector.ByteVector;
+import net.fec.openrq.util.linearalgebra.vector.dense.BasicByteVector;
+import net.fec.openrq.util.math.OctetOps;
+
+
+/**
+ * A dense matrix stored in a single contiguous array, in row-major order, meant to be used as a kernel for Gaussian
+ * elimination over dense (sub)matrices.
+ * <p>
+ * The row operations ({@code addRowsInPlace}, {@code divideRowInPlace} and {@code swapRows}) run directly over the
+ * backing array in a single pass, without iterators or per-element bounds checking. Different rows occupy disjoint
+ * regions of the backing array, so distinct rows may be modified concurrently.
+ */
+public class DenseBlockByteMatrix extends AbstractBasicByteMatrix implements DenseByteMatrix {
+
+    /**
+     * Returns a new dense block matrix containing a copy of a region of the provided matrix.
+     * 
+     * @param matrix
+     *            The matrix to copy from
+     * @param fromRow
+     *            The first row of the region (inclusive)
+     * @param toRow
+     *            The last row of the region (exclusive)
+     * @param fromColumn
+     *            The first column of the region (inclusive)
+     * @param toColumn
+     *            The last column of the region (exclusive)
+     * @return a new dense block matrix with {@code toRow - fromRow} rows and {@code toColumn - fromColumn} columns
+     */
+    public static DenseBlockByteMatrix copyOf(
+        ByteMatrix matrix,
+        int fromRow,
+        int toRow,
+        int fromColumn,
+        int toColumn)
+    {
+
+        Indexables.checkFromToBounds(fromRow, toRow, matrix.rows());
+        Indexables.checkFromToBounds(fromColumn, toColumn, matrix.columns());
+
+        final DenseBlockByteMatrix block = new DenseBlockByteMatrix(toRow - fromRow, toColumn - fromColumn);
+        final int cols = block.columns();
+        for (int i = fromRow; i < toRow; i++) {
+            final int rowOffset = (i - fromRow) * cols;
+            final ByteVectorIterator it = matrix.nonZeroRowIterator(i, fromColumn, toColumn);
+            while (it.hasNext()) {
+                it.next();
+                block.self[rowOffset + it.index() - fromColumn] = it.get();
+            }
+        }
+
+        return block;
+    }
+
+
+    private final byte self[];
+
+
+    public DenseBlockByteMatrix(int rows, int columns) {
+
+        this(rows, columns, new byte[rows * columns]);
+    }
+
+    public DenseBlockByteMatrix(int rows, int columns, byte array[]) {
+
+        super(LinearAlgebra.BASIC1D_FACTORY, rows, columns);
+
+        if (array.length != rows * columns) {
+            throw new IllegalArgumentException("array length must be equal to rows * columns");
+        }
+        this.self = array;
+    }
+
+    private int offset(int i) {
+
+        return i * columns();
+    }
+
+    @Override
+    protected byte safeGet(int i, int j) {
+
+        return self[offset(i) + j];
+    }
+
+    @Override
+    protected void safeSet(int i, int j, byte value) {
+
+        self[offset(i) + j] = value;
+    }
+
+    @Override
+    public boolean isZeroAt(int i, int j) {
+
+        checkBounds(i, j);
+        return self[offset(i) + j] == 0;
+    }
+
+    @Override
+    public boolean nonZeroAt(int i, int j) {
+
+        checkBounds(i, j);
+        return self[offset(i) + j] != 0;
+    }
+
+    @Override
+    public void swapRows(int i, int j) {
+
+        Indexables.checkIndexBounds(i, rows());
+        Indexables.checkIndexBounds(j, rows());
+
+        if (i != j) {
+            final int iOff = offset(i);
+            final int jOff = offset(j);
+            for (int k = 0; k < columns(); k++) {
+                final byte aux = self[iOff + k];
+                self[iOff + k] = self[jOff + k];
+                self[jOff + k] = aux;
+            }
+        }
+    }
+
+    @Override
+    public void swapColumns(int i, int j) {
+
+        Indexables.checkIndexBounds(i, columns());
+        Indexables.checkIndexBounds(j, columns());
+
+        if (i != j) {
+            for (int off = 0; off < self.length; off += columns()) {
+                final byte aux = self[off + i];
+                self[off + i] = self[off + j];
+                self[off + j] = aux;
+            }
+        }
+    }
+
+    @Override
+    public void divideRowInPlace(int i, byte value) {
+
+        Indexables.checkIndexBounds(i, rows());
+
+        if (value != 1) {
+            OctetOps.valueVectorDivision(value, self, offset(i), self, offset(i), columns());
+        }
+    }
+
+    @Override
+    public void divideRowInPlace(int i, byte value, int fromColumn, int toColumn) {
+
+        Indexables.checkIndexBounds(i, rows());
+        Indexables.checkFromToBounds(fromColumn, toColumn, columns());
+
+        if (value != 1) {
+            final int off = offset(i) + fromColumn;
+            OctetOps.valueVectorDivision(value, self, off, self, off, toColumn - fromColumn);
+        }
+    }
+
+    @Override
+    public void addRowsInPlace(int srcRow, int destRow) {
+
+        addRowsInPlace((byte)1, srcRow, destRow, 0, columns());
+    }
+
+    @Override
+    public void addRowsInPlace(int srcRow, int destRow, int fromColumn, int toColumn) {
+
+        addRowsInPlace((byte)1, srcRow, destRow, fromColumn, toColumn);
+    }
+
+    @Override
+    public void addRowsInPlace(byte srcMultiplier, int srcRow, int destRow) {
+
+        addRowsInPlace(srcMultiplier, srcRow, destRow, 0, columns());
+    }
+
+    @Override
+    public void addRowsInPlace(byte srcMultiplier, int srcRow, int destRow, int fromColumn, int toColumn) {
+
+        Indexables.checkIndexBounds(srcRow, rows());
+        Indexables.checkIndexBounds(destRow, rows());
+        Indexables.checkFromToBounds(fromColumn, toColumn, columns());
+
+        if (srcMultiplier != 0) { // if the multiplier is zero, then nothing needs to be added to the destination row
+            final int srcOff = offset(srcRow) + fromColumn;
+            final int destOff = offset(destRow) + fromColumn;
+            OctetOps.vectorVectorAddition(srcMultiplier, self, srcOff, self, destOff, self, destOff,
+                toColumn - fromColumn);
+        }
+    }
+
+    @Override
+    public ByteVector getRow(int i) {
+
+        return getRow(i, 0, columns());
+    }
+
+    @Override
+    public ByteVector getRow(int i, int fromColumn, int toColumn) {
+
+        Indexables.checkIndexBounds(i, rows());
+        Indexables.checkFromToBounds(fromColumn, toColumn, columns());
+
+        final int length = toColumn - fromColumn;
+        final byte[] result = new byte[length];
+        System.arraycopy(self, offset(i) + fromColumn, result, 0, length);
+
+        return new BasicByteVector(result);
+    }
+
+    @Override
+    public ByteMatrix copy() {
+
+        return new DenseBlockByteMatrix(rows(), columns(), self.clone());
+    }
+
+    @Override
+    public ByteMatrix resize(int rows, int columns) {
+
+        ensureDimensionsAreCorrect(rows, columns);
+
+        final byte[] $self = new byte[rows * columns];
+        final int rowSize = Math.min(rows, this.rows());
+        final int columnSize = Math.min(columns, this.columns());
+        for (int i = 0; i < rowSize; i++) {
+            System.arraycopy(self, offset(i), $self, i * columns, columnSize);
+        }
+
+        return new DenseBlockByteMatrix(rows, columns, $self);
+    }
+
+    @Override
+    public byte[][] toArray() {
+
+        final byte result[][] = new byte[rows()][columns()];
+        for (int i = 0; i < rows(); i++) {
+            System.arraycopy(self, offset(i), result[i], 0, columns());
+        }
+
+        return result;
+    }
+
+    @Override
+    protected Type getSerializationType() {
+
+        // same format of a basic 1D matrix
+        return Serialization.Type.DENSE_1D_MATRIX;
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq.util.linearalgebra.matrix.functor;
+
+/**
+ * A procedure that is informed of each row operation performed during the elimination of a matrix column.
+ * 
+ * @see net.fec.openrq.util.linearalgebra.matrix.ByteMatrix#eliminateColumn(int, int, int, int, EliminationProcedure)
+ */
+public interface EliminationProcedure {
+
+    /**
+     * Called after the pivot row, multiplied by {@code multiplier}, was added to row {@code i}.
+     * 
+     * @param i
+     *            The index of the row that was modified
+     * @param multiplier
+     *            The value that multiplied the pivot row before it was added to row {@code i}
+     */
+    void apply(int i, byte multiplier);
+}
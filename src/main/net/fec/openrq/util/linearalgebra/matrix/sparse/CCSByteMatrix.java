@@ -50,6 +50,8 @@ import java.util.Objects;
 
 import net.fec.openrq.util.checking.Indexables;
 import net.fec.openrq.util.linearalgebra.LinearAlgebra;
+import net.fec.openrq.util.linearalgebra.factory.CRSFactory;
+import net.fec.openrq.util.linearalgebra.factory.CompressedFactory;
 import net.fec.openrq.util.linearalgebra.factory.Factory;
 import net.fec.openrq.util.linearalgebra.io.ByteVectorIterator;
 import net.fec.openrq.util.linearalgebra.matrix.ByteMatrices;
@@ -110,7 +112,7 @@ public class CCSByteMatrix extends AbstractCompressedByteMatrix implements Spars
         this.sparseCols = new SparseVectors(columns, rows, rowValues, rowIndices, colCardinalities);
     }
 
-    private CCSByteMatrix(int rows, int columns, SparseVectors sparseCols) {
+    CCSByteMatrix(int rows, int columns, SparseVectors sparseCols) {
 
         super(LinearAlgebra.CRS_FACTORY, rows, columns);
         this.sparseCols = Objects.requireNonNull(sparseCols);
@@ -164,17 +166,27 @@ public class CCSByteMatrix extends AbstractCompressedByteMatrix implements Spars
 
         ensureFactoryIsNotNull(factory);
 
-        ByteMatrix result = factory.createMatrix(columns(), rows());
-
-        for (int j = 0; j < columns(); j++) {
-            ByteVectorIterator it = nonZeroColumnIterator(j);
-            while (it.hasNext()) {
-                it.next();
-                result.set(j, it.index(), it.get());
-            }
+        // the columns of this matrix are the rows of its transpose
+        final CRSByteMatrix transposed = new CRSByteMatrix(columns(), rows(), sparseCols.copy());
+        if (factory instanceof CRSFactory) {
+            return transposed;
+        }
+        else if (factory instanceof CompressedFactory) {
+            return factory.createMatrix(transposed); // converted in time proportional to the number of non zeros
         }
+        else {
+            ByteMatrix result = factory.createMatrix(columns(), rows());
+
+            for (int j = 0; j < columns(); j++) {
+                ByteVectorIterator it = nonZeroColumnIterator(j);
+                while (it.hasNext()) {
+                    it.next();
+                    result.set(j, it.index(), it.get());
+                }
+            }
 
-        return result;
+            return result;
+        }
     }
 
     @Override
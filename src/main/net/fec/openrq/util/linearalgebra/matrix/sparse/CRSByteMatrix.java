@@ -40,6 +40,7 @@
 package net.fec.openrq.util.linearalgebra.matrix.sparse;
 
 
+import static net.fec.openrq.util.math.OctetOps.aDividedByB;
 import static net.fec.openrq.util.math.OctetOps.aIsGreaterThanB;
 import static net.fec.openrq.util.math.OctetOps.aIsLessThanB;
 import static net.fec.openrq.util.math.OctetOps.aPlusB;
@@ -48,23 +49,32 @@ import static net.fec.openrq.util.math.OctetOps.aTimesB;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
 import java.util.Objects;
 
 import net.fec.openrq.util.checking.Indexables;
 import net.fec.openrq.util.linearalgebra.LinearAlgebra;
+import net.fec.openrq.util.linearalgebra.factory.CCSFactory;
+import net.fec.openrq.util.linearalgebra.factory.CRSFactory;
+import net.fec.openrq.util.linearalgebra.factory.CompressedFactory;
 import net.fec.openrq.util.linearalgebra.factory.Factory;
 import net.fec.openrq.util.linearalgebra.io.ByteVectorIterator;
 import net.fec.openrq.util.linearalgebra.matrix.ByteMatrices;
 import net.fec.openrq.util.linearalgebra.matrix.ByteMatrix;
+import net.fec.openrq.util.linearalgebra.matrix.functor.EliminationProcedure;
 import net.fec.openrq.util.linearalgebra.matrix.functor.MatrixFunction;
 import net.fec.openrq.util.linearalgebra.matrix.functor.MatrixProcedure;
 import net.fec.openrq.util.linearalgebra.matrix.source.MatrixSource;
 import net.fec.openrq.util.linearalgebra.serialize.Serialization;
 import net.fec.openrq.util.linearalgebra.vector.ByteVector;
+import net.fec.openrq.util.linearalgebra.vector.dense.BasicByteVector;
 
 
 /**
  * This is a CRS (Compressed Row Storage) matrix class.
+ * <p>
+ * Rows that become dense enough after row additions are stored as dense vectors, and are compressed again when the
+ * matrix is copied if they become sparse enough.
  */
 public class CRSByteMatrix extends AbstractCompressedByteMatrix implements SparseByteMatrix {
 
@@ -112,7 +122,7 @@ public class CRSByteMatrix extends AbstractCompressedByteMatrix implements Spars
         this.sparseRows = new SparseVectors(rows, columns, columnValues, columnIndices, rowCardinalities);
     }
 
-    private CRSByteMatrix(int rows, int columns, SparseVectors sparseRows) {
+    CRSByteMatrix(int rows, int columns, SparseVectors sparseRows) {
 
         super(LinearAlgebra.CRS_FACTORY, rows, columns);
         this.sparseRows = Objects.requireNonNull(sparseRows);
@@ -152,7 +162,7 @@ public class CRSByteMatrix extends AbstractCompressedByteMatrix implements Spars
     @Override
     public void clearRow(int i) {
 
-        sparseRows.vectorR(i).clear(); // this is non mutable on an empty vector
+        sparseRows.clearVector(i);
     }
 
     // =========================================================================
@@ -229,7 +239,6 @@ public class CRSByteMatrix extends AbstractCompressedByteMatrix implements Spars
     @Override
     public ByteMatrix multiply(ByteMatrix matrix, Factory factory) {
 
-        ensureFactoryIsNotNull(factory);
         ensureArgumentIsNotNull(matrix, "matrix");
 
         if (columns() != matrix.rows()) {
@@ -237,25 +246,7 @@ public class CRSByteMatrix extends AbstractCompressedByteMatrix implements Spars
                  ". Should be: " + columns() + "x_.");
         }
 
-        ByteMatrix result = factory.createMatrix(rows(), matrix.columns());
-
-        for (int i = 0; i < rows(); i++) {
-            for (int j = 0; j < result.columns(); j++) {
-                byte acc = 0;
-                ByteVectorIterator it = nonZeroRowIterator(i);
-                while (it.hasNext()) {
-                    it.next();
-                    final byte prod = aTimesB(it.get(), matrix.get(it.index(), j));
-                    acc = aPlusB(acc, prod);
-                }
-
-                if (acc != 0) {
-                    result.set(i, j, acc);
-                }
-            }
-        }
-
-        return result;
+        return multiply(matrix, 0, rows(), 0, columns(), 0, matrix.rows(), 0, matrix.columns(), factory);
     }
 
     @Override
@@ -298,7 +289,7 @@ public class CRSByteMatrix extends AbstractCompressedByteMatrix implements Spars
         ensureArgumentIsNotNull(matrix, "matrix");
         Indexables.checkFromToBounds(fromThisRow, toThisRow, rows());
         Indexables.checkFromToBounds(fromThisColumn, toThisColumn, columns());
-        Indexables.checkFromToBounds(fromOtherRow, fromOtherRow, matrix.rows());
+        Indexables.checkFromToBounds(fromOtherRow, toOtherRow, matrix.rows());
         Indexables.checkFromToBounds(fromOtherColumn, toOtherColumn, matrix.columns());
 
         if ((toThisColumn - fromThisColumn) != (toOtherRow - fromOtherRow)) {
@@ -307,25 +298,80 @@ public class CRSByteMatrix extends AbstractCompressedByteMatrix implements Spars
                  ". Should be: " + (toThisColumn - fromThisColumn) + "x_.");
         }
 
-        ByteMatrix result = factory.createMatrix(toThisRow - fromThisRow, toOtherColumn - fromOtherColumn);
-
-        for (int i = fromThisRow; i < toThisRow; i++) {
-            for (int j = fromOtherColumn; j < toOtherColumn; j++) {
-                byte acc = 0;
-                ByteVectorIterator it = nonZeroRowIterator(i, fromThisColumn, toThisColumn);
-                while (it.hasNext()) {
-                    it.next();
-                    final byte prod = aTimesB(it.get(), matrix.get(it.index(), j));
-                    acc = aPlusB(acc, prod);
+        final int resultRows = toThisRow - fromThisRow;
+        final int resultCols = toOtherColumn - fromOtherColumn;
+        final int rowOffset = fromOtherRow - fromThisColumn;
+
+        final byte[][] values = new byte[resultRows][];
+        final int[][] indices = new int[resultRows][];
+        final int[] cardinalities = new int[resultRows];
+
+        /*
+         * Each row of the product is accumulated from the rows of the other matrix selected by the non zero entries in
+         * the respective row of this matrix (Gustavson's algorithm), so the cost is proportional to the number of non
+         * zero products, instead of the dimensions of the product.
+         */
+        final byte[] acc = new byte[resultCols];
+        final boolean[] written = new boolean[resultCols];
+        final int[] writtenPositions = new int[resultCols];
+
+        for (int i = 0; i < resultRows; i++) {
+            int numWritten = 0;
+
+            final ByteVectorIterator thisIt = nonZeroRowIterator(fromThisRow + i, fromThisColumn, toThisColumn);
+            while (thisIt.hasNext()) {
+                thisIt.next();
+                final byte a = thisIt.get();
+
+                final ByteVectorIterator otherIt = matrix.nonZeroRowIterator(
+                    rowOffset + thisIt.index(), fromOtherColumn, toOtherColumn);
+                while (otherIt.hasNext()) {
+                    otherIt.next();
+                    final int j = otherIt.index() - fromOtherColumn;
+                    if (!written[j]) {
+                        written[j] = true;
+                        writtenPositions[numWritten++] = j;
+                    }
+
+                    final byte prod = (a == 1) ? otherIt.get() : aTimesB(a, otherIt.get());
+                    acc[j] = aPlusB(acc[j], prod);
                 }
+            }
 
-                if (acc != 0) {
-                    result.set(i - fromThisRow, j - fromOtherColumn, acc);
+            // collect the non zeros of the row in increasing column order, and reset the accumulator
+            Arrays.sort(writtenPositions, 0, numWritten);
+            final byte[] rowValues = new byte[numWritten];
+            final int[] rowIndices = new int[numWritten];
+            int cardinality = 0;
+            for (int n = 0; n < numWritten; n++) {
+                final int j = writtenPositions[n];
+                if (acc[j] != 0) {
+                    rowValues[cardinality] = acc[j];
+                    rowIndices[cardinality] = j;
+                    cardinality++;
                 }
+                acc[j] = 0;
+                written[j] = false;
             }
+
+            values[i] = rowValues;
+            indices[i] = rowIndices;
+            cardinalities[i] = cardinality;
         }
 
-        return result;
+        if (factory instanceof CRSFactory) {
+            return new CRSByteMatrix(resultRows, resultCols, values, indices, cardinalities);
+        }
+        else {
+            final ByteMatrix result = factory.createMatrix(resultRows, resultCols);
+            for (int i = 0; i < resultRows; i++) {
+                for (int n = 0; n < cardinalities[i]; n++) {
+                    result.set(i, indices[i][n], values[i][n]);
+                }
+            }
+
+            return result;
+        }
     }
 
     @Override
@@ -413,17 +459,27 @@ public class CRSByteMatrix extends AbstractCompressedByteMatrix implements Spars
 
         ensureFactoryIsNotNull(factory);
 
-        ByteMatrix result = factory.createMatrix(columns(), rows());
+        // the rows of this matrix are the columns of its transpose
+        final CCSByteMatrix transposed = new CCSByteMatrix(columns(), rows(), sparseRows.copy());
+        if (factory instanceof CCSFactory) {
+            return transposed;
+        }
+        else if (factory instanceof CompressedFactory) {
+            return factory.createMatrix(transposed); // converted in time proportional to the number of non zeros
+        }
+        else {
+            ByteMatrix result = factory.createMatrix(columns(), rows());
 
-        for (int i = 0; i < rows(); i++) {
-            ByteVectorIterator it = nonZeroRowIterator(i);
-            while (it.hasNext()) {
-                it.next();
-                result.set(it.index(), i, it.get());
+            for (int i = 0; i < rows(); i++) {
+                ByteVectorIterator it = nonZeroRowIterator(i);
+                while (it.hasNext()) {
+                    it.next();
+                    result.set(it.index(), i, it.get());
+                }
             }
-        }
 
-        return result;
+            return result;
+        }
     }
 
     @Override
@@ -521,6 +577,23 @@ public class CRSByteMatrix extends AbstractCompressedByteMatrix implements Spars
         return sparseRows.vectorR(i).nonZeroPositions(fromColumn, toColumn);
     }
 
+    @Override
+    public int copyNonZerosInRow(int i, int[] positions, byte[] values) {
+
+        Indexables.checkIndexBounds(i, rows());
+
+        return sparseRows.vectorR(i).copyNonZeros(positions, values);
+    }
+
+    @Override
+    public int copyNonZerosInRow(int i, int[] positions, byte[] values, int fromColumn, int toColumn) {
+
+        Indexables.checkIndexBounds(i, rows());
+        Indexables.checkFromToBounds(fromColumn, toColumn, columns());
+
+        return sparseRows.vectorR(i).copyNonZeros(positions, values, fromColumn, toColumn);
+    }
+
     @Override
     public void each(MatrixProcedure procedure) {
 
@@ -545,6 +618,23 @@ public class CRSByteMatrix extends AbstractCompressedByteMatrix implements Spars
         }
     }
 
+    @Override
+    public void eachNonZeroInRow(int i, MatrixProcedure procedure) {
+
+        Indexables.checkIndexBounds(i, rows());
+
+        sparseRows.vectorR(i).eachNonZeroAsRow(i, procedure);
+    }
+
+    @Override
+    public void eachNonZeroInRow(int i, MatrixProcedure procedure, int fromColumn, int toColumn) {
+
+        Indexables.checkIndexBounds(i, rows());
+        Indexables.checkFromToBounds(fromColumn, toColumn, columns());
+
+        sparseRows.vectorR(i).eachNonZeroAsRow(i, procedure, fromColumn, toColumn);
+    }
+
     @Override
     public void safeUpdate(int i, int j, MatrixFunction function) {
 
@@ -569,7 +659,8 @@ public class CRSByteMatrix extends AbstractCompressedByteMatrix implements Spars
         Indexables.checkIndexBounds(srcRow, rows());
         Indexables.checkIndexBounds(destRow, rows());
 
-        sparseRows.vectorRW(destRow).addInPlace(sparseRows.vectorR(srcRow));
+        final ByteVector src = sparseRows.vectorR(srcRow);
+        sparseRows.vectorRWForAddition(destRow, src, 0, columns()).addInPlace(src);
     }
 
     @Override
@@ -579,7 +670,8 @@ public class CRSByteMatrix extends AbstractCompressedByteMatrix implements Spars
         Indexables.checkIndexBounds(destRow, rows());
         Indexables.checkFromToBounds(fromColumn, toColumn, columns());
 
-        sparseRows.vectorRW(destRow).addInPlace(sparseRows.vectorR(srcRow), fromColumn, toColumn);
+        final ByteVector src = sparseRows.vectorR(srcRow);
+        sparseRows.vectorRWForAddition(destRow, src, fromColumn, toColumn).addInPlace(src, fromColumn, toColumn);
     }
 
     @Override
@@ -588,7 +680,8 @@ public class CRSByteMatrix extends AbstractCompressedByteMatrix implements Spars
         Indexables.checkIndexBounds(srcRow, rows());
         Indexables.checkIndexBounds(destRow, rows());
 
-        sparseRows.vectorRW(destRow).addInPlace(srcMultiplier, sparseRows.vectorR(srcRow));
+        final ByteVector src = sparseRows.vectorR(srcRow);
+        sparseRows.vectorRWForAddition(destRow, src, 0, columns()).addInPlace(srcMultiplier, src);
     }
 
     @Override
@@ -598,7 +691,57 @@ public class CRSByteMatrix extends AbstractCompressedByteMatrix implements Spars
         Indexables.checkIndexBounds(destRow, rows());
         Indexables.checkFromToBounds(fromColumn, toColumn, columns());
 
-        sparseRows.vectorRW(destRow).addInPlace(srcMultiplier, sparseRows.vectorR(srcRow), fromColumn, toColumn);
+        final ByteVector src = sparseRows.vectorR(srcRow);
+        sparseRows.vectorRWForAddition(destRow, src, fromColumn, toColumn)
+            .addInPlace(srcMultiplier, src, fromColumn, toColumn);
+    }
+
+    @Override
+    public void eliminateColumn(int pivotRow, int column, int fromRow, int toRow, EliminationProcedure procedure) {
+
+        Indexables.checkIndexBounds(pivotRow, rows());
+        Indexables.checkIndexBounds(column, columns());
+        Indexables.checkFromToBounds(fromRow, toRow, rows());
+
+        final ByteVector pivot = sparseRows.vectorR(pivotRow);
+        final byte alpha = pivot.get(column);
+        if (alpha == 0) {
+            fail("The entry of the pivot row in column " + column + " is zero.");
+        }
+
+        // the non zeros of a sparse pivot row are read once, and then scattered directly into each dense row
+        int[] pivotIndices = null;
+        byte[] pivotValues = null;
+        int pivotNonZeros = 0;
+
+        for (int i = fromRow; i < toRow; i++) {
+            if (i != pivotRow) {
+                final byte beta = sparseRows.vectorR(i).get(column);
+                if (beta != 0) {
+                    final byte multiplier = aDividedByB(beta, alpha);
+                    final ByteVector row = sparseRows.vectorRWForAddition(i, pivot, 0, columns());
+
+                    if (row instanceof BasicByteVector && !(pivot instanceof BasicByteVector)) {
+                        if (pivotIndices == null) {
+                            pivotIndices = new int[pivot.nonZeros()];
+                            pivotValues = new byte[pivotIndices.length];
+                            pivotNonZeros = pivot.copyNonZeros(pivotIndices, pivotValues);
+                        }
+
+                        final byte[] rowArray = ((BasicByteVector)row).getInternalArray();
+                        for (int n = 0; n < pivotNonZeros; n++) {
+                            final int j = pivotIndices[n];
+                            rowArray[j] = aPlusB(rowArray[j], aTimesB(multiplier, pivotValues[n]));
+                        }
+                    }
+                    else {
+                        row.addInPlace(multiplier, pivot);
+                    }
+
+                    procedure.apply(i, multiplier);
+                }
+            }
+        }
     }
 
     @Override
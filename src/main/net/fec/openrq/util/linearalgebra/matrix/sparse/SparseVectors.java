@@ -23,6 +23,8 @@ import net.fec.openrq.util.array.ArrayUtils;
 import net.fec.openrq.util.checking.Indexables;
 import net.fec.openrq.util.linearalgebra.io.ByteVectorIterator;
 import net.fec.openrq.util.linearalgebra.vector.ByteVector;
+import net.fec.openrq.util.linearalgebra.vector.dense.BasicByteVector;
+import net.fec.openrq.util.linearalgebra.vector.dense.DenseByteVector;
 import net.fec.openrq.util.linearalgebra.vector.source.VectorSource;
 import net.fec.openrq.util.linearalgebra.vector.sparse.CompressedByteVector;
 import net.fec.openrq.util.linearalgebra.vector.sparse.SparseByteVector;
@@ -33,6 +35,13 @@ import net.fec.openrq.util.linearalgebra.vector.sparse.SparseByteVector;
  */
 final class SparseVectors {
 
+    // a compressed vector is converted to a dense vector once it may have at least 1/PROMOTION_FILL_DIVISOR non zeros
+    private static final int PROMOTION_FILL_DIVISOR = 4;
+    // a dense vector is converted back to a compressed vector if it is copied with less than 1/DEMOTION_FILL_DIVISOR
+    // non zeros (a lower fill ratio than the promotion one avoids repeated conversions of the same vector)
+    private static final int DEMOTION_FILL_DIVISOR = 32;
+
+
     private final ByteVector[] vectors;
     private final ByteVector empty;
 
@@ -66,7 +75,12 @@ final class SparseVectors {
         ByteVector[] $vectors = new ByteVector[this.vectors.length];
         int i = 0;
         for (ByteVector vec : this.vectors) {
-            $vectors[i++] = vec.copy(); // empty vectors return themselves on copy()
+            if (vec instanceof DenseByteVector && isBelowFillRatio(vec.nonZeros(), DEMOTION_FILL_DIVISOR)) {
+                $vectors[i++] = toCompressedVector(vec);
+            }
+            else {
+                $vectors[i++] = vec.copy(); // empty vectors return themselves on copy()
+            }
         }
 
         return new SparseVectors($vectors, empty);
@@ -88,12 +102,33 @@ final class SparseVectors {
         return vec;
     }
 
+    // Read/Write, before adding to it (a multiple of) the provided range of the provided vector
+    ByteVector vectorRWForAddition(int index, ByteVector addend, int fromIndex, int toIndex) {
+
+        ByteVector vec = vectorRW(index);
+        if (!(vec instanceof DenseByteVector)) {
+            // a dense addend is always added to a dense vector, since its non zeros are not cheaply iterable
+            if (addend instanceof DenseByteVector ||
+                !isBelowFillRatio(vec.nonZeros() + addend.nonZeros(fromIndex, toIndex), PROMOTION_FILL_DIVISOR)) {
+
+                vec = toDenseVector(vec);
+                vectors[index] = vec;
+            }
+        }
+        return vec;
+    }
+
     // Read Only
     ByteVector vectorR(int index) {
 
         return vectors[index];
     }
 
+    void clearVector(int index) {
+
+        vectors[index] = empty;
+    }
+
     void swapVectors(int i, int j) {
 
         ArrayUtils.swapObjects(vectors, i, j);
@@ -109,6 +144,42 @@ final class SparseVectors {
         return new CompressedByteVector(empty.length(), cardinality, values, indices);
     }
 
+    private boolean isBelowFillRatio(int nonZeros, int fillDivisor) {
+
+        return (long)nonZeros * fillDivisor < empty.length();
+    }
+
+    private static ByteVector toDenseVector(ByteVector vec) {
+
+        final byte[] array = new byte[vec.length()];
+        final ByteVectorIterator it = vec.nonZeroIterator();
+        while (it.hasNext()) {
+            it.next();
+            array[it.index()] = it.get();
+        }
+
+        return new BasicByteVector(array);
+    }
+
+    private ByteVector toCompressedVector(ByteVector vec) {
+
+        final int cardinality = vec.nonZeros();
+        if (cardinality == 0) {
+            return empty;
+        }
+
+        final byte[] values = new byte[cardinality];
+        final int[] indices = new int[cardinality];
+        final ByteVectorIterator it = vec.nonZeroIterator();
+        for (int n = 0; it.hasNext(); n++) {
+            it.next();
+            values[n] = it.get();
+            indices[n] = it.index();
+        }
+
+        return initCompressedVector(values, indices, cardinality);
+    }
+
 
     private static final class EmptyImmutableByteVector extends SparseByteVector {
 
@@ -53,6 +53,7 @@ import net.fec.openrq.util.checking.Indexables;
 import net.fec.openrq.util.linearalgebra.factory.Factory;
 import net.fec.openrq.util.linearalgebra.io.ByteVectorIterator;
 import net.fec.openrq.util.linearalgebra.matrix.ByteMatrix;
+import net.fec.openrq.util.linearalgebra.matrix.functor.MatrixProcedure;
 import net.fec.openrq.util.linearalgebra.vector.functor.VectorAccumulator;
 import net.fec.openrq.util.linearalgebra.vector.functor.VectorFunction;
 import net.fec.openrq.util.linearalgebra.vector.functor.VectorPredicate;
@@ -677,6 +678,29 @@ public abstract class AbstractByteVector implements ByteVector {
         return positions;
     }
 
+    @Override
+    public int copyNonZeros(int[] positions, byte[] values) {
+
+        return copyNonZeros(positions, values, 0, length());
+    }
+
+    @Override
+    public int copyNonZeros(int[] positions, byte[] values, int fromIndex, int toIndex) {
+
+        ByteVectorIterator it = nonZeroIterator(fromIndex, toIndex);
+        int n = 0;
+        while (it.hasNext()) {
+            it.next();
+            positions[n] = it.index();
+            if (values != null) {
+                values[n] = it.get();
+            }
+            n++;
+        }
+
+        return n;
+    }
+
     @Override
     public void each(VectorProcedure procedure) {
 
@@ -717,6 +741,26 @@ public abstract class AbstractByteVector implements ByteVector {
         }
     }
 
+    @Override
+    public void eachNonZeroAsRow(int row, MatrixProcedure procedure) {
+
+        ByteVectorIterator it = nonZeroIterator();
+        while (it.hasNext()) {
+            it.next();
+            procedure.apply(row, it.index(), it.get());
+        }
+    }
+
+    @Override
+    public void eachNonZeroAsRow(int row, MatrixProcedure procedure, int fromIndex, int toIndex) {
+
+        ByteVectorIterator it = nonZeroIterator(fromIndex, toIndex);
+        while (it.hasNext()) {
+            it.next();
+            procedure.apply(row, it.index(), it.get());
+        }
+    }
+
     @Override
     public void update(int i, VectorFunction function) {
 
@@ -46,6 +46,7 @@ import java.nio.channels.WritableByteChannel;
 import net.fec.openrq.util.linearalgebra.factory.Factory;
 import net.fec.openrq.util.linearalgebra.io.ByteVectorIterator;
 import net.fec.openrq.util.linearalgebra.matrix.ByteMatrix;
+import net.fec.openrq.util.linearalgebra.matrix.functor.MatrixProcedure;
 import net.fec.openrq.util.linearalgebra.vector.functor.VectorAccumulator;
 import net.fec.openrq.util.linearalgebra.vector.functor.VectorFunction;
 import net.fec.openrq.util.linearalgebra.vector.functor.VectorPredicate;
@@ -644,6 +645,44 @@ public interface ByteVector extends Iterable<Byte> {
      */
     int[] nonZeroPositions(int fromIndex, int toIndex);
 
+    /**
+     * Copies the positions (indices) and values of the non zero elements of this vector into the provided arrays, in
+     * increasing order of position, and returns the number of copied elements.
+     * <p>
+     * Unlike {@link #nonZeroPositions()} and {@link #nonZeroIterator()}, this method does not allocate any objects in
+     * the standard vector implementations, so it may be used with reusable arrays inside tight loops.
+     * 
+     * @param positions
+     *            The array where the positions of the non zero elements are copied to (must have room for
+     *            {@link #nonZeros()} elements)
+     * @param values
+     *            The array where the values of the non zero elements are copied to (must have room for
+     *            {@link #nonZeros()} elements), or {@code null} if only the positions are required
+     * @return the number of non zero elements in this vector
+     */
+    int copyNonZeros(int[] positions, byte[] values);
+
+    /**
+     * Copies the positions (indices) and values of the non zero elements in a range of this vector into the provided
+     * arrays, in increasing order of position, and returns the number of copied elements.
+     * <p>
+     * Unlike {@link #nonZeroPositions(int, int)} and {@link #nonZeroIterator(int, int)}, this method does not allocate
+     * any objects in the standard vector implementations, so it may be used with reusable arrays inside tight loops.
+     * 
+     * @param positions
+     *            The array where the positions of the non zero elements are copied to (must have room for
+     *            {@code nonZeros(fromIndex, toIndex)} elements)
+     * @param values
+     *            The array where the values of the non zero elements are copied to (must have room for
+     *            {@code nonZeros(fromIndex, toIndex)} elements), or {@code null} if only the positions are required
+     * @param fromIndex
+     *            The starting index (inclusive)
+     * @param toIndex
+     *            The ending index (exclusive)
+     * @return the number of non zero elements in a range of this vector
+     */
+    int copyNonZeros(int[] positions, byte[] values, int fromIndex, int toIndex);
+
     /**
      * Applies given {@code procedure} to each element of this vector.
      * 
@@ -684,6 +723,32 @@ public interface ByteVector extends Iterable<Byte> {
      */
     void eachNonZero(VectorProcedure procedure, int fromIndex, int toIndex);
 
+    /**
+     * Applies given {@code procedure} to each non-zero element of this vector, as if this vector was the row with the
+     * given index of a matrix.
+     * 
+     * @param row
+     *            the row index passed to the procedure
+     * @param procedure
+     *            the matrix procedure
+     */
+    void eachNonZeroAsRow(int row, MatrixProcedure procedure);
+
+    /**
+     * Applies given {@code procedure} to each non-zero element of a range of this vector, as if this vector was the
+     * row with the given index of a matrix.
+     * 
+     * @param row
+     *            the row index passed to the procedure
+     * @param procedure
+     *            the matrix procedure
+     * @param fromIndex
+     *            The starting index (inclusive)
+     * @param toIndex
+     *            The ending index (exclusive)
+     */
+    void eachNonZeroAsRow(int row, MatrixProcedure procedure, int fromIndex, int toIndex);
+
     /**
      * Updates the specified element of this vector by applying given {@code function}.
      * 
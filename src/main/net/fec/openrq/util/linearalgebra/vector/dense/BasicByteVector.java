@@ -42,9 +42,11 @@ import java.nio.channels.WritableByteChannel;
 
 import net.fec.openrq.util.array.ArrayUtils;
 import net.fec.openrq.util.checking.Indexables;
+import net.fec.openrq.util.linearalgebra.matrix.functor.MatrixProcedure;
 import net.fec.openrq.util.linearalgebra.serialize.Serialization;
 import net.fec.openrq.util.linearalgebra.vector.ByteVector;
 import net.fec.openrq.util.linearalgebra.vector.ByteVectors;
+import net.fec.openrq.util.linearalgebra.vector.functor.VectorProcedure;
 import net.fec.openrq.util.linearalgebra.vector.source.VectorSource;
 
 
@@ -106,6 +108,82 @@ public class BasicByteVector extends DenseByteVector {
         }
     }
 
+    @Override
+    public int nonZeros() {
+
+        return nonZeros(0, length());
+    }
+
+    @Override
+    public int nonZeros(int fromIndex, int toIndex) {
+
+        Indexables.checkFromToBounds(fromIndex, toIndex, length());
+
+        int nonZeros = 0;
+        for (int i = fromIndex; i < toIndex; i++) {
+            if (self[i] != 0) {
+                nonZeros++;
+            }
+        }
+
+        return nonZeros;
+    }
+
+    @Override
+    public int copyNonZeros(int[] positions, byte[] values, int fromIndex, int toIndex) {
+
+        Indexables.checkFromToBounds(fromIndex, toIndex, length());
+
+        int n = 0;
+        for (int i = fromIndex; i < toIndex; i++) {
+            if (self[i] != 0) {
+                positions[n] = i;
+                if (values != null) {
+                    values[n] = self[i];
+                }
+                n++;
+            }
+        }
+
+        return n;
+    }
+
+    @Override
+    public void eachNonZero(VectorProcedure procedure) {
+
+        eachNonZero(procedure, 0, length());
+    }
+
+    @Override
+    public void eachNonZero(VectorProcedure procedure, int fromIndex, int toIndex) {
+
+        Indexables.checkFromToBounds(fromIndex, toIndex, length());
+
+        for (int i = fromIndex; i < toIndex; i++) {
+            if (self[i] != 0) {
+                procedure.apply(i, self[i]);
+            }
+        }
+    }
+
+    @Override
+    public void eachNonZeroAsRow(int row, MatrixProcedure procedure) {
+
+        eachNonZeroAsRow(row, procedure, 0, length());
+    }
+
+    @Override
+    public void eachNonZeroAsRow(int row, MatrixProcedure procedure, int fromIndex, int toIndex) {
+
+        Indexables.checkFromToBounds(fromIndex, toIndex, length());
+
+        for (int i = fromIndex; i < toIndex; i++) {
+            if (self[i] != 0) {
+                procedure.apply(row, i, self[i]);
+            }
+        }
+    }
+
     @Override
     public ByteVector copy() {
 
@@ -39,10 +39,12 @@ package net.fec.openrq.util.linearalgebra.vector.operation.inplace;
 import static net.fec.openrq.util.math.OctetOps.aPlusB;
 import net.fec.openrq.util.linearalgebra.io.ByteVectorIterator;
 import net.fec.openrq.util.linearalgebra.vector.ByteVectors;
+import net.fec.openrq.util.linearalgebra.vector.dense.BasicByteVector;
 import net.fec.openrq.util.linearalgebra.vector.dense.DenseByteVector;
 import net.fec.openrq.util.linearalgebra.vector.operation.VectorVectorOperation;
 import net.fec.openrq.util.linearalgebra.vector.operation.inplace.Indexers.Indexer;
 import net.fec.openrq.util.linearalgebra.vector.sparse.SparseByteVector;
+import net.fec.openrq.util.math.OctetOps;
 
 
 public class InPlaceVectorToVectorAddition extends VectorVectorOperation<Void> {
@@ -78,6 +80,7 @@ public class InPlaceVectorToVectorAddition extends VectorVectorOperation<Void> {
 
         ByteVectorIterator it = indexer.iterator(a);
         while (it.hasNext()) {
+            it.next();
             it.set(aPlusB(it.get(), b.get(it.index())));
         }
         return null;
@@ -86,6 +89,15 @@ public class InPlaceVectorToVectorAddition extends VectorVectorOperation<Void> {
     @Override
     public Void apply(DenseByteVector a, DenseByteVector b) {
 
+        if (a instanceof BasicByteVector && b instanceof BasicByteVector) {
+            // fused kernel over the backing arrays
+            final byte[] aArray = ((BasicByteVector)a).getInternalArray();
+            final byte[] bArray = ((BasicByteVector)b).getInternalArray();
+            final int from = indexer.fromIndex();
+            OctetOps.vectorVectorAddition(bArray, from, aArray, from, aArray, from, indexer.toIndex(a) - from);
+            return null;
+        }
+
         for (int i = indexer.fromIndex(); i < indexer.toIndex(a); i++) {
             a.set(i, aPlusB(a.get(i), b.get(i)));
         }
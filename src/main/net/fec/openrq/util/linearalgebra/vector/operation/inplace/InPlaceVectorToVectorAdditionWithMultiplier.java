@@ -19,10 +19,12 @@ package net.fec.openrq.util.linearalgebra.vector.operation.inplace;
 import static net.fec.openrq.util.math.OctetOps.aPlusB;
 import static net.fec.openrq.util.math.OctetOps.aTimesB;
 import net.fec.openrq.util.linearalgebra.io.ByteVectorIterator;
+import net.fec.openrq.util.linearalgebra.vector.dense.BasicByteVector;
 import net.fec.openrq.util.linearalgebra.vector.dense.DenseByteVector;
 import net.fec.openrq.util.linearalgebra.vector.operation.VectorVectorOperation;
 import net.fec.openrq.util.linearalgebra.vector.operation.inplace.Indexers.Indexer;
 import net.fec.openrq.util.linearalgebra.vector.sparse.SparseByteVector;
+import net.fec.openrq.util.math.OctetOps;
 
 
 public class InPlaceVectorToVectorAdditionWithMultiplier extends VectorVectorOperation<Void> {
@@ -61,6 +63,7 @@ public class InPlaceVectorToVectorAdditionWithMultiplier extends VectorVectorOpe
 
         ByteVectorIterator it = indexer.iterator(a);
         while (it.hasNext()) {
+            it.next();
             it.set(aPlusB(it.get(), multB(b.get(it.index()))));
         }
         return null;
@@ -69,6 +72,16 @@ public class InPlaceVectorToVectorAdditionWithMultiplier extends VectorVectorOpe
     @Override
     public Void apply(DenseByteVector a, DenseByteVector b) {
 
+        if (a instanceof BasicByteVector && b instanceof BasicByteVector) {
+            // fused kernel over the backing arrays
+            final byte[] aArray = ((BasicByteVector)a).getInternalArray();
+            final byte[] bArray = ((BasicByteVector)b).getInternalArray();
+            final int from = indexer.fromIndex();
+            final int length = indexer.toIndex(a) - from;
+            OctetOps.vectorVectorAddition(bMultiplier, bArray, from, aArray, from, aArray, from, length);
+            return null;
+        }
+
         for (int i = indexer.fromIndex(); i < indexer.toIndex(a); i++) {
             a.set(i, aPlusB(a.get(i), multB(b.get(i))));
         }
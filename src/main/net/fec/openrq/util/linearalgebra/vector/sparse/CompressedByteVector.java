@@ -49,9 +49,11 @@ import net.fec.openrq.util.datatype.UnsignedTypes;
 import net.fec.openrq.util.linearalgebra.factory.Factory;
 import net.fec.openrq.util.linearalgebra.io.ByteVectorIterator;
 import net.fec.openrq.util.linearalgebra.matrix.ByteMatrix;
+import net.fec.openrq.util.linearalgebra.matrix.functor.MatrixProcedure;
 import net.fec.openrq.util.linearalgebra.vector.ByteVector;
 import net.fec.openrq.util.linearalgebra.vector.ByteVectors;
 import net.fec.openrq.util.linearalgebra.vector.functor.VectorFunction;
+import net.fec.openrq.util.linearalgebra.vector.functor.VectorProcedure;
 import net.fec.openrq.util.linearalgebra.vector.source.VectorSource;
 import net.fec.openrq.util.math.ExtraMath;
 
@@ -219,9 +221,12 @@ public class CompressedByteVector extends SparseByteVector {
         return new SearchEntry(i);
     }
 
-    private SearchRange searchByRange(int from, int to) {
+    /*
+     * Returns the position of the first nonzero entry with an element index equal to or greater than the given index.
+     */
+    private int entryFrom(int i) {
 
-        return new SearchRange(from, to);
+        return getEntry(binarySearch(i));
     }
 
     // =========================================================================
@@ -349,20 +354,21 @@ public class CompressedByteVector extends SparseByteVector {
     public int nonZeros(int from, int to) {
 
         Indexables.checkFromToBounds(from, to, length());
-        return searchByRange(from, to).rangeLength();
+        return entryFrom(to) - entryFrom(from);
     }
 
     @Override
     public boolean nonZeroAt(int i) {
 
         Indexables.checkIndexBounds(i, length());
-        return searchByIndex(i).isNonZero();
+        return hasEntry(binarySearch(i));
     }
 
     @Override
     protected byte safeGet(int i) {
 
-        return searchByIndex(i).value();
+        final int k = binarySearch(i);
+        return hasEntry(k) ? getValue(nonzeros[k]) : 0;
     }
 
     @Override
@@ -423,8 +429,72 @@ public class CompressedByteVector extends SparseByteVector {
     public int[] nonZeroPositions(int from, int to) {
 
         Indexables.checkFromToBounds(from, to, length());
-        SearchRange range = searchByRange(from, to);
-        return extractIndices(range.fromK(), range.toK());
+        return extractIndices(entryFrom(from), entryFrom(to));
+    }
+
+    @Override
+    public int copyNonZeros(int[] positions, byte[] values) {
+
+        return copyEntries(positions, values, 0, cardinality);
+    }
+
+    @Override
+    public int copyNonZeros(int[] positions, byte[] values, int from, int to) {
+
+        Indexables.checkFromToBounds(from, to, length());
+        return copyEntries(positions, values, entryFrom(from), entryFrom(to));
+    }
+
+    private int copyEntries(int[] positions, byte[] values, int fromK, int toK) {
+
+        for (int k = fromK; k < toK; k++) {
+            positions[k - fromK] = getIndex(nonzeros[k]);
+        }
+        if (values != null) {
+            for (int k = fromK; k < toK; k++) {
+                values[k - fromK] = getValue(nonzeros[k]);
+            }
+        }
+
+        return toK - fromK;
+    }
+
+    @Override
+    public void eachNonZero(VectorProcedure procedure) {
+
+        for (int k = 0; k < cardinality; k++) {
+            procedure.apply(getIndex(nonzeros[k]), getValue(nonzeros[k]));
+        }
+    }
+
+    @Override
+    public void eachNonZero(VectorProcedure procedure, int from, int to) {
+
+        Indexables.checkFromToBounds(from, to, length());
+
+        final int toK = entryFrom(to);
+        for (int k = entryFrom(from); k < toK; k++) {
+            procedure.apply(getIndex(nonzeros[k]), getValue(nonzeros[k]));
+        }
+    }
+
+    @Override
+    public void eachNonZeroAsRow(int row, MatrixProcedure procedure) {
+
+        for (int k = 0; k < cardinality; k++) {
+            procedure.apply(row, getIndex(nonzeros[k]), getValue(nonzeros[k]));
+        }
+    }
+
+    @Override
+    public void eachNonZeroAsRow(int row, MatrixProcedure procedure, int from, int to) {
+
+        Indexables.checkFromToBounds(from, to, length());
+
+        final int toK = entryFrom(to);
+        for (int k = entryFrom(from); k < toK; k++) {
+            procedure.apply(row, getIndex(nonzeros[k]), getValue(nonzeros[k]));
+        }
     }
 
     private int[] extractIndices(int fromK, int toK) {
@@ -613,38 +683,6 @@ public class CompressedByteVector extends SparseByteVector {
         }
     }
 
-    // class used for nonzero entry searches between a specified index range
-    private final class SearchRange {
-
-        private final int fromK;
-        private final int toK;
-
-
-        /*
-         * Requires valid indices.
-         */
-        SearchRange(int from, int to) {
-
-            this.fromK = getEntry(binarySearch(from));
-            this.toK = getEntry(binarySearch(to));
-        }
-
-        int fromK() {
-
-            return fromK;
-        }
-
-        int toK() {
-
-            return toK;
-        }
-
-        int rangeLength() {
-
-            return toK - fromK;
-        }
-    }
-
     private final class VectorIterator extends ByteVectorIterator {
 
         private int i;
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq;
+
+
+import static net.fec.openrq.util.math.ExtraMath.ceilDiv;
+
+import java.util.Iterator;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import net.fec.openrq.decoder.SourceBlockDecoder;
+import net.fec.openrq.decoder.SourceBlockState;
+import net.fec.openrq.encoder.SourceBlockEncoder;
+import net.fec.openrq.parameters.FECParameters;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Measures the latency of the reception of the last symbol needed to decode a source block, for regular and
+ * progressive source block decoders.
+ */
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(0)
+@State(Scope.Benchmark)
+public class LastSymbolDecodingTest {
+
+    // default parameter values
+    private static final int DEF_DATA_LEN = 9_999;
+    private static final int DEF_NUM_SOURCE_SYMBOLS = 250;
+    private static final int DEF_EXTRA_SYMBOLS = 0;
+    private static final boolean DEF_PROGRESSIVE = false;
+
+
+    @Param({"" + DEF_DATA_LEN})
+    private int datalen;
+
+    @Param({"" + DEF_NUM_SOURCE_SYMBOLS})
+    private int srcsymbs;
+
+    @Param({"" + DEF_EXTRA_SYMBOLS})
+    private int symbover;
+
+    @Param({"false", "true"})
+    private boolean progressive;
+
+    private FECParameters fecParams;
+    private EncodingPacket[] packets;
+
+    private SourceBlockDecoder dec;
+    private EncodingPacket lastPacket;
+
+
+    public LastSymbolDecodingTest() {
+
+        this.datalen = DEF_DATA_LEN;
+        this.srcsymbs = DEF_NUM_SOURCE_SYMBOLS;
+        this.symbover = DEF_EXTRA_SYMBOLS;
+        this.progressive = DEF_PROGRESSIVE;
+
+        this.fecParams = null;
+        this.packets = null;
+
+        this.dec = null;
+        this.lastPacket = null;
+    }
+
+    @Setup(Level.Trial)
+    public void setupPackets() {
+
+        TestingCommon.checkParamsForSingleSourceBlockData(datalen, srcsymbs);
+        if (symbover < 0) {
+            throw new IllegalArgumentException("symbol overhead must be non-negative");
+        }
+
+        // force single source block
+        fecParams = FECParameters.newParameters(datalen, ceilDiv(datalen, srcsymbs), 1);
+        final Random rand = TestingCommon.newSeededRandom();
+
+        final byte[] data = TestingCommon.randomBytes(datalen, rand);
+        final Set<Integer> esis = TestingCommon.randomAnyESIs(rand, srcsymbs + symbover);
+        final SourceBlockEncoder enc = OpenRQ.newEncoder(data, fecParams).sourceBlock(0);
+
+        packets = new EncodingPacket[esis.size()];
+        final Iterator<Integer> it = esis.iterator();
+        for (int i = 0; i < packets.length; i++) {
+            packets[i] = enc.encodingPacket(it.next());
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void setupDecoder() {
+
+        dec = (progressive ? OpenRQ.newProgressiveDecoder(fecParams, symbover)
+                          : OpenRQ.newDecoder(fecParams, symbover)).sourceBlock(0);
+
+        // put every packet except the last one
+        for (int i = 0; i < packets.length - 1; i++) {
+            dec.putEncodingPacket(packets[i]);
+        }
+        lastPacket = packets[packets.length - 1];
+    }
+
+    @Benchmark
+    public SourceBlockState test() {
+
+        final SourceBlockState state = dec.putEncodingPacket(lastPacket);
+        if (state == SourceBlockState.DECODING_FAILURE) {
+            throw new IllegalStateException("decoding failed, try using a different set of symbols");
+        }
+        return state;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq;
+
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import net.fec.openrq.util.linearalgebra.matrix.ByteMatrix;
+import net.fec.openrq.util.rq.SystematicIndices;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Measures the time to solve the decoding system of linear equations of a source block, as a function of the rate of
+ * lost source symbols, for each linear solver and for the solver selected by {@link LinearSolvers#select(int, int)}.
+ */
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(0)
+@State(Scope.Benchmark)
+public class LossRateDecodingTest {
+
+    // default parameter values
+    private static final int DEF_NUM_SOURCE_SYMBOLS = 250;
+    private static final int DEF_SYMBOL_SIZE = 40;
+    private static final double DEF_LOSS = 0.01;
+    private static final int DEF_EXTRA_SYMBOLS = 2;
+    private static final String DEF_SOLVER = "PEELING";
+
+
+    @Param({"" + DEF_NUM_SOURCE_SYMBOLS})
+    private int srcsymbs;
+
+    @Param({"" + DEF_SYMBOL_SIZE})
+    private int symbsize;
+
+    @Param({"0.01", "0.05", "0.2"})
+    private double loss;
+
+    @Param({"0", "" + DEF_EXTRA_SYMBOLS, "10", "200"})
+    private int symbover;
+
+    @Param({"PI", "GAUSSIAN", "PEELING", "SELECTED"})
+    private String solver;
+
+    private int Kprime;
+    private ByteMatrix pristineA;
+    private byte[][] pristineD;
+
+    private ByteMatrix A;
+    private byte[][] D;
+
+
+    public LossRateDecodingTest() {
+
+        this.srcsymbs = DEF_NUM_SOURCE_SYMBOLS;
+        this.symbsize = DEF_SYMBOL_SIZE;
+        this.loss = DEF_LOSS;
+        this.symbover = DEF_EXTRA_SYMBOLS;
+        this.solver = DEF_SOLVER;
+    }
+
+    @Setup(Level.Trial)
+    public void setupSystem() {
+
+        final int K = srcsymbs;
+        Kprime = SystematicIndices.ceil(K);
+        final int Ki = SystematicIndices.getKIndex(Kprime);
+        final int S = SystematicIndices.S(Ki);
+        final int H = SystematicIndices.H(Ki);
+        final int L = Kprime + S + H;
+        final Random rand = TestingCommon.newSeededRandom();
+
+        // the contents of the symbols do not affect the decoding time
+        pristineA = LinearSystem.generateConstraintMatrix(Kprime, symbover);
+        pristineD = new byte[L + symbover][];
+        for (int row = 0; row < pristineD.length; row++) {
+            pristineD[row] = (row < S + H) ? new byte[symbsize] : TestingCommon.randomBytes(symbsize, rand);
+        }
+
+        // replace the rows of the lost source symbols, plus the overhead rows, with rows of repair symbols
+        final int numLost = (int)Math.round(loss * K);
+        final Set<Integer> lostESIs = new HashSet<>();
+        while (lostESIs.size() < numLost) {
+            lostESIs.add(rand.nextInt(K));
+        }
+        int repairISI = Kprime;
+        for (int esi : lostESIs) {
+            setRepairRow(S + H + esi, repairISI++);
+        }
+        for (int row = L; row < L + symbover; row++) {
+            setRepairRow(row, repairISI++);
+        }
+    }
+
+    private void setRepairRow(int row, int repairISI) {
+
+        pristineA.clearRow(row);
+        for (int col : LinearSystem.encIndexes(Kprime, new Tuple(Kprime, repairISI))) {
+            pristineA.set(row, col, (byte)1);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void setupSystemCopy() {
+
+        // the solvers may modify the system
+        A = pristineA.copy();
+        D = new byte[pristineD.length][];
+        for (int row = 0; row < D.length; row++) {
+            D[row] = pristineD[row].clone();
+        }
+    }
+
+    @Benchmark
+    public byte[][] test() throws SingularMatrixException {
+
+        switch (solver) {
+            case "PI":
+                return LinearSolvers.PERMANENT_INACTIVATION.solve(A, D, Kprime);
+
+            case "GAUSSIAN":
+                return LinearSolvers.GAUSSIAN_ELIMINATION.solve(A, D, Kprime);
+
+            case "PEELING":
+                return LinearSolvers.PEELING.solve(A, D, Kprime);
+
+            case "SELECTED":
+                return LinearSolvers.select(Kprime, symbover).solve(A, D, Kprime);
+
+            default:
+                throw new IllegalArgumentException("unknown solver: " + solver);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq;
+
+
+import java.util.concurrent.TimeUnit;
+
+import net.fec.openrq.util.linearalgebra.io.ByteVectorIterator;
+import net.fec.openrq.util.linearalgebra.matrix.ByteMatrix;
+import net.fec.openrq.util.linearalgebra.matrix.functor.MatrixProcedure;
+import net.fec.openrq.util.rq.SystematicIndices;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Compares the traversals of the non zeros of every row of a constraint matrix. Run it with the GC profiler
+ * ({@code -prof gc}, as done by the main method) to check that the visitor and bulk export traversals produce no
+ * garbage, unlike the iterator traversal.
+ */
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RowTraversalTest {
+
+    private static final int DEF_NUM_SOURCE_SYMBOLS = 1000;
+
+
+    @Param({"" + DEF_NUM_SOURCE_SYMBOLS})
+    private int srcsymbs;
+
+    private ByteMatrix A;
+    private int[] positions;
+    private byte[] values;
+    private final RowSum sum = new RowSum();
+
+
+    private static final class RowSum implements MatrixProcedure {
+
+        int total;
+
+
+        @Override
+        public void apply(int i, int j, byte value) {
+
+            total += j ^ value;
+        }
+    }
+
+
+    public RowTraversalTest() {
+
+        this.srcsymbs = DEF_NUM_SOURCE_SYMBOLS;
+    }
+
+    @Setup
+    public void setup() {
+
+        final int Kprime = SystematicIndices.ceil(srcsymbs);
+        A = LinearSystem.generateConstraintMatrix(Kprime);
+        positions = new int[A.columns()];
+        values = new byte[A.columns()];
+    }
+
+    @Benchmark
+    public int testIterator() {
+
+        int total = 0;
+        for (int row = 0; row < A.rows(); row++) {
+            final ByteVectorIterator it = A.nonZeroRowIterator(row);
+            while (it.hasNext()) {
+                it.next();
+                total += it.index() ^ it.get();
+            }
+        }
+
+        return total;
+    }
+
+    @Benchmark
+    public int testVisitor() {
+
+        sum.total = 0;
+        for (int row = 0; row < A.rows(); row++) {
+            A.eachNonZeroInRow(row, sum);
+        }
+
+        return sum.total;
+    }
+
+    @Benchmark
+    public int testBulkExport() {
+
+        int total = 0;
+        for (int row = 0; row < A.rows(); row++) {
+            final int nonZeros = A.copyNonZerosInRow(row, positions, values);
+            for (int n = 0; n < nonZeros; n++) {
+                total += positions[n] ^ values[n];
+            }
+        }
+
+        return total;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+
+        new Runner(new OptionsBuilder()
+            .include(RowTraversalTest.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
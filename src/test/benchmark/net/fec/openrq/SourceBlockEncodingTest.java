@@ -91,6 +91,13 @@ public class SourceBlockEncodingTest {
         ArraySourceBlockEncoder.forceInterSymbolsGen(enc);
     }
 
+    // the standard decoding process, for comparison with the precomputed inverse of the constraint matrix of small K'
+    @Benchmark
+    public void testSolver() {
+
+        ArraySourceBlockEncoder.forceInterSymbolsSolving(enc);
+    }
+
     // for CPU/memory profiling
     public static void main(String[] args) {
 
@@ -30,7 +30,24 @@ import org.junit.runners.Suite.SuiteClasses;
                LinearAlgebraSuite.class,
                ParametersBoundsSuite.class,
                OpenRQClassTest.class,
+               ESISetTest.class,
                DataIntegrityCheckTest.class,
+               RepairAdmissionPolicyTest.class,
+               LeasedRepairSymbolTest.class,
+               SourceBlocksPrecomputationTest.class,
+               RepairSymbolCacheTest.class,
+               BatchRepairSymbolsTest.class,
+               RepairSymbolWritingTest.class,
+               ResetTest.class,
+               IntermediateSymbolStorageTest.class,
+               IntermediateSymbolsTest.class,
+               IntermediateSymbolsBudgetTest.class,
+               DecodingRetryTest.class,
+               ProgressiveDecodingTest.class,
+               LinearSolversTest.class,
+               PeelingSolverTest.class,
+               InverseConstraintMatrixTest.class,
+               RepairPacketStreamTest.class,
                ReadWriteSuite.class
 })
 public class AllTests {
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq;
+
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+
+import net.fec.openrq.encoder.SourceBlockEncoder;
+import net.fec.openrq.parameters.FECParameters;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+
+/**
+ * Tests that repair packets with multiple symbols, whose symbols are generated in a batch, contain the same repair
+ * symbols as single symbol repair packets.
+ */
+@RunWith(Parameterized.class)
+public class BatchRepairSymbolsTest {
+
+    @Parameters(name = "K = {0}, T = {1}, repair symbols = {2}")
+    public static Collection<Object[]> data() {
+
+        return Arrays.asList(new Object[][] {
+                                             {1, 1, 1},
+                                             {10, 16, 7},
+                                             {26, 1500, 600},
+                                             {101, 4093, 40},
+                                             {500, 48, 1000}
+        });
+    }
+
+
+    private final int K;
+    private final int T;
+    private final int numRepair;
+
+
+    public BatchRepairSymbolsTest(int K, int T, int numRepair) {
+
+        this.K = K;
+        this.T = T;
+        this.numRepair = numRepair;
+    }
+
+    @Test
+    public void testBatchMatchesSingleSymbols() {
+
+        final FECParameters fecParams = FECParameters.newParameters((long)K * T, T, 1);
+        final byte[] data = TestingCommon.randomBytes(fecParams.dataLengthAsInt(), TestingCommon.newSeededRandom());
+        final SourceBlockEncoder sbEnc = OpenRQ.newEncoder(data, fecParams).sourceBlock(0);
+
+        final ByteBuffer batch = sbEnc.repairPacket(K, numRepair).symbols();
+        assertEquals(numRepair * T, batch.remaining());
+        for (int n = 0; n < numRepair; n++) {
+            batch.limit(batch.position() + T);
+            assertEquals("repair symbol " + (K + n), sbEnc.repairPacket(K + n).symbols(), batch);
+            batch.position(batch.limit());
+            batch.limit(batch.capacity());
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq;
+
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import net.fec.openrq.decoder.RepairAdmissionPolicy;
+import net.fec.openrq.decoder.SourceBlockDecoder;
+import net.fec.openrq.decoder.SourceBlockState;
+import net.fec.openrq.encoder.SourceBlockEncoder;
+import net.fec.openrq.parameters.FECParameters;
+
+import org.junit.Test;
+
+
+/**
+ * Tests the decoding of a source block after a decoding failure.
+ */
+public class DecodingRetryTest {
+
+    // a single source block with 10 source symbols
+    private static final FECParameters FEC_PARAMS = FECParameters.newParameters(100L, 10, 1);
+    private static final int K = 10;
+    private static final int MAX_ATTEMPTS = 10000;
+    private static final int MAX_EXTRA_SYMBOLS = 20;
+
+    // the repair symbols with ESIs in [FAILING_ESI, FAILING_ESI + K) do not suffice to decode the source block
+    private static final int FAILING_ESI = 319;
+
+
+    @Test
+    public void testDecodeAfterFailure() {
+
+        final byte[] data = TestingCommon.randomBytes(FEC_PARAMS.dataLengthAsInt(), TestingCommon.newSeededRandom());
+        final SourceBlockEncoder sbEnc = OpenRQ.newEncoder(data, FEC_PARAMS).sourceBlock(0);
+
+        // with no symbol overhead, a decoding failure is expected in about 1% of the attempts
+        for (int attempt = 0, firstESI = K; attempt < MAX_ATTEMPTS; attempt++, firstESI += K) {
+            final ArrayDataDecoder dataDec = OpenRQ.newDecoder(FEC_PARAMS, 0);
+            final SourceBlockDecoder sbDec = dataDec.sourceBlock(0);
+
+            SourceBlockState state = SourceBlockState.INCOMPLETE;
+            int esi = firstESI;
+            while (state == SourceBlockState.INCOMPLETE) {
+                state = sbDec.putEncodingPacket(sbEnc.repairPacket(esi++));
+            }
+
+            if (state == SourceBlockState.DECODING_FAILURE) {
+                final int lastESI = esi + MAX_EXTRA_SYMBOLS;
+                while (state != SourceBlockState.DECODED && esi < lastESI) {
+                    state = sbDec.putEncodingPacket(sbEnc.repairPacket(esi++));
+                }
+
+                assertEquals(SourceBlockState.DECODED, state);
+                assertArrayEquals(data, dataDec.dataArray());
+                return;
+            }
+        }
+
+        assertTrue("no decoding failure happened", false);
+    }
+
+    // puts the repair symbols with ESIs in [FAILING_ESI, FAILING_ESI + K), and returns the resulting state
+    private static SourceBlockState putFailingSymbols(SourceBlockEncoder sbEnc, SourceBlockDecoder sbDec) {
+
+        SourceBlockState state = SourceBlockState.INCOMPLETE;
+        for (int esi = FAILING_ESI; esi < FAILING_ESI + K; esi++) {
+            state = sbDec.putEncodingPacket(sbEnc.repairPacket(esi));
+        }
+
+        return state;
+    }
+
+    @Test
+    public void testRetryStorageIsReleased() {
+
+        final byte[] data = TestingCommon.randomBytes(FEC_PARAMS.dataLengthAsInt(), TestingCommon.newSeededRandom());
+        final SourceBlockEncoder sbEnc = OpenRQ.newEncoder(data, FEC_PARAMS).sourceBlock(0);
+        final ArrayDataDecoder dataDec = OpenRQ.newDecoder(FEC_PARAMS, 0);
+        final ArraySourceBlockDecoder sbDec = (ArraySourceBlockDecoder)dataDec.sourceBlock(0);
+
+        assertEquals(SourceBlockState.DECODING_FAILURE, putFailingSymbols(sbEnc, sbDec));
+        assertTrue(ArraySourceBlockDecoder.hasIncrementalSolver(sbDec));
+        assertTrue(ArraySourceBlockDecoder.reservedRetryStorage(sbDec) > 0L);
+
+        assertEquals(SourceBlockState.DECODED, sbDec.putEncodingPacket(sbEnc.repairPacket(FAILING_ESI + K)));
+        assertArrayEquals(data, dataDec.dataArray());
+        assertFalse(ArraySourceBlockDecoder.hasIncrementalSolver(sbDec));
+        assertEquals(0L, ArraySourceBlockDecoder.reservedRetryStorage(sbDec));
+    }
+
+    @Test
+    public void testNoRetrySolverBeyondAdmissionBound() {
+
+        final byte[] data = TestingCommon.randomBytes(FEC_PARAMS.dataLengthAsInt(), TestingCommon.newSeededRandom());
+        final SourceBlockEncoder sbEnc = OpenRQ.newEncoder(data, FEC_PARAMS).sourceBlock(0);
+        final ArrayDataDecoder dataDec = OpenRQ.newDecoder(FEC_PARAMS, 0);
+        final ArraySourceBlockDecoder sbDec = (ArraySourceBlockDecoder)dataDec.sourceBlock(0);
+
+        // the incremental solver requires more memory than the repair symbols admitted by the policy
+        sbDec.setRepairAdmissionPolicy(RepairAdmissionPolicy.DROP_EXCESS, 1);
+
+        assertEquals(SourceBlockState.DECODING_FAILURE, putFailingSymbols(sbEnc, sbDec));
+        assertFalse(ArraySourceBlockDecoder.hasIncrementalSolver(sbDec));
+        assertEquals(0L, ArraySourceBlockDecoder.reservedRetryStorage(sbDec));
+
+        // the next decoding operation restarts from scratch
+        assertEquals(SourceBlockState.DECODED, sbDec.putEncodingPacket(sbEnc.repairPacket(FAILING_ESI + K)));
+        assertArrayEquals(data, dataDec.dataArray());
+    }
+
+    @Test
+    public void testRetryStorageBound() {
+
+        final ArraySourceBlockDecoder.RetryStorage storage = new ArraySourceBlockDecoder.RetryStorage(100L);
+        assertTrue(storage.reserve(60L));
+        assertFalse(storage.reserve(60L));
+        assertEquals(60L, storage.reservedBytes());
+
+        storage.release(60L);
+        assertTrue(storage.reserve(100L));
+        assertEquals(100L, storage.reservedBytes());
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq;
+
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import net.fec.openrq.decoder.SourceBlockDecoder;
+import net.fec.openrq.encoder.SourceBlockEncoder;
+import net.fec.openrq.parameters.FECParameters;
+
+import org.junit.Test;
+
+
+/**
+ * Tests the primitive snapshots and visitors of encoding symbol identifiers.
+ */
+public class ESISetTest {
+
+    // a single source block with 10 source symbols
+    private static final FECParameters FEC_PARAMS = FECParameters.newParameters(10 * 16L, 16, 1);
+    private static final int K = 10;
+
+
+    private static final class RecordingConsumer implements ESIConsumer {
+
+        final List<Integer> visited = new ArrayList<>();
+
+
+        @Override
+        public void accept(int esi) {
+
+            visited.add(esi);
+        }
+    }
+
+
+    private static SourceBlockEncoder newEncoder() {
+
+        final byte[] data = TestingCommon.randomBytes(FEC_PARAMS.dataLengthAsInt(), TestingCommon.newSeededRandom());
+        return OpenRQ.newEncoder(data, FEC_PARAMS).sourceBlock(0);
+    }
+
+    private static SourceBlockDecoder newDecoder() {
+
+        return OpenRQ.newDecoder(FEC_PARAMS, 0).sourceBlock(0);
+    }
+
+    private static List<Integer> visitMissingSourceSymbols(SourceBlockDecoder dec) {
+
+        final RecordingConsumer consumer = new RecordingConsumer();
+        dec.forEachMissingSourceSymbol(consumer);
+        return consumer.visited;
+    }
+
+    private static List<Integer> visitAvailableRepairSymbols(SourceBlockDecoder dec) {
+
+        final RecordingConsumer consumer = new RecordingConsumer();
+        dec.forEachAvailableRepairSymbol(consumer);
+        return consumer.visited;
+    }
+
+    @Test
+    public void testNewDecoder() {
+
+        final SourceBlockDecoder dec = newDecoder();
+
+        final ESISet missing = dec.missingSourceESIs();
+        assertEquals(K, missing.size());
+        assertArrayEquals(new int[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9}, missing.toArray());
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), visitMissingSourceSymbols(dec));
+
+        final ESISet available = dec.availableRepairESIs();
+        assertTrue(available.isEmpty());
+        assertEquals(0, available.size());
+        assertTrue(visitAvailableRepairSymbols(dec).isEmpty());
+    }
+
+    @Test
+    public void testVisitOrder() {
+
+        final SourceBlockEncoder enc = newEncoder();
+        final SourceBlockDecoder dec = newDecoder();
+
+        // not enough symbols to decode the source block
+        for (int esi : new int[] {7, 2, 5}) {
+            dec.putEncodingPacket(enc.sourcePacket(esi));
+        }
+        for (int esi : new int[] {K + 5, K + 1, K + 3}) {
+            dec.putEncodingPacket(enc.repairPacket(esi));
+        }
+
+        // missing source symbols in ascending order, available repair symbols in receiving order
+        assertEquals(Arrays.asList(0, 1, 3, 4, 6, 8, 9), visitMissingSourceSymbols(dec));
+        assertArrayEquals(new int[] {0, 1, 3, 4, 6, 8, 9}, dec.missingSourceESIs().toArray());
+        assertEquals(Arrays.asList(K + 5, K + 1, K + 3), visitAvailableRepairSymbols(dec));
+        assertArrayEquals(new int[] {K + 5, K + 1, K + 3}, dec.availableRepairESIs().toArray());
+
+        final SBDInfo info = dec.information();
+        assertEquals(dec.missingSourceESIs(), info.missingSourceESIs());
+        assertEquals(dec.availableRepairESIs(), info.availableRepairESIs());
+        assertEquals(new HashSet<>(Arrays.asList(0, 1, 3, 4, 6, 8, 9)), info.missingSourceSymbols());
+        assertEquals(new HashSet<>(Arrays.asList(K + 5, K + 1, K + 3)), info.availableRepairSymbols());
+    }
+
+    @Test
+    public void testSnapshotContents() {
+
+        final SourceBlockEncoder enc = newEncoder();
+        final SourceBlockDecoder dec = newDecoder();
+        dec.putEncodingPacket(enc.sourcePacket(4));
+        dec.putEncodingPacket(enc.repairPacket(K + 2));
+
+        final ESISet missing = dec.missingSourceESIs();
+        final ESISet available = dec.availableRepairESIs();
+
+        dec.putEncodingPacket(enc.sourcePacket(0));
+        dec.putEncodingPacket(enc.repairPacket(K));
+
+        // the snapshots are not affected by later packets
+        assertArrayEquals(new int[] {0, 1, 2, 3, 5, 6, 7, 8, 9}, missing.toArray());
+        assertTrue(missing.contains(0));
+        assertFalse(missing.contains(4));
+        assertArrayEquals(new int[] {K + 2}, available.toArray());
+        assertFalse(available.contains(K));
+
+        assertNotEquals(missing, dec.missingSourceESIs());
+        assertEquals(8, dec.missingSourceESIs().size());
+        assertEquals(2, dec.availableRepairESIs().size());
+    }
+
+    @Test
+    public void testDecodedBlock() {
+
+        final SourceBlockEncoder enc = newEncoder();
+        final SourceBlockDecoder dec = newDecoder();
+        for (int esi = 0; esi < K; esi++) {
+            dec.putEncodingPacket(enc.sourcePacket(esi));
+        }
+
+        assertTrue(dec.isSourceBlockDecoded());
+        assertTrue(dec.missingSourceESIs().isEmpty());
+        assertTrue(visitMissingSourceSymbols(dec).isEmpty());
+        assertTrue(dec.information().missingSourceESIs().isEmpty());
+    }
+
+    @Test
+    public void testSetOperations() {
+
+        final ESISet set = ESISet.wrap(new int[] {5, 1, 3});
+        assertEquals(3, set.size());
+        assertFalse(set.isEmpty());
+        assertEquals(5, set.get(0));
+        assertEquals(1, set.get(1));
+        assertTrue(set.contains(3));
+        assertFalse(set.contains(2));
+
+        final int[] dst = new int[5];
+        set.copyTo(dst, 2);
+        assertArrayEquals(new int[] {0, 0, 5, 1, 3}, dst);
+
+        // equality and hash codes do not depend on the iteration ordering, and agree with the set view
+        final ESISet sorted = ESISet.copyOf(Arrays.asList(1, 3, 5));
+        assertEquals(set, sorted);
+        assertEquals(set.hashCode(), sorted.hashCode());
+        assertEquals(new HashSet<>(Arrays.asList(1, 3, 5)), set.asSet());
+        assertEquals(set.asSet().hashCode(), set.hashCode());
+        assertEquals(Arrays.asList(5, 1, 3), new ArrayList<>(set.asSet()));
+        assertEquals("[5, 1, 3]", set.toString());
+    }
+
+    @Test
+    public void testEmptySet() {
+
+        final ESISet empty = ESISet.wrap(new int[0]);
+        assertTrue(empty.isEmpty());
+        assertEquals(0, empty.toArray().length);
+        assertFalse(empty.contains(0));
+        assertTrue(empty.asSet().isEmpty());
+        assertEquals(ESISet.empty(), empty);
+        assertEquals("[]", empty.toString());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testUnmodifiableSetView() {
+
+        ESISet.wrap(new int[] {1, 2}).asSet().add(3);
+    }
+}
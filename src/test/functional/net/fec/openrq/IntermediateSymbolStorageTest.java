@@ -0,0 +1,109 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+
+import net.fec.openrq.encoder.SourceBlockEncoder;
+import net.fec.openrq.parameters.FECParameters;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+
+/**
+ * Tests that encoders produce the same repair symbols regardless of the storage of the intermediate symbols.
+ */
+@RunWith(Parameterized.class)
+public class IntermediateSymbolStorageTest {
+
+    @Parameters(name = "{0}")
+    public static Collection<Object[]> getParameters() {
+
+        return Arrays.asList(new Object[][] {
+                                             {IntermediateSymbolStorage.HEAP},
+                                             {IntermediateSymbolStorage.DIRECT}});
+    }
+
+
+    // 2 source blocks with 100 source symbols each (symbol size larger than a tile of the batch encoder)
+    private static final FECParameters FEC_PARAMS = FECParameters.newParameters(2 * 100 * 20000L, 20000, 2);
+    private static final int K = 100;
+
+    private static final byte[] DATA = TestingCommon.randomBytes(FEC_PARAMS.dataLengthAsInt(),
+        TestingCommon.newSeededRandom());
+
+    private final IntermediateSymbolStorage storage;
+
+
+    public IntermediateSymbolStorageTest(IntermediateSymbolStorage storage) {
+
+        this.storage = storage;
+    }
+
+    @Test
+    public void testSameRepairSymbols() {
+
+        final ArrayDataEncoder expected = OpenRQ.newEncoder(DATA, FEC_PARAMS);
+        final ArrayDataEncoder actual = OpenRQ.newEncoder(DATA, FEC_PARAMS,
+            EncoderOptions.defaults().withIntermediateSymbolStorage(storage));
+
+        for (int sbn = 0; sbn < 2; sbn++) {
+            final SourceBlockEncoder expEnc = expected.sourceBlock(sbn);
+            final SourceBlockEncoder actEnc = actual.sourceBlock(sbn);
+
+            assertEquals(expEnc.repairPacket(K).symbols(), actEnc.repairPacket(K).symbols());
+            assertEquals(expEnc.repairPacket(K + 7, 5).symbols(), actEnc.repairPacket(K + 7, 5).symbols());
+
+            final ByteBuffer written = ByteBuffer.allocateDirect(3 * FEC_PARAMS.symbolSize());
+            actEnc.writeRepairSymbols(K + 20, 3, written);
+            written.flip();
+            assertEquals(expEnc.repairPacket(K + 20, 3).symbols(), written);
+        }
+    }
+
+    @Test
+    public void testOptions() {
+
+        final RepairSymbolCache cache = RepairSymbolCache.newCache(1);
+        final EncoderOptions options = EncoderOptions.defaults()
+            .withRepairSymbolCache(cache)
+            .withIntermediateSymbolStorage(storage);
+
+        assertSame(cache, options.repairSymbolCache());
+        assertSame(storage, options.intermediateSymbolStorage());
+        assertSame(options, OpenRQ.newEncoder(DATA, FEC_PARAMS, options).options());
+
+        // the defaults are not modified
+        assertNull(EncoderOptions.defaults().repairSymbolCache());
+        assertSame(IntermediateSymbolStorage.HEAP, EncoderOptions.defaults().intermediateSymbolStorage());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullStorage() {
+
+        EncoderOptions.defaults().withIntermediateSymbolStorage(null);
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import net.fec.openrq.encoder.SourceBlockEncoder;
+import net.fec.openrq.parameters.FECParameters;
+
+import org.junit.Test;
+
+
+/**
+ * Tests the release of intermediate symbols from source block encoders.
+ */
+public class IntermediateSymbolsBudgetTest {
+
+    // 3 source blocks with 10 source symbols each
+    private static final FECParameters FEC_PARAMS = FECParameters.newParameters(3 * 10 * 100L, 100, 3);
+    private static final int K = 10;
+
+    private static final byte[] DATA = TestingCommon.randomBytes(FEC_PARAMS.dataLengthAsInt(),
+        TestingCommon.newSeededRandom());
+
+    private static final ArrayDataEncoder EXPECTED = OpenRQ.newEncoder(DATA, FEC_PARAMS);
+
+
+    // a time source that only advances when told to
+    private static final class ManualTimeSource implements IntermediateSymbolsBudget.TimeSource {
+
+        private long nanos = 0L;
+
+
+        @Override
+        public synchronized long nanoTime() {
+
+            return nanos;
+        }
+
+        synchronized void advance(long time, TimeUnit unit) {
+
+            nanos += unit.toNanos(time);
+        }
+    }
+
+
+    private static ArrayDataEncoder newEncoder(IntermediateSymbolsBudget budget) {
+
+        return OpenRQ.newEncoder(DATA, FEC_PARAMS, EncoderOptions.defaults().withIntermediateSymbolsBudget(budget));
+    }
+
+    private static void assertRepairData(SourceBlockEncoder sbEnc, int esi) {
+
+        final ByteBuffer expected = EXPECTED.sourceBlock(sbEnc.sourceBlockNumber()).repairPacket(esi).symbols();
+        assertEquals(expected, sbEnc.repairPacket(esi).symbols());
+    }
+
+    // the number of bytes of the intermediate symbols of one source block
+    private static long blockBytes() {
+
+        final IntermediateSymbolsBudget budget = IntermediateSymbolsBudget.newBudget(Long.MAX_VALUE);
+        newEncoder(budget).sourceBlock(0).precomputeIntermediateSymbols();
+        return budget.residentBytes();
+    }
+
+    @Test
+    public void testExplicitRelease() {
+
+        final SourceBlockEncoder unbudgeted = OpenRQ.newEncoder(DATA, FEC_PARAMS).sourceBlock(1);
+        assertRepairData(unbudgeted, K);
+        unbudgeted.releaseIntermediateSymbols();
+        assertRepairData(unbudgeted, K + 1);
+
+        final IntermediateSymbolsBudget budget = IntermediateSymbolsBudget.newBudget(Long.MAX_VALUE);
+        final ArrayDataEncoder dataEnc = newEncoder(budget);
+        for (SourceBlockEncoder sbEnc : dataEnc.sourceBlockIterable()) {
+            assertRepairData(sbEnc, K);
+        }
+        assertEquals(3, budget.numResidentBlocks());
+        assertEquals(3 * blockBytes(), budget.residentBytes());
+
+        dataEnc.sourceBlock(0).releaseIntermediateSymbols();
+        assertEquals(2, budget.numResidentBlocks());
+
+        dataEnc.releaseIntermediateSymbols();
+        assertEquals(0, budget.numResidentBlocks());
+        assertEquals(0L, budget.residentBytes());
+        assertEquals(0L, budget.releases()); // explicit releases are not counted
+
+        // released intermediate symbols are computed again
+        assertRepairData(dataEnc.sourceBlock(2), K + 5);
+        assertEquals(1, budget.numResidentBlocks());
+    }
+
+    @Test
+    public void testSizeBudgetSharedBetweenEncoders() {
+
+        final IntermediateSymbolsBudget budget = IntermediateSymbolsBudget.newBudget(2 * blockBytes());
+        final ArrayDataEncoder enc1 = newEncoder(budget);
+        final ArrayDataEncoder enc2 = newEncoder(budget);
+
+        assertRepairData(enc1.sourceBlock(0), K);
+        assertRepairData(enc2.sourceBlock(0), K);
+        assertRepairData(enc1.sourceBlock(0), K + 1); // enc2's block becomes the least recently used
+        assertRepairData(enc1.sourceBlock(1), K); // releases enc2's block
+        assertEquals(2, budget.numResidentBlocks());
+        assertEquals(1L, budget.releases());
+
+        assertRepairData(enc2.sourceBlock(0), K + 1); // computed again, releases enc1's block 0
+        assertEquals(2, budget.numResidentBlocks());
+        assertEquals(2L, budget.releases());
+        assertTrue(budget.residentBytes() <= budget.maxBytes());
+    }
+
+    @Test
+    public void testBudgetSmallerThanBlock() {
+
+        final IntermediateSymbolsBudget budget = IntermediateSymbolsBudget.newBudget(1L);
+        final SourceBlockEncoder sbEnc = newEncoder(budget).sourceBlock(0);
+
+        for (int esi = K; esi < K + 3; esi++) {
+            assertRepairData(sbEnc, esi);
+            assertEquals(0, budget.numResidentBlocks());
+        }
+        assertEquals(3L, budget.releases());
+    }
+
+    @Test
+    public void testIdleRelease() {
+
+        final ManualTimeSource time = new ManualTimeSource();
+        final IntermediateSymbolsBudget budget = IntermediateSymbolsBudget.newBudget(Long.MAX_VALUE, 500,
+            TimeUnit.MILLISECONDS, time);
+        assertEquals(500L, budget.maxIdleTime(TimeUnit.MILLISECONDS));
+
+        final ArrayDataEncoder dataEnc = newEncoder(budget);
+        assertRepairData(dataEnc.sourceBlock(0), K);
+        assertRepairData(dataEnc.sourceBlock(1), K);
+        time.advance(500, TimeUnit.MILLISECONDS);
+        assertEquals(0, budget.releaseIdle()); // not idle for longer than the maximum idle time
+        time.advance(1, TimeUnit.MILLISECONDS);
+
+        assertEquals(2, budget.releaseIdle());
+        assertEquals(0, budget.numResidentBlocks());
+        assertEquals(0L, budget.residentBytes());
+
+        assertRepairData(dataEnc.sourceBlock(0), K + 1);
+        time.advance(600, TimeUnit.MILLISECONDS);
+        assertRepairData(dataEnc.sourceBlock(1), K + 1); // releases the idle block 0
+        assertEquals(1, budget.numResidentBlocks());
+        assertEquals(3L, budget.releases());
+    }
+
+    @Test
+    public void testReleaseAll() {
+
+        final IntermediateSymbolsBudget budget = IntermediateSymbolsBudget.newBudget(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, budget.maxIdleTime(TimeUnit.SECONDS));
+
+        final ArrayDataEncoder dataEnc = newEncoder(budget);
+        assertRepairData(dataEnc.sourceBlock(0), K);
+        assertRepairData(dataEnc.sourceBlock(2), K);
+        budget.releaseAll();
+        assertEquals(0, budget.numResidentBlocks());
+        assertEquals(2L, budget.releases());
+        assertRepairData(dataEnc.sourceBlock(0), K + 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveMaxBytes() {
+
+        IntermediateSymbolsBudget.newBudget(0L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveMaxIdleTime() {
+
+        IntermediateSymbolsBudget.newBudget(1L, 0L, TimeUnit.SECONDS);
+    }
+}
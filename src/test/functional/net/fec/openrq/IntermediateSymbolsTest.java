@@ -0,0 +1,139 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq;
+
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+
+/**
+ * Tests the storages of intermediate symbols, including the ones used when the symbols do not fit in a single memory
+ * region.
+ */
+public class IntermediateSymbolsTest {
+
+    private static final int NUM_SYMBOLS = 23;
+    private static final int T = 16;
+
+
+    private static byte[][] randomSymbols(Random rand) {
+
+        final byte[][] C = new byte[NUM_SYMBOLS][];
+        for (int i = 0; i < NUM_SYMBOLS; i++) {
+            C[i] = TestingCommon.randomBytes(T, rand);
+        }
+
+        return C;
+    }
+
+    // checks every tile copy and addition against the provided symbols
+    private static void assertSymbols(byte[][] C, IntermediateSymbols is) {
+
+        assertEquals(C.length, is.numSymbols());
+        for (int i = 0; i < C.length; i++) {
+            final byte[] copy = new byte[T];
+            is.copyTile(i, 0, T, copy);
+            assertArrayEquals(C[i], copy);
+
+            // a tile in the middle of the symbol, added to itself, cancels out
+            final byte[] acc = C[i].clone();
+            is.addTile(i, 3, T - 5, acc, new byte[T]);
+            for (int j = 0; j < T; j++) {
+                assertEquals((j >= 3 && j < T - 2) ? 0 : C[i][j], acc[j]);
+            }
+        }
+    }
+
+    private static void testStorage(IntermediateSymbolStorage storage, int maxRegionSize) {
+
+        final Random rand = TestingCommon.newSeededRandom();
+        final byte[][] C = randomSymbols(rand);
+        final IntermediateSymbols is = IntermediateSymbols.copyOf(C, T, storage, maxRegionSize);
+        assertSymbols(C, is);
+
+        // the storage is reused for other symbols, which are copied rather than shared
+        final byte[][] other = randomSymbols(rand);
+        final byte[][] expected = new byte[NUM_SYMBOLS][];
+        for (int i = 0; i < NUM_SYMBOLS; i++) {
+            expected[i] = other[i].clone();
+        }
+        is.copyFrom(other);
+        other[NUM_SYMBOLS - 1][0]++;
+        assertSymbols(expected, is);
+    }
+
+    @Test
+    public void testHeapSingleRegion() {
+
+        testStorage(IntermediateSymbolStorage.HEAP, IntermediateSymbols.MAX_REGION_SIZE);
+    }
+
+    @Test
+    public void testHeapTooLargeForSingleRegion() {
+
+        testStorage(IntermediateSymbolStorage.HEAP, NUM_SYMBOLS * T - 1);
+    }
+
+    @Test
+    public void testDirectSingleRegion() {
+
+        testStorage(IntermediateSymbolStorage.DIRECT, IntermediateSymbols.MAX_REGION_SIZE);
+    }
+
+    @Test
+    public void testDirectTooLargeForSingleRegion() {
+
+        // regions of 5 symbols, the last one with 3 symbols
+        testStorage(IntermediateSymbolStorage.DIRECT, 5 * T + T / 2);
+    }
+
+    @Test
+    public void testDirectOneSymbolPerRegion() {
+
+        testStorage(IntermediateSymbolStorage.DIRECT, T);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegionSmallerThanSymbol() {
+
+        IntermediateSymbols.copyOf(new byte[NUM_SYMBOLS][T], T, IntermediateSymbolStorage.DIRECT, T - 1);
+    }
+
+    @Test
+    public void testDirectWithoutSymbols() {
+
+        assertEquals(0, IntermediateSymbols.copyOf(new byte[0][], T, IntermediateSymbolStorage.DIRECT, T).numSymbols());
+    }
+
+    @Test
+    public void testWrappedSymbols() {
+
+        final byte[][] C = randomSymbols(TestingCommon.newSeededRandom());
+        assertSymbols(C, IntermediateSymbols.wrap(C));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testWrappedSymbolsNotCopied() {
+
+        final byte[][] C = randomSymbols(TestingCommon.newSeededRandom());
+        IntermediateSymbols.wrap(C).copyFrom(C);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq;
+
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Random;
+
+import net.fec.openrq.util.rq.SystematicIndices;
+
+import org.junit.Test;
+
+
+/**
+ * Tests that the precomputed inverse of the constraint matrix produces the same intermediate symbols as the linear
+ * solvers.
+ */
+public class InverseConstraintMatrixTest {
+
+    private static byte[][] randomSymbols(int Kprime, int T, Random rand) {
+
+        final int Ki = SystematicIndices.getKIndex(Kprime);
+        final int S = SystematicIndices.S(Ki);
+        final int H = SystematicIndices.H(Ki);
+
+        final byte[][] D = new byte[Kprime + S + H][];
+        for (int row = 0; row < D.length; row++) {
+            D[row] = (row < S + H) ? new byte[T] : TestingCommon.randomBytes(T, rand);
+        }
+
+        return D;
+    }
+
+    private static void testAllKprimes(int T) throws SingularMatrixException {
+
+        final Random rand = TestingCommon.newSeededRandom();
+        for (int Kprime = SystematicIndices.ceil(1); Kprime <= InverseConstraintMatrix.MAX_KPRIME;
+             Kprime = SystematicIndices.ceil(Kprime + 1)) {
+
+            final byte[][] D = randomSymbols(Kprime, T, rand);
+            final byte[][] actual = InverseConstraintMatrix.get(Kprime).decode(D);
+            final byte[][] expected = LinearSolvers.PERMANENT_INACTIVATION.solve(
+                LinearSystem.generateConstraintMatrix(Kprime), D, Kprime);
+
+            assertArrayEquals("K' = " + Kprime, expected, actual);
+        }
+    }
+
+    @Test
+    public void testSmallSymbols() throws SingularMatrixException {
+
+        testAllKprimes(16);
+    }
+
+    @Test
+    public void testMultipleTileSymbols() throws SingularMatrixException {
+
+        testAllKprimes(5000);
+    }
+
+    @Test
+    public void testCachedInverse() {
+
+        assertSame(InverseConstraintMatrix.get(10), InverseConstraintMatrix.get(10));
+    }
+
+    @Test
+    public void testLargeKprime() {
+
+        assertNull(InverseConstraintMatrix.get(SystematicIndices.ceil(InverseConstraintMatrix.MAX_KPRIME + 1)));
+    }
+}
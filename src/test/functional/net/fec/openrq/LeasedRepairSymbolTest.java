@@ -0,0 +1,174 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq;
+
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.fec.openrq.decoder.BufferReleaser;
+import net.fec.openrq.decoder.SourceBlockDecoder;
+import net.fec.openrq.decoder.SourceBlockState;
+import net.fec.openrq.encoder.SourceBlockEncoder;
+import net.fec.openrq.parameters.FECParameters;
+
+import org.junit.Before;
+import org.junit.Test;
+
+
+/**
+ * Tests the reception of leased repair symbols by a source block decoder.
+ */
+public class LeasedRepairSymbolTest {
+
+    // a single source block with 10 source symbols
+    private static final FECParameters FEC_PARAMS = FECParameters.newParameters(100L, 10, 1);
+    private static final int K = 10;
+    private static final int T = 10;
+    private static final int OVERHEAD = 2;
+
+    // the repair symbols with ESIs in [FAILING_ESI, FAILING_ESI + K) do not suffice to decode the source block
+    private static final int FAILING_ESI = 319;
+
+    private byte[] data;
+    private SourceBlockEncoder sbEnc;
+    private ArrayDataDecoder dataDec;
+    private SourceBlockDecoder sbDec;
+    private List<ByteBuffer> released;
+    private BufferReleaser releaser;
+
+
+    @Before
+    public void initCoders() {
+
+        data = TestingCommon.randomBytes(FEC_PARAMS.dataLengthAsInt(), TestingCommon.newSeededRandom());
+        sbEnc = OpenRQ.newEncoder(data, FEC_PARAMS).sourceBlock(0);
+        dataDec = OpenRQ.newDecoder(FEC_PARAMS, OVERHEAD);
+        sbDec = dataDec.sourceBlock(0);
+
+        released = new ArrayList<>();
+        releaser = new BufferReleaser() {
+
+            @Override
+            public void release(ByteBuffer buffer) {
+
+                released.add(buffer);
+            }
+        };
+    }
+
+    private ByteBuffer repairBuffer(int esi) {
+
+        final byte[] symbol = new byte[T];
+        sbEnc.repairPacket(esi).symbols().get(symbol);
+        return ByteBuffer.wrap(symbol);
+    }
+
+    // a buffer over the middle of a larger array, which cannot be decoded in place
+    private ByteBuffer slicedRepairBuffer(int esi) {
+
+        final byte[] array = new byte[T + 2];
+        sbEnc.repairPacket(esi).symbols().get(array, 1, T);
+        return ByteBuffer.wrap(array, 1, T).slice();
+    }
+
+    @Test
+    public void testDecodeFromLeasedSymbols() {
+
+        final List<ByteBuffer> leased = new ArrayList<>();
+        SourceBlockState state = SourceBlockState.INCOMPLETE;
+        for (int esi = K; state != SourceBlockState.DECODED && esi < 2 * K + 10 * OVERHEAD; esi++) {
+            final ByteBuffer buf = repairBuffer(esi);
+            leased.add(buf);
+            state = sbDec.leaseRepairSymbol(esi, buf, releaser);
+        }
+
+        assertEquals(SourceBlockState.DECODED, state);
+        assertArrayEquals(data, dataDec.dataArray());
+        // every buffer must be released exactly once
+        assertEquals(leased.size(), released.size());
+        assertTrue(released.containsAll(leased));
+    }
+
+    @Test
+    public void testFailedDecodingDiscardsSymbolsDecodedInPlace() {
+
+        sbDec.setSymbolOverhead(0);
+
+        // the even ESIs are in whole arrays, decoded in place, and the odd ones are slices, copied when decoding
+        final List<ByteBuffer> leased = new ArrayList<>();
+        SourceBlockState state = SourceBlockState.INCOMPLETE;
+        for (int esi = FAILING_ESI; esi < FAILING_ESI + K; esi++) {
+            final ByteBuffer buf = (esi % 2 == 0) ? repairBuffer(esi) : slicedRepairBuffer(esi);
+            leased.add(buf);
+            state = sbDec.leaseRepairSymbol(esi, buf, releaser);
+        }
+
+        // the symbols decoded in place were overwritten by the failed decoding, so they are released and dropped
+        assertEquals(SourceBlockState.DECODING_FAILURE, state);
+        assertEquals(K / 2, released.size());
+        assertEquals(K / 2, sbDec.numDroppedRepairSymbols());
+        for (int esi : sbDec.availableRepairESIs().toArray()) {
+            assertEquals(1, esi % 2);
+        }
+        for (ByteBuffer buf : released) {
+            assertEquals(T, buf.array().length);
+        }
+
+        // the copied symbols are kept, and decode the source block with new symbols
+        for (int esi = FAILING_ESI + K; state != SourceBlockState.DECODED && esi < FAILING_ESI + 3 * K; esi++) {
+            final ByteBuffer buf = repairBuffer(esi);
+            leased.add(buf);
+            state = sbDec.leaseRepairSymbol(esi, buf, releaser);
+        }
+        assertEquals(SourceBlockState.DECODED, state);
+        assertArrayEquals(data, dataDec.dataArray());
+        assertEquals(leased.size(), released.size());
+        assertTrue(released.containsAll(leased));
+    }
+
+    @Test
+    public void testDuplicateIsReleasedImmediately() {
+
+        final ByteBuffer first = repairBuffer(K);
+        final ByteBuffer second = repairBuffer(K);
+
+        assertEquals(SourceBlockState.INCOMPLETE, sbDec.leaseRepairSymbol(K, first, releaser));
+        assertTrue(released.isEmpty());
+
+        assertEquals(SourceBlockState.INCOMPLETE, sbDec.leaseRepairSymbol(K, second, releaser));
+        assertEquals(1, released.size());
+        assertSame(second, released.get(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongSymbolSize() {
+
+        sbDec.leaseRepairSymbol(K, ByteBuffer.allocate(T + 1), releaser);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSourceSymbolESI() {
+
+        sbDec.leaseRepairSymbol(0, ByteBuffer.allocate(T), releaser);
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq;
+
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Random;
+
+import net.fec.openrq.decoder.SourceBlockDecoder;
+import net.fec.openrq.decoder.SourceBlockState;
+import net.fec.openrq.encoder.SourceBlockEncoder;
+import net.fec.openrq.parameters.FECParameters;
+import net.fec.openrq.util.linearalgebra.io.ByteVectorIterator;
+import net.fec.openrq.util.linearalgebra.matrix.ByteMatrix;
+import net.fec.openrq.util.math.OctetOps;
+import net.fec.openrq.util.rq.SystematicIndices;
+
+import org.junit.Test;
+
+
+/**
+ * Tests that every linear solver produces the same intermediate symbols, and the selection of the solvers.
+ */
+public class LinearSolversTest {
+
+    private static final int T = 16;
+
+    // a single source block with 101 source symbols
+    private static final FECParameters FEC_PARAMS = FECParameters.newParameters(1616L, T, 1);
+
+
+    private static byte[][] randomSymbols(int Kprime, Random rand) {
+
+        final int Ki = SystematicIndices.getKIndex(Kprime);
+        final int S = SystematicIndices.S(Ki);
+        final int H = SystematicIndices.H(Ki);
+
+        final byte[][] D = new byte[Kprime + S + H][];
+        for (int row = 0; row < D.length; row++) {
+            D[row] = (row < S + H) ? new byte[T] : TestingCommon.randomBytes(T, rand);
+        }
+
+        return D;
+    }
+
+    private static byte[][] copy(byte[][] D) {
+
+        final byte[][] copy = new byte[D.length][];
+        for (int row = 0; row < D.length; row++) {
+            copy[row] = D[row].clone();
+        }
+
+        return copy;
+    }
+
+    // replaces the overhead rows of A by the rows of consecutive repair symbols, and returns symbols D = A * C
+    // for random intermediate symbols C, so that the overdetermined system has a solution
+    private static byte[][] addOverheadRows(ByteMatrix A, int Kprime, int overheadRows, Random rand) {
+
+        final int L = A.columns();
+        final int firstISI = Kprime + rand.nextInt(1000);
+        for (int n = 0; n < overheadRows; n++) {
+            for (int col : LinearSystem.encIndexes(Kprime, new Tuple(Kprime, firstISI + n))) {
+                A.set(L + n, col, (byte)1);
+            }
+        }
+
+        final byte[][] C = new byte[L][];
+        for (int col = 0; col < L; col++) {
+            C[col] = TestingCommon.randomBytes(T, rand);
+        }
+        final byte[][] D = new byte[L + overheadRows][T];
+        for (int row = 0; row < D.length; row++) {
+            final ByteVectorIterator it = A.nonZeroRowIterator(row);
+            while (it.hasNext()) {
+                it.next();
+                OctetOps.vectorVectorAddition(it.get(), C[it.index()], D[row], D[row]);
+            }
+        }
+
+        return D;
+    }
+
+    private static void testSolvers(int K, int overheadRows) throws SingularMatrixException {
+
+        final int Kprime = SystematicIndices.ceil(K);
+        final ByteMatrix A = LinearSystem.generateConstraintMatrix(Kprime, overheadRows);
+        final byte[][] D = addOverheadRows(A, Kprime, overheadRows, TestingCommon.newSeededRandom());
+
+        final byte[][] expected = LinearSolvers.PERMANENT_INACTIVATION.solve(A.copy(), copy(D), Kprime);
+        assertArrayEquals(expected, LinearSolvers.GAUSSIAN_ELIMINATION.solve(A.copy(), copy(D), Kprime));
+        assertArrayEquals(expected, LinearSolvers.PEELING.solve(A.copy(), copy(D), Kprime));
+        assertArrayEquals(expected, LinearSolvers.select(Kprime, overheadRows).solve(A.copy(), copy(D), Kprime));
+    }
+
+    private static byte[] decode(SourceBlockEncoder sbEnc, SolverPolicy policy) {
+
+        final ArrayDataDecoder dec = OpenRQ.newDecoder(FEC_PARAMS, 2);
+        final SourceBlockDecoder sbDec = dec.sourceBlock(0);
+        sbDec.setSolverPolicy(policy);
+        assertSame(policy, sbDec.solverPolicy());
+
+        // every fifth source symbol is lost and replaced by a repair symbol
+        final int K = sbEnc.numberOfSourceSymbols();
+        for (int esi = 0; esi < K; esi++) {
+            if (esi % 5 != 0) {
+                sbDec.putEncodingPacket(sbEnc.sourcePacket(esi));
+            }
+        }
+        SourceBlockState state = SourceBlockState.INCOMPLETE;
+        for (int esi = K; state == SourceBlockState.INCOMPLETE; esi++) {
+            state = sbDec.putEncodingPacket(sbEnc.repairPacket(esi));
+        }
+        assertEquals(SourceBlockState.DECODED, state);
+
+        return dec.dataArray();
+    }
+
+    private static void testSolvers(int K) throws SingularMatrixException {
+
+        final int Kprime = SystematicIndices.ceil(K);
+        final ByteMatrix A = LinearSystem.generateConstraintMatrix(Kprime);
+        final byte[][] D = randomSymbols(Kprime, TestingCommon.newSeededRandom());
+
+        final byte[][] expected = LinearSolvers.PERMANENT_INACTIVATION.solve(A.copy(), copy(D), Kprime);
+        assertArrayEquals(expected, LinearSolvers.GAUSSIAN_ELIMINATION.solve(A.copy(), copy(D), Kprime));
+        assertArrayEquals(expected, LinearSolvers.PEELING.solve(A.copy(), copy(D), Kprime));
+        assertArrayEquals(expected, LinearSolvers.select(Kprime, 0).solve(A.copy(), copy(D), Kprime));
+    }
+
+    @Test
+    public void testSmallBlock() throws SingularMatrixException {
+
+        testSolvers(10);
+    }
+
+    @Test
+    public void testMediumBlock() throws SingularMatrixException {
+
+        testSolvers(101);
+    }
+
+    @Test
+    public void testLargeBlock() throws SingularMatrixException {
+
+        testSolvers(1002);
+    }
+
+    @Test
+    public void testSmallBlockWithOverheadRows() throws SingularMatrixException {
+
+        testSolvers(10, 2);
+        testSolvers(10, 10);
+    }
+
+    @Test
+    public void testMediumBlockWithOverheadRows() throws SingularMatrixException {
+
+        testSolvers(101, 50);
+    }
+
+    @Test
+    public void testLargeBlockWithOverheadRows() throws SingularMatrixException {
+
+        testSolvers(1002, 3);
+    }
+
+    @Test
+    public void testAutomaticSelection() {
+
+        assertSame(LinearSolvers.GAUSSIAN_ELIMINATION, LinearSolvers.select(10, 0));
+        assertSame(LinearSolvers.GAUSSIAN_ELIMINATION, LinearSolvers.select(10, 2));
+        assertSame(LinearSolvers.PEELING, LinearSolvers.select(10, 3));
+        assertSame(LinearSolvers.PEELING, LinearSolvers.select(SystematicIndices.ceil(1002), 200));
+        assertSame(LinearSolvers.PEELING, LinearSolvers.select(SystematicIndices.ceil(20000), 0));
+
+        // outside of the measured range the permanent inactivation decoding is the default
+        assertSame(LinearSolvers.PERMANENT_INACTIVATION, LinearSolvers.select(SystematicIndices.ceil(1002), 201));
+        assertSame(LinearSolvers.PERMANENT_INACTIVATION, LinearSolvers.select(SystematicIndices.ceil(25000), 0));
+        assertSame(LinearSolvers.PERMANENT_INACTIVATION, LinearSolvers.select(SystematicIndices.ceil(56403), 0));
+    }
+
+    @Test
+    public void testPolicySelection() {
+
+        final int Kprime = SystematicIndices.ceil(101);
+        for (int overheadRows : new int[] {0, 2, 500}) {
+            assertSame(LinearSolvers.select(Kprime, overheadRows),
+                LinearSolvers.select(SolverPolicy.AUTOMATIC, Kprime, overheadRows));
+            assertSame(LinearSolvers.PERMANENT_INACTIVATION,
+                LinearSolvers.select(SolverPolicy.PERMANENT_INACTIVATION, Kprime, overheadRows));
+            assertSame(LinearSolvers.GAUSSIAN_ELIMINATION,
+                LinearSolvers.select(SolverPolicy.GAUSSIAN_ELIMINATION, Kprime, overheadRows));
+            assertSame(LinearSolvers.PEELING, LinearSolvers.select(SolverPolicy.PEELING, Kprime, overheadRows));
+        }
+    }
+
+    @Test
+    public void testEncoderSolverPolicies() {
+
+        final byte[] data = TestingCommon.randomBytes(FEC_PARAMS.dataLengthAsInt(), TestingCommon.newSeededRandom());
+        final byte[] expected = OpenRQ.newEncoder(data, FEC_PARAMS).sourceBlock(0).repairPacket(200, 10).asArray();
+
+        assertSame(SolverPolicy.AUTOMATIC, EncoderOptions.defaults().solverPolicy());
+        for (SolverPolicy policy : SolverPolicy.values()) {
+            final EncoderOptions options = EncoderOptions.defaults().withSolverPolicy(policy);
+            assertSame(policy, options.solverPolicy());
+            final SourceBlockEncoder sbEnc = OpenRQ.newEncoder(data, FEC_PARAMS, options).sourceBlock(0);
+            assertArrayEquals(expected, sbEnc.repairPacket(200, 10).asArray());
+        }
+    }
+
+    @Test
+    public void testDecoderSolverPolicies() {
+
+        final byte[] data = TestingCommon.randomBytes(FEC_PARAMS.dataLengthAsInt(), TestingCommon.newSeededRandom());
+        final SourceBlockEncoder sbEnc = OpenRQ.newEncoder(data, FEC_PARAMS).sourceBlock(0);
+
+        assertSame(SolverPolicy.AUTOMATIC, OpenRQ.newDecoder(FEC_PARAMS, 0).sourceBlock(0).solverPolicy());
+        for (SolverPolicy policy : SolverPolicy.values()) {
+            assertArrayEquals(data, decode(sbEnc, policy));
+        }
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullDecoderSolverPolicy() {
+
+        OpenRQ.newDecoder(FEC_PARAMS, 0).sourceBlock(0).setSolverPolicy(null);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullEncoderSolverPolicy() {
+
+        EncoderOptions.defaults().withSolverPolicy(null);
+    }
+}
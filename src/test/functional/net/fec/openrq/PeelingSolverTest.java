@@ -0,0 +1,248 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq;
+
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import net.fec.openrq.util.linearalgebra.io.ByteVectorIterator;
+import net.fec.openrq.util.linearalgebra.matrix.ByteMatrix;
+import net.fec.openrq.util.math.OctetOps;
+import net.fec.openrq.util.rq.SystematicIndices;
+
+import org.junit.Test;
+
+
+/**
+ * Tests that the peeling solver produces the same results as the permanent inactivation decoding.
+ */
+public class PeelingSolverTest {
+
+    private static final int T = 16;
+
+
+    /*
+     * A decoding system as built by a source block decoder: the rows of the missing source symbols are replaced by the
+     * rows of the given repair symbols, and the remaining repair symbols are added as overhead rows. The symbols are
+     * consistent with random intermediate symbols, so that systems with overhead rows have a solution.
+     */
+    private static final class DecodingSystem {
+
+        final int Kprime;
+        final ByteMatrix A;
+        final byte[][] C;
+        final byte[][] D;
+
+
+        DecodingSystem(int K, int[] missingESIs, int[] repairISIs, Random rand) {
+
+            this.Kprime = SystematicIndices.ceil(K);
+            final int Ki = SystematicIndices.getKIndex(Kprime);
+            final int S = SystematicIndices.S(Ki);
+            final int H = SystematicIndices.H(Ki);
+            final int L = Kprime + S + H;
+            final int overhead = repairISIs.length - missingESIs.length;
+
+            this.A = LinearSystem.generateConstraintMatrix(Kprime, overhead);
+            for (int n = 0; n < repairISIs.length; n++) {
+                final int row = (n < missingESIs.length) ? S + H + missingESIs[n] : L + n - missingESIs.length;
+                A.clearRow(row);
+                for (int col : LinearSystem.encIndexes(Kprime, new Tuple(Kprime, repairISIs[n]))) {
+                    A.set(row, col, (byte)1);
+                }
+            }
+
+            this.C = new byte[L][];
+            for (int col = 0; col < L; col++) {
+                C[col] = TestingCommon.randomBytes(T, rand);
+            }
+            this.D = new byte[L + overhead][T];
+            for (int row = 0; row < D.length; row++) {
+                final ByteVectorIterator it = A.nonZeroRowIterator(row);
+                while (it.hasNext()) {
+                    it.next();
+                    OctetOps.vectorVectorAddition(it.get(), C[it.index()], D[row], D[row]);
+                }
+            }
+        }
+
+        byte[][] solveWithPI() throws SingularMatrixException {
+
+            return LinearSolvers.PERMANENT_INACTIVATION.solve(A.copy(), copy(D), Kprime);
+        }
+
+        byte[][] solveWithPeeling() throws SingularMatrixException {
+
+            return PeelingSolver.peelingDecoding(A.copy(), copy(D), Kprime);
+        }
+    }
+
+
+    private static byte[][] copy(byte[][] D) {
+
+        final byte[][] copy = new byte[D.length][];
+        for (int row = 0; row < D.length; row++) {
+            copy[row] = D[row].clone();
+        }
+
+        return copy;
+    }
+
+    private static DecodingSystem randomSystem(int K, double lossRate, int overhead, Random rand) {
+
+        final List<Integer> esis = new ArrayList<>(K);
+        for (int esi = 0; esi < K; esi++) {
+            esis.add(esi);
+        }
+        Collections.shuffle(esis, rand);
+
+        final int numMissing = (int)Math.ceil(K * lossRate);
+        final int[] missingESIs = new int[numMissing];
+        for (int n = 0; n < numMissing; n++) {
+            missingESIs[n] = esis.get(n);
+        }
+
+        final int Kprime = SystematicIndices.ceil(K);
+        final int firstISI = Kprime + rand.nextInt(1000);
+        final int[] repairISIs = new int[numMissing + overhead];
+        for (int n = 0; n < repairISIs.length; n++) {
+            repairISIs[n] = firstISI + n;
+        }
+
+        return new DecodingSystem(K, missingESIs, repairISIs, rand);
+    }
+
+    private static void assertSingular(DecodingSystem system) {
+
+        try {
+            system.solveWithPI();
+            fail("expected a singular system");
+        }
+        catch (SingularMatrixException e) {
+            // expected
+        }
+        try {
+            system.solveWithPeeling();
+            fail("expected SingularMatrixException from the peeling solver");
+        }
+        catch (SingularMatrixException e) {
+            // expected
+        }
+    }
+
+    // solvable systems must be solved with the same intermediate symbols, and singular systems must fail with both
+    private static void testRandomSystems(int K, double lossRate, int overhead, int numSystems) {
+
+        final Random rand = TestingCommon.newSeededRandom();
+        int numSolved = 0;
+        for (int n = 0; n < numSystems; n++) {
+            final DecodingSystem system = randomSystem(K, lossRate, overhead, rand);
+
+            byte[][] expected = null;
+            try {
+                expected = system.solveWithPI();
+            }
+            catch (SingularMatrixException e) {
+                assertSingular(system);
+            }
+
+            if (expected != null) {
+                try {
+                    assertArrayEquals(system.C, expected);
+                    assertArrayEquals(expected, system.solveWithPeeling());
+                    numSolved++;
+                }
+                catch (SingularMatrixException e) {
+                    fail("the peeling solver failed to solve a system solved by the permanent inactivation decoding");
+                }
+            }
+        }
+
+        // with the symbol overhead used by these tests, decoding failures are rare
+        assertTrue(numSolved >= numSystems - 2);
+    }
+
+    @Test
+    public void testSmallBlockLightLoss() {
+
+        testRandomSystems(10, 0.1, 0, 20);
+    }
+
+    @Test
+    public void testSmallBlockFullLoss() {
+
+        testRandomSystems(26, 1.0, 2, 20);
+    }
+
+    @Test
+    public void testMediumBlockLightLoss() {
+
+        testRandomSystems(101, 0.05, 0, 20);
+    }
+
+    @Test
+    public void testMediumBlockHeavyLoss() {
+
+        testRandomSystems(101, 0.5, 3, 20);
+    }
+
+    @Test
+    public void testLargeBlock() {
+
+        testRandomSystems(1002, 0.2, 2, 3);
+    }
+
+    @Test
+    public void testNoLoss() {
+
+        testRandomSystems(55, 0.0, 0, 5);
+    }
+
+    @Test
+    public void testSingularRepairSymbols() {
+
+        // the repair symbols with ESIs in [319, 329) do not suffice to decode a source block with 10 source symbols
+        final int K = 10;
+        final int Kprime = SystematicIndices.ceil(K);
+        final int[] missingESIs = new int[K];
+        final int[] repairISIs = new int[K];
+        for (int n = 0; n < K; n++) {
+            missingESIs[n] = n;
+            repairISIs[n] = SystematicIndices.getISI(319 + n, K, Kprime);
+        }
+
+        assertSingular(new DecodingSystem(K, missingESIs, repairISIs, TestingCommon.newSeededRandom()));
+    }
+
+    @Test
+    public void testDuplicateRepairSymbol() {
+
+        // two missing source symbols replaced by the same repair symbol leave the system without full rank
+        final int K = 101;
+        final int Kprime = SystematicIndices.ceil(K);
+        final int[] missingESIs = {3, 50};
+        final int[] repairISIs = {Kprime + 7, Kprime + 7};
+
+        assertSingular(new DecodingSystem(K, missingESIs, repairISIs, TestingCommon.newSeededRandom()));
+    }
+}
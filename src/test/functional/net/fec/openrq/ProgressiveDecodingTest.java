@@ -0,0 +1,79 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq;
+
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import java.util.Set;
+
+import net.fec.openrq.decoder.SourceBlockDecoder;
+import net.fec.openrq.decoder.SourceBlockState;
+import net.fec.openrq.encoder.SourceBlockEncoder;
+import net.fec.openrq.parameters.FECParameters;
+
+import org.junit.Test;
+
+
+/**
+ * Tests the progressive decoding of source blocks.
+ */
+public class ProgressiveDecodingTest {
+
+    // a single source block with 100 source symbols
+    private static final FECParameters FEC_PARAMS = FECParameters.newParameters(2000L, 20, 1);
+    private static final int K = 100;
+    private static final int OVERHEAD = 2;
+
+
+    private static void testDecoding(Set<Integer> esis) {
+
+        final byte[] data = TestingCommon.randomBytes(FEC_PARAMS.dataLengthAsInt(), TestingCommon.newSeededRandom());
+        final SourceBlockEncoder sbEnc = OpenRQ.newEncoder(data, FEC_PARAMS).sourceBlock(0);
+        final ArrayDataDecoder dataDec = OpenRQ.newProgressiveDecoder(FEC_PARAMS, OVERHEAD);
+        final SourceBlockDecoder sbDec = dataDec.sourceBlock(0);
+
+        SourceBlockState state = SourceBlockState.INCOMPLETE;
+        int received = 0;
+        for (int esi : esis) {
+            if (state == SourceBlockState.DECODED) break;
+            state = sbDec.putEncodingPacket(sbEnc.encodingPacket(esi));
+            received++;
+            if (received < K) {
+                assertEquals(SourceBlockState.INCOMPLETE, state);
+            }
+        }
+
+        assertEquals(SourceBlockState.DECODED, state);
+        assertArrayEquals(data, dataDec.dataArray());
+    }
+
+    @Test
+    public void testDecodeFromAnySymbols() {
+
+        final Random rand = TestingCommon.newSeededRandom();
+        testDecoding(TestingCommon.randomAnyESIs(rand, K + 10 * OVERHEAD));
+    }
+
+    @Test
+    public void testDecodeFromSourceAndRepairSymbols() {
+
+        final Random rand = TestingCommon.newSeededRandom();
+        testDecoding(TestingCommon.randomSrcRepESIs(rand, K + 10 * OVERHEAD, K));
+    }
+}
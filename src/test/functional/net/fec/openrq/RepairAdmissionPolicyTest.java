@@ -0,0 +1,126 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq;
+
+
+import static org.junit.Assert.assertEquals;
+
+import net.fec.openrq.decoder.RepairAdmissionPolicy;
+import net.fec.openrq.decoder.SourceBlockDecoder;
+import net.fec.openrq.decoder.SourceBlockState;
+import net.fec.openrq.encoder.SourceBlockEncoder;
+import net.fec.openrq.parameters.FECParameters;
+
+import org.junit.Before;
+import org.junit.Test;
+
+
+/**
+ * Tests the repair symbol admission policies of a source block decoder.
+ */
+public class RepairAdmissionPolicyTest {
+
+    // a single source block with 10 source symbols
+    private static final FECParameters FEC_PARAMS = FECParameters.newParameters(100L, 10, 1);
+    private static final int K = 10;
+    private static final int INITIAL_OVERHEAD = 5;
+
+    // the repair symbols with ESIs in [FAILING_ESI, FAILING_ESI + K) do not suffice to decode the source block
+    private static final int FAILING_ESI = 319;
+
+    private SourceBlockEncoder sbEnc;
+    private SourceBlockDecoder sbDec;
+
+
+    @Before
+    public void initCoders() {
+
+        final byte[] data = TestingCommon.randomBytes(FEC_PARAMS.dataLengthAsInt(), TestingCommon.newSeededRandom());
+        sbEnc = OpenRQ.newEncoder(data, FEC_PARAMS).sourceBlock(0);
+        sbDec = OpenRQ.newDecoder(FEC_PARAMS, INITIAL_OVERHEAD).sourceBlock(0);
+    }
+
+    // puts (K + INITIAL_OVERHEAD - 1) repair symbols, which is one short of starting a decoding operation
+    private int putAlmostEnoughRepairSymbols() {
+
+        return putAlmostEnoughRepairSymbols(K);
+    }
+
+    // same as above, with consecutive ESIs starting at the provided one
+    private int putAlmostEnoughRepairSymbols(int firstESI) {
+
+        int esi = firstESI;
+        for (int n = 0; n < K + INITIAL_OVERHEAD - 1; n++, esi++) {
+            assertEquals(SourceBlockState.INCOMPLETE, sbDec.putEncodingPacket(sbEnc.repairPacket(esi)));
+        }
+
+        return esi;
+    }
+
+    @Test
+    public void testAdmitAllByDefault() {
+
+        assertEquals(RepairAdmissionPolicy.ADMIT_ALL, sbDec.repairAdmissionPolicy());
+        assertEquals(0, sbDec.repairAdmissionMargin());
+
+        putAlmostEnoughRepairSymbols();
+        assertEquals(K + INITIAL_OVERHEAD - 1, sbDec.availableRepairESIs().size());
+        assertEquals(0L, sbDec.numDroppedRepairSymbols());
+        assertEquals(0L, sbDec.numReplacedRepairSymbols());
+    }
+
+    @Test
+    public void testDropExcess() {
+
+        sbDec.setRepairAdmissionPolicy(RepairAdmissionPolicy.DROP_EXCESS, 1);
+        final int nextESI = putAlmostEnoughRepairSymbols();
+
+        // the repair capacity is now (K + 0 + 1), below the number of kept repair symbols
+        sbDec.setSymbolOverhead(0);
+
+        final ESISet before = sbDec.availableRepairESIs();
+        assertEquals(SourceBlockState.INCOMPLETE, sbDec.putEncodingPacket(sbEnc.repairPacket(nextESI)));
+        assertEquals(before, sbDec.availableRepairESIs());
+        assertEquals(1L, sbDec.numDroppedRepairSymbols());
+        assertEquals(0L, sbDec.numReplacedRepairSymbols());
+    }
+
+    @Test
+    public void testReplaceOldest() {
+
+        sbDec.setRepairAdmissionPolicy(RepairAdmissionPolicy.REPLACE_OLDEST, 0);
+        final int nextESI = putAlmostEnoughRepairSymbols(FAILING_ESI - INITIAL_OVERHEAD);
+
+        // the repair capacity is now K, below the number of kept repair symbols
+        sbDec.setSymbolOverhead(0);
+
+        // the kept repair symbols have ESIs in [FAILING_ESI, FAILING_ESI + K), so the block is not decoded
+        assertEquals(SourceBlockState.DECODING_FAILURE, sbDec.putEncodingPacket(sbEnc.repairPacket(nextESI)));
+        assertEquals(INITIAL_OVERHEAD, sbDec.numReplacedRepairSymbols());
+        assertEquals(0L, sbDec.numDroppedRepairSymbols());
+
+        final ESISet available = sbDec.availableRepairESIs();
+        assertEquals(K, available.size());
+        assertEquals(FAILING_ESI, available.get(0));
+        assertEquals(nextESI, available.get(K - 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeMargin() {
+
+        sbDec.setRepairAdmissionPolicy(RepairAdmissionPolicy.DROP_EXCESS, -1);
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.fec.openrq.encoder.RepairPacketStream;
+import net.fec.openrq.encoder.SourceBlockEncoder;
+import net.fec.openrq.parameters.FECParameters;
+import net.fec.openrq.parameters.ParameterChecker;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+/**
+ * Tests the streams of repair packets that are generated ahead of time.
+ */
+public class RepairPacketStreamTest {
+
+    // 3 source blocks with 20 or 21 source symbols each
+    private static final FECParameters FEC_PARAMS = FECParameters.newParameters(62 * 16L - 5, 16, 3);
+
+    private static final Executor DIRECT_EXECUTOR = new Executor() {
+
+        @Override
+        public void execute(Runnable command) {
+
+            command.run();
+        }
+    };
+
+    private static ExecutorService pool;
+
+
+    @BeforeClass
+    public static void startPool() {
+
+        pool = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterClass
+    public static void stopPool() {
+
+        pool.shutdownNow();
+    }
+
+    private static ArrayDataEncoder newEncoder() {
+
+        final Random rand = TestingCommon.newSeededRandom();
+        return OpenRQ.newEncoder(TestingCommon.randomBytes(FEC_PARAMS.dataLengthAsInt(), rand), FEC_PARAMS);
+    }
+
+    private static PrefetchedRepairPackets countingStream(
+        final AtomicInteger generatedCount,
+        final SourceBlockEncoder sbEnc,
+        int capacity)
+    {
+
+        return PrefetchedRepairPackets.start(new PrefetchedRepairPackets.Generator() {
+
+            @Override
+            public EncodingPacket packet(long seq) {
+
+                generatedCount.incrementAndGet();
+                return sbEnc.repairPacket(sbEnc.numberOfSourceSymbols() + (int)seq);
+            }
+        }, 100, capacity, 1, DIRECT_EXECUTOR);
+    }
+
+    @Test
+    public void testSourceBlockStream() throws InterruptedException {
+
+        final SourceBlockEncoder sbEnc = newEncoder().sourceBlock(1);
+        final int firstESI = sbEnc.numberOfSourceSymbols() + 3;
+        try (RepairPacketStream stream = sbEnc.repairPacketStream(firstESI, 4, 2, pool)) {
+            assertEquals(4, stream.capacity());
+            for (int esi = firstESI; esi < firstESI + 50; esi++) {
+                final EncodingPacket packet = stream.take();
+                assertEquals(1, packet.sourceBlockNumber());
+                assertEquals(esi, packet.encodingSymbolID());
+                assertEquals(sbEnc.repairPacket(esi).symbols(), packet.symbols());
+            }
+        }
+    }
+
+    @Test
+    public void testDataStream() throws InterruptedException {
+
+        final ArrayDataEncoder enc = newEncoder();
+        final int Z = enc.numberOfSourceBlocks();
+        try (RepairPacketStream stream = enc.repairPacketStream(5, 2, pool)) {
+            for (int round = 0; round < 20; round++) {
+                for (int sbn = 0; sbn < Z; sbn++) {
+                    final SourceBlockEncoder sbEnc = enc.sourceBlock(sbn);
+                    final int esi = sbEnc.numberOfSourceSymbols() + round;
+                    final EncodingPacket packet = stream.take();
+                    assertEquals(sbn, packet.sourceBlockNumber());
+                    assertEquals(esi, packet.encodingSymbolID());
+                    assertEquals(sbEnc.repairPacket(esi).symbols(), packet.symbols());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBoundedPrefetch() throws InterruptedException {
+
+        final AtomicInteger generatedCount = new AtomicInteger();
+        try (PrefetchedRepairPackets stream = countingStream(generatedCount, newEncoder().sourceBlock(0), 4)) {
+            assertEquals(4, generatedCount.get()); // the ring is filled, but not beyond its capacity
+            for (int n = 1; n <= 10; n++) {
+                stream.take();
+                assertEquals(4 + n, generatedCount.get());
+            }
+        }
+    }
+
+    @Test
+    public void testEndOfStream() throws InterruptedException {
+
+        final SourceBlockEncoder sbEnc = newEncoder().sourceBlock(0);
+        final int maxESI = ParameterChecker.maxEncodingSymbolID();
+        try (RepairPacketStream stream = sbEnc.repairPacketStream(maxESI - 1, 8, 1, DIRECT_EXECUTOR)) {
+            assertEquals(maxESI - 1, stream.poll().encodingSymbolID());
+            assertEquals(maxESI, stream.take().encodingSymbolID());
+            try {
+                stream.poll();
+                fail("expected NoSuchElementException");
+            }
+            catch (NoSuchElementException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testPollWithoutGeneratedPacket() throws InterruptedException {
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final SourceBlockEncoder sbEnc = newEncoder().sourceBlock(0);
+        final Executor deferring = new Executor() {
+
+            @Override
+            public void execute(final Runnable command) {
+
+                pool.execute(new Runnable() {
+
+                    @Override
+                    public void run() {
+
+                        try {
+                            release.await();
+                        }
+                        catch (InterruptedException e) {
+                            return;
+                        }
+                        command.run();
+                    }
+                });
+            }
+        };
+
+        try (RepairPacketStream stream = sbEnc.repairPacketStream(sbEnc.numberOfSourceSymbols(), 2, 1, deferring)) {
+            assertNull(stream.poll());
+            release.countDown();
+            assertEquals(sbEnc.numberOfSourceSymbols(), stream.take().encodingSymbolID());
+        }
+    }
+
+    @Test
+    public void testClosedStream() {
+
+        final ArrayDataEncoder enc = newEncoder();
+        final RepairPacketStream stream = enc.repairPacketStream(4, 1, DIRECT_EXECUTOR);
+        stream.close();
+        try {
+            stream.poll();
+            fail("expected IllegalStateException");
+        }
+        catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testGenerationFailure() throws InterruptedException {
+
+        final RuntimeException error = new RuntimeException("test failure");
+        final SourceBlockEncoder sbEnc = newEncoder().sourceBlock(0);
+        try (PrefetchedRepairPackets stream = PrefetchedRepairPackets.start(new PrefetchedRepairPackets.Generator() {
+
+            @Override
+            public EncodingPacket packet(long seq) {
+
+                if (seq == 2) {
+                    throw error;
+                }
+                return sbEnc.repairPacket(sbEnc.numberOfSourceSymbols() + (int)seq);
+            }
+        }, 100, 4, 1, DIRECT_EXECUTOR)) {
+            // the packets generated before the failure are still returned
+            stream.take();
+            stream.take();
+            try {
+                stream.take();
+                fail("expected IllegalStateException");
+            }
+            catch (IllegalStateException e) {
+                assertSame(error, e.getCause());
+            }
+        }
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void testRejectingExecutor() {
+
+        newEncoder().repairPacketStream(4, 1, new Executor() {
+
+            @Override
+            public void execute(Runnable command) {
+
+                throw new RejectedExecutionException();
+            }
+        });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSourceSymbolESI() {
+
+        newEncoder().sourceBlock(0).repairPacketStream(0, 4, 1, DIRECT_EXECUTOR);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroCapacity() {
+
+        newEncoder().repairPacketStream(0, 1, DIRECT_EXECUTOR);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroParallelism() {
+
+        newEncoder().repairPacketStream(4, 0, DIRECT_EXECUTOR);
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+
+import net.fec.openrq.encoder.SourceBlockEncoder;
+import net.fec.openrq.parameters.FECParameters;
+
+import org.junit.Test;
+
+
+/**
+ * Tests the caching of repair symbols by source block encoders.
+ */
+public class RepairSymbolCacheTest {
+
+    // 2 source blocks with 10 source symbols each
+    private static final FECParameters FEC_PARAMS = FECParameters.newParameters(200L, 10, 2);
+    private static final int K = 10;
+
+    private static final byte[] DATA = TestingCommon.randomBytes(FEC_PARAMS.dataLengthAsInt(),
+        TestingCommon.newSeededRandom());
+
+
+    private static ByteBuffer repairData(SourceBlockEncoder sbEnc, int esi) {
+
+        return sbEnc.repairPacket(esi).symbols();
+    }
+
+    @Test
+    public void testHitsAndMisses() {
+
+        final RepairSymbolCache cache = RepairSymbolCache.newCache(4);
+        final SourceBlockEncoder cached = OpenRQ.newEncoder(DATA, FEC_PARAMS, cache).sourceBlock(0);
+        final SourceBlockEncoder uncached = OpenRQ.newEncoder(DATA, FEC_PARAMS).sourceBlock(0);
+
+        for (int n = 0; n < 3; n++) {
+            for (int esi = K; esi < K + 4; esi++) {
+                assertEquals(repairData(uncached, esi), repairData(cached, esi));
+            }
+        }
+
+        assertEquals(4, cache.misses());
+        assertEquals(8, cache.hits());
+        assertEquals(4, cache.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+
+        final RepairSymbolCache cache = RepairSymbolCache.newCache(2);
+        final SourceBlockEncoder sbEnc = OpenRQ.newEncoder(DATA, FEC_PARAMS, cache).sourceBlock(0);
+
+        repairData(sbEnc, K); // miss
+        repairData(sbEnc, K + 1); // miss
+        repairData(sbEnc, K); // hit, K + 1 becomes the least recently used
+        repairData(sbEnc, K + 2); // miss, evicts K + 1
+        repairData(sbEnc, K); // hit
+        repairData(sbEnc, K + 1); // miss
+
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.hits());
+        assertEquals(4, cache.misses());
+    }
+
+    @Test
+    public void testSharedBetweenSourceBlocks() {
+
+        final RepairSymbolCache cache = RepairSymbolCache.newCache(10);
+        final ArrayDataEncoder cached = OpenRQ.newEncoder(DATA, FEC_PARAMS, cache);
+        final ArrayDataEncoder uncached = OpenRQ.newEncoder(DATA, FEC_PARAMS);
+
+        // same ESI in different source blocks must not be confused
+        for (int sbn = 0; sbn < 2; sbn++) {
+            assertEquals(repairData(uncached.sourceBlock(sbn), K), repairData(cached.sourceBlock(sbn), K));
+        }
+        assertEquals(0, cache.hits());
+        assertEquals(2, cache.misses());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testMultipleSymbolPacket() {
+
+        final RepairSymbolCache cache = RepairSymbolCache.newCache(10);
+        final SourceBlockEncoder cached = OpenRQ.newEncoder(DATA, FEC_PARAMS, cache).sourceBlock(1);
+        final SourceBlockEncoder uncached = OpenRQ.newEncoder(DATA, FEC_PARAMS).sourceBlock(1);
+
+        assertEquals(uncached.repairPacket(K, 3).symbols(), cached.repairPacket(K, 3).symbols());
+        assertEquals(uncached.repairPacket(K, 3).symbols(), cached.repairPacket(K, 3).symbols());
+        assertEquals(3, cache.hits());
+    }
+
+    @Test
+    public void testEncoderNotRetainedByCache() throws InterruptedException {
+
+        final RepairSymbolCache cache = RepairSymbolCache.newCache(10);
+        ArrayDataEncoder enc = OpenRQ.newEncoder(DATA, FEC_PARAMS, cache);
+        repairData(enc.sourceBlock(0), K);
+        repairData(enc.sourceBlock(1), K);
+
+        final WeakReference<ArrayDataEncoder> ref = new WeakReference<>(enc);
+        enc = null;
+        for (int n = 0; n < 100 && ref.get() != null; n++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        // the cached symbols are still held, but do not keep their encoder reachable
+        assertNull(ref.get());
+        assertEquals(2, cache.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveCapacity() {
+
+        RepairSymbolCache.newCache(0);
+    }
+}
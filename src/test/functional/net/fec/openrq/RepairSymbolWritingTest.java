@@ -0,0 +1,173 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq;
+
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.Arrays;
+
+import net.fec.openrq.encoder.SourceBlockEncoder;
+import net.fec.openrq.parameters.FECParameters;
+
+import org.junit.Before;
+import org.junit.Test;
+
+
+/**
+ * Tests the writing of repair symbols and repair packets into caller-provided arrays and buffers.
+ */
+public class RepairSymbolWritingTest {
+
+    // 2 source blocks with 20 source symbols each
+    private static final FECParameters FEC_PARAMS = FECParameters.newParameters(2000L, 50, 2);
+    private static final int K = 20;
+    private static final int T = 50;
+    private static final int NUM_SYMBOLS = 7;
+    private static final int OFFSET = 3;
+
+    private SourceBlockEncoder sbEnc;
+
+
+    @Before
+    public void initEncoder() {
+
+        final byte[] data = TestingCommon.randomBytes(FEC_PARAMS.dataLengthAsInt(), TestingCommon.newSeededRandom());
+        sbEnc = OpenRQ.newEncoder(data, FEC_PARAMS).sourceBlock(1);
+    }
+
+    private byte[] expectedSymbols() {
+
+        final ByteBuffer symbols = sbEnc.repairPacket(K + 5, NUM_SYMBOLS).symbols();
+        final byte[] array = new byte[symbols.remaining()];
+        symbols.get(array);
+        return array;
+    }
+
+    private byte[] expectedPacket() {
+
+        return sbEnc.repairPacket(K + 5, NUM_SYMBOLS).asArray();
+    }
+
+    @Test
+    public void testWriteSymbolsIntoArray() {
+
+        final byte[] array = new byte[OFFSET + NUM_SYMBOLS * T + OFFSET];
+        sbEnc.writeRepairSymbols(K + 5, NUM_SYMBOLS, array, OFFSET);
+
+        assertArrayEquals(expectedSymbols(), Arrays.copyOfRange(array, OFFSET, OFFSET + NUM_SYMBOLS * T));
+        assertArrayEquals(new byte[OFFSET], Arrays.copyOfRange(array, OFFSET + NUM_SYMBOLS * T, array.length));
+    }
+
+    @Test
+    public void testWriteSymbolsIntoDirectBuffer() {
+
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(OFFSET + NUM_SYMBOLS * T);
+        buffer.position(OFFSET);
+        sbEnc.writeRepairSymbols(K + 5, NUM_SYMBOLS, buffer);
+        assertEquals(buffer.capacity(), buffer.position());
+
+        buffer.position(OFFSET);
+        assertEquals(ByteBuffer.wrap(expectedSymbols()), buffer);
+    }
+
+    @Test
+    public void testWritePacketIntoArray() {
+
+        final byte[] array = new byte[OFFSET + expectedPacket().length];
+        sbEnc.writeRepairPacket(K + 5, NUM_SYMBOLS, array, OFFSET);
+
+        assertArrayEquals(expectedPacket(), Arrays.copyOfRange(array, OFFSET, array.length));
+    }
+
+    @Test
+    public void testWritePacketIntoSlicedBuffers() {
+
+        final byte[] packet = expectedPacket();
+        final ByteBuffer heap = ByteBuffer.allocate(OFFSET + packet.length + OFFSET);
+        heap.position(OFFSET);
+        final ByteBuffer heapSlice = heap.slice();
+        final ByteBuffer direct = ByteBuffer.allocateDirect(packet.length);
+
+        sbEnc.writeRepairPacket(K + 5, NUM_SYMBOLS, heapSlice);
+        sbEnc.writeRepairPacket(K + 5, NUM_SYMBOLS, direct);
+        assertEquals(packet.length, heapSlice.position());
+        assertEquals(packet.length, direct.position());
+
+        heapSlice.flip();
+        direct.flip();
+        assertEquals(ByteBuffer.wrap(packet), heapSlice);
+        assertEquals(ByteBuffer.wrap(packet), direct);
+    }
+
+    @Test
+    public void testParseWrittenPacket() {
+
+        final byte[] array = new byte[8 + NUM_SYMBOLS * T];
+        sbEnc.writeRepairPacket(K + 5, NUM_SYMBOLS, array, 0);
+
+        final EncodingPacket packet = EncodingPacket.parsePacket(
+            OpenRQ.newDecoderWithZeroOverhead(FEC_PARAMS), array, true).value();
+        assertEquals(1, packet.sourceBlockNumber());
+        assertEquals(K + 5, packet.encodingSymbolID());
+        assertEquals(NUM_SYMBOLS, packet.numberOfSymbols());
+        assertEquals(ByteBuffer.wrap(expectedSymbols()), packet.symbols());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testArrayTooShort() {
+
+        sbEnc.writeRepairPacket(K, NUM_SYMBOLS, new byte[8 + NUM_SYMBOLS * T], 1);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testNegativeOffset() {
+
+        sbEnc.writeRepairSymbols(K, NUM_SYMBOLS, new byte[NUM_SYMBOLS * T], -1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSymbolsTooLargeForArray() {
+
+        // 3 million symbols of 1 KiB exceed the maximum array length
+        final FECParameters fecParams = FECParameters.newParameters(10240L, 1024, 1);
+        final byte[] data = new byte[fecParams.dataLengthAsInt()];
+        final SourceBlockEncoder enc = OpenRQ.newEncoder(data, fecParams).sourceBlock(0);
+        enc.writeRepairPacket(enc.numberOfSourceSymbols(), 3_000_000, new byte[0], 0);
+    }
+
+    @Test(expected = BufferOverflowException.class)
+    public void testBufferTooShort() {
+
+        sbEnc.writeRepairSymbols(K, NUM_SYMBOLS, ByteBuffer.allocate(NUM_SYMBOLS * T - 1));
+    }
+
+    @Test(expected = ReadOnlyBufferException.class)
+    public void testReadOnlyBuffer() {
+
+        sbEnc.writeRepairSymbols(K, NUM_SYMBOLS, ByteBuffer.allocate(NUM_SYMBOLS * T).asReadOnlyBuffer());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSourceSymbolESI() {
+
+        sbEnc.writeRepairSymbols(K - 1, 1, new byte[T], 0);
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq;
+
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import net.fec.openrq.decoder.SourceBlockDecoder;
+import net.fec.openrq.decoder.SourceBlockState;
+import net.fec.openrq.encoder.SourceBlockEncoder;
+import net.fec.openrq.parameters.FECParameters;
+
+import org.junit.Test;
+
+
+/**
+ * Tests the reuse of encoders and decoders for new source data.
+ */
+public class ResetTest {
+
+    // 2 source blocks with 20 source symbols each (the last symbol is partial)
+    private static final FECParameters FEC_PARAMS = FECParameters.newParameters(2 * 20 * 16L - 5, 16, 2);
+    private static final int F = FEC_PARAMS.dataLengthAsInt();
+
+
+    private static void assertSamePackets(ArrayDataEncoder expected, ArrayDataEncoder actual) {
+
+        for (int sbn = 0; sbn < FEC_PARAMS.numberOfSourceBlocks(); sbn++) {
+            final SourceBlockEncoder expEnc = expected.sourceBlock(sbn);
+            final SourceBlockEncoder actEnc = actual.sourceBlock(sbn);
+            final int K = expEnc.numberOfSourceSymbols();
+            for (int esi = 0; esi < K + 5; esi++) {
+                assertEquals(expEnc.encodingPacket(esi).symbols(), actEnc.encodingPacket(esi).symbols());
+            }
+            assertEquals(expEnc.repairPacket(K + 7, 3).symbols(), actEnc.repairPacket(K + 7, 3).symbols());
+        }
+    }
+
+    private static void testEncoderReset(EncoderOptions options) {
+
+        final Random rand = TestingCommon.newSeededRandom();
+        final byte[] data1 = TestingCommon.randomBytes(F, rand);
+        final byte[] data2 = TestingCommon.randomBytes(F + 10, rand); // the data starts at offset 10
+
+        final ArrayDataEncoder enc = OpenRQ.newEncoder(data1, FEC_PARAMS, options);
+        final SourceBlockEncoder sbEnc = enc.sourceBlock(1);
+        assertSamePackets(OpenRQ.newEncoder(data1, FEC_PARAMS), enc);
+
+        enc.reset(data2, 10);
+        assertSame(data2, enc.dataArray());
+        assertEquals(10, enc.dataOffset());
+        assertSame(sbEnc, enc.sourceBlock(1));
+        assertSamePackets(OpenRQ.newEncoder(data2, 10, FEC_PARAMS), enc);
+
+        enc.reset(data1, 0);
+        assertSamePackets(OpenRQ.newEncoder(data1, FEC_PARAMS), enc);
+    }
+
+    @Test
+    public void testEncoderReset() {
+
+        testEncoderReset(EncoderOptions.defaults());
+    }
+
+    @Test
+    public void testEncoderResetWithCache() {
+
+        testEncoderReset(EncoderOptions.defaults().withRepairSymbolCache(RepairSymbolCache.newCache(100)));
+    }
+
+    @Test
+    public void testEncoderResetWithBudget() {
+
+        final IntermediateSymbolsBudget budget = IntermediateSymbolsBudget.newBudget(Long.MAX_VALUE);
+        testEncoderReset(EncoderOptions.defaults().withIntermediateSymbolsBudget(budget));
+        assertEquals(FEC_PARAMS.numberOfSourceBlocks(), budget.numResidentBlocks());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testEncoderResetWithShortData() {
+
+        OpenRQ.newEncoder(new byte[F], FEC_PARAMS).reset(new byte[F], 1);
+    }
+
+    private static void decode(ArrayDataDecoder dec, byte[] data, int firstESI) {
+
+        final ArrayDataEncoder enc = OpenRQ.newEncoder(data, FEC_PARAMS);
+        for (int sbn = 0; sbn < FEC_PARAMS.numberOfSourceBlocks(); sbn++) {
+            final SourceBlockEncoder sbEnc = enc.sourceBlock(sbn);
+            final SourceBlockDecoder sbDec = dec.sourceBlock(sbn);
+            SourceBlockState state = SourceBlockState.INCOMPLETE;
+            for (int esi = firstESI; state != SourceBlockState.DECODED; esi++) {
+                state = sbDec.putEncodingPacket(sbEnc.encodingPacket(esi));
+            }
+        }
+
+        assertTrue(dec.isDataDecoded());
+        assertArrayEquals(data, dec.dataArray());
+    }
+
+    private static void testDecoderReset(ArrayDataDecoder dec) {
+
+        final Random rand = TestingCommon.newSeededRandom();
+        final byte[] data1 = TestingCommon.randomBytes(F, rand);
+        final byte[] data2 = TestingCommon.randomBytes(F, rand);
+
+        decode(dec, data1, 3); // some source symbols are missing
+        final byte[] array1 = dec.dataArray();
+
+        // a repair symbol is held by the decoder at the time of the reset
+        dec.sourceBlock(0).putEncodingPacket(OpenRQ.newEncoder(data2, FEC_PARAMS).sourceBlock(0).encodingPacket(50));
+        dec.reset();
+        assertFalse(dec.isDataDecoded());
+        assertSame(array1, dec.dataArray());
+        for (SourceBlockDecoder sbDec : dec.sourceBlockIterable()) {
+            assertEquals(0, sbDec.availableRepairSymbols().size());
+            assertEquals(sbDec.numberOfSourceSymbols(), sbDec.missingSourceSymbols().size());
+        }
+        decode(dec, data2, 5);
+
+        final byte[] array2 = new byte[F];
+        dec.reset(array2);
+        decode(dec, data1, 0);
+        assertSame(array2, dec.dataArray());
+        assertArrayEquals(data2, array1); // the previous array is no longer written
+    }
+
+    @Test
+    public void testDecoderReset() {
+
+        testDecoderReset(OpenRQ.newDecoder(FEC_PARAMS, 0));
+    }
+
+    @Test
+    public void testProgressiveDecoderReset() {
+
+        testDecoderReset(OpenRQ.newProgressiveDecoder(FEC_PARAMS, 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecoderResetWithWrongLength() {
+
+        OpenRQ.newDecoder(FEC_PARAMS, 0).reset(new byte[F + 1]);
+    }
+}
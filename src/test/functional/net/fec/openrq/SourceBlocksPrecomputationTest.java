@@ -0,0 +1,237 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import net.fec.openrq.encoder.DataEncoder;
+import net.fec.openrq.encoder.SourceBlockEncoder;
+import net.fec.openrq.parameters.FECParameters;
+
+import org.junit.Test;
+
+
+/**
+ * Tests the eager precomputation of intermediate symbols by data encoders.
+ */
+public class SourceBlocksPrecomputationTest {
+
+    // 4 source blocks with 10 source symbols each
+    private static final FECParameters FEC_PARAMS = FECParameters.newParameters(400L, 10, 4);
+    private static final int T = 10;
+
+    // runs each task in the calling thread, so that there is nothing to shut down
+    private static final Executor DIRECT_EXECUTOR = new Executor() {
+
+        @Override
+        public void execute(Runnable command) {
+
+            command.run();
+        }
+    };
+
+
+    private static DataEncoder newEncoder() {
+
+        final byte[] data = TestingCommon.randomBytes(FEC_PARAMS.dataLengthAsInt(), TestingCommon.newSeededRandom());
+        return OpenRQ.newEncoder(data, FEC_PARAMS);
+    }
+
+    private static byte[] repairSymbol(SourceBlockEncoder sbEnc, int esi) {
+
+        final ByteBuffer symbols = sbEnc.repairPacket(esi).symbols();
+        final byte[] symbol = new byte[T];
+        symbols.get(symbol);
+        return symbol;
+    }
+
+    private static void assertSameRepairSymbols(DataEncoder expected, DataEncoder actual) {
+
+        for (int sbn = 0; sbn < expected.numberOfSourceBlocks(); sbn++) {
+            final SourceBlockEncoder expEnc = expected.sourceBlock(sbn);
+            final SourceBlockEncoder actEnc = actual.sourceBlock(sbn);
+            for (int esi = expEnc.numberOfSourceSymbols(); esi < expEnc.numberOfSourceSymbols() + 5; esi++) {
+                assertEquals(ByteBuffer.wrap(repairSymbol(expEnc, esi)), ByteBuffer.wrap(repairSymbol(actEnc, esi)));
+            }
+        }
+    }
+
+    @Test
+    public void testPrecomputeAllBlocksInForkJoinPool() throws Exception {
+
+        final DataEncoder enc = newEncoder();
+        final ForkJoinPool pool = new ForkJoinPool();
+        try {
+            final Future<?> future = enc.precomputeSourceBlocks(pool);
+            assertNull(future.get(1, TimeUnit.MINUTES));
+            assertTrue(future.isDone());
+        }
+        finally {
+            pool.shutdown();
+        }
+
+        assertSameRepairSymbols(newEncoder(), enc);
+    }
+
+    @Test
+    public void testPrecomputeRangeOfBlocks() throws Exception {
+
+        final DataEncoder enc = newEncoder();
+        final List<Runnable> tasks = new ArrayList<>();
+        final Future<?> future = enc.precomputeSourceBlocks(1, 3, new Executor() {
+
+            @Override
+            public void execute(Runnable command) {
+
+                tasks.add(command);
+            }
+        });
+
+        assertEquals(2, tasks.size());
+        assertTrue(!future.isDone());
+        for (Runnable task : tasks) {
+            task.run();
+        }
+        assertTrue(future.isDone());
+        assertNull(future.get());
+
+        assertSameRepairSymbols(newEncoder(), enc);
+    }
+
+    @Test
+    public void testPrecomputeEmptyRange() throws Exception {
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<?> future = newEncoder().precomputeSourceBlocks(2, 2, executor);
+            assertTrue(future.isDone());
+            assertNull(future.get());
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testCancelOnlyOnce() {
+
+        final List<Runnable> tasks = new ArrayList<>();
+        final Future<?> future = newEncoder().precomputeSourceBlocks(new Executor() {
+
+            @Override
+            public void execute(Runnable command) {
+
+                tasks.add(command);
+            }
+        });
+
+        assertTrue(future.cancel(false));
+        assertFalse(future.cancel(false));
+        assertTrue(future.isCancelled());
+    }
+
+    @Test
+    public void testRejectedTaskCancelsAcceptedTasks() {
+
+        final DataEncoder enc = newEncoder();
+        final List<Runnable> tasks = new ArrayList<>();
+        try {
+            enc.precomputeSourceBlocks(new Executor() {
+
+                @Override
+                public void execute(Runnable command) {
+
+                    if (tasks.size() == 2) {
+                        throw new RejectedExecutionException();
+                    }
+                    tasks.add(command);
+                }
+            });
+            fail("the rejection was not reported");
+        }
+        catch (RejectedExecutionException e) {
+            // expected
+        }
+
+        // the accepted tasks run later, without computing anything
+        for (Runnable task : tasks) {
+            task.run();
+        }
+        for (int sbn = 0; sbn < enc.numberOfSourceBlocks(); sbn++) {
+            assertEquals(0, ArraySourceBlockEncoder.numIntermediateSymbolsComputations(
+                (ArraySourceBlockEncoder)enc.sourceBlock(sbn)));
+        }
+    }
+
+    @Test
+    public void testConcurrentCallersOnSameBlock() throws Exception {
+
+        final DataEncoder enc = newEncoder();
+        final ArraySourceBlockEncoder sbEnc = (ArraySourceBlockEncoder)enc.sourceBlock(0);
+        final int numThreads = 8;
+        final CyclicBarrier barrier = new CyclicBarrier(numThreads);
+        final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            final List<Future<byte[]>> results = new ArrayList<>();
+            for (int n = 0; n < numThreads; n++) {
+                results.add(executor.submit(new Callable<byte[]>() {
+
+                    @Override
+                    public byte[] call() throws Exception {
+
+                        barrier.await();
+                        return repairSymbol(sbEnc, sbEnc.numberOfSourceSymbols());
+                    }
+                }));
+            }
+
+            final byte[] expected = repairSymbol(newEncoder().sourceBlock(0), sbEnc.numberOfSourceSymbols());
+            for (Future<byte[]> result : results) {
+                assertEquals(ByteBuffer.wrap(expected), ByteBuffer.wrap(result.get(1, TimeUnit.MINUTES)));
+            }
+
+            // the callers that did not compute the intermediate symbols waited for the single computation
+            assertEquals(1, ArraySourceBlockEncoder.numIntermediateSymbolsComputations(sbEnc));
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRange() {
+
+        newEncoder().precomputeSourceBlocks(3, 5, DIRECT_EXECUTOR);
+    }
+}
@@ -41,6 +41,7 @@
 package net.fec.openrq.util.linearalgebra.matrix;
 
 
+import static net.fec.openrq.util.math.OctetOps.aDividedByB;
 import static net.fec.openrq.util.math.OctetOps.aTimesB;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
@@ -51,6 +52,7 @@ import java.util.Arrays;
 
 import net.fec.openrq.util.linearalgebra.factory.Factory;
 import net.fec.openrq.util.linearalgebra.io.ByteVectorIterator;
+import net.fec.openrq.util.linearalgebra.matrix.functor.EliminationProcedure;
 import net.fec.openrq.util.linearalgebra.matrix.functor.MatrixAccumulator;
 import net.fec.openrq.util.linearalgebra.matrix.functor.MatrixFunction;
 import net.fec.openrq.util.linearalgebra.matrix.functor.MatrixProcedure;
@@ -2588,6 +2590,53 @@ public abstract class AbstractByteMatrixTest {
         assertArrayEquals(new int[] {}, a.nonZeroPositionsInRow(3, 4, 4));
     }
 
+    @Test
+    public void testCopyNonZerosInRow() {
+
+        ByteMatrix a = factory().createMatrix(new byte[][] {
+                                                            {0, 0, 0, 0, 0},
+                                                            {0, 5, 9, 0, 0},
+                                                            {7, 0, 0, 3, 1}
+        });
+
+        final int[] positions = new int[5];
+        final byte[] values = new byte[5];
+
+        assertEquals(0, a.copyNonZerosInRow(0, positions, values));
+
+        assertEquals(2, a.copyNonZerosInRow(1, positions, values));
+        assertArrayEquals(new int[] {1, 2}, Arrays.copyOf(positions, 2));
+        assertArrayEquals(new byte[] {5, 9}, Arrays.copyOf(values, 2));
+
+        assertEquals(3, a.copyNonZerosInRow(2, positions, null));
+        assertArrayEquals(new int[] {0, 3, 4}, Arrays.copyOf(positions, 3));
+    }
+
+    @Test
+    public void testCopyNonZerosInRowInRangeOf_1_to_4() {
+
+        ByteMatrix a = factory().createMatrix(new byte[][] {
+                                                            {0, 0, 0, 0, 0},
+                                                            {0, 5, 9, 0, 0},
+                                                            {7, 0, 0, 3, 1}
+        });
+
+        final int[] positions = new int[5];
+        final byte[] values = new byte[5];
+
+        assertEquals(0, a.copyNonZerosInRow(0, positions, values, 1, 4));
+
+        assertEquals(2, a.copyNonZerosInRow(1, positions, values, 1, 4));
+        assertArrayEquals(new int[] {1, 2}, Arrays.copyOf(positions, 2));
+        assertArrayEquals(new byte[] {5, 9}, Arrays.copyOf(values, 2));
+
+        assertEquals(1, a.copyNonZerosInRow(2, positions, values, 1, 4));
+        assertEquals(3, positions[0]);
+        assertEquals(3, values[0]);
+
+        assertEquals(0, a.copyNonZerosInRow(2, positions, values, 4, 4));
+    }
+
     private ByteMatrix nonZeroPositionsInColumnMatrix() {
 
         return factory().createMatrix(new byte[][] {
@@ -6249,6 +6298,80 @@ public abstract class AbstractByteMatrixTest {
         assertEquals(b, a);
     }
 
+    @Test
+    public void testEliminateColumn() {
+
+        ByteMatrix a = factory().createMatrix(new byte[][] {
+                                                            {1, 0, 2, 0, 5},
+                                                            {0, 3, 4, 0, 1},
+                                                            {0, 0, 0, 9, 0},
+                                                            {7, 0, 6, 0, 0}
+        });
+        ByteMatrix b = a.copy();
+
+        final byte[] multipliers = new byte[a.rows()];
+        a.eliminateColumn(1, 2, 0, 4, new EliminationProcedure() {
+
+            @Override
+            public void apply(int i, byte multiplier) {
+
+                multipliers[i] = multiplier;
+            }
+        });
+
+        assertArrayEquals(new byte[] {aDividedByB((byte)2, (byte)4), 0, 0, aDividedByB((byte)6, (byte)4)}, multipliers);
+        b.addRowsInPlace(multipliers[0], 1, 0);
+        b.addRowsInPlace(multipliers[3], 1, 3);
+        assertEquals(b, a);
+        assertEquals(0, a.get(0, 2));
+        assertEquals(4, a.get(1, 2));
+        assertEquals(0, a.get(3, 2));
+    }
+
+    @Test
+    public void testEliminateColumnInRangeOf_2_to_4() {
+
+        ByteMatrix a = factory().createMatrix(new byte[][] {
+                                                            {1, 0, 2, 0, 5},
+                                                            {0, 3, 4, 0, 1},
+                                                            {0, 0, 0, 9, 0},
+                                                            {7, 0, 6, 0, 0}
+        });
+        ByteMatrix b = a.copy();
+
+        final byte[] multipliers = new byte[a.rows()];
+        a.eliminateColumn(1, 2, 2, 4, new EliminationProcedure() {
+
+            @Override
+            public void apply(int i, byte multiplier) {
+
+                multipliers[i] = multiplier;
+            }
+        });
+
+        assertArrayEquals(new byte[] {0, 0, 0, aDividedByB((byte)6, (byte)4)}, multipliers);
+        b.addRowsInPlace(multipliers[3], 1, 3);
+        assertEquals(b, a);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEliminateColumnWithZeroPivot() {
+
+        ByteMatrix a = factory().createMatrix(new byte[][] {
+                                                            {1, 0, 2},
+                                                            {0, 3, 0}
+        });
+
+        a.eliminateColumn(1, 2, 0, 2, new EliminationProcedure() {
+
+            @Override
+            public void apply(int i, byte multiplier) {
+
+                // nothing to do
+            }
+        });
+    }
+
     @Test
     public void testSerialization() throws DeserializationException {
 
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq.util.linearalgebra.matrix;
+
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import net.fec.openrq.TestingCommon;
+import net.fec.openrq.util.linearalgebra.LinearAlgebra;
+
+import org.junit.Test;
+
+
+public class ByteMatrixViewsTest {
+
+    private static ByteMatrix newSparseMatrix() {
+
+        return LinearAlgebra.CRS_FACTORY.createMatrix(new byte[][] {
+                                                                    {1, 0, 2, 0, 0},
+                                                                    {0, 4, 0, 5, 0},
+                                                                    {0, 0, 7, 0, 8},
+                                                                    {3, 0, 0, 6, 9}
+        });
+    }
+
+    @Test
+    public void testSubViewElements() {
+
+        final ByteMatrix a = newSparseMatrix();
+        final ByteMatrix b = LinearAlgebra.BASIC2D_FACTORY.createMatrix(new byte[][] {
+                                                                                      {4, 0, 5},
+                                                                                      {0, 7, 0}
+        });
+
+        final ByteMatrix view = new SubByteMatrixView(a, 1, 3, 1, 4);
+        assertEquals(b, view);
+        assertEquals(b, view.copy());
+        assertEquals(2, view.nonZerosInRow(0));
+        assertEquals(1, view.nonZerosInRow(0, 1, 3));
+    }
+
+    @Test
+    public void testSubViewCopyNonZerosInRow() {
+
+        final ByteMatrix view = new SubByteMatrixView(newSparseMatrix(), 1, 4, 1, 5);
+        final int[] positions = new int[4];
+        final byte[] values = new byte[4];
+
+        final int nonZeros = view.copyNonZerosInRow(2, positions, values);
+        assertEquals(2, nonZeros);
+        assertArrayEquals(new int[] {2, 3}, Arrays.copyOf(positions, nonZeros));
+        assertArrayEquals(new byte[] {6, 9}, Arrays.copyOf(values, nonZeros));
+
+        assertEquals(1, view.copyNonZerosInRow(2, positions, values, 3, 4));
+        assertEquals(3, positions[0]);
+        assertEquals(9, values[0]);
+    }
+
+    @Test
+    public void testSubViewWritesThrough() {
+
+        final ByteMatrix a = newSparseMatrix();
+        final ByteMatrix expected = a.copy();
+        final ByteMatrix view = new SubByteMatrixView(a, 1, 4, 1, 4);
+
+        view.set(1, 0, (byte)10);
+        expected.set(2, 1, (byte)10);
+        assertEquals(expected, a);
+
+        view.addRowsInPlace((byte)3, 0, 2, 1, 3);
+        expected.addRowsInPlace((byte)3, 1, 3, 2, 4);
+        assertEquals(expected, a);
+
+        view.divideRowInPlace(1, (byte)7);
+        expected.divideRowInPlace(2, (byte)7, 1, 4);
+        assertEquals(expected, a);
+    }
+
+    @Test
+    public void testPermutedViewFollowsSwaps() {
+
+        final Random rand = TestingCommon.newSeededRandom();
+        final ByteMatrix a = LinearAlgebra.CRS_FACTORY.createRandomMatrix(13, 21, rand);
+        final ByteMatrix original = a.copy();
+        final ByteMatrix expected = a.copy();
+        final ByteMatrix view = new PermutedByteMatrixView(a);
+
+        for (int n = 0; n < 100; n++) {
+            final int i = rand.nextInt(a.rows());
+            final int j = rand.nextInt(a.rows());
+            expected.swapRows(i, j);
+            view.swapRows(i, j);
+
+            final int k = rand.nextInt(a.columns());
+            final int l = rand.nextInt(a.columns());
+            expected.swapColumns(k, l);
+            view.swapColumns(k, l);
+        }
+
+        assertEquals(expected, view);
+        assertEquals(expected, view.copy());
+        assertEquals(original, a);
+
+        final int[] positions = new int[a.columns()];
+        final byte[] values = new byte[a.columns()];
+        final int[] expPositions = new int[a.columns()];
+        final byte[] expValues = new byte[a.columns()];
+        for (int i = 0; i < a.rows(); i++) {
+            assertEquals(expected.nonZerosInRow(i), view.nonZerosInRow(i));
+            assertEquals(expected.nonZerosInRow(i, 3, 17), view.nonZerosInRow(i, 3, 17));
+
+            final int expNonZeros = expected.copyNonZerosInRow(i, expPositions, expValues, 3, 17);
+            final int nonZeros = view.copyNonZerosInRow(i, positions, values, 3, 17);
+            assertEquals(expNonZeros, nonZeros);
+            assertArrayEquals(Arrays.copyOf(expPositions, expNonZeros), Arrays.copyOf(positions, nonZeros));
+            assertArrayEquals(Arrays.copyOf(expValues, expNonZeros), Arrays.copyOf(values, nonZeros));
+        }
+    }
+
+    @Test
+    public void testPermutedViewRowOperations() {
+
+        final Random rand = TestingCommon.newSeededRandom();
+        final ByteMatrix a = LinearAlgebra.CRS_FACTORY.createRandomMatrix(8, 11, rand);
+        final ByteMatrix expected = a.copy();
+        final ByteMatrix view = new PermutedByteMatrixView(a);
+
+        view.swapRows(0, 5);
+        view.swapColumns(2, 9);
+        expected.swapRows(0, 5);
+        expected.swapColumns(2, 9);
+
+        view.addRowsInPlace((byte)6, 0, 3);
+        expected.addRowsInPlace((byte)6, 0, 3);
+        view.divideRowInPlace(3, (byte)5);
+        expected.divideRowInPlace(3, (byte)5);
+
+        assertEquals(expected, view);
+    }
+
+    @Test
+    public void testSubViewOfPermutedView() {
+
+        final ByteMatrix a = newSparseMatrix();
+        final ByteMatrix permuted = new PermutedByteMatrixView(a);
+        permuted.swapRows(0, 3);
+        permuted.swapColumns(0, 4);
+
+        final ByteMatrix b = LinearAlgebra.CRS_FACTORY.createMatrix(new byte[][] {
+                                                                                  {9, 0},
+                                                                                  {0, 4}
+        });
+        assertEquals(b, new SubByteMatrixView(permuted, 0, 2, 0, 2).copy());
+    }
+}
@@ -18,6 +18,7 @@ package net.fec.openrq.util.linearalgebra.matrix;
 
 import net.fec.openrq.util.linearalgebra.matrix.dense.Basic1DByteMatrixTest;
 import net.fec.openrq.util.linearalgebra.matrix.dense.Basic2DByteMatrixTest;
+import net.fec.openrq.util.linearalgebra.matrix.dense.DenseBlockByteMatrixTest;
 import net.fec.openrq.util.linearalgebra.matrix.source.MatrixSourcesTest;
 import net.fec.openrq.util.linearalgebra.matrix.sparse.CCSByteMatrixTest;
 import net.fec.openrq.util.linearalgebra.matrix.sparse.CRSByteMatrixTest;
@@ -31,9 +32,11 @@ import org.junit.runners.Suite.SuiteClasses;
 @SuiteClasses({
                Basic1DByteMatrixTest.class,
                Basic2DByteMatrixTest.class,
+               DenseBlockByteMatrixTest.class,
                MatrixSourcesTest.class,
                CCSByteMatrixTest.class,
-               CRSByteMatrixTest.class
+               CRSByteMatrixTest.class,
+               ByteMatrixViewsTest.class
 })
 public class LinearAlgebraMatrixSuite {
 
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2014 OpenRQ Team
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.fec.openrq.util.linearalgebra.matrix.dense;
+
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import net.fec.openrq.TestingCommon;
+import net.fec.openrq.util.linearalgebra.LinearAlgebra;
+import net.fec.openrq.util.linearalgebra.factory.Basic1DFactory;
+import net.fec.openrq.util.linearalgebra.factory.Factory;
+import net.fec.openrq.util.linearalgebra.matrix.ByteMatrix;
+import net.fec.openrq.util.linearalgebra.matrix.source.MatrixSource;
+
+import org.junit.Test;
+
+
+public class DenseBlockByteMatrixTest extends DenseByteMatrixTest {
+
+    @Override
+    public Factory factory() {
+
+        // creates dense block matrices, and basic 1D matrices when a method is not overridden
+        return new Basic1DFactory() {
+
+            @Override
+            public ByteMatrix createMatrix() {
+
+                return new DenseBlockByteMatrix(0, 0);
+            }
+
+            @Override
+            public ByteMatrix createMatrix(int rows, int columns) {
+
+                return new DenseBlockByteMatrix(rows, columns);
+            }
+
+            @Override
+            public ByteMatrix createMatrix(int rows, int columns, byte[] array) {
+
+                return new DenseBlockByteMatrix(rows, columns, array);
+            }
+
+            @Override
+            public ByteMatrix createMatrix(byte[][] array) {
+
+                return toBlock(super.createMatrix(array));
+            }
+
+            @Override
+            public ByteMatrix createMatrix(ByteMatrix matrix) {
+
+                return toBlock(matrix);
+            }
+
+            @Override
+            public ByteMatrix createMatrix(MatrixSource source) {
+
+                return toBlock(super.createMatrix(source));
+            }
+
+            private ByteMatrix toBlock(ByteMatrix matrix) {
+
+                return DenseBlockByteMatrix.copyOf(matrix, 0, matrix.rows(), 0, matrix.columns());
+            }
+        };
+    }
+
+    @Test
+    public void testCopyOfSparseRegion() {
+
+        final ByteMatrix a = LinearAlgebra.CRS_FACTORY.createMatrix(new byte[][] {
+                                                                                  {1, 0, 2, 0, 0},
+                                                                                  {0, 4, 0, 5, 0},
+                                                                                  {0, 0, 7, 0, 8}
+        });
+        final ByteMatrix b = factory().createMatrix(new byte[][] {
+                                                                  {4, 0, 5},
+                                                                  {0, 7, 0}
+        });
+
+        assertEquals(b, DenseBlockByteMatrix.copyOf(a, 1, 3, 1, 4));
+    }
+
+    @Test
+    public void testRowEliminationsMatchBasicMatrix() {
+
+        final Random rand = TestingCommon.newSeededRandom();
+        final ByteMatrix expected = LinearAlgebra.BASIC1D_FACTORY.createRandomMatrix(16, 37, rand);
+        final ByteMatrix actual = factory().createMatrix(expected);
+
+        for (int n = 0; n < 100; n++) {
+            final int src = rand.nextInt(expected.rows());
+            final int dest = rand.nextInt(expected.rows());
+            final byte value = (byte)rand.nextInt();
+            final int from = rand.nextInt(expected.columns());
+            final int to = from + rand.nextInt(expected.columns() - from + 1);
+
+            if (src != dest) {
+                expected.addRowsInPlace(value, src, dest, from, to);
+                actual.addRowsInPlace(value, src, dest, from, to);
+            }
+            if (value != 0) {
+                expected.divideRowInPlace(dest, value, from, to);
+                actual.divideRowInPlace(dest, value, from, to);
+            }
+            expected.swapRows(src, dest);
+            actual.swapRows(src, dest);
+        }
+
+        assertEquals(expected, actual);
+    }
+}
@@ -36,8 +36,20 @@
 package net.fec.openrq.util.linearalgebra.matrix.sparse;
 
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import net.fec.openrq.TestingCommon;
+import net.fec.openrq.util.linearalgebra.LinearAlgebra;
 import net.fec.openrq.util.linearalgebra.factory.CRSFactory;
 import net.fec.openrq.util.linearalgebra.factory.Factory;
+import net.fec.openrq.util.linearalgebra.matrix.ByteMatrix;
+import net.fec.openrq.util.linearalgebra.matrix.functor.EliminationProcedure;
+import net.fec.openrq.util.math.OctetOps;
+
+import org.junit.Test;
 
 
 public class CRSByteMatrixTest extends SparseByteMatrixTest {
@@ -47,4 +59,112 @@ public class CRSByteMatrixTest extends SparseByteMatrixTest {
 
         return new CRSFactory();
     }
+
+    @Test
+    public void testRowOperationsWithDenseRows() {
+
+        final Random rand = TestingCommon.newSeededRandom();
+        final int rows = 12;
+        final int cols = 40;
+
+        // start with a very sparse matrix, whose rows become dense after a few additions
+        final ByteMatrix expected = LinearAlgebra.BASIC2D_FACTORY.createMatrix(rows, cols);
+        for (int i = 0; i < rows; i++) {
+            expected.set(i, rand.nextInt(cols), (byte)(1 + rand.nextInt(255)));
+        }
+        final ByteMatrix actual = factory().createMatrix(expected);
+
+        for (int n = 0; n < 200; n++) {
+            final int src = rand.nextInt(rows);
+            final int dest = rand.nextInt(rows);
+            final byte value = (byte)(1 + rand.nextInt(255));
+            final int from = rand.nextInt(cols);
+            final int to = from + rand.nextInt(cols - from + 1);
+
+            if (src != dest) {
+                if (rand.nextBoolean()) {
+                    expected.addRowsInPlace(value, src, dest);
+                    actual.addRowsInPlace(value, src, dest);
+                }
+                else {
+                    expected.addRowsInPlace(value, src, dest, from, to);
+                    actual.addRowsInPlace(value, src, dest, from, to);
+                }
+            }
+            expected.divideRowInPlace(dest, value);
+            actual.divideRowInPlace(dest, value);
+            expected.swapRows(src, dest);
+            actual.swapRows(src, dest);
+            if (n % 50 == 49) {
+                expected.clearRow(src);
+                actual.clearRow(src);
+            }
+
+            assertEquals(expected, actual);
+        }
+
+        // leave a single non zero in the first row, so that it becomes sparse again
+        for (int j = 1; j < cols; j++) {
+            expected.set(0, j, (byte)0);
+            actual.set(0, j, (byte)0);
+        }
+        expected.set(0, 0, (byte)1);
+        actual.set(0, 0, (byte)1);
+
+        final ByteMatrix copy = actual.copy();
+        assertEquals(expected, copy);
+        for (int i = 0; i < rows; i++) {
+            assertEquals(expected.nonZerosInRow(i), copy.nonZerosInRow(i));
+            assertArrayEquals(expected.nonZeroPositionsInRow(i), copy.nonZeroPositionsInRow(i));
+        }
+    }
+
+    @Test
+    public void testEliminateColumnWithDenseRows() {
+
+        final Random rand = TestingCommon.newSeededRandom();
+        final int rows = 20;
+        final int cols = 40;
+
+        // a sparse pivot row, and a mix of sparse and dense rows below it
+        final ByteMatrix expected = LinearAlgebra.BASIC2D_FACTORY.createMatrix(rows, cols);
+        expected.set(0, 0, (byte)(1 + rand.nextInt(255)));
+        for (int n = 0; n < 5; n++) {
+            expected.set(0, rand.nextInt(cols), (byte)(1 + rand.nextInt(255)));
+        }
+        for (int i = 1; i < rows; i++) {
+            final int nonZeros = (i % 2 == 0) ? cols : 3;
+            for (int n = 0; n < nonZeros; n++) {
+                expected.set(i, rand.nextInt(cols), (byte)(1 + rand.nextInt(255)));
+            }
+        }
+
+        // the filled-in rows are promoted to dense storage when the pivot row is added to them
+        final ByteMatrix actual = factory().createMatrix(expected);
+
+        final int[] count = new int[1];
+        actual.eliminateColumn(0, 0, 1, rows, new EliminationProcedure() {
+
+            @Override
+            public void apply(int i, byte multiplier) {
+
+                count[0]++;
+            }
+        });
+
+        int expectedCount = 0;
+        for (int i = 1; i < rows; i++) {
+            final byte beta = expected.get(i, 0);
+            if (beta != 0) {
+                expected.addRowsInPlace(OctetOps.aDividedByB(beta, expected.get(0, 0)), 0, i);
+                expectedCount++;
+            }
+        }
+
+        assertEquals(expected, actual);
+        assertEquals(expectedCount, count[0]);
+        for (int i = 1; i < rows; i++) {
+            assertEquals(0, actual.get(i, 0));
+        }
+    }
 }
@@ -36,9 +36,16 @@
 package net.fec.openrq.util.linearalgebra.matrix.sparse;
 
 
+import static net.fec.openrq.util.math.OctetOps.aPlusB;
 import static net.fec.openrq.util.math.OctetOps.aTimesB;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import net.fec.openrq.TestingCommon;
+import net.fec.openrq.util.linearalgebra.LinearAlgebra;
+import net.fec.openrq.util.linearalgebra.factory.Factory;
 import net.fec.openrq.util.linearalgebra.matrix.AbstractByteMatrixTest;
 import net.fec.openrq.util.linearalgebra.matrix.ByteMatrix;
 
@@ -130,4 +137,69 @@ public abstract class SparseByteMatrixTest extends AbstractByteMatrixTest {
             a.set(row, 1, (byte)3);
         }
     }
+
+    @Test
+    public void testSparseProductInRangeWithDifferentOffsets() {
+
+        final Random rand = TestingCommon.newSeededRandom();
+        final ByteMatrix a = newRandomSparseMatrix(rand, factory(), 30, 40);
+        final ByteMatrix b = newRandomSparseMatrix(rand, factory(), 50, 20);
+
+        // multiply a[3..27][5..35] by b[12..42][2..19]
+        final ByteMatrix expected = LinearAlgebra.BASIC2D_FACTORY.createMatrix(24, 17);
+        for (int i = 0; i < 24; i++) {
+            for (int j = 0; j < 17; j++) {
+                byte acc = 0;
+                for (int k = 0; k < 30; k++) {
+                    acc = aPlusB(acc, aTimesB(a.get(3 + i, 5 + k), b.get(12 + k, 2 + j)));
+                }
+                expected.set(i, j, acc);
+            }
+        }
+
+        assertEquals(expected, a.multiply(b, 3, 27, 5, 35, 12, 42, 2, 19));
+        assertEquals(expected, a.multiply(b, 3, 27, 5, 35, 12, 42, 2, 19, LinearAlgebra.BASIC2D_FACTORY));
+        assertEquals(expected, a.multiply(b, 3, 27, 5, 35, 12, 42, 2, 19, LinearAlgebra.CCS_FACTORY));
+        assertEquals(expected, a.multiply(LinearAlgebra.BASIC2D_FACTORY.createMatrix(b), 3, 27, 5, 35, 12, 42, 2, 19));
+    }
+
+    @Test
+    public void testTransposeAndConversionBetweenCompressedFormats() {
+
+        final Random rand = TestingCommon.newSeededRandom();
+        final ByteMatrix a = newRandomSparseMatrix(rand, factory(), 35, 25);
+
+        final ByteMatrix expectedTransposed = LinearAlgebra.BASIC2D_FACTORY.createMatrix(25, 35);
+        for (int i = 0; i < 35; i++) {
+            for (int j = 0; j < 25; j++) {
+                expectedTransposed.set(j, i, a.get(i, j));
+            }
+        }
+
+        final Factory[] factories = {LinearAlgebra.CRS_FACTORY, LinearAlgebra.CCS_FACTORY,
+                                     LinearAlgebra.BASIC2D_FACTORY};
+        for (Factory factory : factories) {
+            assertEquals(a, factory.createMatrix(a));
+            assertEquals(expectedTransposed, a.transpose(factory));
+            assertEquals(a, a.transpose(factory).transpose(factory()));
+        }
+
+        final ByteMatrix roundTrip = factory().createMatrix(
+            LinearAlgebra.CCS_FACTORY.createMatrix(LinearAlgebra.CRS_FACTORY.createMatrix(a)));
+        assertEquals(a, roundTrip);
+        for (int i = 0; i < 35; i++) {
+            assertEquals(a.nonZerosInRow(i), roundTrip.nonZerosInRow(i));
+        }
+    }
+
+    private static ByteMatrix newRandomSparseMatrix(Random rand, Factory factory, int rows, int columns) {
+
+        final ByteMatrix matrix = factory.createMatrix(rows, columns);
+        for (int n = 0; n < (rows * columns) / 8; n++) {
+            final int value = rand.nextInt(4) == 0 ? 1 + rand.nextInt(255) : 1; // mostly ones, as in RaptorQ
+            matrix.set(rand.nextInt(rows), rand.nextInt(columns), (byte)value);
+        }
+
+        return matrix;
+    }
 }
@@ -48,6 +48,7 @@ import java.util.Arrays;
 import net.fec.openrq.util.linearalgebra.factory.Factory;
 import net.fec.openrq.util.linearalgebra.io.ByteVectorIterator;
 import net.fec.openrq.util.linearalgebra.matrix.ByteMatrix;
+import net.fec.openrq.util.linearalgebra.matrix.functor.MatrixProcedure;
 import net.fec.openrq.util.linearalgebra.serialize.DeserializationException;
 import net.fec.openrq.util.linearalgebra.vector.functor.VectorAccumulator;
 import net.fec.openrq.util.linearalgebra.vector.functor.VectorFunction;
@@ -885,6 +886,23 @@ public abstract class AbstractByteVectorTest {
         }
     }
 
+    private static final class MatrixSetterProcedure implements MatrixProcedure {
+
+        private final ByteMatrix matrix;
+
+
+        MatrixSetterProcedure(ByteMatrix matrix) {
+
+            this.matrix = matrix;
+        }
+
+        @Override
+        public void apply(int i, int j, byte value) {
+
+            matrix.set(i, j, value);
+        }
+    }
+
 
     @Test
     public void testEach() {
@@ -1234,6 +1252,87 @@ public abstract class AbstractByteVectorTest {
         assertEquals(c, b);
     }
 
+    @Test
+    public void testEachNonZeroAsRow() {
+
+        final ByteVector initial = factory().createVector(new byte[] {7, 0, 0, 7, 7});
+
+        final ByteVector a = initial.copy();
+        final ByteMatrix b = factory().createMatrix(3, 5);
+        final ByteMatrix c = factory().createMatrix(new byte[][] {
+                                                                  {0, 0, 0, 0, 0},
+                                                                  {0, 0, 0, 0, 0},
+                                                                  {7, 0, 0, 7, 7}
+        });
+
+        a.eachNonZeroAsRow(2, new MatrixSetterProcedure(b));
+
+        assertEquals(initial, a); // check if each wrongly modifies the caller vector
+        assertEquals(c, b);
+    }
+
+    @Test
+    public void testEachNonZeroAsRowInRangeOf_2_to_4() {
+
+        final ByteVector initial = factory().createVector(new byte[] {7, 0, 0, 7, 7});
+
+        final ByteVector a = initial.copy();
+        final ByteMatrix b = factory().createMatrix(2, 5);
+        final ByteMatrix c = factory().createMatrix(new byte[][] {
+                                                                  {0, 0, 0, 0, 0},
+                                                                  {0, 0, 0, 7, 0}
+        });
+
+        a.eachNonZeroAsRow(1, new MatrixSetterProcedure(b), 2, 4);
+
+        assertEquals(initial, a); // check if each wrongly modifies the caller vector
+        assertEquals(c, b);
+    }
+
+    @Test
+    public void testEachNonZeroAsRowInRangeOf_5_to_5() {
+
+        final ByteVector a = factory().createVector(new byte[] {7, 0, 0, 7, 7});
+        final ByteMatrix b = factory().createMatrix(1, 5);
+
+        a.eachNonZeroAsRow(0, new MatrixSetterProcedure(b), 5, 5);
+
+        assertEquals(factory().createMatrix(1, 5), b);
+    }
+
+    @Test
+    public void testCopyNonZeros() {
+
+        final ByteVector a = factory().createVector(new byte[] {7, 0, 0, 5, 9});
+
+        final int[] positions = new int[5];
+        final byte[] values = new byte[5];
+
+        assertEquals(3, a.copyNonZeros(positions, values));
+        assertTrue(Arrays.equals(new int[] {0, 3, 4}, Arrays.copyOf(positions, 3)));
+        assertTrue(Arrays.equals(new byte[] {7, 5, 9}, Arrays.copyOf(values, 3)));
+
+        assertEquals(0, factory().createVector(4).copyNonZeros(positions, values));
+    }
+
+    @Test
+    public void testCopyNonZerosInRangeOf_1_to_4() {
+
+        final ByteVector a = factory().createVector(new byte[] {7, 0, 0, 5, 9});
+
+        final int[] positions = new int[5];
+        final byte[] values = new byte[5];
+
+        assertEquals(1, a.copyNonZeros(positions, values, 1, 4));
+        assertEquals(3, positions[0]);
+        assertEquals(5, values[0]);
+
+        assertEquals(2, a.copyNonZeros(positions, null, 3, 5));
+        assertTrue(Arrays.equals(new int[] {3, 4}, Arrays.copyOf(positions, 2)));
+
+        assertEquals(0, a.copyNonZeros(positions, values, 1, 3));
+    }
+
     @Test
     public void testUpdateNonZero() {
 